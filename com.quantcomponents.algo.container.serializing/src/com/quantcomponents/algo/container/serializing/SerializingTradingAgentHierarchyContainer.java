@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Date;
@@ -31,16 +32,23 @@ import com.quantcomponents.algo.IHierarchyItemHandle;
 import com.quantcomponents.algo.ITradingAgentExecution;
 import com.quantcomponents.algo.ITradingAgentFactory;
 import com.quantcomponents.algo.MemoryTradingAgentHierarchyContainer;
+import com.quantcomponents.algo.OrderPointCodec;
+import com.quantcomponents.algo.PositionPointCodec;
+import com.quantcomponents.algo.TradePointCodec;
+import com.quantcomponents.algo.TradeStatsPointCodec;
 import com.quantcomponents.algo.TradingAgentBinding;
 import com.quantcomponents.algo.TradingAgentBindingHandle;
 import com.quantcomponents.algo.TradingAgentConfiguration;
 import com.quantcomponents.algo.TradingAgentConfigurationHandle;
 import com.quantcomponents.algo.TradingAgentExecutionHandle;
 import com.quantcomponents.algo.TradingAgentFactoryHandle;
+import com.quantcomponents.core.codec.SeriesCodec;
 import com.quantcomponents.core.model.ISeries;
 import com.quantcomponents.core.model.ISeriesAugmentable;
 import com.quantcomponents.core.model.ISeriesPoint;
 import com.quantcomponents.marketdata.IMarketDataManager;
+import com.quantcomponents.marketdata.OHLCPointCodec;
+import com.quantcomponents.marketdata.TickPointCodec;
 
 public class SerializingTradingAgentHierarchyContainer extends MemoryTradingAgentHierarchyContainer {
 	
@@ -52,11 +60,47 @@ public class SerializingTradingAgentHierarchyContainer extends MemoryTradingAgen
 	
 	private static class ExecutionPersistentData implements Serializable {
 		private static final long serialVersionUID = 6022916144134872069L;
+		// the output series is written with the series codec after the fields: files written by previous versions
+		// contain the serialized series in the 'outputSeries' field instead, and no 'encodedOutput' field
+		private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("inputSeriesNames", Map.class),
+			new ObjectStreamField("outputSeries", ISeries.class),
+			new ObjectStreamField("encodedOutput", boolean.class) };
 		Map<String, String> inputSeriesNames = new HashMap<String, String>(); 
 		ISeries<Date, Double, ISeriesPoint<Date, Double>> outputSeries;
+		
+		private void writeObject(ObjectOutputStream out) throws IOException {
+			ObjectOutputStream.PutField fields = out.putFields();
+			fields.put("inputSeriesNames", inputSeriesNames);
+			fields.put("outputSeries", null);
+			fields.put("encodedOutput", outputSeries != null);
+			out.writeFields();
+			if (outputSeries != null) {
+				outputSeriesCodec.write(outputSeries, out);
+			}
+		}
+		
+		@SuppressWarnings("unchecked")
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			ObjectInputStream.GetField fields = in.readFields();
+			inputSeriesNames = (Map<String, String>) fields.get("inputSeriesNames", null);
+			outputSeries = (ISeries<Date, Double, ISeriesPoint<Date, Double>>) fields.get("outputSeries", null);
+			if (fields.get("encodedOutput", false)) {
+				outputSeries = outputSeriesCodec.read(in, ExecutionPersistentData.class.getClassLoader());
+			}
+		}
 	}
 	
 	private static final Logger logger = Logger.getLogger(SerializingTradingAgentHierarchyContainer.class.getName());
+	private static final SeriesCodec outputSeriesCodec = new SeriesCodec();
+	static {
+		outputSeriesCodec.register(new OrderPointCodec());
+		outputSeriesCodec.register(new TradePointCodec());
+		outputSeriesCodec.register(new PositionPointCodec());
+		outputSeriesCodec.register(new TradeStatsPointCodec());
+		outputSeriesCodec.register(new OHLCPointCodec());
+		outputSeriesCodec.register(new TickPointCodec());
+	}
 	public static final String DEFAULT_PERSISTENCE_DIR_NAME = ".";
 	public static final String PERSISTENCE_DIR_NAME_KEY = "persistence.directory";
 	private volatile IMarketDataManager marketDataManager;
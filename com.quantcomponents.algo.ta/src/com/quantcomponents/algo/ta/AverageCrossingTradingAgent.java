@@ -28,9 +28,11 @@ import com.quantcomponents.core.model.ISeriesListener;
 import com.quantcomponents.core.model.ISeriesPoint;
 import com.quantcomponents.core.model.OrderSide;
 import com.quantcomponents.core.model.OrderType;
+import com.quantcomponents.marketdata.IOHLCCursor;
 import com.quantcomponents.marketdata.IOHLCPoint;
 import com.quantcomponents.marketdata.IOHLCTimeSeries;
-import com.quantcomponents.marketdata.TimeSeriesTail;
+import com.quantcomponents.marketdata.SeriesCursors;
+import com.quantcomponents.marketdata.TimeSeriesWindow;
 
 /**
  * A trivial example of a trend following trading strategy.
@@ -55,9 +57,12 @@ public class AverageCrossingTradingAgent implements ITradingAgent, ISeriesListen
 	// configuration values
 	private final int positionSize;
 	private final boolean ignoreLastPeriod;
-	// tail operators
-	private final TimeSeriesTail<IOHLCPoint> shortAveragingTail;
-	private final TimeSeriesTail<IOHLCPoint> longAveragingTail;
+	private final ITradingSchedule tradingSchedule;
+	private final int shortAveragePeriods;
+	private final int longAveragePeriods;
+	// windows over the input series, updated incrementally while running
+	private volatile TimeSeriesWindow<IOHLCPoint> shortAveragingWindow;
+	private volatile TimeSeriesWindow<IOHLCPoint> longAveragingWindow;
 	// input/output
 	private volatile IOrderReceiver orderReceiver;
 	private volatile IOHLCTimeSeries stockTimeSeries;
@@ -74,9 +79,9 @@ public class AverageCrossingTradingAgent implements ITradingAgent, ISeriesListen
 			shortAveragePeriods++;
 			longAveragePeriods++;
 		}
-		ITradingSchedule tradingSchedule = new CalendarTradingSchedule(tradingCalendar);
-		shortAveragingTail = new TimeSeriesTail<IOHLCPoint>(tradingSchedule, shortAveragePeriods);
-		longAveragingTail = new TimeSeriesTail<IOHLCPoint>(tradingSchedule, longAveragePeriods);
+		this.shortAveragePeriods = shortAveragePeriods;
+		this.longAveragePeriods = longAveragePeriods;
+		tradingSchedule = new CalendarTradingSchedule(tradingCalendar);
 	}
 
 	@Override
@@ -135,6 +140,9 @@ public class AverageCrossingTradingAgent implements ITradingAgent, ISeriesListen
 			}
 			runningStatus = RunningStatus.RUNNING;
 		}
+		// the windows are added as listeners before this agent, so that they are up to date when it is notified
+		shortAveragingWindow = TimeSeriesWindow.tail(stockTimeSeries, tradingSchedule, shortAveragePeriods);
+		longAveragingWindow = TimeSeriesWindow.tail(stockTimeSeries, tradingSchedule, longAveragePeriods);
 		stockTimeSeries.addSeriesListener(this);
 		try {
 			while (!Thread.interrupted() && runningStatus != RunningStatus.TERMINATED) {
@@ -151,6 +159,8 @@ public class AverageCrossingTradingAgent implements ITradingAgent, ISeriesListen
 			}
 		}
 		stockTimeSeries.removeSeriesListener(this);
+		shortAveragingWindow.close();
+		longAveragingWindow.close();
 	}
 
 	@Override
@@ -193,7 +203,7 @@ public class AverageCrossingTradingAgent implements ITradingAgent, ISeriesListen
 	@Override
 	public void onPositionUpdate(IContract contract, IPosition position) { }
 
-	private double calculateMovingAverage(ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> timeSeries, boolean ignoreLastPeriod) {
+	private double calculateMovingAverage(ISeries<Date, Double, IOHLCPoint> timeSeries, boolean ignoreLastPeriod) {
 		double result;
 		int actualNumberOfPeriods = timeSeries.size();
 		if (ignoreLastPeriod) {
@@ -201,12 +211,9 @@ public class AverageCrossingTradingAgent implements ITradingAgent, ISeriesListen
 		}
 		double totalSum = 0.0;
 		int currentPeriod = 0;
-		for (ISeriesPoint<Date, Double> point : timeSeries) {
-			if (currentPeriod >= actualNumberOfPeriods) {
-				break;
-			}
-			IOHLCPoint bar = (IOHLCPoint) point;
-			totalSum += bar.getClose();
+		IOHLCCursor cursor = SeriesCursors.ohlcCursor(timeSeries);
+		while (currentPeriod < actualNumberOfPeriods && cursor.advance()) {
+			totalSum += cursor.close();
 			currentPeriod++;
 		}
 		result = totalSum / currentPeriod;
@@ -214,14 +221,15 @@ public class AverageCrossingTradingAgent implements ITradingAgent, ISeriesListen
 	}
 	
 	private void updatePosition() {
-		if (stockTimeSeries != null && orderReceiver != null) {
+		if (stockTimeSeries != null && orderReceiver != null && shortAveragingWindow != null) {
 			if (stockTimeSeries.size() < 2) {
 			if (stockTimeSeries.size() < 1 || ignoreLastPeriod) {
 				return;
 			}
 		}
-		ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> shortTail = (ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>>) shortAveragingTail.transform(stockTimeSeries);
-		ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> longTail = (ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>>) longAveragingTail.transform(stockTimeSeries);
+		// consistent snapshots of the windows, taken without copying
+		ISeries<Date, Double, IOHLCPoint> shortTail = shortAveragingWindow.subSeries(null, null);
+		ISeries<Date, Double, IOHLCPoint> longTail = longAveragingWindow.subSeries(null, null);
 		double shortAverageResult = calculateMovingAverage(shortTail, ignoreLastPeriod);
 		double longAverageResult = calculateMovingAverage(longTail, ignoreLastPeriod);
 		int deltaPosition = 0;
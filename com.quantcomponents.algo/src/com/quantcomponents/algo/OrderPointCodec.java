@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.algo;
+
+import java.io.IOException;
+
+import com.quantcomponents.core.codec.CodecInput;
+import com.quantcomponents.core.codec.CodecOutput;
+import com.quantcomponents.core.codec.IPointCodec;
+import com.quantcomponents.core.model.IContract;
+import com.quantcomponents.core.model.OrderSide;
+import com.quantcomponents.core.model.OrderType;
+
+/**
+ * Binary codec for {@link OrderPoint}.
+ * Contracts are written with Java serialization, once per stream
+ */
+public class OrderPointCodec implements IPointCodec<OrderPoint> {
+	public static final String TYPE_NAME = "OrderPoint";
+	private static final int VERSION = 1;
+
+	@Override
+	public String getTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public Class<OrderPoint> getPointClass() {
+		return OrderPoint.class;
+	}
+
+	@Override
+	public void write(OrderPoint point, CodecOutput out) throws IOException {
+		out.writeDate(point.getIndex());
+		writeOrder(point.getOrder(), out);
+	}
+
+	@Override
+	public OrderPoint read(CodecInput in, int version) throws IOException {
+		if (version != VERSION) {
+			throw new IOException("Unsupported version: " + version + " of type: " + TYPE_NAME);
+		}
+		return new OrderPoint(in.readDate(), readOrder(in));
+	}
+
+	static void writeOrder(IOrder order, CodecOutput out) throws IOException {
+		out.writeBoolean(order != null);
+		if (order != null) {
+			out.writeString(order.getId());
+			out.writeObject(order.getContract());
+			out.writeEnum(order.getSide());
+			out.writeEnum(order.getType());
+			out.writeInt(order.getAmount());
+			out.writeDouble(order.getLimitPrice());
+			out.writeDouble(order.getAuxPrice());
+		}
+	}
+
+	static OrderBean readOrder(CodecInput in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		String id = in.readString();
+		Object contract = in.readObject();
+		if (contract != null && !(contract instanceof IContract)) {
+			throw new IOException("Not a contract: " + contract);
+		}
+		OrderBean order = new OrderBean((IContract) contract, in.readEnum(OrderSide.class), in.readEnum(OrderType.class), in.readInt(), in.readNullableDouble(), in.readNullableDouble());
+		order.setId(id);
+		return order;
+	}
+}
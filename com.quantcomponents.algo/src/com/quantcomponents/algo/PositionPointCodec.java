@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.algo;
+
+import java.io.IOException;
+
+import com.quantcomponents.core.codec.CodecInput;
+import com.quantcomponents.core.codec.CodecOutput;
+import com.quantcomponents.core.codec.IPointCodec;
+import com.quantcomponents.core.model.IContract;
+
+/**
+ * Binary codec for {@link PositionPoint}.
+ * Contracts are written with Java serialization, once per stream
+ */
+public class PositionPointCodec implements IPointCodec<PositionPoint> {
+	public static final String TYPE_NAME = "PositionPoint";
+	private static final int VERSION = 1;
+
+	@Override
+	public String getTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public Class<PositionPoint> getPointClass() {
+		return PositionPoint.class;
+	}
+
+	@Override
+	public void write(PositionPoint point, CodecOutput out) throws IOException {
+		IPosition position = point.getPosition();
+		out.writeObject(point.getContract());
+		out.writeDate(position.getTimestamp());
+		out.writeDouble(position.getSignedAmount());
+		out.writeDouble(position.getMarketPrice());
+		out.writeDouble(position.getMarketValue());
+		out.writeDouble(position.getAveragePrice());
+		out.writeDouble(position.getUnrealizedPnl());
+		out.writeDouble(position.getRealizedPnl());
+	}
+
+	@Override
+	public PositionPoint read(CodecInput in, int version) throws IOException {
+		if (version != VERSION) {
+			throw new IOException("Unsupported version: " + version + " of type: " + TYPE_NAME);
+		}
+		Object contract = in.readObject();
+		if (contract != null && !(contract instanceof IContract)) {
+			throw new IOException("Not a contract: " + contract);
+		}
+		PositionBean position = new PositionBean(in.readDate(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+		return new PositionPoint((IContract) contract, position);
+	}
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.algo;
+
+import java.io.IOException;
+
+import com.quantcomponents.core.codec.CodecInput;
+import com.quantcomponents.core.codec.CodecOutput;
+import com.quantcomponents.core.codec.IPointCodec;
+
+/**
+ * Binary codec for {@link TradePoint}
+ */
+public class TradePointCodec implements IPointCodec<TradePoint> {
+	public static final String TYPE_NAME = "TradePoint";
+	private static final int VERSION = 1;
+
+	@Override
+	public String getTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public Class<TradePoint> getPointClass() {
+		return TradePoint.class;
+	}
+
+	@Override
+	public void write(TradePoint point, CodecOutput out) throws IOException {
+		out.writeDate(point.getIndex());
+		writeTrade(point.getTrade(), out);
+	}
+
+	@Override
+	public TradePoint read(CodecInput in, int version) throws IOException {
+		if (version != VERSION) {
+			throw new IOException("Unsupported version: " + version + " of type: " + TYPE_NAME);
+		}
+		return new TradePoint(in.readDate(), readTrade(in));
+	}
+
+	static void writeTrade(ITrade trade, CodecOutput out) throws IOException {
+		out.writeBoolean(trade != null);
+		if (trade != null) {
+			OrderPointCodec.writeOrder(trade.getOrder(), out);
+			out.writeString(trade.getExchange());
+			out.writeDate(trade.getExecutionTime());
+			out.writeInt(trade.getAmount());
+			out.writeDouble(trade.getExecutionPrice());
+			out.writeDouble(trade.getAveragePrice());
+		}
+	}
+
+	static TradeBean readTrade(CodecInput in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		return new TradeBean(OrderPointCodec.readOrder(in), in.readString(), in.readDate(), in.readInt(), in.readDouble(), in.readDouble());
+	}
+}
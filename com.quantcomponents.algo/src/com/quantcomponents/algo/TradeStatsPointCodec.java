@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.algo;
+
+import java.io.IOException;
+
+import com.quantcomponents.core.codec.CodecInput;
+import com.quantcomponents.core.codec.CodecOutput;
+import com.quantcomponents.core.codec.IPointCodec;
+
+/**
+ * Binary codec for {@link TradeStatsPoint}
+ */
+public class TradeStatsPointCodec implements IPointCodec<TradeStatsPoint> {
+	public static final String TYPE_NAME = "TradeStatsPoint";
+	private static final int VERSION = 1;
+
+	@Override
+	public String getTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public Class<TradeStatsPoint> getPointClass() {
+		return TradeStatsPoint.class;
+	}
+
+	@Override
+	public void write(TradeStatsPoint point, CodecOutput out) throws IOException {
+		TradePointCodec.writeTrade(point.getTrade(), out);
+		out.writeDate(point.getTradeStart());
+		out.writeDate(point.getTradeEnd());
+		out.writeDouble(point.getMaxFavorableExcursion());
+		out.writeDouble(point.getMaxAdverseExcursion());
+		out.writeDouble(point.getTradePnl());
+	}
+
+	@Override
+	public TradeStatsPoint read(CodecInput in, int version) throws IOException {
+		if (version != VERSION) {
+			throw new IOException("Unsupported version: " + version + " of type: " + TYPE_NAME);
+		}
+		TradeStatsPoint point = new TradeStatsPoint(TradePointCodec.readTrade(in), in.readDate());
+		point.setTradeEnd(in.readDate());
+		point.setMaxFavorableExcursion(in.readDouble());
+		point.setMaxAdverseExcursion(in.readDouble());
+		point.setTradePnl(in.readDouble());
+		return point;
+	}
+}
@@ -20,6 +20,8 @@ import com.quantcomponents.chart.IAxis;
 import com.quantcomponents.chart.IChartMetrics;
 import com.quantcomponents.core.model.ISeries;
 import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.marketdata.ISeriesCursor;
+import com.quantcomponents.marketdata.SeriesCursors;
 
 /**
  * This renderer paints a horizontal line for each level in the series, that continues until the next value in the series
@@ -29,7 +31,7 @@ public class LevelSeriesRenderer implements ITimeSeriesRenderer {
 	private static final int DEFAULT_HEIGHT_PIXEL_DISPLACEMENT = 1;
 	private volatile int heightPixelDisplacement = DEFAULT_HEIGHT_PIXEL_DISPLACEMENT;
 	private volatile ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> timeSeries;
-	private volatile ISeriesPoint<Date, Double> lastPointRendered;
+	private volatile Double lastValueRendered;
 	private volatile Color pointColor = DEFAULT_POINT_COLOR;
 	private volatile Integer lastPointIndexPixel;
 	private volatile Integer lastPointValuePixel;
@@ -38,16 +40,23 @@ public class LevelSeriesRenderer implements ITimeSeriesRenderer {
 	public void draw(IChartMetrics<Date, Double> metrics, GC gc) {
 		lastPointIndexPixel = null;
 		lastPointValuePixel = null;
-		ISeriesPoint<Date, Double> tmpLastPoint = null;
-		if (timeSeries != null && !timeSeries.isEmpty()) {
+		ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> series = timeSeries;
+		if (series != null && !series.isEmpty()) {
 			IAxis<Date> xAxis = metrics.xAxis();
-			for (ISeriesPoint<Date, Double> point : timeSeries) {
-				if (xAxis.isValid(point.getIndex())) {
-					renderLevel(point.getIndex(), point.getValue(), metrics, gc);
-					tmpLastPoint = point;
+			ISeriesCursor cursor = SeriesCursors.cursor(series);
+			// the axis does not keep the date: the same instance is reused for all the data-points
+			Date index = new Date();
+			boolean rendered = false;
+			double lastValue = 0.0;
+			while (cursor.advance()) {
+				index.setTime(cursor.indexMillis());
+				if (xAxis.isValid(index)) {
+					lastValue = cursor.value();
+					renderLevel(index, lastValue, metrics, gc);
+					rendered = true;
 				}
 			}
-			lastPointRendered = tmpLastPoint;
+			lastValueRendered = rendered ? lastValue : null;
 		}
 	}
 	
@@ -79,11 +88,7 @@ public class LevelSeriesRenderer implements ITimeSeriesRenderer {
 
 	@Override
 	public Double getCurrentValue() {
-		if (lastPointRendered != null) { 
-			return lastPointRendered.getValue();
-		} else {
-			return null;
-		}
+		return lastValueRendered;
 	}
 	public Color getPointColor() {
 		return pointColor;
@@ -10,42 +10,55 @@
 package com.quantcomponents.chart.series;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import com.quantcomponents.core.calendar.CalendarTradingSchedule;
 import com.quantcomponents.core.calendar.ITradingCalendar;
 import com.quantcomponents.core.calendar.ITradingSchedule;
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
 import com.quantcomponents.core.model.ISeries;
-import com.quantcomponents.core.model.ISeriesListener;
-import com.quantcomponents.core.model.ISeriesOperator;
 import com.quantcomponents.core.model.ISeriesPoint;
-import com.quantcomponents.marketdata.TimeSeriesBetween;
+import com.quantcomponents.core.series.AsyncSeriesListener;
+import com.quantcomponents.core.series.AsyncSeriesListener.OverflowPolicy;
+import com.quantcomponents.core.series.ConflatingSeriesListener;
+import com.quantcomponents.marketdata.ITimeSeries;
 import com.quantcomponents.marketdata.TimeSeriesSince;
-import com.quantcomponents.marketdata.TimeSeriesTail;
+import com.quantcomponents.marketdata.TimeSeriesWindow;
 
 /**
  * Implementation of {@link ITimeSeriesChartModel} for double charts indexed by {@link java.util.Date}
  *
  * @param <P> the type of the data points
  */
-public class TimeSeriesChartModel<P extends ISeriesPoint<Date, Double>> implements ITimeSeriesChartModel<P>, ISeriesListener<Date, Double> {
+public class TimeSeriesChartModel<P extends ISeriesPoint<Date, Double>> implements ITimeSeriesChartModel<P>, IBatchSeriesListener<Date, Double>, IEvictionSeriesListener<Date, Double> {
 	private static final int DEFAULT_NUM_POINTS = 200;
+	private static final long UPDATE_WINDOW_MILLIS = 100L;
 	
 	private final ISeries<Date, Double, P> timeSeries;
 	private final Set<ITimeSeriesChartModelListener<P>> listeners = new CopyOnWriteArraySet<ITimeSeriesChartModelListener<P>>();
 	private ITradingCalendar tradingCalendar;
 	private ITradingSchedule tradingSchedule;
-	private ISeriesOperator<Date, Double, P> currentOperator;
+	// live window over the series: the model listens to the window, which is updated before notifying it
+	private TimeSeriesWindow<P> window;
 	private ISeries<Date, Double, P> data;
+	// version of the window when data has been calculated
+	private long dataVersion;
 	private boolean movingWindow;
 	private volatile boolean suspendUpdates;
+	// the chart is recalculated on a separate thread, not to slow down the data feed
+	private final AsyncSeriesListener<Date, Double> asyncListener;
+	// only the latest state of the updated bars is needed
+	private final ConflatingSeriesListener<Date, Double> seriesListener;
 		
 	public TimeSeriesChartModel(ISeries<Date, Double, P> timeSeries, ITradingCalendar tradingCalendar) {
 		setTradingCalendar(tradingCalendar);
 		this.timeSeries = timeSeries;
-		timeSeries.addSeriesListener(this);
-		currentOperator = new TimeSeriesTail<P>(tradingSchedule, DEFAULT_NUM_POINTS);
+		asyncListener = new AsyncSeriesListener<Date, Double>(this, OverflowPolicy.CONFLATE);
+		seriesListener = new ConflatingSeriesListener<Date, Double>(asyncListener, UPDATE_WINDOW_MILLIS);
+		setWindow(TimeSeriesWindow.tail(sourceTimeSeries(), tradingSchedule, DEFAULT_NUM_POINTS));
 	}
 
 	@Override
@@ -61,15 +74,37 @@ public class TimeSeriesChartModel<P extends ISeriesPoint<Date, Double>> implemen
 			recalculateAndNotify();
 		}
 	}
+
+	@Override
+	public void onItemsAdded(List<? extends ISeriesPoint<Date, Double>> newItems) {
+		if (!suspendUpdates) {
+			recalculateAndNotify();
+		}
+	}
+
+	/**
+	 * The displayed data is recalculated, so that it does not keep the evicted data-points
+	 */
+	@Override
+	public void onItemsEvicted(Date index, int count) {
+		if (!suspendUpdates) {
+			recalculateAndNotify();
+		}
+	}
 	
 	public void dispose() {
-		timeSeries.removeSeriesListener(this);
+		synchronized (this) {
+			window.removeSeriesListener(seriesListener);
+			window.close();
+		}
+		seriesListener.close();
+		asyncListener.close();
 	}
 	
 	@Override
 	public synchronized void setFixedWindow(Date startDate, Date endDate, ITradingCalendar tradingCalendar) {
 		setTradingCalendar(tradingCalendar);
-		currentOperator = new TimeSeriesBetween<P>(tradingSchedule, startDate, endDate);
+		setWindow(TimeSeriesWindow.between(sourceTimeSeries(), tradingSchedule, startDate, endDate));
 		movingWindow = false;
 		data = null;
 	}
@@ -77,7 +112,7 @@ public class TimeSeriesChartModel<P extends ISeriesPoint<Date, Double>> implemen
 	@Override
 	public synchronized void setFixedStartWindow(Date startDate, ITradingCalendar tradingCalendar) {
 		setTradingCalendar(tradingCalendar);
-		currentOperator = new TimeSeriesSince<P>(tradingSchedule, startDate);
+		setWindow(TimeSeriesWindow.since(sourceTimeSeries(), tradingSchedule, startDate));
 		movingWindow = true;
 		data = null;
 	}
@@ -87,7 +122,7 @@ public class TimeSeriesChartModel<P extends ISeriesPoint<Date, Double>> implemen
 		setTradingCalendar(tradingCalendar);
 		TimeSeriesSince<P> tmpOperator = new TimeSeriesSince<P>(tradingSchedule, startDate);
 		ISeries<Date, Double, P> tmpWindow = tmpOperator.transform(timeSeries);
-		currentOperator = new TimeSeriesTail<P>(tradingSchedule, tmpWindow.size());
+		setWindow(TimeSeriesWindow.tail(sourceTimeSeries(), tradingSchedule, tmpWindow.size()));
 		movingWindow = true;
 		data = null;
 	}
@@ -95,7 +130,7 @@ public class TimeSeriesChartModel<P extends ISeriesPoint<Date, Double>> implemen
 	@Override
 	public synchronized void setFixedDurationWindow(int points, ITradingCalendar tradingCalendar) {
 		setTradingCalendar(tradingCalendar);
-		currentOperator = new TimeSeriesTail<P>(tradingSchedule, points);
+		setWindow(TimeSeriesWindow.tail(sourceTimeSeries(), tradingSchedule, points));
 		movingWindow = true;
 		data = null;
 	}
@@ -122,16 +157,42 @@ public class TimeSeriesChartModel<P extends ISeriesPoint<Date, Double>> implemen
 		listeners.remove(listener);
 	}
 	
+	/**
+	 * The data is a snapshot of the window, taken without copying
+	 */
 	private synchronized ISeries<Date, Double, P> recalculate() {
-		int oldSize = 0;
-		data = currentOperator.transform(timeSeries);
-		if (data.size() != oldSize) {
-			oldSize = data.size();
-		}
+		dataVersion = window.getVersion();
+		data = window.subSeries(null, null);
 		return data;
 	}	
-	
+
+	private synchronized boolean isDataUpToDate() {
+		return data != null && dataVersion == window.getVersion();
+	}
+
+	/**
+	 * Must be called with the lock held
+	 */
+	private void setWindow(TimeSeriesWindow<P> newWindow) {
+		if (window != null) {
+			window.removeSeriesListener(seriesListener);
+			window.close();
+		}
+		window = newWindow;
+		window.addSeriesListener(seriesListener);
+	}
+
+	private ITimeSeries<P> sourceTimeSeries() {
+		if (!(timeSeries instanceof ITimeSeries<?>)) {
+			throw new IllegalArgumentException("Only instances of " + ITimeSeries.class.getName() + " can be used");
+		}
+		return (ITimeSeries<P>) timeSeries;
+	}
+
 	private void recalculateAndNotify() {
+		if (isDataUpToDate()) {
+			return; // e.g. a notification already covered by a previous recalculation
+		}
 		ISeries<Date, Double, P> snapshot = recalculate();
 		for (ITimeSeriesChartModelListener<P> listener : listeners) {
 			listener.onModelUpdated(snapshot);
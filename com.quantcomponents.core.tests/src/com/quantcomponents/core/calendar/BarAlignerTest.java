@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.BarSize;
+
+/**
+ * Bars must start at or before the instants they contain, also when the clocks go forward,
+ * and in time zones whose daylight saving shift is not a whole hour
+ */
+public class BarAlignerTest {
+	private static final long HOUR_MILLIS = 60L * 60L * 1000L;
+	// not a divisor of any bar size, to hit all the positions within the bars
+	private static final long STEP_MILLIS = 61007L;
+	private static final String[] TIME_ZONE_IDS = { "America/St_Johns", "Australia/Lord_Howe", "America/New_York", "Europe/Rome", "Australia/Sydney", "Asia/Tehran" };
+
+	@Test
+	public void testSkippedHourWithFractionalShift() {
+		BarAligner stJohns = BarAligner.forTimeZone(TimeZone.getTimeZone("America/St_Johns"));
+		// the clocks went forward at 00:01 local time: the bar of 01:00 starts at the transition
+		assertEquals(1268537460000L, stJohns.align(1268538388632L, BarSize.ONE_HOUR));
+		BarAligner lordHowe = BarAligner.forTimeZone(TimeZone.getTimeZone("Australia/Lord_Howe"));
+		// the clocks went forward by half an hour at 02:00 local time: the bar of 02:20 starts at the transition
+		assertEquals(1759591800000L, lordHowe.align(1759592073121L, BarSize.TWENTY_MINS));
+	}
+
+	@Test
+	public void testAroundTransitions() {
+		for (String timeZoneID : TIME_ZONE_IDS) {
+			TimeZone timeZone = TimeZone.getTimeZone(timeZoneID);
+			BarAligner aligner = BarAligner.forTimeZone(timeZone);
+			Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+			calendar.clear();
+			calendar.set(2009, Calendar.JANUARY, 1);
+			long start = calendar.getTimeInMillis();
+			calendar.set(2026, Calendar.JANUARY, 1);
+			long end = calendar.getTimeInMillis();
+			for (long hour = start; hour < end; hour += HOUR_MILLIS) {
+				if (timeZone.getOffset(hour) != timeZone.getOffset(hour + HOUR_MILLIS)) {
+					checkAlignment(aligner, hour - 5 * HOUR_MILLIS, hour + 6 * HOUR_MILLIS);
+				}
+			}
+		}
+	}
+
+	private static void checkAlignment(BarAligner aligner, long from, long to) {
+		for (BarSize barSize : BarSize.values()) {
+			for (long time = from; time < to; time += STEP_MILLIS) {
+				long alignedTime = aligner.align(time, barSize);
+				String message = aligner.getTimeZone().getID() + " " + barSize + " " + time;
+				assertTrue(message, alignedTime <= time);
+				assertEquals(message, alignedTime, aligner.align(alignedTime, barSize));
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Bulk additions must keep the series sorted, add only the first of the items with the same abscissa,
+ * and notify the added items in ascending order
+ */
+public class AddAllTest {
+
+	@Test
+	public void testLinkedList() {
+		checkAddAll(new LinkedListSeries<Date, Double, SimplePoint>("test", true));
+		checkAddAllToEmpty(new LinkedListSeries<Date, Double, SimplePoint>("test", true));
+		checkUnsorted(new LinkedListSeries<Date, Double, SimplePoint>("test", true));
+	}
+
+	@Test
+	public void testArray() {
+		checkAddAll(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+		checkAddAllToEmpty(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+		checkUnsorted(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+	}
+
+	@Test
+	public void testCompressed() {
+		checkAddAll(new CompressedSeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+		checkAddAllToEmpty(new CompressedSeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+		checkUnsorted(new CompressedSeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+	}
+
+	private static void checkAddAll(IMutableSeries<Date, Double, SimplePoint> series) {
+		for (int i = 5; i < 10; i++) {
+			series.addLast(point(i, 0.0));
+		}
+		List<String> notified = listen(series);
+		// the values tell the duplicates apart
+		series.addAll(Arrays.asList(point(1, 1.0), point(1, 2.0), point(3, 3.0), point(3, 4.0), point(5, 5.0),
+				point(9, 6.0), point(10, 7.0), point(10, 8.0), point(12, 9.0)));
+		assertEquals(Arrays.asList("1=1.0", "3=3.0", "5=0.0", "6=0.0", "7=0.0", "8=0.0", "9=0.0", "10=7.0", "12=9.0"), contents(series));
+		assertEquals(Arrays.asList("1=1.0", "3=3.0", "10=7.0", "12=9.0"), notified);
+	}
+
+	private static void checkAddAllToEmpty(IMutableSeries<Date, Double, SimplePoint> series) {
+		List<String> notified = listen(series);
+		series.addAll(Arrays.asList(point(1, 1.0), point(2, 2.0), point(2, 3.0), point(4, 4.0)));
+		assertEquals(Arrays.asList("1=1.0", "2=2.0", "4=4.0"), contents(series));
+		assertEquals(contents(series), notified);
+	}
+
+	private static void checkUnsorted(IMutableSeries<Date, Double, SimplePoint> series) {
+		series.addLast(point(5, 0.0));
+		List<String> notified = listen(series);
+		try {
+			series.addAll(Arrays.asList(point(1, 1.0), point(3, 3.0), point(2, 2.0), point(6, 6.0)));
+			fail("Unsorted items must be rejected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(Arrays.asList("5=0.0"), contents(series));
+		assertEquals(0, notified.size());
+	}
+
+	private static SimplePoint point(long index, double value) {
+		return new SimplePoint(new Date(index), value);
+	}
+
+	private static List<String> listen(IMutableSeries<Date, Double, SimplePoint> series) {
+		final List<String> notified = new ArrayList<String>();
+		series.addSeriesListener(new ISeriesListener<Date, Double>() {
+			@Override
+			public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+				fail("No item must be updated");
+			}
+
+			@Override
+			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+				notified.add(describe(newItem));
+			}
+		});
+		return notified;
+	}
+
+	private static List<String> contents(IMutableSeries<Date, Double, SimplePoint> series) {
+		List<String> contents = new ArrayList<String>();
+		for (SimplePoint point : series) {
+			contents.add(describe(point));
+		}
+		return contents;
+	}
+
+	private static String describe(ISeriesPoint<Date, Double> point) {
+		return point.getIndex().getTime() + "=" + point.getValue();
+	}
+}
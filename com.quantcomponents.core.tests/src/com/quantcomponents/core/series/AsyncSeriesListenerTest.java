@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.AsyncSeriesListener.OverflowPolicy;
+
+/**
+ * Behavior of {@link AsyncSeriesListener} when the buffer is full, for each {@link OverflowPolicy}
+ */
+public class AsyncSeriesListenerTest {
+	private static final long TIMEOUT_MILLIS = 10000L;
+
+	/**
+	 * Executor running the submitted tasks only when requested by the test
+	 */
+	private static class ManualExecutor implements Executor {
+		private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		void runAll() {
+			while (!tasks.isEmpty()) {
+				tasks.remove(0).run();
+			}
+		}
+	}
+
+	private static class RecordingListener implements ISeriesListener<Date, Double> {
+		final List<String> notifications = Collections.synchronizedList(new ArrayList<String>());
+
+		@Override
+		public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+			notifications.add(describe(existingItem) + ">" + describe(updatedItem));
+		}
+
+		@Override
+		public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+			notifications.add("+" + describe(newItem));
+		}
+	}
+
+	@Test
+	public void testDropOldest() {
+		RecordingListener listener = new RecordingListener();
+		ManualExecutor executor = new ManualExecutor();
+		AsyncSeriesListener<Date, Double> asyncListener = new AsyncSeriesListener<Date, Double>(listener, OverflowPolicy.DROP_OLDEST, 4, executor);
+		for (int i = 0; i < 10; i++) {
+			asyncListener.onItemAdded(point(i, i));
+		}
+		assertEquals(6, asyncListener.getDroppedCount());
+		assertEquals(4, asyncListener.getQueueDepth());
+		executor.runAll();
+		assertEquals(Arrays.asList("+6=6.0", "+7=7.0", "+8=8.0", "+9=9.0"), listener.notifications);
+		assertEquals(4, asyncListener.getDeliveredCount());
+		assertEquals(0, asyncListener.getQueueDepth());
+		asyncListener.close();
+	}
+
+	@Test
+	public void testConflate() {
+		RecordingListener listener = new RecordingListener();
+		ManualExecutor executor = new ManualExecutor();
+		AsyncSeriesListener<Date, Double> asyncListener = new AsyncSeriesListener<Date, Double>(listener, OverflowPolicy.CONFLATE, 16, executor);
+		asyncListener.onItemUpdated(point(1, 0.0), point(1, 1.0));
+		asyncListener.onItemAdded(point(2, 2.0));
+		asyncListener.onItemUpdated(point(1, 1.0), point(1, 3.0));
+		asyncListener.onItemUpdated(point(2, 2.0), point(2, 4.0));
+		asyncListener.onItemUpdated(point(1, 3.0), point(1, 5.0));
+		assertEquals(2, asyncListener.getConflatedCount());
+		assertEquals(3, asyncListener.getQueueDepth());
+		executor.runAll();
+		// the conflated update is delivered in the position of the first one, with its existing data-point
+		assertEquals(Arrays.asList("1=0.0>1=5.0", "+2=2.0", "2=2.0>2=4.0"), listener.notifications);
+		// a delivered update is not conflated anymore
+		asyncListener.onItemUpdated(point(1, 5.0), point(1, 6.0));
+		executor.runAll();
+		assertEquals(2, asyncListener.getConflatedCount());
+		assertEquals("1=5.0>1=6.0", listener.notifications.get(3));
+		assertEquals(0, asyncListener.getDroppedCount());
+		asyncListener.close();
+	}
+
+	@Test
+	public void testMutablePointsAreCopied() {
+		RecordingListener listener = new RecordingListener();
+		ManualExecutor executor = new ManualExecutor();
+		AsyncSeriesListener<Date, Double> asyncListener = new AsyncSeriesListener<Date, Double>(listener, OverflowPolicy.CONFLATE, 16, executor);
+		MutablePoint point = new MutablePoint(new Date(1), 1.0);
+		asyncListener.onItemAdded(point);
+		point.setValue(2.0);
+		asyncListener.onItemUpdated(point(1, 1.0), point);
+		point.setValue(3.0);
+		asyncListener.onItemsAdded(Arrays.asList(point));
+		// changed without notification, while the notifications are queued
+		point.setValue(4.0);
+		executor.runAll();
+		assertEquals(Arrays.asList("+1=1.0", "1=1.0>1=2.0", "+1=3.0"), listener.notifications);
+		asyncListener.close();
+	}
+
+	@Test
+	public void testBlock() throws InterruptedException {
+		final int count = 100;
+		final CountDownLatch release = new CountDownLatch(1);
+		final RecordingListener listener = new RecordingListener() {
+			@Override
+			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.onItemAdded(newItem);
+			}
+		};
+		final AsyncSeriesListener<Date, Double> asyncListener = new AsyncSeriesListener<Date, Double>(listener, OverflowPolicy.BLOCK, 4);
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < count; i++) {
+					asyncListener.onItemAdded(point(i, i));
+				}
+			}
+		});
+		producer.start();
+		// the consumer is blocked by the first notification, and the producer by the full buffer
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (asyncListener.getQueueDepth() < asyncListener.getCapacity() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(asyncListener.getCapacity(), asyncListener.getQueueDepth());
+		assertTrue(producer.isAlive());
+		release.countDown();
+		producer.join(TIMEOUT_MILLIS);
+		deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (asyncListener.getDeliveredCount() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(count, asyncListener.getDeliveredCount());
+		assertEquals(0, asyncListener.getDroppedCount());
+		List<String> expected = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			expected.add("+" + describe(point(i, i)));
+		}
+		assertEquals(expected, listener.notifications);
+		asyncListener.close();
+	}
+
+	private static SimplePoint point(long index, double value) {
+		return new SimplePoint(new Date(index), value);
+	}
+
+	private static String describe(ISeriesPoint<Date, Double> point) {
+		return point.getIndex().getTime() + "=" + point.getValue();
+	}
+}
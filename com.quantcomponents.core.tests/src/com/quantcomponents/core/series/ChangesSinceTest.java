@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.IEvictableSeries;
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.ISeriesChanges;
+import com.quantcomponents.core.model.IVersionedSeries;
+
+/**
+ * Incremental changes must be complete as long as they are in the log, and must be reported as
+ * incomplete when the log has been truncated or has overflowed
+ */
+public class ChangesSinceTest {
+
+	@Test
+	public void testLinkedList() {
+		checkChanges(new LinkedListSeries<Date, Double, SimplePoint>("test", true));
+		checkEviction(new LinkedListSeries<Date, Double, SimplePoint>("test", true));
+		checkClear(new LinkedListSeries<Date, Double, SimplePoint>("test", true));
+		checkOverflow(new LinkedListSeries<Date, Double, SimplePoint>("test", true));
+	}
+
+	@Test
+	public void testArray() {
+		checkChanges(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+		checkEviction(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+		checkClear(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+		checkOverflow(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true));
+	}
+
+	private static <S extends IMutableSeries<Date, Double, SimplePoint> & IVersionedSeries<Date, Double, SimplePoint>> void checkChanges(S series) {
+		fill(series, 0, 10);
+		long version = series.getVersion();
+		// the first call starts the log
+		assertTrue(series.changesSince(version).isComplete());
+		series.updateTail(point(9, -9.0));
+		fill(series, 10, 12);
+		series.updateTail(point(11, -11.0));
+		series.insertFromTail(point(20, 20.0));
+		series.insertFromTail(point(15, 15.0));
+		ISeriesChanges<Date, Double, SimplePoint> changes = series.changesSince(version);
+		assertTrue(changes.isComplete());
+		assertEquals(version, changes.getFromVersion());
+		assertEquals(series.getVersion(), changes.getToVersion());
+		// an addition followed by updates is reported as the addition of the last value
+		assertEquals(Arrays.asList("10=10.0", "11=-11.0", "15=15.0", "20=20.0"), contents(changes.getAddedItems()));
+		assertEquals(Arrays.asList("9=-9.0"), contents(changes.getUpdatedItems()));
+		ISeriesChanges<Date, Double, SimplePoint> noChanges = series.changesSince(changes.getToVersion());
+		assertTrue(noChanges.isComplete());
+		assertTrue(noChanges.getAddedItems().isEmpty());
+		assertTrue(noChanges.getUpdatedItems().isEmpty());
+	}
+
+	private static <S extends IMutableSeries<Date, Double, SimplePoint> & IVersionedSeries<Date, Double, SimplePoint> & IEvictableSeries<Date, Double, SimplePoint>> void checkEviction(S series) {
+		fill(series, 0, 10);
+		long version = series.getVersion();
+		series.changesSince(version);
+		fill(series, 10, 12);
+		series.evictBefore(new Date(5), Integer.MAX_VALUE);
+		assertFalse(series.changesSince(version).isComplete());
+		checkChangesAfterTruncation(series);
+	}
+
+	private static <S extends IMutableSeries<Date, Double, SimplePoint> & IVersionedSeries<Date, Double, SimplePoint>> void checkClear(S series) {
+		fill(series, 0, 10);
+		long version = series.getVersion();
+		series.changesSince(version);
+		fill(series, 10, 12);
+		series.clear();
+		assertFalse(series.changesSince(version).isComplete());
+		checkChangesAfterTruncation(series);
+	}
+
+	private static <S extends IMutableSeries<Date, Double, SimplePoint> & IVersionedSeries<Date, Double, SimplePoint>> void checkChangesAfterTruncation(S series) {
+		long version = series.getVersion();
+		ISeriesChanges<Date, Double, SimplePoint> noChanges = series.changesSince(version);
+		assertTrue(noChanges.isComplete());
+		assertTrue(noChanges.getAddedItems().isEmpty());
+		fill(series, 100, 102);
+		ISeriesChanges<Date, Double, SimplePoint> changes = series.changesSince(version);
+		assertTrue(changes.isComplete());
+		assertEquals(Arrays.asList("100=100.0", "101=101.0"), contents(changes.getAddedItems()));
+	}
+
+	private static <S extends IMutableSeries<Date, Double, SimplePoint> & IVersionedSeries<Date, Double, SimplePoint>> void checkOverflow(S series) {
+		long version = series.getVersion();
+		series.changesSince(version);
+		fill(series, 0, 1);
+		long secondVersion = series.getVersion();
+		fill(series, 1, SeriesChangeLog.MAX_CAPACITY + 1);
+		// the first change has been discarded, the following ones are still in the log
+		assertFalse(series.changesSince(version).isComplete());
+		ISeriesChanges<Date, Double, SimplePoint> changes = series.changesSince(secondVersion);
+		assertTrue(changes.isComplete());
+		assertEquals(SeriesChangeLog.MAX_CAPACITY, changes.getAddedItems().size());
+		assertEquals("1=1.0", describe(changes.getAddedItems().get(0)));
+	}
+
+	private static void fill(IMutableSeries<Date, Double, SimplePoint> series, int from, int to) {
+		for (int i = from; i < to; i++) {
+			series.addLast(point(i, i));
+		}
+	}
+
+	private static SimplePoint point(long index, double value) {
+		return new SimplePoint(new Date(index), value);
+	}
+
+	private static List<String> contents(List<SimplePoint> points) {
+		List<String> contents = new ArrayList<String>();
+		for (SimplePoint point : points) {
+			contents.add(describe(point));
+		}
+		return contents;
+	}
+
+	private static String describe(SimplePoint point) {
+		return point.getIndex().getTime() + "=" + point.getValue();
+	}
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Pending updates must be delivered with the state they had when they were notified
+ */
+public class ConflatingSeriesListenerTest {
+	private static final long TIMEOUT_MILLIS = 10000L;
+
+	@Test
+	public void testUpdatedPointIsCopied() throws InterruptedException {
+		final List<String> notifications = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch delivered = new CountDownLatch(1);
+		ConflatingSeriesListener<Date, Double> listener = new ConflatingSeriesListener<Date, Double>(new ISeriesListener<Date, Double>() {
+			@Override
+			public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+				notifications.add(updatedItem.getIndex().getTime() + "=" + updatedItem.getValue());
+				delivered.countDown();
+			}
+
+			@Override
+			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+			}
+		}, 10L);
+		MutablePoint point = new MutablePoint(new Date(1), 1.0);
+		listener.onItemUpdated(null, point);
+		point.setValue(2.0);
+		listener.onItemUpdated(null, point);
+		// changed without notification, while the update is pending
+		point.setValue(3.0);
+		assertTrue(delivered.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+		assertEquals(Arrays.asList("1=2.0"), notifications);
+		assertEquals(1, listener.getConflatedCount());
+		listener.close();
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.Date;
+
+import com.quantcomponents.core.model.IMutableSeriesPoint;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Data-point updated in place, as the bars consolidating ticks
+ */
+class MutablePoint implements IMutableSeriesPoint<Date, Double> {
+	private final Date index;
+	private double value;
+
+	MutablePoint(Date index, double value) {
+		this.index = index;
+		this.value = value;
+	}
+
+	void setValue(double value) {
+		this.value = value;
+	}
+
+	@Override
+	public Date getStartIndex() {
+		return index;
+	}
+
+	@Override
+	public Date getEndIndex() {
+		return index;
+	}
+
+	@Override
+	public Date getIndex() {
+		return index;
+	}
+
+	@Override
+	public Double getBottomValue() {
+		return value;
+	}
+
+	@Override
+	public Double getTopValue() {
+		return value;
+	}
+
+	@Override
+	public Double getValue() {
+		return value;
+	}
+
+	@Override
+	public ISeriesPoint<Date, Double> snapshot() {
+		return new SimplePoint(index, value);
+	}
+}
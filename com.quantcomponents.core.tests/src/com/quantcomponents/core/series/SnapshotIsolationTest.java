@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.IEvictableSeries;
+import com.quantcomponents.core.model.IMutableSeries;
+
+/**
+ * Iterators must keep returning the content of the series at the time of their creation,
+ * whatever change is applied to the series afterwards
+ */
+public class SnapshotIsolationTest {
+	private static final long START = 1000000L;
+
+	@Test
+	public void testLinkedListPrependAfterEviction() {
+		checkPrependAfterEviction(new LinkedListSeries<Date, Double, SimplePoint>("test", true), 10);
+		checkPrependAfterEviction(new LinkedListSeries<Date, Double, SimplePoint>("test", true), 10000);
+	}
+
+	@Test
+	public void testArrayPrependAfterEviction() {
+		checkPrependAfterEviction(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true), 10);
+		checkPrependAfterEviction(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true), 10000);
+	}
+
+	@Test
+	public void testLinkedListInsert() {
+		checkInsert(new LinkedListSeries<Date, Double, SimplePoint>("test", true), 10000);
+	}
+
+	@Test
+	public void testArrayInsert() {
+		checkInsert(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true), 10000);
+	}
+
+	@Test
+	public void testLinkedListEvictionWhileIterating() {
+		checkEvictionWhileIterating(new LinkedListSeries<Date, Double, SimplePoint>("test", true), 10000);
+	}
+
+	@Test
+	public void testArrayEvictionWhileIterating() {
+		checkEvictionWhileIterating(new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true), 10000);
+	}
+
+	@Test
+	public void testArrayColumnCursorPrependAfterEviction() {
+		ArraySeries<Date, Double, SimplePoint> series = new ArraySeries<Date, Double, SimplePoint>("test", new SimplePointLayout(), true);
+		fill(series, 10000);
+		List<String> expected = contents(series.columnCursor(null));
+		List<String> expectedDescending = contents(series.descendingColumnCursor());
+		IColumnCursor cursor = series.columnCursor(null);
+		IColumnCursor descendingCursor = series.descendingColumnCursor();
+		IColumnSpliterator spliterator = series.columnSpliterator();
+		series.evictBefore(new Date(START + 5000), Integer.MAX_VALUE);
+		for (int i = 1; i <= 5000; i++) {
+			series.addFirst(new SimplePoint(new Date(START + 5000 - i), -1.0));
+		}
+		assertEquals(expected, contents(cursor));
+		assertEquals(expectedDescending, contents(descendingCursor));
+		assertEquals(expected, contents(spliterator));
+	}
+
+	private static <S extends IMutableSeries<Date, Double, SimplePoint> & IEvictableSeries<Date, Double, SimplePoint>> void checkPrependAfterEviction(S series, int count) {
+		fill(series, count);
+		List<String> expected = contents(series.iterator());
+		Iterator<SimplePoint> iterator = series.iterator();
+		series.evictBefore(new Date(START + count / 2), Integer.MAX_VALUE);
+		// the new points take the slots of the evicted ones, with different values
+		for (int i = 1; i <= count; i++) {
+			series.addFirst(new SimplePoint(new Date(START + count / 2 - i), -1.0));
+		}
+		assertEquals(expected, contents(iterator));
+		assertEquals(count / 2 + count, series.size());
+	}
+
+	private static <S extends IMutableSeries<Date, Double, SimplePoint> & IEvictableSeries<Date, Double, SimplePoint>> void checkInsert(S series, int count) {
+		for (int i = 0; i < count; i++) {
+			series.addLast(new SimplePoint(new Date(START + 2 * i), (double) i));
+		}
+		List<String> expected = contents(series.iterator());
+		Iterator<SimplePoint> iterator = series.iterator();
+		for (int i = 0; i < count; i += 100) {
+			series.insertFromTail(new SimplePoint(new Date(START + 2 * i + 1), -1.0));
+		}
+		assertEquals(expected, contents(iterator));
+		assertEquals(count + count / 100, series.size());
+	}
+
+	private static <S extends IMutableSeries<Date, Double, SimplePoint> & IEvictableSeries<Date, Double, SimplePoint>> void checkEvictionWhileIterating(S series, int count) {
+		fill(series, count);
+		List<String> expected = contents(series.iterator());
+		Iterator<SimplePoint> iterator = series.iterator();
+		List<String> actual = new ArrayList<String>();
+		actual.add(toString(iterator.next()));
+		series.evictBefore(new Date(START + count), Integer.MAX_VALUE);
+		series.addLast(new SimplePoint(new Date(START + count), -1.0));
+		actual.addAll(contents(iterator));
+		assertEquals(expected, actual);
+		assertEquals(1, series.size());
+	}
+
+	private static void fill(IMutableSeries<Date, Double, SimplePoint> series, int count) {
+		for (int i = 0; i < count; i++) {
+			series.addLast(new SimplePoint(new Date(START + i), (double) i));
+		}
+	}
+
+	private static List<String> contents(Iterator<SimplePoint> iterator) {
+		List<String> contents = new ArrayList<String>();
+		while (iterator.hasNext()) {
+			contents.add(toString(iterator.next()));
+		}
+		return contents;
+	}
+
+	private static List<String> contents(IColumnCursor cursor) {
+		List<String> contents = new ArrayList<String>();
+		while (cursor.advance()) {
+			contents.add(cursor.index() + "=" + cursor.column(0));
+		}
+		return contents;
+	}
+
+	private static String toString(SimplePoint point) {
+		return point.getIndex().getTime() + "=" + point.getValue();
+	}
+}
@@ -9,6 +9,7 @@
  ******************************************************************************/
 package com.quantcomponents.core.calendar;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Map;
@@ -26,21 +27,120 @@ import com.quantcomponents.core.model.BareDate;
  * </li>
  * that will be used to calculate the trading periods
  * for any date.
+ * The trading day of each date in the validity period is calculated once, on the first call of {@link #tradingDay(Date)}, and
+ * kept in an array indexed by local day, so that later calls do not allocate any object.
+ * Subclasses that change their rules afterwards must call {@link #clearTradingDays()}.
+ * The day table can be exported with {@link #getTradingDayStarts()} and {@link #getCachedTradingDays()}, and loaded back
+ * with {@link #setTradingDays(long[], ITradingDay[])}, e.g. to keep it in a persistent cache.
  */
 public abstract class AbstractPeriodicTradingCalendar implements ITradingCalendar {
 	private static final ITradingDay BANK_HOLIDAY = new BankHoliday();
+	private static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+	// validity periods longer than this are only cached for their first part
+	private static final int MAX_CACHED_DAYS = 200 * 366;
 	private final ThreadLocal<Calendar> calendars = new ThreadLocal<Calendar>() {
 		@Override
 		protected Calendar initialValue() {
 			return Calendar.getInstance();
 		}
 	};
+	private volatile TradingDays tradingDays;
 	
 	@Override
 	public ITradingDay tradingDay(Date date) {
 		if (date.before(getStartDate()) || !date.before(getEndDate())) {
 			throw new IllegalArgumentException();
 		}
+		TradingDays days = tradingDays;
+		if (days == null) {
+			days = buildTradingDays();
+		}
+		ITradingDay tradingDay = days.get(date.getTime());
+		return tradingDay != null ? tradingDay : calculateTradingDay(date);
+	}
+
+	/**
+	 * Discard the cached trading days, so that they are calculated again from the current rules
+	 */
+	protected void clearTradingDays() {
+		tradingDays = null;
+	}
+
+	/**
+	 * @return the start of each cached day, followed by the end of the last one; the table is calculated if needed
+	 */
+	protected long[] getTradingDayStarts() {
+		TradingDays days = tradingDays;
+		if (days == null) {
+			days = buildTradingDays();
+		}
+		return days.dayStarts.clone();
+	}
+
+	/**
+	 * @return the trading day of each cached day; the table is calculated if needed
+	 */
+	protected ITradingDay[] getCachedTradingDays() {
+		TradingDays days = tradingDays;
+		if (days == null) {
+			days = buildTradingDays();
+		}
+		return days.days.clone();
+	}
+
+	/**
+	 * Replace the cached day table with one previously exported from a calendar with the same rules
+	 * @param dayStarts the start of each day, followed by the end of the last one
+	 * @param days the trading day of each day; null for days with no trading periods
+	 */
+	protected synchronized void setTradingDays(long[] dayStarts, ITradingDay[] days) {
+		if (dayStarts.length != days.length + 1) {
+			throw new IllegalArgumentException("Day starts: " + dayStarts.length + " do not match days: " + days.length);
+		}
+		ITradingDay[] tradingDays = days.clone();
+		for (int i = 0; i < tradingDays.length; i++) {
+			if (tradingDays[i] == null) {
+				tradingDays[i] = BANK_HOLIDAY;
+			}
+		}
+		this.tradingDays = new TradingDays(dayStarts.clone(), tradingDays);
+	}
+
+	private synchronized TradingDays buildTradingDays() {
+		if (tradingDays != null) {
+			return tradingDays;
+		}
+		long start = getStartDate().getTime();
+		long end = getEndDate().getTime();
+		Calendar calendar = Calendar.getInstance(getTimeZone());
+		calendar.setTimeInMillis(start);
+		truncateToDay(calendar);
+		long[] dayStarts = new long[64];
+		ITradingDay[] days = new ITradingDay[64];
+		int count = 0;
+		dayStarts[0] = calendar.getTimeInMillis();
+		while (dayStarts[count] < end && count < MAX_CACHED_DAYS) {
+			if (count + 1 == dayStarts.length) {
+				dayStarts = Arrays.copyOf(dayStarts, dayStarts.length * 2);
+				days = Arrays.copyOf(days, days.length * 2);
+			}
+			days[count] = calculateTradingDay(new Date(Math.max(dayStarts[count], start)));
+			calendar.add(Calendar.DATE, 1);
+			truncateToDay(calendar);
+			dayStarts[++count] = calendar.getTimeInMillis();
+		}
+		tradingDays = new TradingDays(Arrays.copyOf(dayStarts, count + 1), Arrays.copyOf(days, count));
+		return tradingDays;
+	}
+
+	private static void truncateToDay(Calendar calendar) {
+		calendar.set(Calendar.MILLISECOND, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+	}
+
+	private ITradingDay calculateTradingDay(Date date) {
 		Calendar calendar = calendars.get();
 		calendar.setTimeZone(getTimeZone());
 		calendar.setTime(date);
@@ -68,4 +168,37 @@ public abstract class AbstractPeriodicTradingCalendar implements ITradingCalenda
 	protected abstract Map<String, ? extends ITradingDay> getSpecialTradingDays();
 	
 	protected abstract Map<Integer, ? extends ITradingDay> getWeekTradingDays();
+
+	/**
+	 * Trading days indexed by local day.
+	 * The day of an instant is estimated from its distance from the first day, and corrected by comparing it with the
+	 * starts of the days: since the time zone offset changes by a few hours at most, the correction takes at most a couple of steps
+	 */
+	private static class TradingDays {
+		// start of each day, plus the end of the last day
+		private final long[] dayStarts;
+		private final ITradingDay[] days;
+
+		TradingDays(long[] dayStarts, ITradingDay[] days) {
+			this.dayStarts = dayStarts;
+			this.days = days;
+		}
+
+		/**
+		 * @return the trading day of the instant, or null if not cached
+		 */
+		ITradingDay get(long time) {
+			if (days.length == 0 || time < dayStarts[0] || time >= dayStarts[days.length]) {
+				return null;
+			}
+			int day = (int) Math.min((time - dayStarts[0]) / DAY_MILLIS, days.length - 1);
+			while (time < dayStarts[day]) {
+				day--;
+			}
+			while (time >= dayStarts[day + 1]) {
+				day++;
+			}
+			return days[day];
+		}
+	}
 }
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.calendar;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.BarSize;
+
+/**
+ * Aligns instants to the beginning of the bar they belong to, for any {@link BarSize}, in a specific time zone.
+ * Bars are aligned as in {@link BarSize#adjustCalendarToBarBeginning(Calendar)}: bars up to four hours start at multiples
+ * of their duration from the local midnight, longer bars start at the local midnight.
+ * The alignment is calculated arithmetically on the local time, with the UTC offsets of the time zone precomputed as a
+ * table of transitions, and does not allocate any object.
+ * When the clocks go back, instants in the repeated hour are aligned to bars of their own offset; when they go forward,
+ * bars starting in the skipped hour start at the transition.
+ * Instances are immutable and thread-safe, and are shared by all the users of the same time zone.
+ */
+public class BarAligner {
+	private static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+	// transitions are searched day by day in this range of years; outside it the time zone is queried directly
+	private static final int FIRST_YEAR = 1900;
+	private static final int LAST_YEAR = 2100;
+	private static final Map<String, BarAligner> aligners = new HashMap<String, BarAligner>();
+	private final TimeZone timeZone;
+	// offsets[i] applies from transitions[i] to transitions[i + 1]; the last transition ends the table
+	private final long[] transitions;
+	private final int[] offsets;
+
+	private BarAligner(TimeZone timeZone) {
+		this.timeZone = (TimeZone) timeZone.clone();
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+		calendar.clear();
+		calendar.set(FIRST_YEAR, Calendar.JANUARY, 1);
+		long start = calendar.getTimeInMillis();
+		calendar.set(LAST_YEAR, Calendar.JANUARY, 1);
+		long end = calendar.getTimeInMillis();
+		long[] transitionTable = new long[64];
+		int[] offsetTable = new int[64];
+		int count = 0;
+		transitionTable[0] = start;
+		offsetTable[0] = this.timeZone.getOffset(start);
+		for (long day = start; day < end; day += DAY_MILLIS) {
+			int offset = this.timeZone.getOffset(day + DAY_MILLIS);
+			if (offset != offsetTable[count]) {
+				if (count + 2 >= transitionTable.length) {
+					transitionTable = Arrays.copyOf(transitionTable, transitionTable.length * 2);
+					offsetTable = Arrays.copyOf(offsetTable, offsetTable.length * 2);
+				}
+				count++;
+				transitionTable[count] = transition(day, day + DAY_MILLIS, offsetTable[count - 1]);
+				offsetTable[count] = offset;
+			}
+		}
+		transitionTable[count + 1] = end;
+		transitions = Arrays.copyOf(transitionTable, count + 2);
+		offsets = Arrays.copyOf(offsetTable, count + 1);
+	}
+
+	/**
+	 * @return the aligner for the time zone, shared with the other users of time zones with the same ID and rules
+	 */
+	public static BarAligner forTimeZone(TimeZone timeZone) {
+		synchronized (aligners) {
+			BarAligner aligner = aligners.get(timeZone.getID());
+			if (aligner == null || !aligner.timeZone.hasSameRules(timeZone)) {
+				aligner = new BarAligner(timeZone);
+				aligners.put(timeZone.getID(), aligner);
+			}
+			return aligner;
+		}
+	}
+
+	/**
+	 * @return the time zone of the bars
+	 */
+	public TimeZone getTimeZone() {
+		return (TimeZone) timeZone.clone();
+	}
+
+	/**
+	 * @return the offset from UTC of the time zone at the specified instant, in milliseconds
+	 */
+	public int getOffset(long time) {
+		if (time < transitions[0] || time >= transitions[transitions.length - 1]) {
+			return timeZone.getOffset(time);
+		}
+		return offsets[period(time)];
+	}
+
+	/**
+	 * @param time an instant, in milliseconds from the epoch
+	 * @param barSize the size of the bars
+	 * @return the beginning of the bar containing the instant, in milliseconds from the epoch
+	 */
+	public long align(long time, BarSize barSize) {
+		int offset = getOffset(time);
+		long localTime = time + offset;
+		long unit = barSize.compareTo(BarSize.ONE_DAY) < 0 ? barSize.getDurationInMs() : DAY_MILLIS;
+		long remainder = localTime % unit;
+		if (remainder < 0) {
+			remainder += unit;
+		}
+		return toUtc(localTime - remainder, offset);
+	}
+
+	/**
+	 * @return the beginning of the bar containing the date: the same instance if the date is already aligned
+	 */
+	public Date align(Date date, BarSize barSize) {
+		long time = date.getTime();
+		long alignedTime = align(time, barSize);
+		return alignedTime == time ? date : new Date(alignedTime);
+	}
+
+	/**
+	 * @param localTime a local time, in milliseconds from the local epoch
+	 * @param offset the preferred offset, used when the local time is repeated
+	 * @return the instant of the local time
+	 */
+	private long toUtc(long localTime, int offset) {
+		long time = localTime - offset;
+		int actualOffset = getOffset(time);
+		if (actualOffset == offset) {
+			return time;
+		}
+		long otherTime = localTime - actualOffset;
+		if (getOffset(otherTime) == actualOffset) {
+			return otherTime;
+		}
+		// skipped local time: the bar starts at the transition, which lies between the two candidates
+		if (otherTime < transitions[0] || otherTime >= transitions[transitions.length - 1]) {
+			return transition(Math.min(time, otherTime), Math.max(time, otherTime), getOffset(Math.min(time, otherTime)));
+		}
+		return transitions[period(otherTime)];
+	}
+
+	/**
+	 * @param time an instant within the table of transitions
+	 * @return the index of the offset applying at the instant
+	 */
+	private int period(long time) {
+		int low = 0;
+		int high = offsets.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (transitions[mid] <= time) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the first instant in the range with an offset different from the specified one
+	 */
+	private long transition(long from, long to, int offset) {
+		while (to - from > 1) {
+			long mid = from + (to - from) / 2;
+			if (timeZone.getOffset(mid) == offset) {
+				from = mid;
+			} else {
+				to = mid;
+			}
+		}
+		return to;
+	}
+}
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.calendar;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Index of the trading sessions of a trading calendar, to answer trading time queries without
+ * iterating over the days of the calendar.
+ * For each year the index keeps the sorted start and end instants of the sessions, with adjacent sessions merged,
+ * and the cumulative trading time before each session: trading time queries are answered by binary search
+ * and by difference of cumulative values.
+ * Years are indexed lazily, on the first query that needs them. Instants outside the validity period of the
+ * calendar are never trading time.
+ * Instances are thread-safe, and are shared by all the users of the same calendar instance.
+ */
+public class TradingTimeIndex {
+	/**
+	 * Result of the searches that find no trading time
+	 */
+	public static final long NONE = Long.MIN_VALUE;
+	// the index is kept while some schedule uses it: values are weak, since they reference their keys
+	private static final Map<ITradingCalendar, WeakReference<TradingTimeIndex>> indexes = new WeakHashMap<ITradingCalendar, WeakReference<TradingTimeIndex>>();
+	private static final Year[] NO_YEARS = new Year[0];
+	private final ITradingCalendar tradingCalendar;
+	private final long startMillis;
+	private final long endMillis;
+	// guarded by this; used only to build new years
+	private final Calendar calendar;
+	// sorted by start; replaced on each new year
+	private volatile Year[] years = NO_YEARS;
+
+	private TradingTimeIndex(ITradingCalendar tradingCalendar) {
+		this.tradingCalendar = tradingCalendar;
+		startMillis = tradingCalendar.getStartDate().getTime();
+		endMillis = tradingCalendar.getEndDate().getTime();
+		calendar = Calendar.getInstance(tradingCalendar.getTimeZone());
+	}
+
+	/**
+	 * @return the index of the trading calendar, shared with the other users of the same calendar
+	 */
+	public static TradingTimeIndex forCalendar(ITradingCalendar tradingCalendar) {
+		synchronized (indexes) {
+			WeakReference<TradingTimeIndex> reference = indexes.get(tradingCalendar);
+			TradingTimeIndex index = reference == null ? null : reference.get();
+			if (index == null) {
+				index = new TradingTimeIndex(tradingCalendar);
+				indexes.put(tradingCalendar, new WeakReference<TradingTimeIndex>(index));
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * @return the indexed trading calendar
+	 */
+	public ITradingCalendar getTradingCalendar() {
+		return tradingCalendar;
+	}
+
+	/**
+	 * @return true if the instant is within a trading session
+	 */
+	public boolean isTradingTime(long time) {
+		if (time < startMillis || time >= endMillis) {
+			return false;
+		}
+		Year year = year(time);
+		int session = year.sessionAt(time);
+		return session >= 0 && time < year.ends[session];
+	}
+
+	/**
+	 * @return the start of the session containing the instant, or {@link #NONE} if it is not trading time
+	 */
+	public long sessionStart(long time) {
+		if (time < startMillis || time >= endMillis) {
+			return NONE;
+		}
+		Year year = year(time);
+		int session = year.sessionAt(time);
+		return session >= 0 && time < year.ends[session] ? Math.max(year.starts[session], startMillis) : NONE;
+	}
+
+	/**
+	 * @return the end of the session containing the instant, or {@link #NONE} if it is not trading time
+	 */
+	public long sessionEnd(long time) {
+		if (time < startMillis || time >= endMillis) {
+			return NONE;
+		}
+		Year year = year(time);
+		int session = year.sessionAt(time);
+		return session >= 0 && time < year.ends[session] ? Math.min(year.ends[session], endMillis) : NONE;
+	}
+
+	/**
+	 * @return the instant itself if it is trading time, otherwise the start of the following session, or {@link #NONE}
+	 */
+	public long firstTradingTime(long time) {
+		if (isTradingTime(time)) {
+			return time;
+		}
+		for (Year year = year(Math.max(time, startMillis)); year.start < endMillis; year = year(year.end)) {
+			int session = year.sessionAt(time) + 1;
+			if (session < year.starts.length) {
+				return year.starts[session];
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * @return the instant itself if it is trading time, otherwise the end of the preceding session, or {@link #NONE}
+	 */
+	public long lastTradingTime(long time) {
+		if (isTradingTime(time)) {
+			return time;
+		}
+		for (Year year = year(Math.min(time, endMillis - 1)); year.end > startMillis; year = year(year.start - 1)) {
+			int session = year.sessionAt(time);
+			if (session >= 0) {
+				return Math.min(year.ends[session], time);
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * @return the trading time between two instants, in milliseconds; 0 if the second instant precedes the first one
+	 */
+	public long tradingTimeBetween(long from, long to) {
+		from = Math.max(from, startMillis);
+		to = Math.min(to, endMillis);
+		if (from >= to) {
+			return 0L;
+		}
+		Year year = year(from);
+		long interval = -year.tradingTimeBefore(from);
+		while (to >= year.end) {
+			interval += year.total;
+			year = year(year.end);
+		}
+		return interval + year.tradingTimeBefore(to);
+	}
+
+	/**
+	 * @return the indexed year containing the instant, indexing it if needed
+	 */
+	private Year year(long time) {
+		Year[] current = years;
+		int low = 0;
+		int high = current.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (current[mid].end <= time) {
+				low = mid + 1;
+			} else if (current[mid].start > time) {
+				high = mid - 1;
+			} else {
+				return current[mid];
+			}
+		}
+		return indexYear(time);
+	}
+
+	private synchronized Year indexYear(long time) {
+		for (Year year : years) {
+			if (year.start <= time && time < year.end) {
+				return year; // indexed by another thread in the meantime
+			}
+		}
+		calendar.setTimeInMillis(time);
+		int yearNumber = calendar.get(Calendar.YEAR);
+		calendar.clear();
+		calendar.set(yearNumber, Calendar.JANUARY, 1);
+		long yearStart = calendar.getTimeInMillis();
+		calendar.add(Calendar.YEAR, 1);
+		long yearEnd = calendar.getTimeInMillis();
+		Year year = buildYear(yearStart, yearEnd);
+		Year[] newYears = Arrays.copyOf(years, years.length + 1);
+		int position = newYears.length - 1;
+		while (position > 0 && newYears[position - 1].start > yearStart) {
+			newYears[position] = newYears[position - 1];
+			position--;
+		}
+		newYears[position] = year;
+		years = newYears;
+		return year;
+	}
+
+	/**
+	 * Must be called with the lock held
+	 */
+	private Year buildYear(long yearStart, long yearEnd) {
+		long[] starts = new long[16];
+		long[] ends = new long[16];
+		int count = 0;
+		calendar.setTimeInMillis(yearStart);
+		while (calendar.getTimeInMillis() < yearEnd) {
+			long dayStart = calendar.getTimeInMillis();
+			calendar.add(Calendar.DATE, 1);
+			long dayEnd = calendar.getTimeInMillis();
+			if (dayEnd <= startMillis || dayStart >= endMillis) {
+				continue;
+			}
+			ITradingDay tradingDay = tradingCalendar.tradingDay(new Date(Math.max(dayStart, startMillis)));
+			for (ITradingPeriod period : tradingDay.getTradingPeriods()) {
+				long sessionStart = timeOfDay(dayStart, period.getStartHour(), period.getStartMinute());
+				long sessionEnd = timeOfDay(dayStart, period.getEndHour(), period.getEndMinute());
+				if (sessionEnd <= sessionStart) {
+					continue;
+				}
+				if (count > 0 && sessionStart <= ends[count - 1]) {
+					ends[count - 1] = Math.max(ends[count - 1], sessionEnd);
+					continue;
+				}
+				if (count == starts.length) {
+					starts = Arrays.copyOf(starts, count * 2);
+					ends = Arrays.copyOf(ends, count * 2);
+				}
+				starts[count] = sessionStart;
+				ends[count] = sessionEnd;
+				count++;
+			}
+			calendar.setTimeInMillis(dayEnd);
+		}
+		return new Year(yearStart, yearEnd, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+	}
+
+	/**
+	 * Must be called with the lock held. Leaves the calendar set to the result
+	 */
+	private long timeOfDay(long dayStart, int hour, int minute) {
+		calendar.setTimeInMillis(dayStart);
+		calendar.set(Calendar.HOUR_OF_DAY, hour);
+		calendar.set(Calendar.MINUTE, minute);
+		return calendar.getTimeInMillis();
+	}
+
+	/**
+	 * Trading sessions of a calendar year, in the time zone of the calendar.
+	 * Sessions crossing the end of the year are kept by the year where they start
+	 */
+	private static class Year {
+		final long start;
+		final long end;
+		final long[] starts;
+		final long[] ends;
+		// trading time of the year before the start of each session
+		final long[] cumulative;
+		final long total;
+
+		Year(long start, long end, long[] starts, long[] ends) {
+			this.start = start;
+			this.end = end;
+			this.starts = starts;
+			this.ends = ends;
+			cumulative = new long[starts.length];
+			long sum = 0L;
+			for (int i = 0; i < starts.length; i++) {
+				cumulative[i] = sum;
+				sum += ends[i] - starts[i];
+			}
+			total = sum;
+		}
+
+		/**
+		 * @return the last session starting not after the instant, or -1
+		 */
+		int sessionAt(long time) {
+			int low = 0;
+			int high = starts.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (starts[mid] <= time) {
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			return high;
+		}
+
+		/**
+		 * @return the trading time of the year before the instant
+		 */
+		long tradingTimeBefore(long time) {
+			int session = sessionAt(time);
+			if (session < 0) {
+				return 0L;
+			}
+			return cumulative[session] + Math.min(time, ends[session]) - starts[session];
+		}
+	}
+}
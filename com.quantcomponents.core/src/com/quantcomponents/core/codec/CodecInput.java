@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.codec;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reader of the data written by {@link CodecOutput}.
+ * Classes of the serialized objects are resolved with the class loader passed to the constructor, since
+ * the codec module usually cannot see the classes of the bundles using it.
+ * Instances are not thread-safe.
+ */
+public class CodecInput {
+	private final DataInput in;
+	private final ClassLoader classLoader;
+	private final ChunkInputStream objectChunks = new ChunkInputStream();
+	private ObjectInputStream objectStream;
+	private final List<Enum<?>> enums = new ArrayList<Enum<?>>();
+
+	/**
+	 * Serialized objects are resolved with the context class loader of the current thread
+	 */
+	public CodecInput(DataInput in) {
+		this(in, Thread.currentThread().getContextClassLoader());
+	}
+
+	public CodecInput(DataInput in, ClassLoader classLoader) {
+		this.in = in;
+		this.classLoader = classLoader;
+	}
+
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	public boolean readBoolean() throws IOException {
+		return in.readBoolean();
+	}
+
+	public byte readByte() throws IOException {
+		return in.readByte();
+	}
+
+	public short readShort() throws IOException {
+		return in.readShort();
+	}
+
+	public int readInt() throws IOException {
+		return in.readInt();
+	}
+
+	public long readLong() throws IOException {
+		return in.readLong();
+	}
+
+	public double readDouble() throws IOException {
+		return in.readDouble();
+	}
+
+	/**
+	 * @return the value written by {@link CodecOutput#writeDouble(Double)}, null for NaN
+	 */
+	public Double readNullableDouble() throws IOException {
+		double value = in.readDouble();
+		return Double.isNaN(value) ? null : value;
+	}
+
+	public Date readDate() throws IOException {
+		long value = in.readLong();
+		return value == Long.MIN_VALUE ? null : new Date(value);
+	}
+
+	public String readString() throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	public <E extends Enum<E>> E readEnum(Class<E> enumClass) throws IOException {
+		Object value;
+		if (in instanceof ObjectInput) {
+			value = readObject();
+		} else {
+			int handle = in.readShort();
+			if (handle == CodecOutput.NULL_HANDLE) {
+				return null;
+			}
+			if (handle == CodecOutput.NEW_HANDLE) {
+				String name = in.readUTF();
+				try {
+					value = Enum.valueOf(enumClass, name);
+				} catch (IllegalArgumentException e) {
+					throw new StreamCorruptedException("Unknown constant: " + name + " of enum: " + enumClass.getName());
+				}
+				enums.add((Enum<?>) value);
+			} else if (handle >= 0 && handle < enums.size()) {
+				value = enums.get(handle);
+			} else {
+				throw new StreamCorruptedException("Invalid enum handle: " + handle);
+			}
+		}
+		if (value != null && !enumClass.isInstance(value)) {
+			throw new StreamCorruptedException("Not a constant of enum: " + enumClass.getName() + ": " + value);
+		}
+		return enumClass.cast(value);
+	}
+
+	public Object readObject() throws IOException {
+		try {
+			if (in instanceof ObjectInput) {
+				return ((ObjectInput) in).readObject();
+			}
+			byte[] chunk = new byte[in.readInt()];
+			in.readFully(chunk);
+			objectChunks.setChunk(chunk);
+			if (objectStream == null) {
+				objectStream = new ResolvingObjectInputStream(objectChunks, classLoader);
+			}
+			return objectStream.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Class not found while decoding: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Feeds the object stream with one chunk at a time
+	 */
+	private static class ChunkInputStream extends InputStream {
+		private byte[] chunk = new byte[0];
+		private int position;
+
+		void setChunk(byte[] chunk) {
+			this.chunk = chunk;
+			position = 0;
+		}
+
+		@Override
+		public int read() {
+			return position < chunk.length ? chunk[position++] & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (position == chunk.length) {
+				return -1;
+			}
+			int count = Math.min(len, chunk.length - position);
+			System.arraycopy(chunk, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return chunk.length - position;
+		}
+	}
+
+	private static class ResolvingObjectInputStream extends ObjectInputStream {
+		private final ClassLoader classLoader;
+
+		ResolvingObjectInputStream(InputStream in, ClassLoader classLoader) throws IOException {
+			super(in);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			if (classLoader != null) {
+				try {
+					return Class.forName(desc.getName(), false, classLoader);
+				} catch (ClassNotFoundException e) {
+					// fall back to default resolution
+				}
+			}
+			return super.resolveClass(desc);
+		}
+	}
+}
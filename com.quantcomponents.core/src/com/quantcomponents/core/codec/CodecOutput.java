@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Writer of fixed-width primitives and of the few variable-length values needed by the point codecs.
+ * Null dates are written as {@link Long#MIN_VALUE} and null doubles as NaN, as in the column layouts.
+ * Objects without a binary codec, e.g. contracts, are written with Java serialization, as length-prefixed chunks
+ * of a single object stream: class descriptors are written only once, and objects already written are referred by handle.
+ * When the target is an {@link ObjectOutput} they are written directly to it instead.
+ * Instances are not thread-safe.
+ */
+public class CodecOutput {
+	static final int NULL_HANDLE = -1;
+	static final int NEW_HANDLE = -2;
+	private final DataOutput out;
+	private final Map<Enum<?>, Integer> enumHandles = new IdentityHashMap<Enum<?>, Integer>();
+	private ByteArrayOutputStream objectBuffer;
+	private ObjectOutputStream objectStream;
+
+	public CodecOutput(DataOutput out) {
+		this.out = out;
+	}
+
+	public void writeBoolean(boolean value) throws IOException {
+		out.writeBoolean(value);
+	}
+
+	public void writeByte(int value) throws IOException {
+		out.writeByte(value);
+	}
+
+	public void writeShort(int value) throws IOException {
+		out.writeShort(value);
+	}
+
+	public void writeInt(int value) throws IOException {
+		out.writeInt(value);
+	}
+
+	public void writeLong(long value) throws IOException {
+		out.writeLong(value);
+	}
+
+	public void writeDouble(double value) throws IOException {
+		out.writeDouble(value);
+	}
+
+	public void writeDouble(Double value) throws IOException {
+		out.writeDouble(value == null ? Double.NaN : value);
+	}
+
+	public void writeDate(Date value) throws IOException {
+		out.writeLong(value == null ? Long.MIN_VALUE : value.getTime());
+	}
+
+	public void writeString(String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	/**
+	 * Enums are written by name the first time, so that constants can be added or reordered,
+	 * and by handle afterwards
+	 */
+	public void writeEnum(Enum<?> value) throws IOException {
+		if (out instanceof ObjectOutput) {
+			((ObjectOutput) out).writeObject(value);
+			return;
+		}
+		if (value == null) {
+			out.writeShort(NULL_HANDLE);
+			return;
+		}
+		Integer handle = enumHandles.get(value);
+		if (handle != null) {
+			out.writeShort(handle);
+			return;
+		}
+		enumHandles.put(value, enumHandles.size());
+		out.writeShort(NEW_HANDLE);
+		out.writeUTF(value.name());
+	}
+
+	/**
+	 * Write an object with Java serialization, or a reference to it if it has already been written
+	 */
+	public void writeObject(Object value) throws IOException {
+		if (out instanceof ObjectOutput) {
+			((ObjectOutput) out).writeObject(value);
+			return;
+		}
+		if (objectStream == null) {
+			objectBuffer = new ByteArrayOutputStream();
+			objectStream = new ObjectOutputStream(objectBuffer);
+		}
+		objectStream.writeObject(value);
+		objectStream.flush();
+		out.writeInt(objectBuffer.size());
+		out.write(objectBuffer.toByteArray());
+		objectBuffer.reset();
+	}
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.codec;
+
+import java.io.IOException;
+
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Binary representation of a data-point type.
+ * Each codec is identified by a type name, which is written in the schema header of the encoded series,
+ * and by a version, so that data written by older versions of a codec can still be decoded.
+ * Implementors must be stateless and thread-safe.
+ *
+ * @param <P> The type of the data point
+ * @see SeriesCodec
+ */
+public interface IPointCodec<P extends ISeriesPoint<?, ?>> {
+	/**
+	 * @return the name of the encoded type, which must never change across versions
+	 */
+	String getTypeName();
+	/**
+	 * @return the version of the encoding written by {@link #write(ISeriesPoint, CodecOutput)}
+	 */
+	int getVersion();
+	/**
+	 * @return the exact class of the data-points handled by this codec
+	 */
+	Class<? extends P> getPointClass();
+	/**
+	 * Write a data-point
+	 */
+	void write(P point, CodecOutput out) throws IOException;
+	/**
+	 * Read a data-point
+	 * @param in the source of the data
+	 * @param version the version of the codec that wrote the data-point
+	 */
+	P read(CodecInput in, int version) throws IOException;
+}
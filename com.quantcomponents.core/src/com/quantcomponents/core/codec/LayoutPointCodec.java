@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.codec;
+
+import java.io.IOException;
+
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.IColumnLayout;
+
+/**
+ * Codec for data-point types that already have a {@link IColumnLayout}: each data-point is written as
+ * the <code>long</code> abscissa followed by the <code>double</code> columns of the layout.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ */
+public class LayoutPointCodec<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements IPointCodec<P> {
+	private final String typeName;
+	private final int version;
+	private final Class<? extends P> pointClass;
+	private final IColumnLayout<A, O, P> layout;
+
+	public LayoutPointCodec(String typeName, int version, Class<? extends P> pointClass, IColumnLayout<A, O, P> layout) {
+		this.typeName = typeName;
+		this.version = version;
+		this.pointClass = pointClass;
+		this.layout = layout;
+	}
+
+	@Override
+	public String getTypeName() {
+		return typeName;
+	}
+
+	@Override
+	public int getVersion() {
+		return version;
+	}
+
+	@Override
+	public Class<? extends P> getPointClass() {
+		return pointClass;
+	}
+
+	@Override
+	public void write(P point, CodecOutput out) throws IOException {
+		double[] row = new double[layout.getWidth()];
+		layout.encode(point, row, 0);
+		out.writeLong(layout.encodeIndex(point.getIndex()));
+		for (double value : row) {
+			out.writeDouble(value);
+		}
+	}
+
+	@Override
+	public P read(CodecInput in, int version) throws IOException {
+		if (version != this.version) {
+			throw new IOException("Unsupported version: " + version + " of type: " + typeName);
+		}
+		long index = in.readLong();
+		double[] row = new double[layout.getWidth()];
+		for (int i = 0; i < row.length; i++) {
+			row[i] = in.readDouble();
+		}
+		return layout.decode(index, row, 0);
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.codec;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Fallback codec for data-point types without a binary codec: points are written with Java serialization
+ */
+class SerializedPointCodec implements IPointCodec<ISeriesPoint<?, ?>> {
+	static final String TYPE_NAME = "java.io.Serializable";
+	private static final int VERSION = 1;
+
+	@Override
+	public String getTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public Class<? extends ISeriesPoint<?, ?>> getPointClass() {
+		return null;
+	}
+
+	@Override
+	public void write(ISeriesPoint<?, ?> point, CodecOutput out) throws IOException {
+		out.writeObject(point);
+	}
+
+	@Override
+	public ISeriesPoint<?, ?> read(CodecInput in, int version) throws IOException {
+		Object point = in.readObject();
+		if (!(point instanceof ISeriesPoint)) {
+			throw new StreamCorruptedException("Not a data-point: " + point);
+		}
+		return (ISeriesPoint<?, ?>) point;
+	}
+}
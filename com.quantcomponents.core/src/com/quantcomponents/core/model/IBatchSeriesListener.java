@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+import java.util.List;
+
+/**
+ * Series listener that can receive a sequence of new data-points in a single call.
+ * Series that add data-points in bulk, e.g. through {@link IMutableSeries#addAll}, notify instances of this
+ * interface once per batch, and plain {@link ISeriesListener} instances once per data-point.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ */
+public interface IBatchSeriesListener<A extends Comparable<A>, O extends Comparable<O>> extends ISeriesListener<A, O> {
+	/**
+	 * This method is called whenever a sequence of new data-points is added to the series
+	 * @param newItems the new data-points, sorted by abscissa. The list must not be modified
+	 */
+	void onItemsAdded(List<? extends ISeriesPoint<A, O>> newItems);
+}
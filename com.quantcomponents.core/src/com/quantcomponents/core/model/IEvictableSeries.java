@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Series whose oldest data-points can be removed, to bound the memory used by long-running live series.
+ * Listeners implementing {@link IEvictionSeriesListener} are notified of the removal; iterators and
+ * views created before the removal still contain the removed data-points.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ */
+public interface IEvictableSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> extends ISeries<A, O, P> {
+	/**
+	 * Remove data-points from the head of the series
+	 * @param index only data-points with abscissa less than this one are removed
+	 * @param maxCount the maximum number of data-points to be removed
+	 * @return the number of data-points removed
+	 */
+	int evictBefore(A index, int maxCount);
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Series listener that is notified when the oldest data-points of an {@link IEvictableSeries} are removed.
+ * Listeners keeping data-points or views of the series should release the ones preceding the new head.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ */
+public interface IEvictionSeriesListener<A extends Comparable<A>, O extends Comparable<O>> extends ISeriesListener<A, O> {
+	/**
+	 * This method is called whenever data-points are removed from the head of the series
+	 * @param index the abscissa of the first data-point left in the series; if the series is empty,
+	 * an abscissa greater than those of all the removed data-points
+	 * @param count the number of data-points removed
+	 */
+	void onItemsEvicted(A index, int count);
+}
@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Series listener interested only in the latest state of the updated data-points.
+ * Series can skip the copy of a data-point before updating it in place, and pass null
+ * as <code>existingItem</code> to {@link #onItemUpdated(ISeriesPoint, ISeriesPoint)}.
+ * The <code>updatedItem</code> can be the live data-point of the series: it must not be retained
+ * after the notification, since it may be modified by later updates: see {@link IMutableSeriesPoint}.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ */
+public interface ILatestStateSeriesListener<A extends Comparable<A>, O extends Comparable<O>> extends ISeriesListener<A, O> {
+}
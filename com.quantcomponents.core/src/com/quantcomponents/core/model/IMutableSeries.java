@@ -9,6 +9,8 @@
  ******************************************************************************/
 package com.quantcomponents.core.model;
 
+import java.util.List;
+
 /**
  * Mutable series interface
  *
@@ -21,4 +23,15 @@ public interface IMutableSeries<A extends Comparable<A>, O extends Comparable<O>
 	 * Empty the series
 	 */
 	void clear();
+	/**
+	 * Merge a sequence of data-points into the series.
+	 * The data-points preceding the current head are added to the head, and those following the current tail are
+	 * added to the tail, as {@link ISeriesAugmentable#addFirstIfNotExists} and {@link ISeriesAugmentable#addLastIfNotExists}
+	 * would do; the others are ignored. Of several data-points with the same abscissa, only the first one is added.
+	 * Listeners are notified after the whole sequence has been added, once for each {@link IBatchSeriesListener} and once
+	 * for each data-point for the other listeners.
+	 * @param items the data-points, sorted by abscissa
+	 * @throws IllegalArgumentException when the data-points are not sorted
+	 */
+	void addAll(List<? extends P> items);
 }
@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Data-point updated in place by its series, e.g. a bar consolidating ticks.
+ * The instance passed to the listeners is the live one: listeners that keep it after the notification,
+ * or hand it to another thread, must keep a snapshot instead.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ */
+public interface IMutableSeriesPoint<A extends Comparable<A>, O extends Comparable<O>> extends ISeriesPoint<A, O> {
+	/**
+	 * Must be called in the thread updating the data-point, e.g. in the notification of the series
+	 * @return an immutable copy of the current state of this data-point
+	 */
+	ISeriesPoint<A, O> snapshot();
+}
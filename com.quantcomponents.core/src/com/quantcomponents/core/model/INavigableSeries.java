@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Series that can be navigated by abscissa in logarithmic time.
+ * Sub-series are read-only snapshot views that share the data-points with the source series, without copying them:
+ * later changes to the source series are not reflected in the views, and listeners added to a view are never notified.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ */
+public interface INavigableSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> extends IRangeQueryableSeries<A, O, P> {
+	/**
+	 * @param from the lower bound of the range, inclusive; null for no lower bound
+	 * @param to the upper bound of the range, exclusive; null for no upper bound
+	 * @return a snapshot view of the data-points within the range
+	 */
+	INavigableSeries<A, O, P> subSeries(A from, A to);
+	/**
+	 * @param to the upper bound of the range, exclusive
+	 * @return a snapshot view of the data-points preceding the specified abscissa
+	 */
+	INavigableSeries<A, O, P> headSeries(A to);
+	/**
+	 * @param from the lower bound of the range, inclusive
+	 * @return a snapshot view of the data-points starting from the specified abscissa
+	 */
+	INavigableSeries<A, O, P> tailSeries(A from);
+	/**
+	 * @return the last data-point with abscissa less than or equal to the specified one, or null if there is no such point
+	 */
+	P floor(A index);
+	/**
+	 * @return the first data-point with abscissa greater than or equal to the specified one, or null if there is no such point
+	 */
+	P ceiling(A index);
+}
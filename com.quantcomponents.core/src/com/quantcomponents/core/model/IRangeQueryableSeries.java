@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Series that can efficiently compute minimum and maximum over a range of abscissas, without
+ * scanning all the data-points in the range.
+ * Useful to scale a visible window of a long series.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ */
+public interface IRangeQueryableSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> extends ISeries<A, O, P> {
+	/**
+	 * @param from the lower bound of the range, inclusive; null for no lower bound
+	 * @param to the upper bound of the range, exclusive; null for no upper bound
+	 * @return the data-point with the minimum bottom value within the range, or null if the range is empty
+	 */
+	P getMinimum(A from, A to);
+	/**
+	 * @param from the lower bound of the range, inclusive; null for no lower bound
+	 * @param to the upper bound of the range, exclusive; null for no upper bound
+	 * @return the data-point with the maximum top value within the range, or null if the range is empty
+	 */
+	P getMaximum(A from, A to);
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+import java.util.List;
+
+/**
+ * Changes of a {@link IVersionedSeries} between two versions
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ */
+public interface ISeriesChanges<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> {
+	/**
+	 * @return the version the changes start from, excluded
+	 */
+	long getFromVersion();
+	/**
+	 * @return the version of the last change included
+	 */
+	long getToVersion();
+	/**
+	 * @return false if some changes are not available anymore, or the series has been cleared, or its oldest
+	 * data-points have been evicted: in this case the lists are empty, and the whole series must be read again
+	 */
+	boolean isComplete();
+	/**
+	 * @return the data-points added after the start version, in their latest state, sorted by abscissa
+	 */
+	List<P> getAddedItems();
+	/**
+	 * @return the data-points already present at the start version and updated after it, in their latest state, sorted by abscissa
+	 */
+	List<P> getUpdatedItems();
+}
@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+import java.util.Iterator;
+
+/**
+ * Iterator over a snapshot of a series, in ascending order of abscissa, that can be split into
+ * parts to be scanned in parallel.
+ * The iterator and the parts split off from it are meant to be used each by a single thread.
+ *
+ * @param <P> The type of the data point
+ * @see ISplittableSeries
+ */
+public interface ISeriesSpliterator<P> extends Iterator<P>, ISplittable<ISeriesSpliterator<P>> {
+}
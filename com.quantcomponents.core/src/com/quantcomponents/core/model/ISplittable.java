@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Sequence of elements that can be partitioned, so that the parts can be processed by different threads.
+ *
+ * @param <S> the type of the parts
+ */
+public interface ISplittable<S extends ISplittable<S>> {
+	/**
+	 * @return the exact number of remaining elements
+	 */
+	int size();
+	/**
+	 * Split off the first part of the remaining elements, which are not returned by this instance anymore.
+	 * Implementors split approximately in halves, so that the parts can be split again in logarithmic depth.
+	 * @return the first part of the remaining elements, or null if they cannot be split
+	 */
+	S trySplit();
+}
@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Series that can be scanned in parallel.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ */
+public interface ISplittableSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> extends ISeries<A, O, P> {
+	/**
+	 * The creation of the spliterator does not copy the series, and later changes to the series are not reflected in it
+	 * @return a spliterator over the data-points contained in the series at the time of the call
+	 */
+	ISeriesSpliterator<P> seriesSpliterator();
+}
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.model;
+
+/**
+ * Series that keeps a monotonically increasing version number, incremented by each change,
+ * so that consumers can synchronize incrementally instead of reading the whole series again.
+ * Version numbers are only meaningful for the same series instance.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ */
+public interface IVersionedSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> extends ISeries<A, O, P> {
+	/**
+	 * @return the version of the last change
+	 */
+	long getVersion();
+	/**
+	 * The changes are kept in a log of limited size, which is only started by the first call to this method:
+	 * if they are not available anymore, the result is not complete and the whole series must be read again
+	 * @param version a version previously returned by {@link #getVersion()} or {@link ISeriesChanges#getToVersion()}
+	 * @return the data-points added and updated after the specified version
+	 */
+	ISeriesChanges<A, O, P> changesSince(long version);
+}
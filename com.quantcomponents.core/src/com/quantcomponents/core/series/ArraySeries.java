@@ -0,0 +1,991 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.quantcomponents.core.model.IEvictableSeries;
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.INavigableSeries;
+import com.quantcomponents.core.model.ISeriesChanges;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.ISeriesSpliterator;
+import com.quantcomponents.core.model.ISplittableSeries;
+import com.quantcomponents.core.model.IVersionedSeries;
+
+/**
+ * Thread-safe implementation of {@link com.quantcomponents.core.model.IMutableSeries} based on primitive columns.
+ * Each data-point is stored as a <code>long</code> abscissa and a row of <code>double</code> values, as
+ * specified by an {@link IColumnLayout}.
+ * Columns are split into fixed-size chunks, so that the series can grow at both ends without copying
+ * the existing data. Data-points can be accessed by position in constant time, and by abscissa in
+ * logarithmic time. Minimum and maximum are kept incrementally, and can be queried on any range of
+ * abscissas in logarithmic time. Iterators, sub-series and column cursors are snapshots that share the chunks with the series.
+ * The first and last data-points and the size can be read without taking the lock, which is held only by the writer.
+ * Since the points are decoded from the columns on access, changes to a data-point instance after it has
+ * been added to the series are not reflected in the series content: mutable data-points must be
+ * replaced with {@link ArraySeries#updateTail}.
+ * The oldest data-points can be evicted in constant time per data-point: chunks that only contain evicted
+ * data-points are released, so that the series can be used as a bounded buffer of live data.
+ *
+ * @param <A> type of the abscissa
+ * @param <O> type of the ordinates
+ * @param <P> type of the data point
+ */
+public class ArraySeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements IMutableSeries<A, O, P>, INavigableSeries<A, O, P>, IVersionedSeries<A, O, P>, IColumnarSeries<A, O, P>, IEvictableSeries<A, O, P>, ISplittableSeries<A, O, P>, Serializable {
+	private static final long serialVersionUID = -3860257917380563412L;
+	private static final int CHUNK_BITS = 12;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private final IColumnLayout<A, O, P> layout;
+	private final int width;
+	private transient List<ISeriesListener<A, O>> listeners = new CopyOnWriteArrayList<ISeriesListener<A, O>>();
+	private final String ID;
+	private final boolean enforceStrictSequence;
+	private volatile long timestamp;
+	// chunk directories: slot 'origin' is the first row of the first chunk
+	private long[][] indexChunks;
+	private double[][] valueChunks;
+	private int origin;
+	// slots of the first point, and next to the last point
+	private int start;
+	private int end;
+	// the ends and the size are published after each change, so that their readers do not need the lock
+	private volatile P first;
+	private volatile P last;
+	private transient volatile int publishedSize;
+	private transient volatile long version;
+	// started by the first request of changes
+	private transient SeriesChangeLog<A, O, P> changeLog;
+	private transient SeriesRangeIndex rangeIndex = createRangeIndex();
+	// incremented when rows are overwritten or moved, to check whether snapshots can use the range index
+	private transient int modCount;
+	// lowest slot that snapshots of the current chunks can read: rows from here on must not be overwritten
+	private transient int sharedFrom = Integer.MAX_VALUE;
+
+	public ArraySeries(String ID, IColumnLayout<A, O, P> layout, boolean enforceStrictSequence) {
+		this.ID = ID;
+		this.layout = layout;
+		this.width = layout.getWidth();
+		this.enforceStrictSequence = enforceStrictSequence;
+		reset();
+		updateTimestamp();
+	}
+
+	@Override
+	public String getPersistentID() {
+		return ID;
+	}
+
+	@Override
+	public IColumnLayout<A, O, P> getLayout() {
+		return layout;
+	}
+
+	@Override
+	public void addLast(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (end > start) {
+				long lastIndex = indexAt(end - 1);
+				if (isEnforceStrictSequence()) {
+					if (index <= lastIndex) {
+						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must follow last item index: " + last.getIndex());
+					}
+				} else {
+					checkDuplicate(item, last);
+					if (index < lastIndex) {
+						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must not precede last item index: " + last.getIndex());
+					}
+				}
+			}
+			append(index, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addFirst(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (end > start) {
+				long firstIndex = indexAt(start);
+				if (isEnforceStrictSequence()) {
+					if (index >= firstIndex) {
+						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must precede last item index: " + first.getIndex());
+					}
+				} else {
+					checkDuplicate(item, first);
+					if (index > firstIndex) {
+						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must not follow last item index: " + first.getIndex());
+					}
+				}
+			}
+			prepend(index, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addLastIfNotExists(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (end > start && index <= indexAt(end - 1)) {
+				return;
+			}
+			append(index, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addFirstIfNotExists(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (end > start && index >= indexAt(start)) {
+				return;
+			}
+			prepend(index, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addAll(List<? extends P> items) {
+		int size = items.size();
+		List<P> sortedItems = new ArrayList<P>(items);
+		long[] indexes = new long[size];
+		for (int i = 0; i < size; i++) {
+			indexes[i] = layout.encodeIndex(sortedItems.get(i).getIndex());
+			if (i > 0 && indexes[i] < indexes[i - 1]) {
+				throw new IllegalArgumentException("Item with index: " + sortedItems.get(i).getIndex() + " must not precede item with index: " + sortedItems.get(i - 1).getIndex());
+			}
+		}
+		List<P> addedItems = new ArrayList<P>(size);
+		synchronized (this) {
+			// items preceding the current head are added to the head, starting from the nearest one
+			int split = 0;
+			if (end > start) {
+				long firstIndex = indexAt(start);
+				while (split < size && indexes[split] < firstIndex) {
+					split++;
+				}
+			}
+			// as for the tail, only the first of the items with the same index is added
+			for (int i = split - 1; i >= 0; i--) {
+				if (i == 0 || indexes[i] > indexes[i - 1]) {
+					prepend(indexes[i], sortedItems.get(i));
+				}
+			}
+			for (int i = 0; i < split; i++) {
+				if (i == 0 || indexes[i] > indexes[i - 1]) {
+					addedItems.add(sortedItems.get(i));
+				}
+			}
+			for (int i = split; i < size; i++) {
+				if (end == start || indexes[i] > indexAt(end - 1)) {
+					append(indexes[i], sortedItems.get(i));
+					addedItems.add(sortedItems.get(i));
+				}
+			}
+		} // release lock before running arbitrary code
+		SeriesListenerSupport.notifyItemsAdded(listeners, addedItems);
+	}
+
+	@Override
+	public void insertFromTail(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			int slot = lowerBound(index);
+			if (slot == end) {
+				append(index, item);
+			} else {
+				P sameOrNextIndexPoint = pointAt(slot);
+				checkDuplicate(item, sameOrNextIndexPoint);
+				if (indexAt(slot) == index && isEnforceStrictSequence()) {
+					throw new IllegalArgumentException("Item index: " + item.getIndex() + " is not unique");
+				}
+				insert(slot, index, item);
+			}
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void updateTail(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		P previousItem = null;
+		synchronized (this) {
+			if (end > start && index == indexAt(end - 1)) {
+				previousItem = last;
+				writeRow(end - 1, index, item);
+				rangeIndex.updated(end - 1, start, end);
+				modCount++;
+				last = item;
+				if (end - start == 1) {
+					first = item;
+				}
+				changed(item, false);
+			} else {
+				throw new IllegalArgumentException("Item with index: " + item.getIndex() + " no tail of series");
+			}
+			updateTimestamp();
+		} // release lock before running arbitrary code
+		if (listeners != null) {
+			for (ISeriesListener<A, O> listener : listeners) {
+				listener.onItemUpdated(previousItem, item);
+			}
+		}
+	}
+
+	/**
+	 * Positional access
+	 * @param position the position of the data-point, starting from 0
+	 * @return the data-point
+	 * @throws IndexOutOfBoundsException if the position is not between 0 and size - 1
+	 */
+	public synchronized P get(int position) {
+		if (position < 0 || position >= end - start) {
+			throw new IndexOutOfBoundsException("Position: " + position + "; size: " + (end - start));
+		}
+		return pointAt(start + position);
+	}
+
+	/**
+	 * Binary search of a data-point by abscissa
+	 * @param index the abscissa to search for
+	 * @return the position of the first data-point with the specified abscissa, if any; otherwise <code>(-(insertion point) - 1)</code>
+	 */
+	public synchronized int indexOf(A index) {
+		long key = layout.encodeIndex(index);
+		int slot = lowerBound(key);
+		if (slot < end && indexAt(slot) == key) {
+			return slot - start;
+		} else {
+			return -(slot - start) - 1;
+		}
+	}
+
+	/**
+	 * Lock-free
+	 */
+	@Override
+	public P getFirst() {
+		return first;
+	}
+
+	/**
+	 * Lock-free
+	 */
+	@Override
+	public P getLast() {
+		return last;
+	}
+
+	@Override
+	public synchronized P getMinimum() {
+		return pointOrNull(rangeIndex.minimum());
+	}
+
+	@Override
+	public synchronized P getMaximum() {
+		return pointOrNull(rangeIndex.maximum());
+	}
+
+	@Override
+	public synchronized P getMinimum(A from, A to) {
+		return pointOrNull(rangeIndex.minimum(from == null ? start : lowerBound(layout.encodeIndex(from)), to == null ? end : lowerBound(layout.encodeIndex(to))));
+	}
+
+	@Override
+	public synchronized P getMaximum(A from, A to) {
+		return pointOrNull(rangeIndex.maximum(from == null ? start : lowerBound(layout.encodeIndex(from)), to == null ? end : lowerBound(layout.encodeIndex(to))));
+	}
+
+	@Override
+	public synchronized INavigableSeries<A, O, P> subSeries(A from, A to) {
+		int fromSlot = from == null ? start : lowerBound(layout.encodeIndex(from));
+		int toSlot = to == null ? end : lowerBound(layout.encodeIndex(to));
+		return new Snapshot(fromSlot, Math.max(fromSlot, toSlot));
+	}
+
+	@Override
+	public INavigableSeries<A, O, P> headSeries(A to) {
+		return subSeries(null, to);
+	}
+
+	@Override
+	public INavigableSeries<A, O, P> tailSeries(A from) {
+		return subSeries(from, null);
+	}
+
+	@Override
+	public synchronized IColumnCursor columnCursor(A from) {
+		int fromSlot = from == null ? start : lowerBound(layout.encodeIndex(from));
+		// the cursor reads the current chunks, as a snapshot does
+		sharedFrom = Math.min(sharedFrom, fromSlot);
+		return newColumnCursor(indexChunks, valueChunks, origin, fromSlot, end, end - 1, last, false);
+	}
+
+	@Override
+	public synchronized IColumnCursor descendingColumnCursor() {
+		sharedFrom = Math.min(sharedFrom, start);
+		return newColumnCursor(indexChunks, valueChunks, origin, start, end, end - 1, last, true);
+	}
+
+	/**
+	 * Snapshot column spliterator, splitting in constant time
+	 */
+	@Override
+	public synchronized IColumnSpliterator columnSpliterator() {
+		sharedFrom = Math.min(sharedFrom, start);
+		return newColumnCursor(indexChunks, valueChunks, origin, start, end, end - 1, last, false);
+	}
+
+	@Override
+	public synchronized P floor(A index) {
+		int slot = upperBound(layout.encodeIndex(index)) - 1;
+		return slot >= start ? pointAt(slot) : null;
+	}
+
+	@Override
+	public synchronized P ceiling(A index) {
+		int slot = lowerBound(layout.encodeIndex(index));
+		return slot < end ? pointAt(slot) : null;
+	}
+
+	@Override
+	public synchronized void addSeriesListener(ISeriesListener<A, O> listener) {
+		if (listeners == null) {
+			listeners = new CopyOnWriteArrayList<ISeriesListener<A, O>>();
+		}
+		listeners.add(listener);
+	}
+
+	@Override
+	public synchronized void removeSeriesListener(ISeriesListener<A, O> listener) {
+		if (listeners != null) {
+			listeners.remove(listener);
+		}
+	}
+
+	/**
+	 * Lock-free: returns the size as published by the last completed change
+	 */
+	@Override
+	public int size() {
+		return publishedSize;
+	}
+
+	/**
+	 * Lock-free: see {@link #size()}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return publishedSize == 0;
+	}
+
+	/**
+	 * Snapshot iterator.
+	 * The creation of the iterator does not copy the series content.
+	 */
+	@Override
+	public synchronized Iterator<P> iterator() {
+		return new Snapshot(start, end).iterator();
+	}
+
+	/**
+	 * Snapshot descending iterator.
+	 * The creation of the iterator does not copy the series content.
+	 */
+	@Override
+	public synchronized Iterator<P> descendingIterator() {
+		return new Snapshot(start, end).descendingIterator();
+	}
+
+	/**
+	 * Snapshot spliterator, splitting in constant time.
+	 * The creation of the spliterator does not copy the series content.
+	 */
+	@Override
+	public synchronized ISeriesSpliterator<P> seriesSpliterator() {
+		return new Snapshot(start, end).seriesSpliterator();
+	}
+
+	@Override
+	public boolean isEnforceStrictSequence() {
+		return enforceStrictSequence;
+	}
+
+	@Override
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public synchronized ISeriesChanges<A, O, P> changesSince(long version) {
+		if (changeLog == null) {
+			changeLog = new SeriesChangeLog<A, O, P>(this.version);
+		}
+		return changeLog.changesSince(version, this.version);
+	}
+
+	@Override
+	public int evictBefore(A index, int maxCount) {
+		long bound = layout.encodeIndex(index);
+		int count;
+		A firstIndex;
+		synchronized (this) {
+			int slot = lowerBound(bound);
+			if (slot - start > maxCount) {
+				slot = start + maxCount;
+			}
+			count = slot - start;
+			if (count <= 0) {
+				return 0;
+			}
+			int oldStart = start;
+			start = slot;
+			releaseChunks();
+			modCount++;
+			rangeIndex.shifted(oldStart, start, start, end);
+			if (start == end) {
+				first = null;
+				last = null;
+			} else {
+				first = start == end - 1 ? last : decodeAt(start);
+			}
+			publishedSize = end - start;
+			version++;
+			if (changeLog != null) {
+				changeLog.truncate(version);
+			}
+			updateTimestamp();
+			firstIndex = first != null ? first.getIndex() : index;
+		} // release lock before running arbitrary code
+		SeriesListenerSupport.notifyItemsEvicted(listeners, firstIndex, count);
+		return count;
+	}
+
+	@Override
+	public synchronized void clear() {
+		reset();
+		version++;
+		if (changeLog != null) {
+			changeLog.truncate(version);
+		}
+	}
+
+	@Override
+	public IMutableSeries<A, O, P> createEmptyMutableSeries(String ID) {
+		return new ArraySeries<A, O, P>(ID, layout, isEnforceStrictSequence());
+	}
+
+	private void reset() {
+		// new arrays, since the old ones can be still referenced by iterators
+		indexChunks = new long[1][];
+		valueChunks = new double[1][];
+		origin = 0;
+		start = 0;
+		end = 0;
+		publishedSize = 0;
+		first = null;
+		last = null;
+		modCount++;
+		sharedFrom = Integer.MAX_VALUE;
+		rangeIndex.reset();
+	}
+
+	private void append(long index, P item) {
+		ensureCapacityAtEnd();
+		writeRow(end, index, item);
+		end++;
+		rangeIndex.added(end - 1, start, end);
+		last = item;
+		if (end - start == 1) {
+			first = item;
+		}
+		publishedSize = end - start;
+		changed(item, true);
+		updateTimestamp();
+	}
+
+	private void prepend(long index, P item) {
+		ensureCapacityAtStart();
+		if (start - 1 >= sharedFrom) {
+			// copy-on-write: the row preceding the first point has been evicted, but it can still be read by snapshots.
+			// The chunks before it have been released, so the copy of its chunk is all that snapshots can share
+			int chunk = (start - 1 - origin) >> CHUNK_BITS;
+			indexChunks = indexChunks.clone();
+			valueChunks = valueChunks.clone();
+			indexChunks[chunk] = indexChunks[chunk].clone();
+			valueChunks[chunk] = valueChunks[chunk].clone();
+			sharedFrom = Integer.MAX_VALUE;
+		}
+		start--;
+		writeRow(start, index, item);
+		rangeIndex.added(start, start, end);
+		first = item;
+		if (end - start == 1) {
+			last = item;
+		}
+		publishedSize = end - start;
+		changed(item, true);
+		updateTimestamp();
+	}
+
+	private void insert(int slot, long index, P item) {
+		ensureCapacityAtEnd();
+		// copy-on-write of the chunks affected by the shift, so that existing iterators are not affected
+		int firstChunk = (slot - origin) >> CHUNK_BITS;
+		int lastChunk = (end - origin) >> CHUNK_BITS;
+		indexChunks = indexChunks.clone();
+		valueChunks = valueChunks.clone();
+		for (int chunk = firstChunk; chunk <= lastChunk; chunk++) {
+			indexChunks[chunk] = indexChunks[chunk].clone();
+			valueChunks[chunk] = valueChunks[chunk].clone();
+		}
+		for (int s = end; s > slot; s--) {
+			copyRow(s - 1, s);
+		}
+		writeRow(slot, index, item);
+		end++;
+		modCount++;
+		rangeIndex.shifted(slot, end, start, end);
+		if (slot == start) {
+			first = item;
+		}
+		publishedSize = end - start;
+		changed(item, true);
+		updateTimestamp();
+	}
+
+	private void ensureCapacityAtEnd() {
+		int chunk = (end - origin) >> CHUNK_BITS;
+		if (chunk == indexChunks.length) {
+			indexChunks = Arrays.copyOf(indexChunks, chunk * 2);
+			valueChunks = Arrays.copyOf(valueChunks, chunk * 2);
+		}
+		allocateChunk(chunk);
+	}
+
+	private void ensureCapacityAtStart() {
+		if (start == origin) {
+			int extraChunks = indexChunks.length;
+			long[][] newIndexChunks = new long[extraChunks * 2][];
+			double[][] newValueChunks = new double[extraChunks * 2][];
+			System.arraycopy(indexChunks, 0, newIndexChunks, extraChunks, extraChunks);
+			System.arraycopy(valueChunks, 0, newValueChunks, extraChunks, extraChunks);
+			indexChunks = newIndexChunks;
+			valueChunks = newValueChunks;
+			origin -= extraChunks << CHUNK_BITS;
+		}
+		allocateChunk((start - 1 - origin) >> CHUNK_BITS);
+	}
+
+	/**
+	 * Release the chunks preceding the first data-point, moving the others to the beginning of the directories
+	 */
+	private void releaseChunks() {
+		int firstChunk = (start - origin) >> CHUNK_BITS;
+		if (firstChunk == 0) {
+			return;
+		}
+		// new directories, since the old ones can be still referenced by iterators
+		long[][] newIndexChunks = new long[indexChunks.length][];
+		double[][] newValueChunks = new double[valueChunks.length][];
+		System.arraycopy(indexChunks, firstChunk, newIndexChunks, 0, indexChunks.length - firstChunk);
+		System.arraycopy(valueChunks, firstChunk, newValueChunks, 0, valueChunks.length - firstChunk);
+		indexChunks = newIndexChunks;
+		valueChunks = newValueChunks;
+		origin += firstChunk << CHUNK_BITS;
+	}
+
+	private void allocateChunk(int chunk) {
+		if (indexChunks[chunk] == null) {
+			indexChunks[chunk] = new long[CHUNK_SIZE];
+			valueChunks[chunk] = new double[CHUNK_SIZE * width];
+		}
+	}
+
+	private void writeRow(int slot, long index, P item) {
+		int pos = slot - origin;
+		int chunk = pos >> CHUNK_BITS;
+		int offset = pos & CHUNK_MASK;
+		indexChunks[chunk][offset] = index;
+		layout.encode(item, valueChunks[chunk], offset * width);
+	}
+
+	private void copyRow(int fromSlot, int toSlot) {
+		int fromPos = fromSlot - origin;
+		int toPos = toSlot - origin;
+		indexChunks[toPos >> CHUNK_BITS][toPos & CHUNK_MASK] = indexChunks[fromPos >> CHUNK_BITS][fromPos & CHUNK_MASK];
+		System.arraycopy(valueChunks[fromPos >> CHUNK_BITS], (fromPos & CHUNK_MASK) * width, valueChunks[toPos >> CHUNK_BITS], (toPos & CHUNK_MASK) * width, width);
+	}
+
+	private long indexAt(int slot) {
+		int pos = slot - origin;
+		return indexChunks[pos >> CHUNK_BITS][pos & CHUNK_MASK];
+	}
+
+	private double valueAt(int slot, int column) {
+		int pos = slot - origin;
+		return valueChunks[pos >> CHUNK_BITS][(pos & CHUNK_MASK) * width + column];
+	}
+
+	private P pointAt(int slot) {
+		if (slot == end - 1) {
+			return last;
+		}
+		if (slot == start) {
+			return first;
+		}
+		return decodeAt(slot);
+	}
+
+	private P decodeAt(int slot) {
+		int pos = slot - origin;
+		int chunk = pos >> CHUNK_BITS;
+		int offset = pos & CHUNK_MASK;
+		return layout.decode(indexChunks[chunk][offset], valueChunks[chunk], offset * width);
+	}
+
+	private P pointOrNull(int slot) {
+		return slot == SeriesRangeIndex.NONE ? null : pointAt(slot);
+	}
+
+	private ChunkCursor newColumnCursor(long[][] indexChunks, double[][] valueChunks, int origin, int from, int to, int tailSlot, P tail, boolean descending) {
+		long tailIndex = 0;
+		double[] tailRow = null;
+		if (tail != null && tailSlot >= from && tailSlot < to) {
+			tailIndex = layout.encodeIndex(tail.getIndex());
+			tailRow = new double[width];
+			layout.encode(tail, tailRow, 0);
+		}
+		return new ChunkCursor(indexChunks, valueChunks, origin, width, from, to, tailSlot, tailIndex, tailRow, descending);
+	}
+
+	private int lowerBound(long index) {
+		return lowerBound(indexChunks, origin, index, start, end);
+	}
+
+	private int upperBound(long index) {
+		return upperBound(indexChunks, origin, index, start, end);
+	}
+
+	/**
+	 * @return the first slot with abscissa not less than the given one, or <code>to</code>
+	 */
+	private static int lowerBound(long[][] indexChunks, int origin, long index, int from, int to) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = low + ((high - low) >> 1);
+			int pos = mid - origin;
+			if (indexChunks[pos >> CHUNK_BITS][pos & CHUNK_MASK] < index) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the first slot with abscissa greater than the given one, or <code>to</code>
+	 */
+	private static int upperBound(long[][] indexChunks, int origin, long index, int from, int to) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = low + ((high - low) >> 1);
+			int pos = mid - origin;
+			if (indexChunks[pos >> CHUNK_BITS][pos & CHUNK_MASK] <= index) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private SeriesRangeIndex createRangeIndex() {
+		return new SeriesRangeIndex() {
+			@Override
+			protected int compareBottom(int slot1, int slot2) {
+				int column = layout.getBottomValueColumn();
+				return Double.compare(valueAt(slot1, column), valueAt(slot2, column));
+			}
+
+			@Override
+			protected int compareTop(int slot1, int slot2) {
+				int column = layout.getTopValueColumn();
+				return Double.compare(valueAt(slot1, column), valueAt(slot2, column));
+			}
+		};
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		publishedSize = end - start;
+		sharedFrom = Integer.MAX_VALUE;
+		rangeIndex = createRangeIndex();
+		rangeIndex.rebuild(start, end);
+	}
+
+	private void notifyItemAdded(P item) {
+		if (listeners != null) {
+			for (ISeriesListener<A, O> listener : listeners) {
+				listener.onItemAdded(item);
+			}
+		}
+	}
+
+	/**
+	 * Must be called with the lock held, for each added or updated data-point
+	 */
+	private void changed(P item, boolean addition) {
+		version++;
+		if (changeLog != null) {
+			changeLog.record(version, item, addition);
+		}
+	}
+
+	private void updateTimestamp() {
+		timestamp = System.currentTimeMillis();
+	}
+
+	private void checkDuplicate(P item1, P item2) {
+		if (item1.equals(item2)) {
+			throw new IllegalArgumentException("Duplicate item: " + item1);
+		}
+	}
+
+	/**
+	 * Cursor over a range of slots, reading the rows in place from the chunks.
+	 * The remaining slots can be split in halves at any time.
+	 */
+	private static class ChunkCursor implements IColumnSpliterator {
+		private final long[][] indexChunks;
+		private final double[][] valueChunks;
+		private final int origin;
+		private final int width;
+		private final int from;
+		private final int to;
+		private final boolean descending;
+		// the tail row can be rewritten in place by the series, so a copy is taken
+		private final int tailSlot;
+		private final long tailIndex;
+		private final double[] tailRow;
+		private int slot;
+		private long index;
+		private double[] row;
+		private int offset;
+
+		ChunkCursor(long[][] indexChunks, double[][] valueChunks, int origin, int width, int from, int to, int tailSlot, long tailIndex, double[] tailRow, boolean descending) {
+			this.indexChunks = indexChunks;
+			this.valueChunks = valueChunks;
+			this.origin = origin;
+			this.width = width;
+			this.from = from;
+			this.to = to;
+			this.tailSlot = tailSlot;
+			this.tailIndex = tailIndex;
+			this.tailRow = tailRow;
+			this.descending = descending;
+			slot = descending ? to : from - 1;
+		}
+
+		@Override
+		public boolean advance() {
+			int nextSlot = descending ? slot - 1 : slot + 1;
+			if (nextSlot < from || nextSlot >= to) {
+				return false;
+			}
+			slot = nextSlot;
+			if (slot == tailSlot) {
+				index = tailIndex;
+				row = tailRow;
+				offset = 0;
+			} else {
+				int pos = slot - origin;
+				int chunk = pos >> CHUNK_BITS;
+				index = indexChunks[chunk][pos & CHUNK_MASK];
+				row = valueChunks[chunk];
+				offset = (pos & CHUNK_MASK) * width;
+			}
+			return true;
+		}
+
+		@Override
+		public long index() {
+			return index;
+		}
+
+		@Override
+		public double column(int column) {
+			return row[offset + column];
+		}
+
+		@Override
+		public int size() {
+			return descending ? slot - from : to - slot - 1;
+		}
+
+		/**
+		 * The first part of the remaining slots is the lower half for ascending cursors, the upper half for descending ones
+		 */
+		@Override
+		public IColumnSpliterator trySplit() {
+			int remaining = size();
+			if (remaining < 2) {
+				return null;
+			}
+			ChunkCursor prefix;
+			if (descending) {
+				int mid = slot - (remaining >> 1);
+				prefix = new ChunkCursor(indexChunks, valueChunks, origin, width, mid, slot, tailSlot, tailIndex, tailRow, true);
+				slot = mid;
+			} else {
+				int mid = slot + 1 + (remaining >> 1);
+				prefix = new ChunkCursor(indexChunks, valueChunks, origin, width, slot + 1, mid, tailSlot, tailIndex, tailRow, false);
+				slot = mid - 1;
+			}
+			return prefix;
+		}
+	}
+
+	/**
+	 * View over the state of the series at the time of creation.
+	 * Only the chunk directories are referenced: chunks are never modified in the range of
+	 * an existing snapshot, apart from the last row, which is therefore captured separately.
+	 */
+	private class Snapshot extends SeriesSnapshot<A, O, P> implements IColumnarSeries<A, O, P> {
+		private final long[][] indexChunks;
+		private final double[][] valueChunks;
+		private final int origin;
+		private final int firstSlot;
+		private final int lastSlot;
+		private final P first;
+		private final P last;
+		private final int modCount;
+
+		/**
+		 * Must be called with the lock held
+		 */
+		Snapshot(int from, int to) {
+			super(ArraySeries.this, from, to, ArraySeries.this.timestamp);
+			this.indexChunks = ArraySeries.this.indexChunks;
+			this.valueChunks = ArraySeries.this.valueChunks;
+			this.origin = ArraySeries.this.origin;
+			this.firstSlot = ArraySeries.this.start;
+			sharedFrom = Math.min(sharedFrom, firstSlot);
+			this.lastSlot = ArraySeries.this.end - 1;
+			this.first = ArraySeries.this.first;
+			this.last = ArraySeries.this.last;
+			this.modCount = ArraySeries.this.modCount;
+		}
+
+		private Snapshot(Snapshot parent, int from, int to) {
+			super(ArraySeries.this, from, to, parent.getTimestamp());
+			this.indexChunks = parent.indexChunks;
+			this.valueChunks = parent.valueChunks;
+			this.origin = parent.origin;
+			this.firstSlot = parent.firstSlot;
+			this.lastSlot = parent.lastSlot;
+			this.first = parent.first;
+			this.last = parent.last;
+			this.modCount = parent.modCount;
+		}
+
+		@Override
+		protected P pointAt(int slot) {
+			if (slot == lastSlot) {
+				return last;
+			}
+			if (slot == firstSlot) {
+				return first;
+			}
+			int pos = slot - origin;
+			int chunk = pos >> CHUNK_BITS;
+			int offset = pos & CHUNK_MASK;
+			return layout.decode(indexChunks[chunk][offset], valueChunks[chunk], offset * width);
+		}
+
+		@Override
+		protected int lowerBound(A index, int from, int to) {
+			return ArraySeries.lowerBound(indexChunks, origin, layout.encodeIndex(index), from, to);
+		}
+
+		@Override
+		protected int upperBound(A index, int from, int to) {
+			return ArraySeries.upperBound(indexChunks, origin, layout.encodeIndex(index), from, to);
+		}
+
+		@Override
+		protected int minimumSlot(int from, int to) {
+			synchronized (ArraySeries.this) {
+				if (modCount == ArraySeries.this.modCount) {
+					return rangeIndex.minimum(from, to);
+				}
+			}
+			return scanMinimum(from, to);
+		}
+
+		@Override
+		protected int maximumSlot(int from, int to) {
+			synchronized (ArraySeries.this) {
+				if (modCount == ArraySeries.this.modCount) {
+					return rangeIndex.maximum(from, to);
+				}
+			}
+			return scanMaximum(from, to);
+		}
+
+		@Override
+		protected SeriesSnapshot<A, O, P> slice(int from, int to) {
+			return new Snapshot(this, from, to);
+		}
+
+		@Override
+		public IColumnLayout<A, O, P> getLayout() {
+			return layout;
+		}
+
+		@Override
+		public IColumnCursor columnCursor(A from) {
+			int fromSlot = from == null ? getStart() : lowerBound(from, getStart(), getEnd());
+			return newColumnCursor(indexChunks, valueChunks, origin, fromSlot, getEnd(), lastSlot, last, false);
+		}
+
+		@Override
+		public IColumnCursor descendingColumnCursor() {
+			return newColumnCursor(indexChunks, valueChunks, origin, getStart(), getEnd(), lastSlot, last, true);
+		}
+
+		@Override
+		public IColumnSpliterator columnSpliterator() {
+			return newColumnCursor(indexChunks, valueChunks, origin, getStart(), getEnd(), lastSlot, last, false);
+		}
+	}
+}
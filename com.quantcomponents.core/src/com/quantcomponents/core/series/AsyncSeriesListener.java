@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.IMutableSeriesPoint;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Series listener that decouples the notifying thread from a slow listener.
+ * Notifications are stored in a bounded lock-free ring buffer, and delivered to the wrapped listener
+ * by a consumer task running on an {@link Executor}, in the same order as they have been received.
+ * The executor can be shared among many instances: each instance never runs more than one consumer task at a time.
+ * When the buffer is full the behavior depends on the {@link OverflowPolicy}.
+ * Data-points updated in place by their series, see {@link IMutableSeriesPoint}, are queued as immutable copies.
+ * <p>
+ * Register the instance of this class with the series, and use the same instance to remove the listener;
+ * call {@link #close()} when it is no longer needed.
+ * </p>
+ *
+ * @param <A> type of the abscissa
+ * @param <O> type of the ordinate
+ */
+public class AsyncSeriesListener<A extends Comparable<A>, O extends Comparable<O>> implements IBatchSeriesListener<A, O>, IEvictionSeriesListener<A, O> {
+	private static final Logger logger = Logger.getLogger(AsyncSeriesListener.class.getName());
+	public static final int DEFAULT_CAPACITY = 1024;
+	// maximum number of notifications delivered by a single run of the consumer, to share the executor threads fairly
+	private static final int MAX_EVENTS_PER_RUN = 256;
+	private static final long BLOCKING_PARK_NANOS = 10000L;
+
+	/**
+	 * Behavior of the notifying thread when the buffer is full
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Wait until the consumer makes room.
+		 * A listener must never trigger notifications to itself with this policy, since it would wait for its own consumer
+		 */
+		BLOCK,
+		/**
+		 * Discard the oldest notification in the buffer
+		 */
+		DROP_OLDEST,
+		/**
+		 * Replace pending updates of the same abscissa with the most recent one, and wait as {@link #BLOCK} when the buffer is full anyway.
+		 * The conflated update is delivered in the position of the first one, with the existing data-point of the first one
+		 */
+		CONFLATE
+	}
+
+	private static final int ITEM_ADDED = 0;
+	private static final int ITEMS_ADDED = 1;
+	private static final int ITEM_UPDATED = 2;
+	private static final int ITEMS_EVICTED = 3;
+
+	private static class Event<A extends Comparable<A>, O extends Comparable<O>> {
+		final int type;
+		final ISeriesPoint<A, O> item;
+		final List<? extends ISeriesPoint<A, O>> items;
+		// null once the consumer has taken it
+		final AtomicReference<ISeriesPoint<A, O>> updatedItem;
+		final A evictionIndex;
+		final int evictionCount;
+
+		Event(int type, ISeriesPoint<A, O> item, List<? extends ISeriesPoint<A, O>> items, ISeriesPoint<A, O> updatedItem) {
+			this(type, item, items, updatedItem, null, 0);
+		}
+
+		Event(int type, ISeriesPoint<A, O> item, List<? extends ISeriesPoint<A, O>> items, ISeriesPoint<A, O> updatedItem, A evictionIndex, int evictionCount) {
+			this.type = type;
+			this.item = item;
+			this.items = items;
+			this.updatedItem = new AtomicReference<ISeriesPoint<A, O>>(updatedItem);
+			this.evictionIndex = evictionIndex;
+			this.evictionCount = evictionCount;
+		}
+
+		boolean replaceUpdatedItem(ISeriesPoint<A, O> newUpdatedItem) {
+			while (true) {
+				ISeriesPoint<A, O> current = updatedItem.get();
+				if (current == null) {
+					return false;
+				}
+				if (updatedItem.compareAndSet(current, newUpdatedItem)) {
+					return true;
+				}
+			}
+		}
+
+		ISeriesPoint<A, O> takeUpdatedItem() {
+			return updatedItem.getAndSet(null);
+		}
+	}
+
+	private final ISeriesListener<A, O> listener;
+	private final OverflowPolicy overflowPolicy;
+	private final SeriesEventRing<Event<A, O>> buffer;
+	private final Executor executor;
+	private final ExecutorService ownExecutor;
+	private final ConcurrentMap<A, Event<A, O>> pendingUpdates = new ConcurrentHashMap<A, Event<A, O>>();
+	private final AtomicBoolean consumerScheduled = new AtomicBoolean();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong conflatedCount = new AtomicLong();
+	private final AtomicLong deliveredCount = new AtomicLong();
+	private volatile boolean closed;
+
+	private final Runnable consumer = new Runnable() {
+		@Override
+		public void run() {
+			int count = 0;
+			Event<A, O> event;
+			while (!closed && count < MAX_EVENTS_PER_RUN && (event = buffer.poll()) != null) {
+				deliver(event);
+				count++;
+			}
+			consumerScheduled.set(false);
+			if (!buffer.isEmpty()) {
+				scheduleConsumer();
+			}
+		}
+	};
+
+	/**
+	 * Create an instance with the default capacity and its own consumer thread
+	 */
+	public AsyncSeriesListener(ISeriesListener<A, O> listener, OverflowPolicy overflowPolicy) {
+		this(listener, overflowPolicy, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create an instance with its own consumer thread
+	 */
+	public AsyncSeriesListener(ISeriesListener<A, O> listener, OverflowPolicy overflowPolicy, int capacity) {
+		this(listener, overflowPolicy, capacity, null);
+	}
+
+	/**
+	 * @param listener the listener to be notified
+	 * @param overflowPolicy the behavior when the buffer is full
+	 * @param capacity the minimum capacity of the buffer, rounded up to a power of two
+	 * @param executor the executor running the consumer; if null a single daemon thread is created, and terminated by {@link #close()}
+	 */
+	public AsyncSeriesListener(ISeriesListener<A, O> listener, OverflowPolicy overflowPolicy, int capacity, Executor executor) {
+		this.listener = listener;
+		this.overflowPolicy = overflowPolicy;
+		buffer = new SeriesEventRing<Event<A, O>>(capacity);
+		if (executor == null) {
+			ownExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Series listener dispatcher");
+					thread.setDaemon(true);
+					return thread;
+				}});
+			this.executor = ownExecutor;
+		} else {
+			ownExecutor = null;
+			this.executor = executor;
+		}
+	}
+
+	@Override
+	public void onItemAdded(ISeriesPoint<A, O> newItem) {
+		enqueue(new Event<A, O>(ITEM_ADDED, SeriesListenerSupport.stableItem(newItem), null, null));
+	}
+
+	@Override
+	public void onItemsAdded(List<? extends ISeriesPoint<A, O>> newItems) {
+		List<ISeriesPoint<A, O>> items = new ArrayList<ISeriesPoint<A, O>>(newItems.size());
+		for (ISeriesPoint<A, O> newItem : newItems) {
+			items.add(SeriesListenerSupport.stableItem(newItem));
+		}
+		enqueue(new Event<A, O>(ITEMS_ADDED, null, items, null));
+	}
+
+	@Override
+	public void onItemUpdated(ISeriesPoint<A, O> existingItem, ISeriesPoint<A, O> updatedItem) {
+		existingItem = SeriesListenerSupport.stableItem(existingItem);
+		updatedItem = SeriesListenerSupport.stableItem(updatedItem);
+		if (overflowPolicy == OverflowPolicy.CONFLATE) {
+			A index = updatedItem.getIndex();
+			Event<A, O> pending = pendingUpdates.get(index);
+			if (pending != null && pending.replaceUpdatedItem(updatedItem)) {
+				conflatedCount.incrementAndGet();
+				return;
+			}
+			Event<A, O> event = new Event<A, O>(ITEM_UPDATED, existingItem, null, updatedItem);
+			pendingUpdates.put(index, event);
+			enqueue(event);
+		} else {
+			enqueue(new Event<A, O>(ITEM_UPDATED, existingItem, null, updatedItem));
+		}
+	}
+
+	@Override
+	public void onItemsEvicted(A index, int count) {
+		enqueue(new Event<A, O>(ITEMS_EVICTED, null, null, null, index, count));
+	}
+
+	/**
+	 * Stop delivering notifications: pending ones are discarded
+	 */
+	public void close() {
+		closed = true;
+		pendingUpdates.clear();
+		if (ownExecutor != null) {
+			ownExecutor.shutdown();
+		}
+	}
+
+	public ISeriesListener<A, O> getListener() {
+		return listener;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public int getCapacity() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * @return the number of notifications waiting to be delivered
+	 */
+	public int getQueueDepth() {
+		return buffer.size();
+	}
+
+	/**
+	 * @return the number of notifications discarded by the {@link OverflowPolicy#DROP_OLDEST} policy
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * @return the number of updates merged into pending ones by the {@link OverflowPolicy#CONFLATE} policy
+	 */
+	public long getConflatedCount() {
+		return conflatedCount.get();
+	}
+
+	/**
+	 * @return the number of notifications delivered to the listener
+	 */
+	public long getDeliveredCount() {
+		return deliveredCount.get();
+	}
+
+	private void enqueue(Event<A, O> event) {
+		while (!closed && !buffer.offer(event)) {
+			if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+				if (buffer.poll() != null) {
+					droppedCount.incrementAndGet();
+				}
+			} else {
+				scheduleConsumer();
+				LockSupport.parkNanos(BLOCKING_PARK_NANOS);
+			}
+		}
+		scheduleConsumer();
+	}
+
+	private void scheduleConsumer() {
+		if (!closed && consumerScheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(consumer);
+			} catch (RejectedExecutionException e) {
+				consumerScheduled.set(false);
+				logger.log(Level.WARNING, "Series listener consumer rejected by executor", e);
+			}
+		}
+	}
+
+	private void deliver(Event<A, O> event) {
+		try {
+			switch (event.type) {
+			case ITEM_ADDED:
+				listener.onItemAdded(event.item);
+				break;
+			case ITEMS_ADDED:
+				SeriesListenerSupport.notifyItemsAdded(Collections.singletonList(listener), event.items);
+				break;
+			case ITEM_UPDATED:
+				ISeriesPoint<A, O> updatedItem = event.takeUpdatedItem();
+				if (overflowPolicy == OverflowPolicy.CONFLATE) {
+					pendingUpdates.remove(updatedItem.getIndex(), event);
+				}
+				listener.onItemUpdated(event.item, updatedItem);
+				break;
+			case ITEMS_EVICTED:
+				SeriesListenerSupport.notifyItemsEvicted(Collections.singletonList(listener), event.evictionIndex, event.evictionCount);
+				break;
+			}
+		} catch (RuntimeException e) {
+			logger.log(Level.SEVERE, "Exception while notifying series listener: " + listener, e);
+		}
+		deliveredCount.incrementAndGet();
+	}
+}
@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Immutable block of rows of a {@link CompressedSeries}, compressed as in the Gorilla time series database.
+ * The first row is stored as is; for the following rows, the abscissa is stored as the difference between
+ * consecutive deltas, and each column as the XOR with the value of the same column in the previous row.
+ * Regular abscissas and values that change slowly, as in most market data, take a few bits for each row.
+ * Rows can only be decoded sequentially, from the first one.
+ */
+final class CompressedBlock implements Serializable {
+	private static final long serialVersionUID = -2471335302519829587L;
+	private final int count;
+	private final int width;
+	private final long firstIndex;
+	private final long lastIndex;
+	private final int minimumRow;
+	private final double minimumValue;
+	private final int maximumRow;
+	private final double maximumValue;
+	private final long[] words;
+
+	private CompressedBlock(int count, int width, long firstIndex, long lastIndex, int minimumRow, double minimumValue, int maximumRow, double maximumValue, long[] words) {
+		this.count = count;
+		this.width = width;
+		this.firstIndex = firstIndex;
+		this.lastIndex = lastIndex;
+		this.minimumRow = minimumRow;
+		this.minimumValue = minimumValue;
+		this.maximumRow = maximumRow;
+		this.maximumValue = maximumValue;
+		this.words = words;
+	}
+
+	/**
+	 * Compress a sequence of rows
+	 * @param indexes the primitive abscissas
+	 * @param values the values, <code>width</code> columns for each row
+	 * @param from the first row to compress
+	 * @param count the number of rows, greater than 0
+	 * @param width the number of columns
+	 * @param bottomColumn the column with the bottom value, used to keep the minimum of the block
+	 * @param topColumn the column with the top value, used to keep the maximum of the block
+	 */
+	static CompressedBlock encode(long[] indexes, double[] values, int from, int count, int width, int bottomColumn, int topColumn) {
+		BitWriter writer = new BitWriter(count * (2 + width));
+		long[] previousBits = new long[width];
+		int[] previousLeading = new int[width];
+		int[] previousTrailing = new int[width];
+		int minimumRow = 0;
+		int maximumRow = 0;
+		long previousIndex = indexes[from];
+		long previousDelta = 0;
+		writer.write(previousIndex, 64);
+		for (int column = 0; column < width; column++) {
+			previousBits[column] = Double.doubleToRawLongBits(values[from * width + column]);
+			previousLeading[column] = -1;
+			writer.write(previousBits[column], 64);
+		}
+		for (int row = 1; row < count; row++) {
+			int offset = (from + row) * width;
+			long index = indexes[from + row];
+			long delta = index - previousIndex;
+			writeDeltaOfDelta(writer, delta - previousDelta);
+			previousIndex = index;
+			previousDelta = delta;
+			for (int column = 0; column < width; column++) {
+				long bits = Double.doubleToRawLongBits(values[offset + column]);
+				long xor = bits ^ previousBits[column];
+				if (xor == 0) {
+					writer.write(0, 1);
+				} else {
+					int leading = Long.numberOfLeadingZeros(xor);
+					int trailing = Long.numberOfTrailingZeros(xor);
+					if (previousLeading[column] >= 0 && leading >= previousLeading[column] && trailing >= previousTrailing[column]) {
+						// meaningful bits within the window of the previous value
+						writer.write(2, 2);
+						writer.write(xor >>> previousTrailing[column], 64 - previousLeading[column] - previousTrailing[column]);
+					} else {
+						int meaningful = 64 - leading - trailing;
+						writer.write(3, 2);
+						writer.write(leading, 6);
+						writer.write(meaningful - 1, 6);
+						writer.write(xor >>> trailing, meaningful);
+						previousLeading[column] = leading;
+						previousTrailing[column] = trailing;
+					}
+					previousBits[column] = bits;
+				}
+			}
+			if (Double.compare(values[offset + bottomColumn], values[from * width + minimumRow * width + bottomColumn]) < 0) {
+				minimumRow = row;
+			}
+			if (Double.compare(values[offset + topColumn], values[from * width + maximumRow * width + topColumn]) > 0) {
+				maximumRow = row;
+			}
+		}
+		return new CompressedBlock(count, width, indexes[from], indexes[from + count - 1],
+				minimumRow, values[(from + minimumRow) * width + bottomColumn], maximumRow, values[(from + maximumRow) * width + topColumn], writer.toArray());
+	}
+
+	private static void writeDeltaOfDelta(BitWriter writer, long deltaOfDelta) {
+		if (deltaOfDelta == 0) {
+			writer.write(0, 1);
+		} else if (fits(deltaOfDelta, 7)) {
+			writer.write(2, 2);
+			writer.write(deltaOfDelta, 7);
+		} else if (fits(deltaOfDelta, 9)) {
+			writer.write(6, 3);
+			writer.write(deltaOfDelta, 9);
+		} else if (fits(deltaOfDelta, 12)) {
+			writer.write(14, 4);
+			writer.write(deltaOfDelta, 12);
+		} else {
+			writer.write(15, 4);
+			writer.write(deltaOfDelta, 64);
+		}
+	}
+
+	private static boolean fits(long value, int bits) {
+		long limit = 1L << (bits - 1);
+		return value >= -limit && value < limit;
+	}
+
+	int getCount() {
+		return count;
+	}
+
+	long getFirstIndex() {
+		return firstIndex;
+	}
+
+	long getLastIndex() {
+		return lastIndex;
+	}
+
+	/**
+	 * @return the row with the minimum bottom value; the first one on ties
+	 */
+	int getMinimumRow() {
+		return minimumRow;
+	}
+
+	double getMinimumValue() {
+		return minimumValue;
+	}
+
+	/**
+	 * @return the row with the maximum top value; the first one on ties
+	 */
+	int getMaximumRow() {
+		return maximumRow;
+	}
+
+	double getMaximumValue() {
+		return maximumValue;
+	}
+
+	/**
+	 * @return the memory used by the compressed rows, in bytes
+	 */
+	int getCompressedSize() {
+		return words.length * 8;
+	}
+
+	/**
+	 * @return a new decoder, positioned before the first row
+	 */
+	Decoder decoder() {
+		return new Decoder();
+	}
+
+	/**
+	 * Decode all the rows
+	 * @param indexes the target array for the abscissas, starting from position 0
+	 * @param values the target array for the values, starting from position 0
+	 */
+	void decodeAll(long[] indexes, double[] values) {
+		Decoder decoder = new Decoder();
+		for (int row = 0; row < count; row++) {
+			indexes[row] = decoder.next(values, row * width);
+		}
+	}
+
+	/**
+	 * Sequential decoder of the rows of the block
+	 */
+	final class Decoder {
+		private final BitReader reader = new BitReader(words);
+		private final long[] previousBits = new long[width];
+		private final int[] previousLeading = new int[width];
+		private final int[] previousTrailing = new int[width];
+		private int row;
+		private long previousIndex;
+		private long previousDelta;
+
+		boolean hasNext() {
+			return row < count;
+		}
+
+		/**
+		 * Decode the next row
+		 * @param values the target array for the values of the row
+		 * @param offset the position of the first column in the target array
+		 * @return the abscissa of the row
+		 */
+		long next(double[] values, int offset) {
+			if (row == 0) {
+				previousIndex = reader.read(64);
+				for (int column = 0; column < width; column++) {
+					previousBits[column] = reader.read(64);
+					values[offset + column] = Double.longBitsToDouble(previousBits[column]);
+				}
+			} else {
+				previousDelta += readDeltaOfDelta();
+				previousIndex += previousDelta;
+				for (int column = 0; column < width; column++) {
+					if (reader.readBit()) {
+						long xor;
+						if (reader.readBit()) {
+							previousLeading[column] = (int) reader.read(6);
+							int meaningful = (int) reader.read(6) + 1;
+							previousTrailing[column] = 64 - previousLeading[column] - meaningful;
+							xor = reader.read(meaningful) << previousTrailing[column];
+						} else {
+							xor = reader.read(64 - previousLeading[column] - previousTrailing[column]) << previousTrailing[column];
+						}
+						previousBits[column] ^= xor;
+					}
+					values[offset + column] = Double.longBitsToDouble(previousBits[column]);
+				}
+			}
+			row++;
+			return previousIndex;
+		}
+
+		private long readDeltaOfDelta() {
+			if (!reader.readBit()) {
+				return 0;
+			}
+			int bits;
+			if (!reader.readBit()) {
+				bits = 7;
+			} else if (!reader.readBit()) {
+				bits = 9;
+			} else if (!reader.readBit()) {
+				bits = 12;
+			} else {
+				return reader.read(64);
+			}
+			long value = reader.read(bits);
+			return (value << (64 - bits)) >> (64 - bits);
+		}
+	}
+
+	private static final class BitWriter {
+		private long[] words;
+		private int position;
+
+		BitWriter(int initialWords) {
+			words = new long[Math.max(initialWords, 4)];
+		}
+
+		/**
+		 * Write the lowest bits of a value, from the most significant one
+		 */
+		void write(long value, int bits) {
+			if (bits < 64) {
+				value &= (1L << bits) - 1;
+			}
+			int word = position >>> 6;
+			if (word + 1 >= words.length) {
+				words = Arrays.copyOf(words, words.length * 2);
+			}
+			int free = 64 - (position & 63);
+			if (bits <= free) {
+				words[word] |= value << (free - bits);
+			} else {
+				int rest = bits - free;
+				words[word] |= value >>> rest;
+				words[word + 1] |= value << (64 - rest);
+			}
+			position += bits;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(words, (position + 63) >>> 6);
+		}
+	}
+
+	private static final class BitReader {
+		private final long[] words;
+		private int position;
+
+		BitReader(long[] words) {
+			this.words = words;
+		}
+
+		boolean readBit() {
+			boolean bit = (words[position >>> 6] << (position & 63)) < 0;
+			position++;
+			return bit;
+		}
+
+		long read(int bits) {
+			int word = position >>> 6;
+			int bit = position & 63;
+			long value;
+			if (bit + bits <= 64) {
+				value = (words[word] << bit) >>> (64 - bits);
+			} else {
+				int rest = bits - (64 - bit);
+				value = ((words[word] & ((1L << (64 - bit)) - 1)) << rest) | (words[word + 1] >>> (64 - rest));
+			}
+			position += bits;
+			return value;
+		}
+	}
+}
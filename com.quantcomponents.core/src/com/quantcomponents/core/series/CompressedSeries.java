@@ -0,0 +1,947 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.ISeriesSpliterator;
+import com.quantcomponents.core.model.ISplittableSeries;
+
+/**
+ * Thread-safe implementation of {@link com.quantcomponents.core.model.IMutableSeries} that keeps the data-points compressed in memory.
+ * Each data-point is stored as a row of primitive columns, as specified by an {@link IColumnLayout}.
+ * The rows at the tail are kept uncompressed in a hot block, which is compressed into an immutable {@link CompressedBlock}
+ * when it reaches {@value #BLOCK_SIZE} rows. Additions to the tail and updates of the tail, as done by live data, only
+ * change the hot block; additions before the tail decode and compress again the affected block.
+ * Iterators and column cursors decode the rows sequentially, and are snapshots that share the blocks with the series.
+ * Spliterators split on block boundaries, so that each part decodes whole blocks.
+ * The first and last data-points and the size can be read without taking the lock, which is held only by the writer.
+ * Suitable for large historical series, that are mostly scanned from head to tail.
+ *
+ * @param <A> type of the abscissa
+ * @param <O> type of the ordinates
+ * @param <P> type of the data point
+ */
+public class CompressedSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements IMutableSeries<A, O, P>, IColumnarSeries<A, O, P>, ISplittableSeries<A, O, P>, Serializable {
+	private static final long serialVersionUID = 6208542517263000962L;
+	/**
+	 * Number of rows in a compressed block
+	 */
+	public static final int BLOCK_SIZE = 1024;
+	private static final int INITIAL_HOT_CAPACITY = 16;
+	private final IColumnLayout<A, O, P> layout;
+	private final int width;
+	private final String ID;
+	private final boolean enforceStrictSequence;
+	private transient List<ISeriesListener<A, O>> listeners = new CopyOnWriteArrayList<ISeriesListener<A, O>>();
+	private volatile long timestamp;
+	// compressed blocks, in order of abscissa: the array is replaced at each change
+	private CompressedBlock[] blocks;
+	// uncompressed rows following the compressed blocks: rows are added, and the tail row is rewritten, in place;
+	// other changes replace the arrays
+	private long[] hotIndexes;
+	private double[] hotValues;
+	private int hotCount;
+	private int size;
+	// the ends and the size are published after each change, so that their readers do not need the lock
+	private volatile P first;
+	private volatile P last;
+	private transient volatile int publishedSize;
+
+	public CompressedSeries(String ID, IColumnLayout<A, O, P> layout, boolean enforceStrictSequence) {
+		this.ID = ID;
+		this.layout = layout;
+		this.width = layout.getWidth();
+		this.enforceStrictSequence = enforceStrictSequence;
+		reset();
+		updateTimestamp();
+	}
+
+	@Override
+	public String getPersistentID() {
+		return ID;
+	}
+
+	@Override
+	public IColumnLayout<A, O, P> getLayout() {
+		return layout;
+	}
+
+	@Override
+	public void addLast(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (size > 0) {
+				long lastIndex = lastIndex();
+				if (isEnforceStrictSequence()) {
+					if (index <= lastIndex) {
+						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must follow last item index: " + last.getIndex());
+					}
+				} else {
+					checkDuplicate(item, last);
+					if (index < lastIndex) {
+						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must not precede last item index: " + last.getIndex());
+					}
+				}
+			}
+			append(index, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addFirst(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (size > 0) {
+				long firstIndex = firstIndex();
+				if (isEnforceStrictSequence()) {
+					if (index >= firstIndex) {
+						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must precede last item index: " + first.getIndex());
+					}
+				} else {
+					checkDuplicate(item, first);
+					if (index > firstIndex) {
+						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must not follow last item index: " + first.getIndex());
+					}
+				}
+				insert(index, item);
+			} else {
+				append(index, item);
+			}
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addLastIfNotExists(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (size > 0 && index <= lastIndex()) {
+				return;
+			}
+			append(index, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addFirstIfNotExists(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (size > 0) {
+				if (index >= firstIndex()) {
+					return;
+				}
+				insert(index, item);
+			} else {
+				append(index, item);
+			}
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	/**
+	 * Data-points preceding the head are compressed together with the existing ones, in a single pass
+	 */
+	@Override
+	public void addAll(List<? extends P> items) {
+		int count = items.size();
+		List<P> sortedItems = new ArrayList<P>(items);
+		long[] indexes = new long[count];
+		for (int i = 0; i < count; i++) {
+			indexes[i] = layout.encodeIndex(sortedItems.get(i).getIndex());
+			if (i > 0 && indexes[i] < indexes[i - 1]) {
+				throw new IllegalArgumentException("Item with index: " + sortedItems.get(i).getIndex() + " must not precede item with index: " + sortedItems.get(i - 1).getIndex());
+			}
+		}
+		List<P> addedItems = new ArrayList<P>(count);
+		synchronized (this) {
+			int split = 0;
+			if (size > 0) {
+				long firstIndex = firstIndex();
+				while (split < count && indexes[split] < firstIndex) {
+					split++;
+				}
+				if (split > 0) {
+					// as for the tail, only the first of the items with the same index is added
+					long[] headIndexes = new long[split];
+					for (int i = 0; i < split; i++) {
+						if (i == 0 || indexes[i] > indexes[i - 1]) {
+							headIndexes[addedItems.size()] = indexes[i];
+							addedItems.add(sortedItems.get(i));
+						}
+					}
+					prependAll(addedItems, headIndexes, addedItems.size());
+				}
+			}
+			for (int i = split; i < count; i++) {
+				if (size == 0 || indexes[i] > lastIndex()) {
+					append(indexes[i], sortedItems.get(i));
+					addedItems.add(sortedItems.get(i));
+				}
+			}
+		} // release lock before running arbitrary code
+		SeriesListenerSupport.notifyItemsAdded(listeners, addedItems);
+	}
+
+	@Override
+	public void insertFromTail(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		synchronized (this) {
+			if (size == 0 || index > lastIndex()) {
+				append(index, item);
+			} else {
+				insert(index, item);
+			}
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void updateTail(P item) {
+		long index = layout.encodeIndex(item.getIndex());
+		P previousItem = null;
+		synchronized (this) {
+			if (size > 0 && index == lastIndex()) {
+				previousItem = last;
+				if (hotCount > 0) {
+					layout.encode(item, hotValues, (hotCount - 1) * width);
+				} else {
+					CompressedBlock block = blocks[blocks.length - 1];
+					long[] indexes = new long[block.getCount()];
+					double[] values = new double[block.getCount() * width];
+					block.decodeAll(indexes, values);
+					layout.encode(item, values, (block.getCount() - 1) * width);
+					replaceBlock(blocks.length - 1, indexes, values, block.getCount());
+				}
+				last = item;
+				if (size == 1) {
+					first = item;
+				}
+			} else {
+				throw new IllegalArgumentException("Item with index: " + item.getIndex() + " no tail of series");
+			}
+			updateTimestamp();
+		} // release lock before running arbitrary code
+		if (listeners != null) {
+			for (ISeriesListener<A, O> listener : listeners) {
+				listener.onItemUpdated(previousItem, item);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void clear() {
+		reset();
+		updateTimestamp();
+	}
+
+	/**
+	 * Lock-free: returns the size as published by the last completed change
+	 */
+	@Override
+	public int size() {
+		return publishedSize;
+	}
+
+	/**
+	 * Lock-free
+	 */
+	@Override
+	public boolean isEmpty() {
+		return publishedSize == 0;
+	}
+
+	/**
+	 * Lock-free
+	 */
+	@Override
+	public P getFirst() {
+		return first;
+	}
+
+	/**
+	 * Lock-free
+	 */
+	@Override
+	public P getLast() {
+		return last;
+	}
+
+	/**
+	 * Compressed blocks are not decoded, apart from the one containing the result
+	 */
+	@Override
+	public synchronized P getMinimum() {
+		return extreme(true);
+	}
+
+	/**
+	 * Compressed blocks are not decoded, apart from the one containing the result
+	 */
+	@Override
+	public synchronized P getMaximum() {
+		return extreme(false);
+	}
+
+	@Override
+	public synchronized Iterator<P> iterator() {
+		return new PointIterator(new RowReader(false));
+	}
+
+	@Override
+	public synchronized Iterator<P> descendingIterator() {
+		return new PointIterator(new RowReader(true));
+	}
+
+	@Override
+	public synchronized IColumnCursor columnCursor(A from) {
+		RowReader reader = new RowReader(false);
+		if (from != null) {
+			reader.seek(layout.encodeIndex(from));
+		}
+		return reader;
+	}
+
+	@Override
+	public synchronized IColumnCursor descendingColumnCursor() {
+		return new RowReader(true);
+	}
+
+	@Override
+	public synchronized IColumnSpliterator columnSpliterator() {
+		return new RowReader(false);
+	}
+
+	@Override
+	public synchronized ISeriesSpliterator<P> seriesSpliterator() {
+		return new PointIterator(new RowReader(false));
+	}
+
+	@Override
+	public synchronized void addSeriesListener(ISeriesListener<A, O> listener) {
+		if (listeners == null) {
+			listeners = new CopyOnWriteArrayList<ISeriesListener<A, O>>();
+		}
+		listeners.add(listener);
+	}
+
+	@Override
+	public synchronized void removeSeriesListener(ISeriesListener<A, O> listener) {
+		if (listeners != null) {
+			listeners.remove(listener);
+		}
+	}
+
+	@Override
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public boolean isEnforceStrictSequence() {
+		return enforceStrictSequence;
+	}
+
+	@Override
+	public IMutableSeries<A, O, P> createEmptyMutableSeries(String ID) {
+		return new CompressedSeries<A, O, P>(ID, layout, isEnforceStrictSequence());
+	}
+
+	/**
+	 * @return the memory used by the rows, in bytes: compressed blocks and uncompressed hot block
+	 */
+	public synchronized long getCompressedSize() {
+		long compressedSize = (long) hotCount * rowSize();
+		for (CompressedBlock block : blocks) {
+			compressedSize += block.getCompressedSize();
+		}
+		return compressedSize;
+	}
+
+	/**
+	 * @return the memory that would be used by the same rows without compression, in bytes
+	 */
+	public synchronized long getUncompressedSize() {
+		return (long) size * rowSize();
+	}
+
+	/**
+	 * @return the ratio between uncompressed and compressed size of the rows; 1 if the series is empty
+	 */
+	public synchronized double getCompressionRatio() {
+		long compressedSize = getCompressedSize();
+		return compressedSize == 0 ? 1.0 : getUncompressedSize() / (double) compressedSize;
+	}
+
+	private int rowSize() {
+		return 8 * (1 + width);
+	}
+
+	private void reset() {
+		// new arrays, since the old ones can be still referenced by iterators
+		blocks = new CompressedBlock[0];
+		hotIndexes = new long[INITIAL_HOT_CAPACITY];
+		hotValues = new double[INITIAL_HOT_CAPACITY * width];
+		hotCount = 0;
+		size = 0;
+		first = null;
+		last = null;
+		publishedSize = 0;
+	}
+
+	private long firstIndex() {
+		return blocks.length > 0 ? blocks[0].getFirstIndex() : hotIndexes[0];
+	}
+
+	private long lastIndex() {
+		return hotCount > 0 ? hotIndexes[hotCount - 1] : blocks[blocks.length - 1].getLastIndex();
+	}
+
+	private void append(long index, P item) {
+		ensureHotCapacity();
+		hotIndexes[hotCount] = index;
+		layout.encode(item, hotValues, hotCount * width);
+		hotCount++;
+		size++;
+		last = item;
+		if (size == 1) {
+			first = item;
+		}
+		publishedSize = size;
+		updateTimestamp();
+	}
+
+	/**
+	 * Append a row without changing size and ends of the series
+	 */
+	private void appendRow(long index, double[] values, int offset) {
+		ensureHotCapacity();
+		hotIndexes[hotCount] = index;
+		System.arraycopy(values, offset, hotValues, hotCount * width, width);
+		hotCount++;
+	}
+
+	private void ensureHotCapacity() {
+		if (hotCount == BLOCK_SIZE) {
+			seal();
+		} else if (hotCount == hotIndexes.length) {
+			int capacity = Math.min(hotIndexes.length * 2, BLOCK_SIZE);
+			hotIndexes = Arrays.copyOf(hotIndexes, capacity);
+			hotValues = Arrays.copyOf(hotValues, capacity * width);
+		}
+	}
+
+	/**
+	 * Compress the hot block, and start a new one
+	 */
+	private void seal() {
+		CompressedBlock block = CompressedBlock.encode(hotIndexes, hotValues, 0, hotCount, width, layout.getBottomValueColumn(), layout.getTopValueColumn());
+		CompressedBlock[] newBlocks = Arrays.copyOf(blocks, blocks.length + 1);
+		newBlocks[blocks.length] = block;
+		blocks = newBlocks;
+		hotIndexes = new long[INITIAL_HOT_CAPACITY];
+		hotValues = new double[INITIAL_HOT_CAPACITY * width];
+		hotCount = 0;
+	}
+
+	/**
+	 * Insert a data-point before the tail
+	 */
+	private void insert(long index, P item) {
+		boolean head;
+		int block = 0;
+		while (block < blocks.length && blocks[block].getLastIndex() < index) {
+			block++;
+		}
+		if (block < blocks.length) {
+			head = insertInBlock(block, index, item);
+		} else if (hotCount == BLOCK_SIZE) {
+			seal();
+			head = insertInBlock(block, index, item);
+		} else {
+			head = insertInHot(index, item);
+		}
+		size++;
+		if (head) {
+			first = item;
+		}
+		publishedSize = size;
+		updateTimestamp();
+	}
+
+	private boolean insertInHot(long index, P item) {
+		int pos = lowerBound(hotIndexes, index, hotCount);
+		checkUnique(item, pos < hotCount && hotIndexes[pos] == index);
+		// copy-on-write, since iterators can be reading the rows
+		int capacity = hotCount < hotIndexes.length ? hotIndexes.length : Math.min(hotIndexes.length * 2, BLOCK_SIZE);
+		long[] newIndexes = new long[capacity];
+		double[] newValues = new double[capacity * width];
+		System.arraycopy(hotIndexes, 0, newIndexes, 0, pos);
+		System.arraycopy(hotValues, 0, newValues, 0, pos * width);
+		System.arraycopy(hotIndexes, pos, newIndexes, pos + 1, hotCount - pos);
+		System.arraycopy(hotValues, pos * width, newValues, (pos + 1) * width, (hotCount - pos) * width);
+		newIndexes[pos] = index;
+		layout.encode(item, newValues, pos * width);
+		hotIndexes = newIndexes;
+		hotValues = newValues;
+		hotCount++;
+		return blocks.length == 0 && pos == 0;
+	}
+
+	private boolean insertInBlock(int blockNumber, long index, P item) {
+		CompressedBlock block = blocks[blockNumber];
+		int count = block.getCount();
+		long[] indexes = new long[count + 1];
+		double[] values = new double[(count + 1) * width];
+		block.decodeAll(indexes, values);
+		int pos = lowerBound(indexes, index, count);
+		checkUnique(item, pos < count && indexes[pos] == index);
+		System.arraycopy(indexes, pos, indexes, pos + 1, count - pos);
+		System.arraycopy(values, pos * width, values, (pos + 1) * width, (count - pos) * width);
+		indexes[pos] = index;
+		layout.encode(item, values, pos * width);
+		replaceBlock(blockNumber, indexes, values, count + 1);
+		return blockNumber == 0 && pos == 0;
+	}
+
+	/**
+	 * Replace a block with a new content, split in two blocks if too large
+	 */
+	private void replaceBlock(int blockNumber, long[] indexes, double[] values, int count) {
+		int bottomColumn = layout.getBottomValueColumn();
+		int topColumn = layout.getTopValueColumn();
+		CompressedBlock[] newBlocks;
+		if (count <= BLOCK_SIZE) {
+			newBlocks = blocks.clone();
+			newBlocks[blockNumber] = CompressedBlock.encode(indexes, values, 0, count, width, bottomColumn, topColumn);
+		} else {
+			int half = count / 2;
+			newBlocks = new CompressedBlock[blocks.length + 1];
+			System.arraycopy(blocks, 0, newBlocks, 0, blockNumber);
+			System.arraycopy(blocks, blockNumber + 1, newBlocks, blockNumber + 2, blocks.length - blockNumber - 1);
+			newBlocks[blockNumber] = CompressedBlock.encode(indexes, values, 0, half, width, bottomColumn, topColumn);
+			newBlocks[blockNumber + 1] = CompressedBlock.encode(indexes, values, half, count - half, width, bottomColumn, topColumn);
+		}
+		blocks = newBlocks;
+	}
+
+	/**
+	 * Rebuild the blocks with a sequence of data-points followed by the current content
+	 */
+	private void prependAll(List<P> items, long[] indexes, int count) {
+		CompressedBlock[] oldBlocks = blocks;
+		long[] oldHotIndexes = hotIndexes;
+		double[] oldHotValues = hotValues;
+		int oldHotCount = hotCount;
+		blocks = new CompressedBlock[0];
+		hotIndexes = new long[INITIAL_HOT_CAPACITY];
+		hotValues = new double[INITIAL_HOT_CAPACITY * width];
+		hotCount = 0;
+		double[] row = new double[width];
+		for (int i = 0; i < count; i++) {
+			layout.encode(items.get(i), row, 0);
+			appendRow(indexes[i], row, 0);
+		}
+		long[] blockIndexes = new long[BLOCK_SIZE];
+		double[] blockValues = new double[BLOCK_SIZE * width];
+		for (CompressedBlock block : oldBlocks) {
+			block.decodeAll(blockIndexes, blockValues);
+			for (int i = 0; i < block.getCount(); i++) {
+				appendRow(blockIndexes[i], blockValues, i * width);
+			}
+		}
+		for (int i = 0; i < oldHotCount; i++) {
+			appendRow(oldHotIndexes[i], oldHotValues, i * width);
+		}
+		size += count;
+		first = items.get(0);
+		publishedSize = size;
+		updateTimestamp();
+	}
+
+	private P extreme(boolean minimum) {
+		int column = minimum ? layout.getBottomValueColumn() : layout.getTopValueColumn();
+		int sign = minimum ? 1 : -1;
+		int bestBlock = -1;
+		int bestHotRow = -1;
+		double best = 0.0;
+		for (int i = 0; i < blocks.length; i++) {
+			double value = minimum ? blocks[i].getMinimumValue() : blocks[i].getMaximumValue();
+			if (bestBlock < 0 || Double.compare(value, best) * sign < 0) {
+				best = value;
+				bestBlock = i;
+			}
+		}
+		for (int i = 0; i < hotCount; i++) {
+			double value = hotValues[i * width + column];
+			if ((bestBlock < 0 && bestHotRow < 0) || Double.compare(value, best) * sign < 0) {
+				best = value;
+				bestHotRow = i;
+			}
+		}
+		if (bestHotRow >= 0) {
+			return bestHotRow == hotCount - 1 ? last : layout.decode(hotIndexes[bestHotRow], hotValues, bestHotRow * width);
+		}
+		if (bestBlock >= 0) {
+			CompressedBlock block = blocks[bestBlock];
+			int row = minimum ? block.getMinimumRow() : block.getMaximumRow();
+			CompressedBlock.Decoder decoder = block.decoder();
+			double[] values = new double[width];
+			long index = 0;
+			for (int i = 0; i <= row; i++) {
+				index = decoder.next(values, 0);
+			}
+			return layout.decode(index, values, 0);
+		}
+		return null;
+	}
+
+	private void checkUnique(P item, boolean indexExists) {
+		if (indexExists && isEnforceStrictSequence()) {
+			throw new IllegalArgumentException("Item index: " + item.getIndex() + " is not unique");
+		}
+	}
+
+	private void checkDuplicate(P item1, P item2) {
+		if (item1.equals(item2)) {
+			throw new IllegalArgumentException("Duplicate item: " + item1);
+		}
+	}
+
+	private void updateTimestamp() {
+		timestamp = System.currentTimeMillis();
+	}
+
+	private void notifyItemAdded(P item) {
+		if (listeners != null) {
+			for (ISeriesListener<A, O> listener : listeners) {
+				listener.onItemAdded(item);
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		publishedSize = size;
+	}
+
+	/**
+	 * @return the first position in the range [0, count) with abscissa not less than the given one, or <code>count</code>
+	 */
+	private static int lowerBound(long[] indexes, long index, int count) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (indexes[mid] < index) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Sequential reader of the rows contained in the series at the time of creation.
+	 * Must be created with the lock held.
+	 * Ascending readers can be split on block boundaries, as long as they are not in the middle of a block.
+	 */
+	private class RowReader implements IColumnSpliterator {
+		private final CompressedBlock[] readerBlocks;
+		private final long[] readerHotIndexes;
+		private final double[] readerHotValues;
+		private final int readerHotCount;
+		private final P readerLast;
+		// the tail row of the hot block can be rewritten in place, so a copy is taken
+		private final double[] tailRow;
+		private final boolean descending;
+		private int block;
+		private int hotRow;
+		// ascending scan: end of the range of blocks and of hot rows to be read
+		private int blockEnd;
+		private int hotEnd;
+		// ascending scan: rows of the current block already read
+		private int blockRowsRead;
+		// first row of each block, and total rows of the blocks at the end: computed when first needed
+		private int[] blockStarts;
+		// ascending scan: decoder of the current block
+		private CompressedBlock.Decoder decoder;
+		private double[] decodedRow;
+		// descending scan: the current block, decoded as a whole
+		private long[] blockIndexes;
+		private double[] blockValues;
+		private int blockRow;
+		// the current row has been found by seek, and not yet returned by advance
+		private boolean pending;
+		private long index;
+		private double[] row;
+		private int offset;
+		private boolean tail;
+
+		RowReader(boolean descending) {
+			this.descending = descending;
+			readerBlocks = blocks;
+			readerHotIndexes = hotIndexes;
+			readerHotValues = hotValues;
+			readerHotCount = hotCount;
+			readerLast = last;
+			if (hotCount > 0) {
+				tailRow = Arrays.copyOfRange(hotValues, (hotCount - 1) * width, hotCount * width);
+			} else {
+				tailRow = null;
+			}
+			if (descending) {
+				block = readerBlocks.length;
+				hotRow = readerHotCount;
+			} else {
+				block = 0;
+				hotRow = -1;
+				decodedRow = new double[width];
+			}
+			blockEnd = readerBlocks.length;
+			hotEnd = readerHotCount;
+		}
+
+		/**
+		 * Ascending reader of a part of the range of another reader
+		 */
+		private RowReader(RowReader parent, int block, int blockEnd, int hotRow, int hotEnd) {
+			descending = false;
+			readerBlocks = parent.readerBlocks;
+			readerHotIndexes = parent.readerHotIndexes;
+			readerHotValues = parent.readerHotValues;
+			readerHotCount = parent.readerHotCount;
+			readerLast = parent.readerLast;
+			tailRow = parent.tailRow;
+			blockStarts = parent.blockStarts;
+			decodedRow = new double[width];
+			this.block = block;
+			this.blockEnd = blockEnd;
+			this.hotRow = hotRow;
+			this.hotEnd = hotEnd;
+		}
+
+		@Override
+		public boolean advance() {
+			if (pending) {
+				pending = false;
+				return true;
+			}
+			return descending ? advanceDescending() : advanceAscending();
+		}
+
+		@Override
+		public long index() {
+			return index;
+		}
+
+		@Override
+		public double column(int column) {
+			return row[offset + column];
+		}
+
+		@Override
+		public int size() {
+			if (descending) {
+				return rowsOfBlocks(0, block) + blockRow + hotRow;
+			}
+			int remaining = rowsOfBlocks(block, blockEnd) + Math.max(0, hotEnd - hotRow - 1);
+			if (decoder != null) {
+				remaining -= blockRowsRead;
+			}
+			return pending ? remaining + 1 : remaining;
+		}
+
+		@Override
+		public IColumnSpliterator trySplit() {
+			return split();
+		}
+
+		RowReader split() {
+			if (descending || pending || decoder != null) {
+				return null;
+			}
+			int blocksLeft = blockEnd - block;
+			int hotRowsLeft = hotEnd - hotRow - 1;
+			RowReader prefix;
+			if (blocksLeft >= 2) {
+				int mid = block + (blocksLeft >> 1);
+				prefix = new RowReader(this, block, mid, -1, 0);
+				block = mid;
+			} else if (blocksLeft == 1 && hotRowsLeft > 0) {
+				prefix = new RowReader(this, block, blockEnd, -1, 0);
+				block = blockEnd;
+			} else if (blocksLeft == 0 && hotRowsLeft >= 2) {
+				int mid = hotRow + 1 + (hotRowsLeft >> 1);
+				prefix = new RowReader(this, blockEnd, blockEnd, hotRow, mid);
+				hotRow = mid - 1;
+			} else {
+				return null;
+			}
+			return prefix;
+		}
+
+		/**
+		 * Position the reader before the first row with abscissa not less than the specified one
+		 */
+		void seek(long from) {
+			while (block < blockEnd && readerBlocks[block].getLastIndex() < from) {
+				block++;
+			}
+			while (advanceAscending()) {
+				if (index >= from) {
+					pending = true;
+					return;
+				}
+			}
+		}
+
+		/**
+		 * @return the data-point of the current row
+		 */
+		P point() {
+			return tail ? readerLast : layout.decode(index, row, offset);
+		}
+
+		private boolean advanceAscending() {
+			while (block < blockEnd) {
+				if (decoder == null) {
+					decoder = readerBlocks[block].decoder();
+					blockRowsRead = 0;
+				}
+				if (decoder.hasNext()) {
+					index = decoder.next(decodedRow, 0);
+					blockRowsRead++;
+					row = decodedRow;
+					offset = 0;
+					tail = readerHotCount == 0 && block == readerBlocks.length - 1 && !decoder.hasNext();
+					return true;
+				}
+				block++;
+				decoder = null;
+			}
+			if (hotRow + 1 < hotEnd) {
+				hotRow++;
+				setHotRow();
+				return true;
+			}
+			return false;
+		}
+
+		private int rowsOfBlocks(int from, int to) {
+			if (blockStarts == null) {
+				blockStarts = new int[readerBlocks.length + 1];
+				for (int i = 0; i < readerBlocks.length; i++) {
+					blockStarts[i + 1] = blockStarts[i] + readerBlocks[i].getCount();
+				}
+			}
+			return blockStarts[to] - blockStarts[from];
+		}
+
+		private boolean advanceDescending() {
+			if (hotRow > 0) {
+				hotRow--;
+				setHotRow();
+				return true;
+			}
+			while (blockRow == 0) {
+				if (block == 0) {
+					return false;
+				}
+				block--;
+				if (blockIndexes == null) {
+					blockIndexes = new long[BLOCK_SIZE];
+					blockValues = new double[BLOCK_SIZE * width];
+				}
+				readerBlocks[block].decodeAll(blockIndexes, blockValues);
+				blockRow = readerBlocks[block].getCount();
+			}
+			blockRow--;
+			index = blockIndexes[blockRow];
+			row = blockValues;
+			offset = blockRow * width;
+			tail = readerHotCount == 0 && block == readerBlocks.length - 1 && blockRow == readerBlocks[block].getCount() - 1;
+			return true;
+		}
+
+		private void setHotRow() {
+			index = readerHotIndexes[hotRow];
+			tail = hotRow == readerHotCount - 1;
+			if (tail) {
+				row = tailRow;
+				offset = 0;
+			} else {
+				row = readerHotValues;
+				offset = hotRow * width;
+			}
+		}
+	}
+
+	private class PointIterator implements ISeriesSpliterator<P> {
+		private final RowReader reader;
+		private boolean fetched;
+		private boolean available;
+
+		PointIterator(RowReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (!fetched) {
+				available = reader.advance();
+				fetched = true;
+			}
+			return available;
+		}
+
+		@Override
+		public P next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			fetched = false;
+			return reader.point();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int size() {
+			return fetched && available ? reader.size() + 1 : reader.size();
+		}
+
+		@Override
+		public ISeriesSpliterator<P> trySplit() {
+			if (fetched) {
+				return null;
+			}
+			RowReader prefix = reader.split();
+			return prefix == null ? null : new PointIterator(prefix);
+		}
+	}
+}
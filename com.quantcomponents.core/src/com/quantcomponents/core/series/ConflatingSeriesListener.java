@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.ILatestStateSeriesListener;
+import com.quantcomponents.core.model.IMutableSeriesPoint;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Series listener that coalesces bursts of updates to the same data-point.
+ * The first update of a data-point opens a time window: later updates of the same data-point within the window
+ * replace the pending one, and only the newest state is forwarded to the wrapped listener when the window closes.
+ * Additions, and updates of a different data-point, close the window in advance, so that the wrapped listener
+ * receives the notifications in the same order as they happened.
+ * <p>
+ * This listener is meant for consumers that only need the latest state of a data-point, such as charts:
+ * it is a {@link ILatestStateSeriesListener}, so the existing item is not copied by the series that support it,
+ * and the wrapped listener receives null as existing item.
+ * Since pending updates can be delivered by another thread, they are kept as immutable copies when the series
+ * updates its data-points in place, see {@link IMutableSeriesPoint}.
+ * The notifying thread is never blocked by the wrapped listener while an update is being coalesced; pending updates
+ * are delivered by a scheduler thread when their window expires.
+ * </p>
+ *
+ * @param <A> type of the abscissa
+ * @param <O> type of the ordinate
+ */
+public class ConflatingSeriesListener<A extends Comparable<A>, O extends Comparable<O>> implements IBatchSeriesListener<A, O>, ILatestStateSeriesListener<A, O>, IEvictionSeriesListener<A, O> {
+	private static final Logger logger = Logger.getLogger(ConflatingSeriesListener.class.getName());
+	private final ISeriesListener<A, O> listener;
+	private final long windowMillis;
+	private final ScheduledExecutorService scheduler;
+	private final boolean ownScheduler;
+	// serializes the notifications to the wrapped listener
+	private final Object deliveryLock = new Object();
+	private final AtomicLong conflatedCount = new AtomicLong();
+	private final AtomicLong deliveredCount = new AtomicLong();
+	// guarded by 'this'
+	private ISeriesPoint<A, O> pendingUpdate;
+	private volatile boolean closed;
+
+	private final Runnable windowExpiry = new Runnable() {
+		@Override
+		public void run() {
+			synchronized (deliveryLock) {
+				deliverUpdate(takePendingUpdate());
+			}
+		}
+	};
+
+	/**
+	 * Create an instance with its own scheduler thread
+	 * @param listener the listener to be notified
+	 * @param windowMillis the length of the window, in milliseconds
+	 */
+	public ConflatingSeriesListener(ISeriesListener<A, O> listener, long windowMillis) {
+		this(listener, windowMillis, null);
+	}
+
+	/**
+	 * @param listener the listener to be notified
+	 * @param windowMillis the length of the window, in milliseconds
+	 * @param scheduler the scheduler delivering the expired updates; if null a single daemon thread is created, and terminated by {@link #close()}
+	 */
+	public ConflatingSeriesListener(ISeriesListener<A, O> listener, long windowMillis, ScheduledExecutorService scheduler) {
+		this.listener = listener;
+		this.windowMillis = windowMillis;
+		if (scheduler == null) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Series update conflater");
+					thread.setDaemon(true);
+					return thread;
+				}});
+			ownScheduler = true;
+		} else {
+			this.scheduler = scheduler;
+			ownScheduler = false;
+		}
+	}
+
+	@Override
+	public void onItemUpdated(ISeriesPoint<A, O> existingItem, ISeriesPoint<A, O> updatedItem) {
+		ISeriesPoint<A, O> update = SeriesListenerSupport.stableItem(updatedItem);
+		if (replacePendingUpdate(update)) {
+			return;
+		}
+		// a different data-point is pending: it must be delivered first
+		synchronized (deliveryLock) {
+			do {
+				deliverUpdate(takePendingUpdate());
+			} while (!replacePendingUpdate(update));
+		}
+	}
+
+	@Override
+	public void onItemAdded(ISeriesPoint<A, O> newItem) {
+		synchronized (deliveryLock) {
+			deliverUpdate(takePendingUpdate());
+			try {
+				listener.onItemAdded(newItem);
+			} catch (RuntimeException e) {
+				logger.log(Level.SEVERE, "Exception while notifying series listener: " + listener, e);
+			}
+			deliveredCount.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void onItemsAdded(List<? extends ISeriesPoint<A, O>> newItems) {
+		synchronized (deliveryLock) {
+			deliverUpdate(takePendingUpdate());
+			try {
+				SeriesListenerSupport.notifyItemsAdded(Collections.singletonList(listener), newItems);
+			} catch (RuntimeException e) {
+				logger.log(Level.SEVERE, "Exception while notifying series listener: " + listener, e);
+			}
+			deliveredCount.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void onItemsEvicted(A index, int count) {
+		synchronized (deliveryLock) {
+			deliverUpdate(takePendingUpdate());
+			try {
+				SeriesListenerSupport.notifyItemsEvicted(Collections.singletonList(listener), index, count);
+			} catch (RuntimeException e) {
+				logger.log(Level.SEVERE, "Exception while notifying series listener: " + listener, e);
+			}
+			deliveredCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Stop delivering notifications: the pending update is discarded
+	 */
+	public void close() {
+		closed = true;
+		synchronized (this) {
+			pendingUpdate = null;
+		}
+		if (ownScheduler) {
+			scheduler.shutdown();
+		}
+	}
+
+	public ISeriesListener<A, O> getListener() {
+		return listener;
+	}
+
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+	/**
+	 * @return the number of updates replaced by a newer one before delivery
+	 */
+	public long getConflatedCount() {
+		return conflatedCount.get();
+	}
+
+	/**
+	 * @return the number of notifications delivered to the listener
+	 */
+	public long getDeliveredCount() {
+		return deliveredCount.get();
+	}
+
+	/**
+	 * Replace the pending update of the same data-point, or open a new window if there is none
+	 * @return false if the pending update is for a different data-point
+	 */
+	private boolean replacePendingUpdate(ISeriesPoint<A, O> updatedItem) {
+		synchronized (this) {
+			if (pendingUpdate != null) {
+				if (!pendingUpdate.getIndex().equals(updatedItem.getIndex())) {
+					return false;
+				}
+				pendingUpdate = updatedItem;
+				conflatedCount.incrementAndGet();
+				return true;
+			}
+			pendingUpdate = updatedItem;
+		}
+		scheduleWindowExpiry();
+		return true;
+	}
+
+	private synchronized ISeriesPoint<A, O> takePendingUpdate() {
+		ISeriesPoint<A, O> update = pendingUpdate;
+		pendingUpdate = null;
+		return update;
+	}
+
+	private void scheduleWindowExpiry() {
+		if (closed) {
+			return;
+		}
+		try {
+			scheduler.schedule(windowExpiry, windowMillis, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			logger.log(Level.WARNING, "Update window expiry rejected by scheduler", e);
+		}
+	}
+
+	// must be called with the delivery lock held
+	private void deliverUpdate(ISeriesPoint<A, O> updatedItem) {
+		if (updatedItem == null || closed) {
+			return;
+		}
+		try {
+			listener.onItemUpdated(null, updatedItem);
+		} catch (RuntimeException e) {
+			logger.log(Level.SEVERE, "Exception while notifying series listener: " + listener, e);
+		}
+		deliveredCount.incrementAndGet();
+	}
+}
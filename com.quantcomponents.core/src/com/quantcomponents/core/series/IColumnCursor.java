@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+/**
+ * Cursor over the primitive rows of a columnar series, in ascending or descending order of abscissa.
+ * Values are read from the storage of the series, without building the data-points.
+ * The cursor scans the rows contained in the series at the time of creation.
+ * Instances are not thread-safe, and are meant to be used by a single reader.
+ *
+ * @see IColumnarSeries
+ */
+public interface IColumnCursor {
+	/**
+	 * Move to the next row. Must be called before reading the first row
+	 * @return true if the cursor is positioned on a row, false if there are no more rows
+	 */
+	boolean advance();
+	/**
+	 * @return the primitive abscissa of the current row, as encoded by the {@link IColumnLayout} of the series
+	 */
+	long index();
+	/**
+	 * @param column a column of the {@link IColumnLayout} of the series
+	 * @return the value of the column in the current row
+	 */
+	double column(int column);
+}
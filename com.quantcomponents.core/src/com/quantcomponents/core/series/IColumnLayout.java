@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Mapping between a data-point type and a row of primitive columns.
+ * Each data-point is represented by a <code>long</code> abscissa and a fixed number of <code>double</code> values.
+ * Implementors must be stateless and thread-safe, since the same instance is shared by all the
+ * readers and writers of a series.
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ * @see ArraySeries
+ */
+public interface IColumnLayout<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> {
+	/**
+	 * @return the number of <code>double</code> columns used for each data-point
+	 */
+	int getWidth();
+	/**
+	 * Converts an abscissa to its primitive representation.
+	 * The conversion must preserve the ordering of the abscissas.
+	 */
+	long encodeIndex(A index);
+	/**
+	 * Converts back a primitive abscissa
+	 */
+	A decodeIndex(long index);
+	/**
+	 * Write the values of a data-point into a row
+	 * @param point the data-point
+	 * @param row the target array
+	 * @param offset the position of the first column of the row in the target array
+	 */
+	void encode(P point, double[] row, int offset);
+	/**
+	 * Build a data-point from its primitive representation
+	 * @param index the primitive abscissa
+	 * @param row the source array
+	 * @param offset the position of the first column of the row in the source array
+	 * @return a new data-point
+	 */
+	P decode(long index, double[] row, int offset);
+	/**
+	 * The column containing the value returned by {@link ISeriesPoint#getBottomValue()}.
+	 * The natural ordering of the column values must be the same as the ordering of the ordinates.
+	 */
+	int getBottomValueColumn();
+	/**
+	 * The column containing the value returned by {@link ISeriesPoint#getTopValue()}.
+	 * The natural ordering of the column values must be the same as the ordering of the ordinates.
+	 */
+	int getTopValueColumn();
+}
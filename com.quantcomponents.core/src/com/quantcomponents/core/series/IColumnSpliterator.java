@@ -0,0 +1,21 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import com.quantcomponents.core.model.ISplittable;
+
+/**
+ * Ascending column cursor that can be split into parts to be scanned in parallel.
+ * The cursor and the parts split off from it are meant to be used each by a single thread.
+ *
+ * @see IColumnarSeries#columnSpliterator()
+ */
+public interface IColumnSpliterator extends IColumnCursor, ISplittable<IColumnSpliterator> {
+}
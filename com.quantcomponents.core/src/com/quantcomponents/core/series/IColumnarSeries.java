@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import com.quantcomponents.core.model.ISeries;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Series stored in primitive columns, that can be scanned without building the data-points
+ *
+ * @param <A> The Abscissa type
+ * @param <O> The Ordinate type
+ * @param <P> The type of the data point
+ */
+public interface IColumnarSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> extends ISeries<A, O, P> {
+	/**
+	 * @return the layout of the columns
+	 */
+	IColumnLayout<A, O, P> getLayout();
+	/**
+	 * @param from the abscissa of the first row, inclusive; null to start from the head
+	 * @return a cursor over the rows, in ascending order of abscissa
+	 */
+	IColumnCursor columnCursor(A from);
+	/**
+	 * @return a cursor over the rows, from the tail to the head
+	 */
+	IColumnCursor descendingColumnCursor();
+	/**
+	 * @return a splittable cursor over all the rows, in ascending order of abscissa
+	 */
+	IColumnSpliterator columnSpliterator();
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+/**
+ * Computation over a part of a series, whose partial results can be combined.
+ * Used by {@link SeriesSpliterators#scan} to process the parts of a series in parallel.
+ * Instances must be thread-safe, since the parts are scanned concurrently: usually they keep no state,
+ * and all the state is in the partial results.
+ *
+ * @param <S> the type of the parts, e.g. {@link com.quantcomponents.core.model.ISeriesSpliterator} or {@link IColumnSpliterator}
+ * @param <R> the type of the result
+ */
+public interface ISplitScan<S, R> {
+	/**
+	 * @return the result of the computation over all the elements of a part
+	 */
+	R scan(S part);
+	/**
+	 * @param left the result of a part
+	 * @param right the result of the part following it
+	 * @return the result of the two parts together
+	 */
+	R combine(R left, R right);
+}
@@ -9,29 +9,77 @@
  ******************************************************************************/
 package com.quantcomponents.core.series;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import com.quantcomponents.core.model.IEvictableSeries;
 import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.INavigableSeries;
+import com.quantcomponents.core.model.ISeriesChanges;
 import com.quantcomponents.core.model.ISeriesListener;
 import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.ISeriesSpliterator;
+import com.quantcomponents.core.model.ISplittableSeries;
+import com.quantcomponents.core.model.IVersionedSeries;
 
 /**
- * Thread-safe implementation of {@link com.quantcomponents.core.model.IMutableSeries} based on a {@link java.util.LinkedList}
+ * Thread-safe implementation of {@link com.quantcomponents.core.model.IMutableSeries} based on a double-ended array.
+ * Data-points are only ever written outside the range visible to existing iterators and sub-series, apart from the
+ * tail point, which is captured by the views themselves: therefore iterators and sub-series are snapshots that are
+ * created in constant or logarithmic time, without copying the series.
+ * Minimum and maximum are kept incrementally, and can be queried on any range of abscissas in logarithmic time:
+ * data-points must not be modified after being added, apart from the first and last ones, through
+ * {@link LinkedListSeries#updateHead} and {@link LinkedListSeries#updateTail}.
+ * The first and last data-points and the size are published in volatile fields after each change, so that they
+ * can be read without taking the lock, which is held only by the writer.
+ * The oldest data-points can be evicted in constant time per data-point, so that the series can be used as a bounded
+ * buffer of live data: the content is moved back when the tail reaches the end of the array, instead of growing it.
+ * The name is kept for compatibility: the serialized form is still that of a {@link java.util.LinkedList} of points.
  *
  * @param <A> type of the abscissa
  * @param <O> type of the ordinates
  * @param <P> type of the data point
  */
-public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements IMutableSeries<A, O, P>, Serializable {
+public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements IMutableSeries<A, O, P>, INavigableSeries<A, O, P>, IVersionedSeries<A, O, P>, IEvictableSeries<A, O, P>, ISplittableSeries<A, O, P>, Serializable {
 	private static final long serialVersionUID = 2891785718239781721L;
-	private LinkedList<P> items = new LinkedList<P>();
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("items", LinkedList.class),
+		new ObjectStreamField("ID", String.class),
+		new ObjectStreamField("enforceStrictSequence", Boolean.TYPE),
+		new ObjectStreamField("timestamp", Long.TYPE)
+	};
+	private static final int INITIAL_CAPACITY = 16;
+	private transient Object lock = new Object();
+	// points are in items[head] .. items[tail - 1]
+	private transient Object[] items = new Object[INITIAL_CAPACITY];
+	private transient int head = INITIAL_CAPACITY / 2;
+	private transient int tail = INITIAL_CAPACITY / 2;
+	// true when the current array can be referenced by iterators
+	private transient boolean shared;
+	// lowest slot that iterators of the current array can read, when shared
+	private transient int sharedFrom;
+	// incremented when points are overwritten or moved, to check whether snapshots can use the range index
+	private transient int modCount;
+	private transient SeriesRangeIndex rangeIndex = createRangeIndex();
+	// published after each change, so that readers of the ends and of the size do not need the lock
+	private transient volatile P firstItem;
+	private transient volatile P lastItem;
+	private transient volatile int publishedSize;
+	private transient volatile long version;
+	// started by the first request of changes
+	private transient SeriesChangeLog<A, O, P> changeLog;
 	private transient List<ISeriesListener<A, O>> listeners = new CopyOnWriteArrayList<ISeriesListener<A, O>>();
-	private final String ID;
-	private final boolean enforceStrictSequence;
+	private String ID;
+	private boolean enforceStrictSequence;
 	private volatile long timestamp;
 
 	public LinkedListSeries(String ID, boolean enforceStrictSequence) {
@@ -47,9 +95,9 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 	
 	@Override
 	public void addLast(P item) {
-		synchronized (items) {
-			if (!items.isEmpty()) {
-				P last = items.getLast();
+		synchronized (lock) {
+			if (tail > head) {
+				P last = itemAt(tail - 1);
 				if (isEnforceStrictSequence()) {
 					if (item.getIndex().compareTo(last.getIndex()) <= 0) {
 						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must follow last item index: " + last.getIndex());
@@ -61,7 +109,7 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 					}
 				}
 			}
-			items.add(item);
+			append(item);
 			updateTimestamp();
 		} // release lock before running arbitrary code
 		if (listeners != null) {
@@ -73,9 +121,9 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 	
 	@Override
 	public void addFirst(P item) {
-		synchronized (items) {
-			if (!items.isEmpty()) {
-				P first = items.getFirst();
+		synchronized (lock) {
+			if (tail > head) {
+				P first = itemAt(head);
 				if (isEnforceStrictSequence()) {
 					if (item.getIndex().compareTo(first.getIndex()) >= 0) {
 						throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must precede last item index: " + first.getIndex());
@@ -87,7 +135,7 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 					}
 				}
 			}
-			items.addFirst(item);
+			prepend(item);
 			updateTimestamp();
 		} // release lock before running arbitrary code
 		if (listeners != null) {
@@ -98,14 +146,14 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 	}
 
 	public void addLastIfNotExists(P item) {
-		synchronized (items) {
-			if (!items.isEmpty()) {
-				A lastIndex = items.getLast().getIndex();
+		synchronized (lock) {
+			if (tail > head) {
+				A lastIndex = itemAt(tail - 1).getIndex();
 				if (item.getIndex().compareTo(lastIndex) <= 0) {
 					return;
 				}
 			}
-			items.add(item);
+			append(item);
 			updateTimestamp();
 		} // release lock before running arbitrary code
 		if (listeners != null) {
@@ -116,14 +164,14 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 	}
 	
 	public void addFirstIfNotExists(P item) {
-		synchronized (items) {
-			if (!items.isEmpty()) {
-				A firstIndex = items.getFirst().getIndex();
+		synchronized (lock) {
+			if (tail > head) {
+				A firstIndex = itemAt(head).getIndex();
 				if (item.getIndex().compareTo(firstIndex) >= 0) {
 					return;
 				}
 			}
-			items.addFirst(item);
+			prepend(item);
 			updateTimestamp();
 		} // release lock before running arbitrary code
 		if (listeners != null) {
@@ -134,27 +182,58 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 	}
 
 	@Override
-	public void insertFromTail(P item) {
-		synchronized (items) {
-			if (items.isEmpty()) {
-				items.addLast(item);
-			} else {
-				LinkedList<P> tail = new LinkedList<P>();
-				while (!items.isEmpty() && items.getLast().getIndex().compareTo(item.getIndex()) >= 0) {
-					tail.addFirst(items.removeLast());
+	public void addAll(List<? extends P> items) {
+		List<P> sortedItems = new ArrayList<P>(items);
+		checkSorted(sortedItems);
+		List<P> addedItems = new ArrayList<P>(sortedItems.size());
+		synchronized (lock) {
+			// items preceding the current head are added to the head, starting from the nearest one
+			int split = 0;
+			if (tail > head) {
+				A firstIndex = itemAt(head).getIndex();
+				while (split < sortedItems.size() && sortedItems.get(split).getIndex().compareTo(firstIndex) < 0) {
+					split++;
 				}
-				try {
-					if (!tail.isEmpty()) {
-						P sameOrNextIndexPoint = tail.getFirst();
-						checkDuplicate(item, sameOrNextIndexPoint);
-						if (sameOrNextIndexPoint.getIndex().compareTo(item.getIndex()) == 0 && isEnforceStrictSequence()) {
-							throw new IllegalArgumentException("Item index: " + item.getIndex() + " is not unique");
-						}
-					}
-					items.addLast(item);
-				} finally {
-					items.addAll(tail);
+			}
+			// as for the tail, only the first of the items with the same index is added
+			for (int i = 0; i < split; i++) {
+				if (i == 0 || sortedItems.get(i).getIndex().compareTo(sortedItems.get(i - 1).getIndex()) > 0) {
+					addedItems.add(sortedItems.get(i));
+				}
+			}
+			for (int i = addedItems.size() - 1; i >= 0; i--) {
+				prepend(addedItems.get(i));
+			}
+			for (int i = split; i < sortedItems.size(); i++) {
+				P item = sortedItems.get(i);
+				if (tail == head || item.getIndex().compareTo(itemAt(tail - 1).getIndex()) > 0) {
+					append(item);
+					addedItems.add(item);
+				}
+			}
+			if (!addedItems.isEmpty()) {
+				updateTimestamp();
+			}
+		} // release lock before running arbitrary code
+		SeriesListenerSupport.notifyItemsAdded(listeners, addedItems);
+	}
+
+	@Override
+	public void insertFromTail(P item) {
+		synchronized (lock) {
+			int position = tail;
+			while (position > head && itemAt(position - 1).getIndex().compareTo(item.getIndex()) >= 0) {
+				position--;
+			}
+			if (position < tail) {
+				P sameOrNextIndexPoint = itemAt(position);
+				checkDuplicate(item, sameOrNextIndexPoint);
+				if (sameOrNextIndexPoint.getIndex().compareTo(item.getIndex()) == 0 && isEnforceStrictSequence()) {
+					throw new IllegalArgumentException("Item index: " + item.getIndex() + " is not unique");
 				}
+				insert(position, item);
+			} else {
+				append(item);
 			}
 		}
 		if (listeners != null) {
@@ -166,10 +245,14 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 
 	public void updateTail(P item) {
 		P previousItem = null;
-		synchronized (items) {
-			if (!items.isEmpty() && item.getIndex().equals(items.getLast().getIndex())) {
-				previousItem = items.removeLast();
-				items.addLast(item);
+		synchronized (lock) {
+			if (tail > head && item.getIndex().equals(itemAt(tail - 1).getIndex())) {
+				previousItem = itemAt(tail - 1);
+				items[tail - 1] = item; // iterators hold their own reference to the tail
+				modCount++;
+				rangeIndex.updated(tail - 1, head, tail);
+				publish();
+				changed(item, false);
 			} else {
 				throw new IllegalArgumentException("Item with index: " + item.getIndex() + " no tail of series");
 			}
@@ -182,54 +265,110 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 		}
 	}
 
+	/**
+	 * Replace the first data-point with one having the same abscissa, or notify that the first data-point
+	 * has been modified in place, by passing the same instance.
+	 * Listeners are not notified.
+	 * @param item the new first data-point
+	 * @throws IllegalArgumentException if the abscissa of the item is not the same as the first data-point
+	 */
+	public void updateHead(P item) {
+		synchronized (lock) {
+			if (tail > head && item.getIndex().equals(itemAt(head).getIndex())) {
+				if (shared && tail - head > 1 && item != itemAt(head)) {
+					// copy-on-write: unlike the tail, the head slot is read directly by iterators
+					items = items.clone();
+					shared = false;
+				}
+				items[head] = item;
+				modCount++;
+				rangeIndex.updated(head, head, tail);
+				publish();
+				changed(item, false);
+			} else {
+				throw new IllegalArgumentException("Item with index: " + item.getIndex() + " no head of series");
+			}
+			updateTimestamp();
+		}
+	}
+
+	/**
+	 * Lock-free: returns the first data-point as published by the last completed change
+	 */
 	@Override
 	public P getFirst() {
-		synchronized (items) {
-			if (items.isEmpty())
-				return null;
-			else
-				return items.getFirst();
-		}
+		return firstItem;
 	}
 
+	/**
+	 * Lock-free: returns the last data-point as published by the last completed change
+	 */
 	@Override
 	public P getLast() {
-		synchronized (items) {
-			if (items.isEmpty())
-				return null;
-			else
-				return items.getLast();
-		}
+		return lastItem;
 	}
 
 	@Override
 	public P getMinimum() {
-		O min = null;
-		P minItem = null;
-		synchronized (items) {
-			for (P item : items) {
-				if (minItem == null || min.compareTo(item.getBottomValue()) > 0) {
-					min = item.getBottomValue();
-					minItem = item;
-				}
-			}
+		synchronized (lock) {
+			return itemOrNull(rangeIndex.minimum());
 		}
-		return minItem;
 	}
 
 	@Override
 	public P getMaximum() {
-		O max = null;
-		P maxItem = null;
-		synchronized (items) {
-			for (P item : items) {
-				if (maxItem == null || max.compareTo(item.getTopValue()) < 0) {
-					max = item.getTopValue();
-					maxItem = item;
-				}
-			}
+		synchronized (lock) {
+			return itemOrNull(rangeIndex.maximum());
+		}
+	}
+
+	@Override
+	public P getMinimum(A from, A to) {
+		synchronized (lock) {
+			return itemOrNull(rangeIndex.minimum(from == null ? head : lowerBound(from), to == null ? tail : lowerBound(to)));
+		}
+	}
+
+	@Override
+	public P getMaximum(A from, A to) {
+		synchronized (lock) {
+			return itemOrNull(rangeIndex.maximum(from == null ? head : lowerBound(from), to == null ? tail : lowerBound(to)));
+		}
+	}
+
+	@Override
+	public INavigableSeries<A, O, P> subSeries(A from, A to) {
+		synchronized (lock) {
+			int fromSlot = from == null ? head : lowerBound(from);
+			int toSlot = to == null ? tail : lowerBound(to);
+			return snapshot(fromSlot, Math.max(fromSlot, toSlot));
+		}
+	}
+
+	@Override
+	public INavigableSeries<A, O, P> headSeries(A to) {
+		return subSeries(null, to);
+	}
+
+	@Override
+	public INavigableSeries<A, O, P> tailSeries(A from) {
+		return subSeries(from, null);
+	}
+
+	@Override
+	public P floor(A index) {
+		synchronized (lock) {
+			int slot = upperBound(index) - 1;
+			return slot >= head ? itemAt(slot) : null;
+		}
+	}
+
+	@Override
+	public P ceiling(A index) {
+		synchronized (lock) {
+			int slot = lowerBound(index);
+			return slot < tail ? itemAt(slot) : null;
 		}
-		return maxItem;
 	}
 
 	@Override
@@ -247,31 +386,44 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 		}
 	}
 
+	/**
+	 * Lock-free: returns the size as published by the last completed change
+	 */
 	@Override
 	public int size() {
-		synchronized (items) {
-			return items.size();
-		}
+		return publishedSize;
 	}
 
+	/**
+	 * Lock-free: see {@link #size()}
+	 */
 	@Override
 	public boolean isEmpty() {
-		synchronized (items) {
-			return items.isEmpty();
-		}	
+		return publishedSize == 0;
 	}
 
 	@Override
 	public Iterator<P> iterator() {
-		synchronized (items) {
-			return new LinkedList<P>(items).iterator();
+		synchronized (lock) {
+			return snapshot(head, tail).iterator();
 		}
 	}
 
 	@Override
 	public Iterator<P> descendingIterator() {
-		synchronized (items) {
-			return new LinkedList<P>(items).descendingIterator();
+		synchronized (lock) {
+			return snapshot(head, tail).descendingIterator();
+		}
+	}
+
+	/**
+	 * Snapshot spliterator, splitting in constant time.
+	 * The creation of the spliterator does not copy the series content.
+	 */
+	@Override
+	public ISeriesSpliterator<P> seriesSpliterator() {
+		synchronized (lock) {
+			return snapshot(head, tail).seriesSpliterator();
 		}
 	}
 
@@ -284,10 +436,75 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 	public long getTimestamp() {
 		return timestamp;
 	}
+
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public ISeriesChanges<A, O, P> changesSince(long version) {
+		synchronized (lock) {
+			if (changeLog == null) {
+				changeLog = new SeriesChangeLog<A, O, P>(this.version);
+			}
+			return changeLog.changesSince(version, this.version);
+		}
+	}
 	
+	/**
+	 * Evicted data-points are released immediately, unless iterators or sub-series have been created since the last
+	 * copy of the array: in this case they are released by the next copy
+	 */
+	@Override
+	public int evictBefore(A index, int maxCount) {
+		int count;
+		A firstIndex;
+		synchronized (lock) {
+			int slot = lowerBound(index);
+			if (slot - head > maxCount) {
+				slot = head + maxCount;
+			}
+			count = slot - head;
+			if (count <= 0) {
+				return 0;
+			}
+			if (!shared) {
+				Arrays.fill(items, head, slot, null);
+			}
+			int oldHead = head;
+			head = slot;
+			modCount++;
+			rangeIndex.shifted(oldHead, head, head, tail);
+			publish();
+			version++;
+			if (changeLog != null) {
+				changeLog.truncate(version);
+			}
+			updateTimestamp();
+			firstIndex = tail > head ? itemAt(head).getIndex() : index;
+		} // release lock before running arbitrary code
+		SeriesListenerSupport.notifyItemsEvicted(listeners, firstIndex, count);
+		return count;
+	}
+
 	public void clear() {
-		synchronized (items) {
-			items.clear();
+		synchronized (lock) {
+			if (shared) {
+				items = new Object[INITIAL_CAPACITY];
+				shared = false;
+			} else {
+				Arrays.fill(items, head, tail, null);
+			}
+			head = items.length / 2;
+			tail = head;
+			modCount++;
+			rangeIndex.reset();
+			publish();
+			version++;
+			if (changeLog != null) {
+				changeLog.truncate(version);
+			}
 		}
 	}
 
@@ -300,9 +517,279 @@ public class LinkedListSeries<A extends Comparable<A>, O extends Comparable<O>,
 		timestamp = System.currentTimeMillis();
 	}
 
+	/**
+	 * Must be called with the lock held, for each added or updated data-point
+	 */
+	private void changed(P item, boolean addition) {
+		version++;
+		if (changeLog != null) {
+			changeLog.record(version, item, addition);
+		}
+	}
+
+	/**
+	 * Must be called with the lock held, after each change of the content
+	 */
+	private void publish() {
+		firstItem = tail > head ? itemAt(head) : null;
+		lastItem = tail > head ? itemAt(tail - 1) : null;
+		publishedSize = tail - head;
+	}
+
+	private void checkSorted(List<P> items) {
+		for (int i = 1; i < items.size(); i++) {
+			if (items.get(i).getIndex().compareTo(items.get(i - 1).getIndex()) < 0) {
+				throw new IllegalArgumentException("Item with index: " + items.get(i).getIndex() + " must not precede item with index: " + items.get(i - 1).getIndex());
+			}
+		}
+	}
+
 	private void checkDuplicate(P item1, P item2) {
 		if (item1.equals(item2)) {
 			throw new IllegalArgumentException("Duplicate item: " + item1);
 		}
 	}
+
+	@SuppressWarnings("unchecked")
+	private P itemAt(int i) {
+		return (P) items[i];
+	}
+
+	private P itemOrNull(int i) {
+		return i == SeriesRangeIndex.NONE ? null : itemAt(i);
+	}
+
+	private int lowerBound(A index) {
+		return lowerBound(items, index, head, tail);
+	}
+
+	private int upperBound(A index) {
+		return upperBound(items, index, head, tail);
+	}
+
+	/**
+	 * @return the position of the first item with abscissa not less than the given one, or <code>to</code>
+	 */
+	private static int lowerBound(Object[] items, Comparable<?> index, int from, int to) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compareIndex(items[mid], index) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the position of the first item with abscissa greater than the given one, or <code>to</code>
+	 */
+	private static int upperBound(Object[] items, Comparable<?> index, int from, int to) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compareIndex(items[mid], index) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compareIndex(Object item, Comparable index) {
+		return ((ISeriesPoint) item).getIndex().compareTo(index);
+	}
+
+	/**
+	 * Must be called with the lock held
+	 */
+	private Snapshot snapshot(int fromSlot, int toSlot) {
+		sharedFrom = shared ? Math.min(sharedFrom, fromSlot) : fromSlot;
+		shared = true;
+		return new Snapshot(items, fromSlot, toSlot, tail - 1, tail > head ? itemAt(tail - 1) : null, modCount, timestamp);
+	}
+
+	private SeriesRangeIndex createRangeIndex() {
+		return new SeriesRangeIndex() {
+			@Override
+			protected int compareBottom(int slot1, int slot2) {
+				return itemAt(slot1).getBottomValue().compareTo(itemAt(slot2).getBottomValue());
+			}
+
+			@Override
+			protected int compareTop(int slot1, int slot2) {
+				return itemAt(slot1).getTopValue().compareTo(itemAt(slot2).getTopValue());
+			}
+		};
+	}
+
+	private void append(P item) {
+		if (tail == items.length) {
+			int size = tail - head;
+			if (size < items.length / 2) {
+				// room left by evicted data-points
+				resize(items.length, (items.length - size) / 4);
+			} else {
+				resize(items.length * 2, head);
+			}
+		}
+		items[tail++] = item;
+		rangeIndex.added(tail - 1, head, tail);
+		publish();
+		changed(item, true);
+	}
+
+	private void prepend(P item) {
+		if (head == 0) {
+			resize(items.length * 2, head + items.length);
+		} else if (shared && head > sharedFrom) {
+			// copy-on-write: the slot preceding the head has been evicted, but it can still be read by iterators
+			resize(items.length, head);
+		}
+		items[--head] = item;
+		rangeIndex.added(head, head, tail);
+		publish();
+		changed(item, true);
+	}
+
+	private void insert(int position, P item) {
+		if (shared || tail == items.length) {
+			// copy-on-write: the existing array can still be referenced by iterators
+			Object[] newItems = new Object[tail == items.length ? items.length * 2 : items.length];
+			System.arraycopy(items, head, newItems, head, position - head);
+			System.arraycopy(items, position, newItems, position + 1, tail - position);
+			items = newItems;
+			shared = false;
+		} else {
+			System.arraycopy(items, position, items, position + 1, tail - position);
+		}
+		items[position] = item;
+		tail++;
+		modCount++;
+		rangeIndex.shifted(position, tail, head, tail);
+		publish();
+		changed(item, true);
+	}
+
+	/**
+	 * Copy the content to a new array.
+	 * The old array is left untouched, since it could be still referenced by iterators
+	 */
+	private void resize(int capacity, int newHead) {
+		Object[] newItems = new Object[capacity];
+		System.arraycopy(items, head, newItems, newHead, tail - head);
+		tail = newHead + tail - head;
+		head = newHead;
+		items = newItems;
+		shared = false;
+		rangeIndex.rebuild(head, tail);
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		LinkedList<P> list = new LinkedList<P>();
+		synchronized (lock) {
+			for (int i = head; i < tail; i++) {
+				list.add(itemAt(i));
+			}
+		}
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("items", list);
+		fields.put("ID", ID);
+		fields.put("enforceStrictSequence", enforceStrictSequence);
+		fields.put("timestamp", timestamp);
+		out.writeFields();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		LinkedList<P> list = (LinkedList<P>) fields.get("items", null);
+		ID = (String) fields.get("ID", null);
+		enforceStrictSequence = fields.get("enforceStrictSequence", false);
+		timestamp = fields.get("timestamp", 0L);
+		lock = new Object();
+		int size = list == null ? 0 : list.size();
+		items = new Object[Math.max(INITIAL_CAPACITY, size * 2)];
+		head = (items.length - size) / 2;
+		tail = head;
+		if (list != null) {
+			for (P item : list) {
+				items[tail++] = item;
+			}
+		}
+		rangeIndex = createRangeIndex();
+		rangeIndex.rebuild(head, tail);
+		publish();
+	}
+
+	/**
+	 * View over a range of an items array.
+	 * The range is never modified after the creation of the view, apart from the tail item,
+	 * which is kept in a separate reference
+	 */
+	private class Snapshot extends SeriesSnapshot<A, O, P> {
+		private final Object[] items;
+		private final int tailSlot;
+		private final P tailItem;
+		private final int modCount;
+
+		Snapshot(Object[] items, int start, int end, int tailSlot, P tailItem, int modCount, long timestamp) {
+			super(LinkedListSeries.this, start, end, timestamp);
+			this.items = items;
+			this.tailSlot = tailSlot;
+			this.tailItem = tailItem;
+			this.modCount = modCount;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		protected P pointAt(int slot) {
+			return slot == tailSlot ? tailItem : (P) items[slot];
+		}
+
+		@Override
+		protected int lowerBound(A index, int from, int to) {
+			return LinkedListSeries.lowerBound(items, index, from, to);
+		}
+
+		@Override
+		protected int upperBound(A index, int from, int to) {
+			return LinkedListSeries.upperBound(items, index, from, to);
+		}
+
+		@Override
+		protected int minimumSlot(int from, int to) {
+			synchronized (lock) {
+				if (isIndexValid()) {
+					return rangeIndex.minimum(from, to);
+				}
+			}
+			return scanMinimum(from, to);
+		}
+
+		@Override
+		protected int maximumSlot(int from, int to) {
+			synchronized (lock) {
+				if (isIndexValid()) {
+					return rangeIndex.maximum(from, to);
+				}
+			}
+			return scanMaximum(from, to);
+		}
+
+		@Override
+		protected SeriesSnapshot<A, O, P> slice(int from, int to) {
+			return new Snapshot(items, from, to, tailSlot, tailItem, modCount, getTimestamp());
+		}
+
+		private boolean isIndexValid() {
+			return items == LinkedListSeries.this.items && modCount == LinkedListSeries.this.modCount;
+		}
+	}
 }
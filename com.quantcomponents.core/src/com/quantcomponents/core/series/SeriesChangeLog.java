@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Bounded log of the changes of a series, each one with its version.
+ * The log grows up to a maximum capacity, after which the oldest changes are discarded.
+ * Instances are not thread-safe: they must be guarded by the lock of the owning series.
+ *
+ * @param <A> type of the abscissa
+ * @param <O> type of the ordinates
+ * @param <P> type of the data point
+ */
+class SeriesChangeLog<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> {
+	private static final int INITIAL_CAPACITY = 64;
+	static final int MAX_CAPACITY = 4096;
+	private long[] versions = new long[INITIAL_CAPACITY];
+	private Object[] items = new Object[INITIAL_CAPACITY];
+	private boolean[] additions = new boolean[INITIAL_CAPACITY];
+	// ring buffer: entries are in first .. first + size - 1, modulo capacity
+	private int first;
+	private int size;
+	// all the changes after this version are in the log
+	private long baseVersion;
+
+	/**
+	 * @param version the current version of the series: the log contains all the changes after it
+	 */
+	SeriesChangeLog(long version) {
+		baseVersion = version;
+	}
+
+	/**
+	 * Record a change
+	 * @param version the version of the change
+	 * @param item the added or updated data-point
+	 * @param addition true if the data-point has been added, false if it has been updated
+	 */
+	void record(long version, P item, boolean addition) {
+		if (size == versions.length) {
+			if (versions.length < MAX_CAPACITY) {
+				grow();
+			} else {
+				baseVersion = versions[first];
+				items[first] = null;
+				first = (first + 1) % versions.length;
+				size--;
+			}
+		}
+		int slot = (first + size) % versions.length;
+		versions[slot] = version;
+		items[slot] = item;
+		additions[slot] = addition;
+		size++;
+	}
+
+	/**
+	 * Discard all the changes, e.g. after the series has been cleared
+	 * @param version the current version of the series
+	 */
+	void truncate(long version) {
+		Arrays.fill(items, null);
+		first = 0;
+		size = 0;
+		baseVersion = version;
+	}
+
+	/**
+	 * @param version the start version, excluded
+	 * @param currentVersion the current version of the series
+	 * @return the changes after the start version
+	 */
+	@SuppressWarnings("unchecked")
+	SeriesChanges<A, O, P> changesSince(long version, long currentVersion) {
+		if (version < baseVersion || version > currentVersion) {
+			return SeriesChanges.incomplete(version, currentVersion);
+		}
+		List<P> addedItems = new ArrayList<P>();
+		// position in addedItems of the last data-point added with an abscissa
+		Map<A, Integer> addedPositions = new HashMap<A, Integer>();
+		Map<A, P> updatedItems = new LinkedHashMap<A, P>();
+		for (int i = 0; i < size; i++) {
+			int slot = (first + i) % versions.length;
+			if (versions[slot] <= version) {
+				continue;
+			}
+			P item = (P) items[slot];
+			if (additions[slot]) {
+				addedPositions.put(item.getIndex(), addedItems.size());
+				addedItems.add(item);
+			} else {
+				Integer position = addedPositions.get(item.getIndex());
+				if (position != null) {
+					addedItems.set(position, item);
+				} else {
+					updatedItems.put(item.getIndex(), item);
+				}
+			}
+		}
+		Comparator<P> byIndex = new Comparator<P>() {
+			@Override
+			public int compare(P p1, P p2) {
+				return p1.getIndex().compareTo(p2.getIndex());
+			}};
+		List<P> updatedList = new ArrayList<P>(updatedItems.values());
+		Collections.sort(addedItems, byIndex);
+		Collections.sort(updatedList, byIndex);
+		return new SeriesChanges<A, O, P>(version, currentVersion, addedItems, updatedList);
+	}
+
+	private void grow() {
+		int capacity = versions.length * 2;
+		long[] newVersions = new long[capacity];
+		Object[] newItems = new Object[capacity];
+		boolean[] newAdditions = new boolean[capacity];
+		for (int i = 0; i < size; i++) {
+			int slot = (first + i) % versions.length;
+			newVersions[i] = versions[slot];
+			newItems[i] = items[slot];
+			newAdditions[i] = additions[slot];
+		}
+		versions = newVersions;
+		items = newItems;
+		additions = newAdditions;
+		first = 0;
+	}
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+import com.quantcomponents.core.model.ISeriesChanges;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Immutable implementation of {@link ISeriesChanges}
+ *
+ * @param <A> type of the abscissa
+ * @param <O> type of the ordinates
+ * @param <P> type of the data point
+ */
+public class SeriesChanges<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements ISeriesChanges<A, O, P>, Serializable {
+	private static final long serialVersionUID = -1526380263374720968L;
+	private final long fromVersion;
+	private final long toVersion;
+	private final boolean complete;
+	private final List<P> addedItems;
+	private final List<P> updatedItems;
+
+	public SeriesChanges(long fromVersion, long toVersion, List<P> addedItems, List<P> updatedItems) {
+		this(fromVersion, toVersion, true, addedItems, updatedItems);
+	}
+
+	private SeriesChanges(long fromVersion, long toVersion, boolean complete, List<P> addedItems, List<P> updatedItems) {
+		this.fromVersion = fromVersion;
+		this.toVersion = toVersion;
+		this.complete = complete;
+		this.addedItems = Collections.unmodifiableList(addedItems);
+		this.updatedItems = Collections.unmodifiableList(updatedItems);
+	}
+
+	/**
+	 * @return an instance telling that the changes are not available, and the whole series must be read again
+	 */
+	public static <A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> SeriesChanges<A, O, P> incomplete(long fromVersion, long toVersion) {
+		return new SeriesChanges<A, O, P>(fromVersion, toVersion, false, Collections.<P>emptyList(), Collections.<P>emptyList());
+	}
+
+	@Override
+	public long getFromVersion() {
+		return fromVersion;
+	}
+
+	@Override
+	public long getToVersion() {
+		return toVersion;
+	}
+
+	@Override
+	public boolean isComplete() {
+		return complete;
+	}
+
+	@Override
+	public List<P> getAddedItems() {
+		return addedItems;
+	}
+
+	@Override
+	public List<P> getUpdatedItems() {
+		return updatedItems;
+	}
+}
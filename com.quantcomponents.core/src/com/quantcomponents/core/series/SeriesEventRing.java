@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer, safe for multiple producers and multiple consumers.
+ * Each slot carries a sequence number that tells producers and consumers whose turn it is,
+ * so that neither side ever blocks: {@link #offer(Object)} fails when the buffer is full,
+ * and {@link #poll()} returns null when it is empty.
+ *
+ * @param <E> type of the elements
+ */
+class SeriesEventRing<E> {
+	private final int capacity;
+	private final int mask;
+	private final AtomicReferenceArray<E> elements;
+	private final AtomicLongArray sequences;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * @param minCapacity the minimum capacity: it is rounded up to a power of two
+	 */
+	SeriesEventRing(int minCapacity) {
+		if (minCapacity < 1 || minCapacity > 1 << 30) {
+			throw new IllegalArgumentException("Invalid capacity: " + minCapacity);
+		}
+		int size = 1;
+		while (size < minCapacity) {
+			size <<= 1;
+		}
+		capacity = size;
+		mask = size - 1;
+		elements = new AtomicReferenceArray<E>(size);
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * @return true if the element has been added, false if the buffer is full
+	 */
+	boolean offer(E element) {
+		long position = tail.get();
+		while (true) {
+			int slot = (int) (position & mask);
+			long difference = sequences.get(slot) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements.lazySet(slot, element);
+					sequences.lazySet(slot, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * @return the oldest element, or null if the buffer is empty
+	 */
+	E poll() {
+		long position = head.get();
+		while (true) {
+			int slot = (int) (position & mask);
+			long difference = sequences.get(slot) - (position + 1);
+			if (difference == 0) {
+				if (head.compareAndSet(position, position + 1)) {
+					E element = elements.get(slot);
+					elements.lazySet(slot, null);
+					sequences.lazySet(slot, position + capacity);
+					return element;
+				}
+				position = head.get();
+			} else if (difference < 0) {
+				return null;
+			} else {
+				position = head.get();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of elements in the buffer: only an estimate if producers or consumers are active
+	 */
+	int size() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(capacity, size));
+	}
+
+	boolean isEmpty() {
+		return size() == 0;
+	}
+
+	int capacity() {
+		return capacity;
+	}
+}
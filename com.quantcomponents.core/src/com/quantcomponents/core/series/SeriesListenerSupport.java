@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.List;
+
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.IMutableSeriesPoint;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Helper methods to notify series listeners
+ */
+public class SeriesListenerSupport {
+	private SeriesListenerSupport() {}
+
+	/**
+	 * Notify a batch of new data-points: instances of {@link IBatchSeriesListener} are called once,
+	 * the other listeners once for each data-point
+	 * @param listeners the listeners to be notified; can be null
+	 * @param newItems the new data-points
+	 */
+	public static <A extends Comparable<A>, O extends Comparable<O>> void notifyItemsAdded(Iterable<ISeriesListener<A, O>> listeners, List<? extends ISeriesPoint<A, O>> newItems) {
+		if (listeners == null || newItems.isEmpty()) {
+			return;
+		}
+		for (ISeriesListener<A, O> listener : listeners) {
+			if (listener instanceof IBatchSeriesListener<?, ?>) {
+				((IBatchSeriesListener<A, O>) listener).onItemsAdded(newItems);
+			} else {
+				for (ISeriesPoint<A, O> newItem : newItems) {
+					listener.onItemAdded(newItem);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Notify the removal of data-points from the head of a series: only instances of {@link IEvictionSeriesListener} are called
+	 * @param listeners the listeners to be notified; can be null
+	 * @param index the abscissa of the first data-point left in the series
+	 * @param count the number of data-points removed
+	 */
+	public static <A extends Comparable<A>, O extends Comparable<O>> void notifyItemsEvicted(Iterable<ISeriesListener<A, O>> listeners, A index, int count) {
+		if (listeners == null || count == 0) {
+			return;
+		}
+		for (ISeriesListener<A, O> listener : listeners) {
+			if (listener instanceof IEvictionSeriesListener<?, ?>) {
+				((IEvictionSeriesListener<A, O>) listener).onItemsEvicted(index, count);
+			}
+		}
+	}
+
+	/**
+	 * To be called by listeners that keep a data-point after the notification, or hand it to another thread
+	 * @param item a notified data-point; can be null
+	 * @return an immutable copy of the data-point if it is updated in place by its series, see {@link IMutableSeriesPoint},
+	 * the data-point itself otherwise
+	 */
+	public static <A extends Comparable<A>, O extends Comparable<O>> ISeriesPoint<A, O> stableItem(ISeriesPoint<A, O> item) {
+		if (item instanceof IMutableSeriesPoint<?, ?>) {
+			@SuppressWarnings("unchecked")
+			IMutableSeriesPoint<A, O> mutableItem = (IMutableSeriesPoint<A, O>) item;
+			return mutableItem.snapshot();
+		}
+		return item;
+	}
+}
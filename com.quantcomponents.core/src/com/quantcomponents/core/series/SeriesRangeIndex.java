@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.Arrays;
+
+/**
+ * Minimum and maximum index over the slots of a series storage.
+ * Slots are grouped in blocks of fixed size, and a segment tree keeps the slot with the minimum bottom value
+ * and the slot with the maximum top value for each block and each range of blocks.
+ * Additions at both ends cost at most a logarithmic number of comparisons; the minimum and the maximum
+ * of the whole series are available in constant time, and those of a range of slots in logarithmic time.
+ * Slots can be negative, and the index grows in both directions as needed.
+ * On ties the lowest slot is chosen, as a linear scan from the first data-point would do.
+ * Instances are not thread-safe: they must be guarded by the lock of the owning series.
+ */
+abstract class SeriesRangeIndex {
+	static final int NONE = Integer.MIN_VALUE;
+	private static final int BLOCK_BITS = 6;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+	// first slot of the first block
+	private int base;
+	// number of leaves: always a power of two
+	private int leaves;
+	// heap-ordered trees: node 1 is the root, leaves start at 'leaves'
+	private int[] minTree;
+	private int[] maxTree;
+
+	SeriesRangeIndex() {
+		reset();
+	}
+
+	/**
+	 * Compare the bottom values of two non-empty slots
+	 */
+	protected abstract int compareBottom(int slot1, int slot2);
+
+	/**
+	 * Compare the top values of two non-empty slots
+	 */
+	protected abstract int compareTop(int slot1, int slot2);
+
+	/**
+	 * Remove all the slots
+	 */
+	void reset() {
+		base = 0;
+		leaves = 1;
+		minTree = new int[] { NONE, NONE };
+		maxTree = new int[] { NONE, NONE };
+	}
+
+	/**
+	 * Recompute the whole index from the current content
+	 * @param start the first non-empty slot
+	 * @param end the slot next to the last non-empty one
+	 */
+	void rebuild(int start, int end) {
+		int size = end - start;
+		int newLeaves = 1;
+		while (newLeaves * BLOCK_SIZE < size * 2) {
+			newLeaves *= 2;
+		}
+		leaves = newLeaves;
+		base = start - (leaves * BLOCK_SIZE - size) / 2;
+		minTree = new int[leaves * 2];
+		maxTree = new int[leaves * 2];
+		Arrays.fill(minTree, NONE);
+		Arrays.fill(maxTree, NONE);
+		if (size > 0) {
+			updateLeaves(blockOf(start), blockOf(end - 1), start, end);
+		}
+	}
+
+	/**
+	 * Notify a slot added at either end of the series
+	 * @param slot the new slot
+	 * @param start the first non-empty slot, including the new one
+	 * @param end the slot next to the last non-empty one, including the new one
+	 */
+	void added(int slot, int start, int end) {
+		if (slot < base || slot >= base + leaves * BLOCK_SIZE) {
+			rebuild(start, end);
+			return;
+		}
+		// existing values are unchanged: stop as soon as the new slot does not win
+		int node = leaves + blockOf(slot);
+		boolean updateMin = true;
+		boolean updateMax = true;
+		while (node >= 1 && (updateMin || updateMax)) {
+			if (updateMin) {
+				int newMin = min(minTree[node], slot);
+				updateMin = newMin != minTree[node];
+				minTree[node] = newMin;
+			}
+			if (updateMax) {
+				int newMax = max(maxTree[node], slot);
+				updateMax = newMax != maxTree[node];
+				maxTree[node] = newMax;
+			}
+			node >>= 1;
+		}
+	}
+
+	/**
+	 * Notify that the values of a slot have been replaced
+	 */
+	void updated(int slot, int start, int end) {
+		shifted(slot, slot + 1, start, end);
+	}
+
+	/**
+	 * Notify that the values of a range of slots have been rewritten, e.g. after an insertion in the middle
+	 * @param fromSlot the first rewritten slot
+	 * @param toSlot the slot next to the last rewritten one
+	 * @param start the first non-empty slot
+	 * @param end the slot next to the last non-empty one
+	 */
+	void shifted(int fromSlot, int toSlot, int start, int end) {
+		if (fromSlot < base || toSlot > base + leaves * BLOCK_SIZE) {
+			rebuild(start, end);
+			return;
+		}
+		updateLeaves(blockOf(fromSlot), blockOf(toSlot - 1), start, end);
+	}
+
+	/**
+	 * @return the slot with the minimum bottom value, or {@link #NONE} if the index is empty
+	 */
+	int minimum() {
+		return minTree[1];
+	}
+
+	/**
+	 * @return the slot with the maximum top value, or {@link #NONE} if the index is empty
+	 */
+	int maximum() {
+		return maxTree[1];
+	}
+
+	/**
+	 * @param from the first slot of the range
+	 * @param to the slot next to the last one of the range
+	 * @return the slot with the minimum bottom value in the range, or {@link #NONE} if the range is empty
+	 */
+	int minimum(int from, int to) {
+		return query(from, to, true);
+	}
+
+	/**
+	 * @param from the first slot of the range
+	 * @param to the slot next to the last one of the range
+	 * @return the slot with the maximum top value in the range, or {@link #NONE} if the range is empty
+	 */
+	int maximum(int from, int to) {
+		return query(from, to, false);
+	}
+
+	private int query(int from, int to, boolean isMin) {
+		if (from >= to) {
+			return NONE;
+		}
+		int[] tree = isMin ? minTree : maxTree;
+		int firstBlock = blockOf(from);
+		int lastBlock = blockOf(to - 1);
+		if (firstBlock == lastBlock && (from > blockStart(firstBlock) || to < blockStart(firstBlock) + BLOCK_SIZE)) {
+			return scan(from, to, NONE, isMin);
+		}
+		int result = NONE;
+		// partial blocks at both ends are scanned
+		if (from > blockStart(firstBlock)) {
+			result = scan(from, blockStart(firstBlock) + BLOCK_SIZE, result, isMin);
+			firstBlock++;
+		}
+		if (to < blockStart(lastBlock) + BLOCK_SIZE) {
+			result = scan(blockStart(lastBlock), to, result, isMin);
+			lastBlock--;
+		}
+		// whole blocks in between come from the tree
+		int left = firstBlock + leaves;
+		int right = lastBlock + leaves + 1;
+		while (left < right) {
+			if ((left & 1) == 1) {
+				result = combine(result, tree[left++], isMin);
+			}
+			if ((right & 1) == 1) {
+				result = combine(result, tree[--right], isMin);
+			}
+			left >>= 1;
+			right >>= 1;
+		}
+		return result;
+	}
+
+	private void updateLeaves(int firstBlock, int lastBlock, int start, int end) {
+		for (int block = firstBlock; block <= lastBlock; block++) {
+			int from = Math.max(start, blockStart(block));
+			int to = Math.min(end, blockStart(block) + BLOCK_SIZE);
+			minTree[leaves + block] = scan(from, to, NONE, true);
+			maxTree[leaves + block] = scan(from, to, NONE, false);
+		}
+		int left = (leaves + firstBlock) >> 1;
+		int right = (leaves + lastBlock) >> 1;
+		while (left >= 1) {
+			for (int node = left; node <= right; node++) {
+				minTree[node] = min(minTree[2 * node], minTree[2 * node + 1]);
+				maxTree[node] = max(maxTree[2 * node], maxTree[2 * node + 1]);
+			}
+			left >>= 1;
+			right >>= 1;
+		}
+	}
+
+	private int scan(int from, int to, int result, boolean isMin) {
+		for (int slot = from; slot < to; slot++) {
+			result = combine(result, slot, isMin);
+		}
+		return result;
+	}
+
+	private int combine(int slot1, int slot2, boolean isMin) {
+		return isMin ? min(slot1, slot2) : max(slot1, slot2);
+	}
+
+	private int min(int slot1, int slot2) {
+		if (slot1 == NONE || slot1 == slot2) {
+			return slot2;
+		}
+		if (slot2 == NONE) {
+			return slot1;
+		}
+		int c = compareBottom(slot1, slot2);
+		return c < 0 || (c == 0 && slot1 < slot2) ? slot1 : slot2;
+	}
+
+	private int max(int slot1, int slot2) {
+		if (slot1 == NONE || slot1 == slot2) {
+			return slot2;
+		}
+		if (slot2 == NONE) {
+			return slot1;
+		}
+		int c = compareTop(slot1, slot2);
+		return c > 0 || (c == 0 && slot1 < slot2) ? slot1 : slot2;
+	}
+
+	private int blockOf(int slot) {
+		return (slot - base) >> BLOCK_BITS;
+	}
+
+	private int blockStart(int block) {
+		return base + (block << BLOCK_BITS);
+	}
+}
@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.INavigableSeries;
+import com.quantcomponents.core.model.ISeries;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.ISeriesSpliterator;
+import com.quantcomponents.core.model.ISplittableSeries;
+
+/**
+ * Read-only view over a range of slots of a series storage, as it was at the time of creation.
+ * Subclasses provide access to the slots; the storage must guarantee that the slots in the range
+ * are never overwritten while the view is reachable.
+ * Since slots are accessed by position, spliterators split in constant time.
+ *
+ * @param <A> type of the abscissa
+ * @param <O> type of the ordinates
+ * @param <P> type of the data point
+ */
+abstract class SeriesSnapshot<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements INavigableSeries<A, O, P>, ISplittableSeries<A, O, P> {
+	private final ISeries<A, O, P> source;
+	private final int start;
+	private final int end;
+	private final long timestamp;
+
+	/**
+	 * @param source the series containing the slots
+	 * @param start the first slot of the view
+	 * @param end the slot next to the last one of the view
+	 * @param timestamp the timestamp of the source series at the time of creation
+	 */
+	SeriesSnapshot(ISeries<A, O, P> source, int start, int end, long timestamp) {
+		this.source = source;
+		this.start = start;
+		this.end = end;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * @return the data-point contained in a slot of the view
+	 */
+	protected abstract P pointAt(int slot);
+
+	/**
+	 * @return the first slot in the range with abscissa not less than the specified one, or <code>to</code>
+	 */
+	protected abstract int lowerBound(A index, int from, int to);
+
+	/**
+	 * @return the first slot in the range with abscissa greater than the specified one, or <code>to</code>
+	 */
+	protected abstract int upperBound(A index, int from, int to);
+
+	/**
+	 * @return the slot with the minimum bottom value in the range, or {@link SeriesRangeIndex#NONE}
+	 */
+	protected abstract int minimumSlot(int from, int to);
+
+	/**
+	 * @return the slot with the maximum top value in the range, or {@link SeriesRangeIndex#NONE}
+	 */
+	protected abstract int maximumSlot(int from, int to);
+
+	/**
+	 * @return a view of a sub-range of slots, sharing the storage of this view
+	 */
+	protected abstract SeriesSnapshot<A, O, P> slice(int from, int to);
+
+	/**
+	 * @return the first slot of the view
+	 */
+	protected int getStart() {
+		return start;
+	}
+
+	/**
+	 * @return the slot next to the last one of the view
+	 */
+	protected int getEnd() {
+		return end;
+	}
+
+	/**
+	 * Linear search of the minimum, to be used when no index is available for the range
+	 */
+	protected int scanMinimum(int from, int to) {
+		int minSlot = SeriesRangeIndex.NONE;
+		O min = null;
+		for (int slot = from; slot < to; slot++) {
+			O value = pointAt(slot).getBottomValue();
+			if (minSlot == SeriesRangeIndex.NONE || min.compareTo(value) > 0) {
+				min = value;
+				minSlot = slot;
+			}
+		}
+		return minSlot;
+	}
+
+	/**
+	 * Linear search of the maximum, to be used when no index is available for the range
+	 */
+	protected int scanMaximum(int from, int to) {
+		int maxSlot = SeriesRangeIndex.NONE;
+		O max = null;
+		for (int slot = from; slot < to; slot++) {
+			O value = pointAt(slot).getTopValue();
+			if (maxSlot == SeriesRangeIndex.NONE || max.compareTo(value) < 0) {
+				max = value;
+				maxSlot = slot;
+			}
+		}
+		return maxSlot;
+	}
+
+	@Override
+	public String getPersistentID() {
+		return source.getPersistentID();
+	}
+
+	@Override
+	public int size() {
+		return end - start;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return end == start;
+	}
+
+	@Override
+	public Iterator<P> iterator() {
+		return new SnapshotIterator(false);
+	}
+
+	@Override
+	public Iterator<P> descendingIterator() {
+		return new SnapshotIterator(true);
+	}
+
+	@Override
+	public ISeriesSpliterator<P> seriesSpliterator() {
+		return new SnapshotSpliterator(start, end);
+	}
+
+	@Override
+	public P getFirst() {
+		return end > start ? pointAt(start) : null;
+	}
+
+	@Override
+	public P getLast() {
+		return end > start ? pointAt(end - 1) : null;
+	}
+
+	@Override
+	public P getMinimum() {
+		return pointOrNull(minimumSlot(start, end));
+	}
+
+	@Override
+	public P getMaximum() {
+		return pointOrNull(maximumSlot(start, end));
+	}
+
+	@Override
+	public P getMinimum(A from, A to) {
+		return pointOrNull(minimumSlot(fromSlot(from), toSlot(to)));
+	}
+
+	@Override
+	public P getMaximum(A from, A to) {
+		return pointOrNull(maximumSlot(fromSlot(from), toSlot(to)));
+	}
+
+	@Override
+	public INavigableSeries<A, O, P> subSeries(A from, A to) {
+		int fromSlot = fromSlot(from);
+		return slice(fromSlot, Math.max(fromSlot, toSlot(to)));
+	}
+
+	@Override
+	public INavigableSeries<A, O, P> headSeries(A to) {
+		return subSeries(null, to);
+	}
+
+	@Override
+	public INavigableSeries<A, O, P> tailSeries(A from) {
+		return subSeries(from, null);
+	}
+
+	@Override
+	public P floor(A index) {
+		int slot = upperBound(index, start, end) - 1;
+		return slot >= start ? pointAt(slot) : null;
+	}
+
+	@Override
+	public P ceiling(A index) {
+		int slot = lowerBound(index, start, end);
+		return slot < end ? pointAt(slot) : null;
+	}
+
+	/**
+	 * Snapshots never change: listeners are ignored
+	 */
+	@Override
+	public void addSeriesListener(ISeriesListener<A, O> listener) {
+	}
+
+	@Override
+	public void removeSeriesListener(ISeriesListener<A, O> listener) {
+	}
+
+	@Override
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public boolean isEnforceStrictSequence() {
+		return source.isEnforceStrictSequence();
+	}
+
+	@Override
+	public IMutableSeries<A, O, P> createEmptyMutableSeries(String ID) {
+		return source.createEmptyMutableSeries(ID);
+	}
+
+	private int fromSlot(A from) {
+		return from == null ? start : lowerBound(from, start, end);
+	}
+
+	private int toSlot(A to) {
+		return to == null ? end : lowerBound(to, start, end);
+	}
+
+	private P pointOrNull(int slot) {
+		return slot == SeriesRangeIndex.NONE ? null : pointAt(slot);
+	}
+
+	private class SnapshotSpliterator implements ISeriesSpliterator<P> {
+		private int next;
+		private final int to;
+
+		SnapshotSpliterator(int from, int to) {
+			this.next = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < to;
+		}
+
+		@Override
+		public P next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return pointAt(next++);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int size() {
+			return to - next;
+		}
+
+		@Override
+		public ISeriesSpliterator<P> trySplit() {
+			if (to - next < 2) {
+				return null;
+			}
+			int mid = next + ((to - next) >> 1);
+			ISeriesSpliterator<P> prefix = new SnapshotSpliterator(next, mid);
+			next = mid;
+			return prefix;
+		}
+	}
+
+	private class SnapshotIterator implements Iterator<P> {
+		private final boolean descending;
+		private int next;
+
+		SnapshotIterator(boolean descending) {
+			this.descending = descending;
+			next = descending ? end - 1 : start;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next >= start && next < end;
+		}
+
+		@Override
+		public P next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int slot = next;
+			next += descending ? -1 : 1;
+			return pointAt(slot);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.quantcomponents.core.model.ISeries;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.ISeriesSpliterator;
+import com.quantcomponents.core.model.ISplittable;
+import com.quantcomponents.core.model.ISplittableSeries;
+
+/**
+ * Utility methods to scan series in parallel
+ */
+public class SeriesSpliterators {
+	/**
+	 * Parts are not split below this size, since the cost of scheduling them would exceed that of scanning them
+	 */
+	public static final int MIN_PART_SIZE = 4096;
+	/**
+	 * Parts per thread: more parts than threads keep all the threads busy when the parts take different times
+	 */
+	private static final int PARTS_PER_THREAD = 4;
+	/**
+	 * Column of the value of the data-points, in the cursors returned by {@link #columns(ISeriesSpliterator)}
+	 */
+	public static final int VALUE_COLUMN = 0;
+	/**
+	 * Column of the bottom value of the data-points, in the cursors returned by {@link #columns(ISeriesSpliterator)}
+	 */
+	public static final int BOTTOM_VALUE_COLUMN = 1;
+	/**
+	 * Column of the top value of the data-points, in the cursors returned by {@link #columns(ISeriesSpliterator)}
+	 */
+	public static final int TOP_VALUE_COLUMN = 2;
+
+	private SeriesSpliterators() {}
+
+	/**
+	 * Series that are not {@link ISplittableSeries} are copied into a list
+	 * @return a spliterator over the data-points contained in the series at the time of the call
+	 */
+	public static <A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> ISeriesSpliterator<P> spliterator(ISeries<A, O, P> series) {
+		if (series instanceof ISplittableSeries) {
+			return ((ISplittableSeries<A, O, P>) series).seriesSpliterator();
+		}
+		List<P> points = new ArrayList<P>(series.size());
+		for (P point : series) {
+			points.add(point);
+		}
+		return new ListSpliterator<P>(points, 0, points.size());
+	}
+
+	/**
+	 * Primitive view of the data-points of a time series: the index of each row is the time in milliseconds,
+	 * and the columns are {@link #VALUE_COLUMN}, {@link #BOTTOM_VALUE_COLUMN} and {@link #TOP_VALUE_COLUMN}, with NaN for null values.
+	 * For {@link IColumnarSeries} the rows can be read without building the data-points through {@link IColumnarSeries#columnSpliterator()}.
+	 */
+	public static IColumnSpliterator columns(ISeriesSpliterator<? extends ISeriesPoint<Date, Double>> points) {
+		return new PointColumnSpliterator(points);
+	}
+
+	/**
+	 * Split a spliterator in parts and scan them in parallel.
+	 * The parts are scanned by the executor, apart from the last one, which is scanned by the calling thread; the partial results
+	 * are combined in the order of the parts, so that the combination does not need to be commutative.
+	 * @param spliterator the spliterator over the whole series
+	 * @param scan the computation
+	 * @param executor the executor of the parts
+	 * @param parallelism the number of threads of the executor
+	 * @return the combined result of all the parts
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the parts
+	 */
+	public static <S extends ISplittable<S>, R> R scan(S spliterator, final ISplitScan<? super S, R> scan, ExecutorService executor, int parallelism) throws InterruptedException {
+		int minPartSize = Math.max(MIN_PART_SIZE, spliterator.size() / (Math.max(1, parallelism) * PARTS_PER_THREAD));
+		List<S> parts = new ArrayList<S>();
+		split(spliterator, minPartSize, parts);
+		List<Future<R>> futures = new ArrayList<Future<R>>(parts.size() - 1);
+		try {
+			for (int i = 0; i < parts.size() - 1; i++) {
+				final S part = parts.get(i);
+				futures.add(executor.submit(new Callable<R>() {
+					@Override
+					public R call() {
+						return scan.scan(part);
+					}
+				}));
+			}
+			R lastResult = scan.scan(parts.get(parts.size() - 1));
+			if (futures.isEmpty()) {
+				return lastResult;
+			}
+			R result = futures.get(0).get();
+			for (int i = 1; i < futures.size(); i++) {
+				result = scan.combine(result, futures.get(i).get());
+			}
+			return scan.combine(result, lastResult);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Scan failed", cause);
+		} finally {
+			for (Future<R> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private static <S extends ISplittable<S>> void split(S spliterator, int minPartSize, List<S> parts) {
+		if (spliterator.size() > minPartSize) {
+			S prefix = spliterator.trySplit();
+			if (prefix != null) {
+				split(prefix, minPartSize, parts);
+				split(spliterator, minPartSize, parts);
+				return;
+			}
+		}
+		parts.add(spliterator);
+	}
+
+	private static class ListSpliterator<P> implements ISeriesSpliterator<P> {
+		private final List<P> points;
+		private int next;
+		private final int to;
+
+		ListSpliterator(List<P> points, int from, int to) {
+			this.points = points;
+			this.next = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < to;
+		}
+
+		@Override
+		public P next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return points.get(next++);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int size() {
+			return to - next;
+		}
+
+		@Override
+		public ISeriesSpliterator<P> trySplit() {
+			if (to - next < 2) {
+				return null;
+			}
+			int mid = next + ((to - next) >> 1);
+			ISeriesSpliterator<P> prefix = new ListSpliterator<P>(points, next, mid);
+			next = mid;
+			return prefix;
+		}
+	}
+
+	private static class PointColumnSpliterator implements IColumnSpliterator {
+		private final ISeriesSpliterator<? extends ISeriesPoint<Date, Double>> points;
+		private ISeriesPoint<Date, Double> point;
+
+		PointColumnSpliterator(ISeriesSpliterator<? extends ISeriesPoint<Date, Double>> points) {
+			this.points = points;
+		}
+
+		@Override
+		public boolean advance() {
+			if (!points.hasNext()) {
+				return false;
+			}
+			point = points.next();
+			return true;
+		}
+
+		@Override
+		public long index() {
+			return point.getIndex().getTime();
+		}
+
+		@Override
+		public double column(int column) {
+			Double value;
+			switch (column) {
+			case VALUE_COLUMN:
+				value = point.getValue();
+				break;
+			case BOTTOM_VALUE_COLUMN:
+				value = point.getBottomValue();
+				break;
+			case TOP_VALUE_COLUMN:
+				value = point.getTopValue();
+				break;
+			default:
+				throw new IllegalArgumentException("Column: " + column + " does not exist");
+			}
+			return value == null ? Double.NaN : value;
+		}
+
+		@Override
+		public int size() {
+			return points.size();
+		}
+
+		@Override
+		public IColumnSpliterator trySplit() {
+			ISeriesSpliterator<? extends ISeriesPoint<Date, Double>> prefix = points.trySplit();
+			return prefix == null ? null : new PointColumnSpliterator(prefix);
+		}
+	}
+}
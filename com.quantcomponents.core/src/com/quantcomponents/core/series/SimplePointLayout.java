@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Column layout for {@link SimplePoint}: one column containing the value
+ */
+public class SimplePointLayout implements IColumnLayout<Date, Double, SimplePoint>, Serializable {
+	private static final long serialVersionUID = 5390447107421851013L;
+	private static final int VALUE = 0;
+
+	@Override
+	public int getWidth() {
+		return 1;
+	}
+
+	@Override
+	public long encodeIndex(Date index) {
+		return index.getTime();
+	}
+
+	@Override
+	public Date decodeIndex(long index) {
+		return new Date(index);
+	}
+
+	@Override
+	public void encode(SimplePoint point, double[] row, int offset) {
+		Double value = point.getValue();
+		row[offset + VALUE] = value == null ? Double.NaN : value;
+	}
+
+	@Override
+	public SimplePoint decode(long index, double[] row, int offset) {
+		double value = row[offset + VALUE];
+		return new SimplePoint(new Date(index), Double.isNaN(value) ? null : value);
+	}
+
+	@Override
+	public int getBottomValueColumn() {
+		return VALUE;
+	}
+
+	@Override
+	public int getTopValueColumn() {
+		return VALUE;
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.core.series.demo;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.series.ArraySeries;
+import com.quantcomponents.core.series.LinkedListSeries;
+import com.quantcomponents.core.series.SimplePoint;
+import com.quantcomponents.core.series.SimplePointLayout;
+
+/**
+ * Measures the throughput of a single writer appending to a series, while a number of reader threads
+ * keep polling the last data-point and the size, as agents and charts do.
+ * The maximum number of readers can be passed as first argument, the number of points as second argument
+ */
+public class SeriesContentionBenchmark {
+	private static final int DEFAULT_MAX_READERS = 8;
+	private static final int DEFAULT_NUM_POINTS = 2000000;
+
+	private interface SeriesFactory {
+		IMutableSeries<Date, Double, SimplePoint> create();
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int maxReaders = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_READERS;
+		int numPoints = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_POINTS;
+		SeriesFactory linkedListFactory = new SeriesFactory() {
+			@Override
+			public IMutableSeries<Date, Double, SimplePoint> create() {
+				return new LinkedListSeries<Date, Double, SimplePoint>("benchmark", true);
+			}};
+		SeriesFactory arrayFactory = new SeriesFactory() {
+			@Override
+			public IMutableSeries<Date, Double, SimplePoint> create() {
+				return new ArraySeries<Date, Double, SimplePoint>("benchmark", new SimplePointLayout(), true);
+			}};
+		// warm-up
+		run("linked list", linkedListFactory, 2, numPoints, false);
+		run("array", arrayFactory, 2, numPoints, false);
+		for (int readers = 0; readers <= maxReaders; readers = readers == 0 ? 1 : readers * 2) {
+			run("linked list", linkedListFactory, readers, numPoints, true);
+			run("array", arrayFactory, readers, numPoints, true);
+		}
+	}
+
+	private static void run(String name, SeriesFactory factory, int numReaders, int numPoints, boolean print) throws InterruptedException {
+		final IMutableSeries<Date, Double, SimplePoint> series = factory.create();
+		final AtomicLong reads = new AtomicLong();
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final AtomicBoolean done = new AtomicBoolean();
+		Thread[] readers = new Thread[numReaders];
+		for (int i = 0; i < numReaders; i++) {
+			readers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long count = 0;
+					long checksum = 0;
+					try {
+						startLatch.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					while (!done.get()) {
+						SimplePoint last = series.getLast();
+						if (last != null) {
+							checksum += last.getIndex().getTime();
+						}
+						checksum += series.size();
+						count++;
+					}
+					reads.addAndGet(count);
+					if (checksum == 42) {
+						System.out.print("");
+					}
+				}}, "Reader " + i);
+			readers[i].start();
+		}
+		// pre-allocate the points, to measure only the series
+		SimplePoint[] points = new SimplePoint[numPoints];
+		for (int i = 0; i < numPoints; i++) {
+			points[i] = new SimplePoint(new Date(i * 1000L), 100.0 + i % 13);
+		}
+		startLatch.countDown();
+		long startTime = System.nanoTime();
+		for (int i = 0; i < numPoints; i++) {
+			series.addLast(points[i]);
+		}
+		long writeTime = System.nanoTime() - startTime;
+		done.set(true);
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		if (print) {
+			System.out.println(String.format("%-12s readers: %2d   writer: %8.0f points/ms   readers: %10.0f reads/ms",
+					name, numReaders, numPoints / (writeTime / 1e6), reads.get() / (writeTime / 1e6)));
+		}
+	}
+}
@@ -22,6 +22,7 @@ import com.quantcomponents.core.model.ITaskMonitor;
 import com.quantcomponents.core.utils.HostUtils;
 import com.quantcomponents.marketdata.IRealTimeMarketDataManager;
 import com.quantcomponents.marketdata.IStockDatabaseContainerFactory;
+import com.quantcomponents.marketdata.MarketDataEventLoops;
 import com.quantcomponents.marketdata.RealTimeMarketDataManager;
 
 public class IBAdapterComponent extends RealTimeMarketDataManager implements IRealTimeMarketDataManager, IExecutionService {
@@ -34,6 +35,7 @@ public class IBAdapterComponent extends RealTimeMarketDataManager implements IRe
 	public static final String ACCOUNT_ID_KEY = "accountId";
 	public static final String FIRST_REQUEST_NO_KEY = "firstRequestNo";
 	public static final String NO_MKT_DATA_LINES_KEY = "noMktDataLinesKey";
+	public static final String EVENT_LOOPS_KEY = "eventLoops";
 	
 	private volatile IStockDatabaseContainerFactory stockDatabaseContainerFactory;	
 	private volatile IBAdapter ibAdapter;
@@ -81,6 +83,16 @@ public class IBAdapterComponent extends RealTimeMarketDataManager implements IRe
 			noMktDataLinesKeyValue = 0;
 		}
 		Integer noMktDataLinesKey = parsePropertyValue(noMktDataLinesKeyValue);
+
+		// real-time ticks are appended by the IB reader thread, unless a number of event loops is configured
+		Object eventLoopsValue = properties.get(EVENT_LOOPS_KEY);
+		if (eventLoopsValue == null) {
+			eventLoopsValue = 0;
+		}
+		Integer eventLoops = parsePropertyValue(eventLoopsValue);
+		if (eventLoops > 0) {
+			setEventLoops(new MarketDataEventLoops(eventLoops));
+		}
 	
 		ibAdapter = new IBAdapter(host, port, clientId, firstRequestNo, noMktDataLinesKey, accountId);
 		setMarketDataProvider(ibAdapter);
@@ -89,6 +101,11 @@ public class IBAdapterComponent extends RealTimeMarketDataManager implements IRe
 	
 	public void deactivate() {
 		ibAdapter.disconnect();
+		MarketDataEventLoops eventLoops = getEventLoops();
+		if (eventLoops != null) {
+			eventLoops.shutdown();
+			setEventLoops(null);
+		}
 	}
 		
 	private Integer parsePropertyValue(Object propertyValue) {
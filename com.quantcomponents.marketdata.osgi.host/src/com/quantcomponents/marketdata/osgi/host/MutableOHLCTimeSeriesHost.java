@@ -9,6 +9,8 @@
  ******************************************************************************/
 package com.quantcomponents.marketdata.osgi.host;
 
+import java.util.List;
+
 import com.quantcomponents.core.remote.ServiceHandle;
 import com.quantcomponents.marketdata.IMutableOHLCTimeSeries;
 import com.quantcomponents.marketdata.IOHLCPoint;
@@ -39,6 +41,11 @@ public class MutableOHLCTimeSeriesHost extends OHLCTimeSeriesHost implements IMu
 		((IMutableOHLCTimeSeries) retrieveSeriesInfo(timeSeriesHostHandle).series).addFirstIfNotExists(item);
 	}
 
+	@Override
+	public void addAllItems(ServiceHandle<IMutableOHLCTimeSeriesHost> timeSeriesHostHandle, List<IOHLCPoint> items) {
+		((IMutableOHLCTimeSeries) retrieveSeriesInfo(timeSeriesHostHandle).series).addAll(items);
+	}
+
 	@Override
 	public void insertFromTail(ServiceHandle<IMutableOHLCTimeSeriesHost> timeSeriesHostHandle, IOHLCPoint item) {
 		((IMutableOHLCTimeSeries) retrieveSeriesInfo(timeSeriesHostHandle).series).insertFromTail(item);
@@ -9,7 +9,9 @@
  ******************************************************************************/
 package com.quantcomponents.marketdata.osgi.proxy;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import com.quantcomponents.core.osgi.ISeriesIteratorHost;
 import com.quantcomponents.core.osgi.ISeriesListenerHostLocal;
@@ -50,6 +52,12 @@ public class OHLCTimeSeriesProxy extends ImmutableOHLCTimeSeriesProxy implements
 		((IMutableOHLCTimeSeriesHost) seriesHost).addFirstItemIfNotExists((ServiceHandle<IMutableOHLCTimeSeriesHost>) seriesHostHandle, item);
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	public void addAll(List<? extends IOHLCPoint> items) {
+		((IMutableOHLCTimeSeriesHost) seriesHost).addAllItems((ServiceHandle<IMutableOHLCTimeSeriesHost>) seriesHostHandle, new ArrayList<IOHLCPoint>(items));
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void updateTail(IOHLCPoint item) {
@@ -10,6 +10,7 @@
 package com.quantcomponents.marketdata.osgi.proxy;
 
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 import com.quantcomponents.core.model.DataType;
@@ -80,6 +81,11 @@ public class TickTimeSeriesProxy extends ImmutableSeriesProxy<java.util.Date, Do
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public void addAll(List<? extends ITickPoint> items) {
+		throw new UnsupportedOperationException();
+	}
+
 	@Override
 	public void insertFromTail(ITickPoint item) {
 		throw new UnsupportedOperationException();
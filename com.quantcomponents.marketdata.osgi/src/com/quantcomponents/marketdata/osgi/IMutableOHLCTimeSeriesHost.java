@@ -9,6 +9,8 @@
  ******************************************************************************/
 package com.quantcomponents.marketdata.osgi;
 
+import java.util.List;
+
 import com.quantcomponents.core.remote.ServiceHandle;
 import com.quantcomponents.marketdata.IOHLCPoint;
 
@@ -17,6 +19,7 @@ public interface IMutableOHLCTimeSeriesHost extends IOHLCTimeSeriesHost {
 	void addFirstItem(ServiceHandle<IMutableOHLCTimeSeriesHost> timeSeriesHostHandle, IOHLCPoint item);
 	void addLastItemIfNotExists(ServiceHandle<IMutableOHLCTimeSeriesHost> timeSeriesHostHandle, IOHLCPoint item);
 	void addFirstItemIfNotExists(ServiceHandle<IMutableOHLCTimeSeriesHost> timeSeriesHostHandle, IOHLCPoint item);
+	void addAllItems(ServiceHandle<IMutableOHLCTimeSeriesHost> timeSeriesHostHandle, List<IOHLCPoint> items);
 	void insertFromTail(ServiceHandle<IMutableOHLCTimeSeriesHost> timeSeriesHostHandle, IOHLCPoint item);
 	void updateItem(ServiceHandle<IMutableOHLCTimeSeriesHost> timeSeriesHostHandle, IOHLCPoint item);
 }
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.beans.ContractBean;
+
+/**
+ * Ticks, their extremes, and the bars consolidated from them must survive closing and reopening the tick store
+ */
+public class MappedTickTimeSeriesTest {
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+	private static final long START = 1000L * 3600 * 24 * 365 * 40;
+	// header fields of the file format
+	private static final int FORMAT_VERSION_OFFSET = 4;
+	private static final int PREFIX_MINIMUM_OFFSET = 24;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRestore() throws IOException {
+		File file = new File(folder.getRoot(), "test.ticks");
+		MappedTickTimeSeries series = open(file);
+		series.addLast(new TickPoint(new Date(START), DataType.TRADES, 10.0, 100));
+		series.addLast(TickPoint.withoutSize(new Date(START + 1), DataType.TRADES, 11.0));
+		series.addLast(new TickPoint(new Date(START + 2), DataType.TRADES, 9.0, 0));
+		series.updateTail(new TickPoint(new Date(START + 2), DataType.TRADES, 12.0, 300));
+		List<String> expected = contents(series);
+		series.close();
+		MappedTickTimeSeries restored = open(file);
+		assertEquals(expected, contents(restored));
+		assertEquals(3, restored.size());
+		assertEquals(START, restored.getFirst().getIndex().getTime());
+		assertEquals(START + 2, restored.getLast().getIndex().getTime());
+		// a missing size is read as null, and as 0 by the cursors
+		List<ITickPoint> ticks = new ArrayList<ITickPoint>();
+		for (ITickPoint tick : restored) {
+			ticks.add(tick);
+		}
+		assertEquals(Integer.valueOf(100), ticks.get(0).getSize());
+		assertNull(ticks.get(1).getSize());
+		ITickCursor cursor = restored.cursor();
+		assertTrue(cursor.advance());
+		assertTrue(cursor.advance());
+		assertEquals(0, cursor.size());
+		assertNull(cursor.toTickPoint().getSize());
+		restored.addLast(new TickPoint(new Date(START + 3), DataType.TRADES, 13.0, 400));
+		assertEquals(4, restored.size());
+		restored.close();
+	}
+
+	@Test
+	public void testExtremesAfterReopen() throws IOException {
+		File file = new File(folder.getRoot(), "test.ticks");
+		MappedTickTimeSeries series = open(file);
+		List<Double> prices = fillRandom(series, 10000);
+		series.close();
+		MappedTickTimeSeries restored = open(file);
+		assertEquals(min(prices), restored.getMinimum().getValue(), 0.0);
+		assertEquals(max(prices), restored.getMaximum().getValue(), 0.0);
+		// the last tick is updated below the minimum and above the maximum
+		Date lastIndex = restored.getLast().getIndex();
+		restored.updateTail(new TickPoint(lastIndex, DataType.TRADES, -1.0, 1));
+		assertEquals(-1.0, restored.getMinimum().getValue(), 0.0);
+		restored.updateTail(new TickPoint(lastIndex, DataType.TRADES, 2000.0, 1));
+		assertEquals(min(prices.subList(0, prices.size() - 1)), restored.getMinimum().getValue(), 0.0);
+		assertEquals(2000.0, restored.getMaximum().getValue(), 0.0);
+		restored.clear();
+		assertNull(restored.getMinimum());
+		assertNull(restored.getMaximum());
+		restored.close();
+	}
+
+	@Test
+	public void testFormatUpgrade() throws IOException {
+		File file = new File(folder.getRoot(), "test.ticks");
+		MappedTickTimeSeries series = open(file);
+		List<Double> prices = fillRandom(series, 1000);
+		series.close();
+		// turn the file into the first version of the format, which has no extremes
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.seek(FORMAT_VERSION_OFFSET);
+			randomAccessFile.writeInt(1);
+			randomAccessFile.seek(PREFIX_MINIMUM_OFFSET);
+			randomAccessFile.writeInt(0);
+			randomAccessFile.writeInt(0);
+		} finally {
+			randomAccessFile.close();
+		}
+		MappedTickTimeSeries restored = open(file);
+		assertEquals(min(prices), restored.getMinimum().getValue(), 0.0);
+		assertEquals(max(prices), restored.getMaximum().getValue(), 0.0);
+		restored.close();
+		randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			randomAccessFile.seek(FORMAT_VERSION_OFFSET);
+			assertEquals(2, randomAccessFile.readInt());
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	@Test
+	public void testReplayStoredTicks() throws IOException {
+		ContractBean contract = new ContractBean();
+		contract.setSymbol("IBM");
+		contract.setExchange("SMART");
+		MappedTimeSeriesFactory factory = new MappedTimeSeriesFactory(new File(folder.getRoot(), "ticks"), new LinkedListTimeSeriesFactory());
+		StockDatabase stockDatabase = new StockDatabase(contract, DataType.TRADES, BarSize.ONE_MIN, true, UTC, factory);
+		for (int i = 0; i < 300; i++) {
+			stockDatabase.getTickTimeSeries().addLast(new TickPoint(new Date(START + i * 1000L), DataType.TRADES, 100.0 + i % 70, 1));
+		}
+		List<String> expected = bars(stockDatabase.getVirtualTimeSeries());
+		assertEquals(5, expected.size());
+		((MappedTickTimeSeries) stockDatabase.getTickTimeSeries()).close();
+		StockDatabase restored = new StockDatabase(contract, DataType.TRADES, BarSize.ONE_MIN, true, UTC, factory);
+		assertEquals(300, restored.getTickTimeSeries().size());
+		// the restored ticks are not notified to the virtual series
+		assertTrue(restored.getVirtualTimeSeries().isEmpty());
+		restored.replayStoredTicks();
+		assertEquals(expected, bars(restored.getVirtualTimeSeries()));
+		// new ticks update the replayed bars
+		restored.getTickTimeSeries().addLast(new TickPoint(new Date(START + 300 * 1000L - 1), DataType.TRADES, 500.0, 1));
+		assertEquals(500.0, restored.getVirtualTimeSeries().getLast().getClose(), 0.0);
+		assertEquals(5, restored.getVirtualTimeSeries().size());
+		((MappedTickTimeSeries) restored.getTickTimeSeries()).close();
+		assertTrue(factory.delete(restored.getPersistentID()));
+		assertFalse(factory.delete(restored.getPersistentID()));
+	}
+
+	private static MappedTickTimeSeries open(File file) throws IOException {
+		return new MappedTickTimeSeries(file, "test", null, DataType.TRADES, 0L, UTC);
+	}
+
+	private static List<Double> fillRandom(MappedTickTimeSeries series, int count) {
+		Random random = new Random(1);
+		List<Double> prices = new ArrayList<Double>(count);
+		for (int i = 0; i < count; i++) {
+			double price = random.nextInt(1000);
+			series.addLast(new TickPoint(new Date(START + i), DataType.TRADES, price, 1));
+			if (random.nextInt(10) == 0) {
+				price = random.nextInt(1000);
+				series.updateTail(new TickPoint(new Date(START + i), DataType.TRADES, price, 1));
+			}
+			prices.add(price);
+		}
+		return prices;
+	}
+
+	private static double min(List<Double> prices) {
+		double min = Double.MAX_VALUE;
+		for (double price : prices) {
+			min = Math.min(min, price);
+		}
+		return min;
+	}
+
+	private static double max(List<Double> prices) {
+		double max = -Double.MAX_VALUE;
+		for (double price : prices) {
+			max = Math.max(max, price);
+		}
+		return max;
+	}
+
+	private static List<String> contents(MappedTickTimeSeries series) {
+		List<String> contents = new ArrayList<String>();
+		for (ITickPoint tick : series) {
+			contents.add(tick.getIndex().getTime() + "=" + tick.getValue() + "x" + tick.getSize());
+		}
+		return contents;
+	}
+
+	private static List<String> bars(IOHLCTimeSeries series) {
+		List<String> bars = new ArrayList<String>();
+		for (IOHLCPoint bar : series) {
+			bars.add(bar.getIndex().getTime() + ": " + bar.getOpen() + " " + bar.getHigh() + " " + bar.getLow() + " " + bar.getClose() + " " + bar.getVolume());
+		}
+		return bars;
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.beans.ContractBean;
+
+/**
+ * The aggregator must consolidate the ticks without holding its own lock
+ */
+public class MultiResolutionAggregatorTest {
+	private static final long MINUTE = 60 * 1000L;
+
+	@Test
+	public void testBarListenersAreNotifiedOutsideTheLock() {
+		final MultiResolutionAggregator aggregator = new MultiResolutionAggregator(new ContractBean(), DataType.TRADES, true, TimeZone.getTimeZone("UTC"),
+				Arrays.asList(BarSize.ONE_MIN, BarSize.FIVE_MINS));
+		final List<String> notifications = Collections.synchronizedList(new ArrayList<String>());
+		aggregator.getTimeSeries(BarSize.ONE_MIN).addSeriesListener(new ISeriesListener<Date, Double>() {
+			@Override
+			public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+				assertFalse(Thread.holdsLock(aggregator));
+				notifications.add(describe((IOHLCPoint) updatedItem));
+			}
+
+			@Override
+			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+				assertFalse(Thread.holdsLock(aggregator));
+				// the aggregator can be called back by the listeners
+				aggregator.getBarSizes();
+				notifications.add("+" + describe((IOHLCPoint) newItem));
+			}
+		});
+		aggregator.getTickTimeSeries().addLast(new TickPoint(new Date(0), DataType.TRADES, 1.0, 10));
+		aggregator.getTickTimeSeries().addLast(new TickPoint(new Date(MINUTE / 2), DataType.TRADES, 3.0, 10));
+		aggregator.getTickTimeSeries().addLast(new TickPoint(new Date(MINUTE), DataType.TRADES, 2.0, 10));
+		assertEquals(Arrays.asList("+0 1.0 1.0 1.0 1.0", "0 1.0 3.0 1.0 3.0", "+60000 2.0 2.0 2.0 2.0"), notifications);
+		IOHLCPoint fiveMinutes = aggregator.getTimeSeries(BarSize.FIVE_MINS).getLast();
+		assertEquals("0 1.0 3.0 1.0 2.0", describe(fiveMinutes));
+	}
+
+	private static String describe(IOHLCPoint bar) {
+		return bar.getIndex().getTime() + " " + bar.getOpen() + " " + bar.getHigh() + " " + bar.getLow() + " " + bar.getClose();
+	}
+}
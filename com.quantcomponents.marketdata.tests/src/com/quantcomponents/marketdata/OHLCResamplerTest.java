@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.beans.ContractBean;
+
+/**
+ * Bars containing no ticks must not hide the high and low of the bars they are merged with
+ */
+public class OHLCResamplerTest {
+	private static final long MINUTE = 60 * 1000L;
+	private static final int HOURS = 400;
+
+	@Test
+	public void testMergeBarsWithoutTicks() throws InterruptedException {
+		OHLCTimeSeries source = new OHLCTimeSeries("test", new ContractBean(), BarSize.ONE_MIN, DataType.TRADES, true, TimeZone.getTimeZone("UTC"));
+		// only the first minute of each hour has ticks: coarse bars split between parts are merged with bars without ticks
+		List<IOHLCPoint> fineBars = new ArrayList<IOHLCPoint>();
+		for (int i = 0; i < HOURS * 60; i++) {
+			Date index = new Date(i * MINUTE);
+			if (i % 60 == 0) {
+				fineBars.add(new OHLCPoint(BarSize.ONE_MIN, index, 2.0, 3.0, 1.0, 2.0, 10L, 2.0, 1));
+			} else {
+				fineBars.add(new OHLCPoint(BarSize.ONE_MIN, index, Double.NaN, Double.NaN, Double.NaN, Double.NaN, 0L, null, 0));
+			}
+		}
+		source.addAll(fineBars);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			IMutableOHLCTimeSeries result = OHLCResampler.resample(source, BarSize.ONE_HOUR, null, executor, 4);
+			assertEquals(HOURS, result.size());
+			for (IOHLCPoint bar : result) {
+				assertEquals(3.0, bar.getHigh(), 0.0);
+				assertEquals(1.0, bar.getLow(), 0.0);
+				assertEquals(2.0, bar.getClose(), 0.0);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
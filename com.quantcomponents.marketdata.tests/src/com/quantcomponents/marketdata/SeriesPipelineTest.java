@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.SimplePoint;
+
+/**
+ * Live results of a pipeline must follow the notifications of the source series
+ */
+public class SeriesPipelineTest {
+	private static final long MINUTE = 60 * 1000L;
+
+	@Test
+	public void testLiveTailFollowsSource() {
+		TimeSeries<SimplePoint> source = new TimeSeries<SimplePoint>("test", TimeZone.getTimeZone("UTC"), 1L, true);
+		source.addLast(point(0, 0.0));
+		PipelineTimeSeries<SimplePoint> result = SeriesPipeline.from(source).tail(2).toLiveTimeSeries();
+		List<String> notifications = listen(result);
+		source.addLast(point(1, 1.0));
+		source.addLast(point(2, 2.0));
+		source.updateTail(point(2, -2.0));
+		// the notifications are delivered when the result has already been changed
+		assertEquals(Arrays.asList("+1=1.0 2", "-1 2", "+2=2.0 2", "2=2.0>2=-2.0 2"), notifications);
+		assertEquals(Arrays.asList("1=1.0", "2=-2.0"), contents(result));
+		result.close();
+		source.addLast(point(3, 3.0));
+		assertEquals(Arrays.asList("1=1.0", "2=-2.0"), contents(result));
+		assertEquals(4, notifications.size());
+	}
+
+	@Test
+	public void testLiveResampleUpdatesLastBar() {
+		TimeSeries<SimplePoint> source = new TimeSeries<SimplePoint>("test", TimeZone.getTimeZone("UTC"), 1L, true);
+		PipelineTimeSeries<IOHLCPoint> result = SeriesPipeline.from(source).resample(BarSize.ONE_MIN).toLiveOHLCTimeSeries();
+		List<String> notifications = listen(result);
+		source.addLast(point(0, 1.0));
+		source.addLast(point(MINUTE / 2, 3.0));
+		source.addLast(point(MINUTE, 2.0));
+		assertEquals(Arrays.asList("+0=1.0 1", "0=1.0>0=3.0 1", "+60000=2.0 2"), notifications);
+		IOHLCPoint first = result.getFirst();
+		assertEquals(1.0, first.getOpen(), 0.0);
+		assertEquals(3.0, first.getHigh(), 0.0);
+		assertEquals(1.0, first.getLow(), 0.0);
+		assertEquals(3.0, first.getClose(), 0.0);
+		result.close();
+	}
+
+	private static List<String> listen(final PipelineTimeSeries<?> result) {
+		final List<String> notifications = Collections.synchronizedList(new ArrayList<String>());
+		result.addSeriesListener(new IEvictionSeriesListener<Date, Double>() {
+			@Override
+			public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+				assertFalse(Thread.holdsLock(result));
+				notifications.add(describe(existingItem) + ">" + describe(updatedItem) + " " + result.size());
+			}
+
+			@Override
+			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+				assertFalse(Thread.holdsLock(result));
+				notifications.add("+" + describe(newItem) + " " + result.size());
+			}
+
+			@Override
+			public void onItemsEvicted(Date index, int count) {
+				assertFalse(Thread.holdsLock(result));
+				notifications.add("-" + count + " " + result.size());
+			}
+		});
+		return notifications;
+	}
+
+	private static List<String> contents(PipelineTimeSeries<SimplePoint> result) {
+		List<String> contents = new ArrayList<String>();
+		for (SimplePoint point : result) {
+			contents.add(describe(point));
+		}
+		return contents;
+	}
+
+	private static SimplePoint point(long index, double value) {
+		return new SimplePoint(new Date(index), value);
+	}
+
+	private static String describe(ISeriesPoint<Date, Double> point) {
+		return point.getIndex().getTime() + "=" + point.getValue();
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.quantcomponents.core.calendar.LinearTradingSchedule;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.SimplePoint;
+
+/**
+ * The window must notify the changes of its content without holding its own lock
+ */
+public class TimeSeriesWindowTest {
+
+	@Test
+	public void testListenersAreNotifiedOutsideTheLock() {
+		TimeSeries<SimplePoint> source = new TimeSeries<SimplePoint>("test", TimeZone.getTimeZone("UTC"), 1L, true);
+		final TimeSeriesWindow<SimplePoint> window = TimeSeriesWindow.tail(source, new LinearTradingSchedule(), 3);
+		final List<String> notifications = Collections.synchronizedList(new ArrayList<String>());
+		window.addSeriesListener(new IEvictionSeriesListener<Date, Double>() {
+			@Override
+			public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+				assertFalse(Thread.holdsLock(window));
+				notifications.add(describe(existingItem) + ">" + describe(updatedItem) + " " + window.size());
+			}
+
+			@Override
+			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+				assertFalse(Thread.holdsLock(window));
+				notifications.add("+" + describe(newItem) + " " + window.size());
+			}
+
+			@Override
+			public void onItemsEvicted(Date index, int count) {
+				assertFalse(Thread.holdsLock(window));
+				notifications.add("-" + count + " " + window.size());
+			}
+		});
+		for (int i = 0; i < 5; i++) {
+			source.addLast(point(i, i));
+		}
+		source.updateTail(point(4, -4.0));
+		// the notifications are delivered when the window has already been changed
+		assertEquals(Arrays.asList("+0=0.0 1", "+1=1.0 2", "+2=2.0 3", "+3=3.0 3", "-1 3", "+4=4.0 3", "-1 3", "4=4.0>4=-4.0 3"), notifications);
+		List<String> contents = new ArrayList<String>();
+		for (SimplePoint point : window) {
+			contents.add(describe(point));
+		}
+		assertEquals(Arrays.asList("2=2.0", "3=3.0", "4=-4.0"), contents);
+		window.close();
+	}
+
+	private static SimplePoint point(long index, double value) {
+		return new SimplePoint(new Date(index), value);
+	}
+
+	private static String describe(ISeriesPoint<Date, Double> point) {
+		return point.getIndex().getTime() + "=" + point.getValue();
+	}
+}
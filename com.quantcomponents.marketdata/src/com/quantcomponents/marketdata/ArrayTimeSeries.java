@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.ArraySeries;
+import com.quantcomponents.core.series.IColumnLayout;
+
+/**
+ * Specialized mutable time series containing double values, indexed by {@link java.util.Date}, stored in primitive columns
+ * @param <P> the type of the data-points
+ * @see ArraySeries
+ */
+public class ArrayTimeSeries<P extends ISeriesPoint<Date, Double>> extends ArraySeries<Date, Double, P> implements IMutableTimeSeries<P>, INavigableTimeSeries<P> {
+	private static final long serialVersionUID = -6010409466519328151L;
+	private final TimeZone timeZone;
+	private final long interval;
+
+	public ArrayTimeSeries(String ID, IColumnLayout<Date, Double, P> layout, TimeZone timeZone, long interval, boolean enforceStrictSequence) {
+		super(ID, layout, enforceStrictSequence);
+		this.timeZone = timeZone;
+		this.interval = interval;
+	}
+
+	@Override
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+
+	@Override
+	public long getInterval() {
+		if (interval != 0) {
+			return interval;
+		}
+		if (isEmpty()) {
+			return 1;
+		}
+		long averageInterval = (getLast().getIndex().getTime() - getFirst().getIndex().getTime()) / size();
+		return averageInterval;
+	}
+
+	@Override
+	public INavigableTimeSeries<P> subSeries(Date from, Date to) {
+		return new TimeSeriesView<P>(super.subSeries(from, to), timeZone, interval);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> headSeries(Date to) {
+		return subSeries(null, to);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> tailSeries(Date from) {
+		return subSeries(from, null);
+	}
+
+	@Override
+	public ArrayTimeSeries<P> createEmptyMutableSeries(String ID) {
+		return new ArrayTimeSeries<P>(ID, getLayout(), getTimeZone(), getInterval(), isEnforceStrictSequence());
+	}
+}
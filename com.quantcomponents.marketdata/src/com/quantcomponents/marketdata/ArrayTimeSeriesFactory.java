@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IContract;
+
+/**
+ * {@link ITimeSeriesFactory} creating series based on {@link com.quantcomponents.core.series.ArraySeries}.
+ * Suitable for large databases.
+ */
+public class ArrayTimeSeriesFactory implements ITimeSeriesFactory {
+
+	@Override
+	public IMutableOHLCTimeSeries createOHLCTimeSeries(String ID, IContract contract, BarSize barSize, DataType dataType, boolean includeAfterHours, TimeZone timeZone) {
+		return new ArrayOHLCTimeSeries(ID, contract, barSize, dataType, includeAfterHours, timeZone);
+	}
+
+	@Override
+	public IMutableTickTimeSeries createTickTimeSeries(String ID, IContract contract, DataType dataType, long interval, TimeZone timeZone) {
+		return new ArrayTickTimeSeries(ID, contract, dataType, interval, timeZone);
+	}
+}
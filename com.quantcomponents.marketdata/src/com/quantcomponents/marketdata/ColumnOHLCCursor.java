@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import com.quantcomponents.core.series.IColumnCursor;
+
+/**
+ * {@link IOHLCCursor} reading the columns of an {@link OHLCPointLayout} in place
+ */
+class ColumnOHLCCursor implements IOHLCCursor {
+	private final IColumnCursor cursor;
+
+	ColumnOHLCCursor(IColumnCursor cursor) {
+		this.cursor = cursor;
+	}
+
+	@Override
+	public boolean advance() {
+		return cursor.advance();
+	}
+
+	@Override
+	public long indexMillis() {
+		return cursor.index();
+	}
+
+	@Override
+	public double value() {
+		return cursor.column(OHLCPointLayout.CLOSE);
+	}
+
+	@Override
+	public double bottomValue() {
+		return cursor.column(OHLCPointLayout.LOW);
+	}
+
+	@Override
+	public double topValue() {
+		return cursor.column(OHLCPointLayout.HIGH);
+	}
+
+	@Override
+	public double open() {
+		return cursor.column(OHLCPointLayout.OPEN);
+	}
+
+	@Override
+	public double high() {
+		return cursor.column(OHLCPointLayout.HIGH);
+	}
+
+	@Override
+	public double low() {
+		return cursor.column(OHLCPointLayout.LOW);
+	}
+
+	@Override
+	public double close() {
+		return cursor.column(OHLCPointLayout.CLOSE);
+	}
+
+	@Override
+	public long volume() {
+		double volume = cursor.column(OHLCPointLayout.VOLUME);
+		return Double.isNaN(volume) ? 0 : (long) volume;
+	}
+}
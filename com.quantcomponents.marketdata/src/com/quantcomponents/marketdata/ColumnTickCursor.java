@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.series.IColumnCursor;
+
+/**
+ * {@link ITickCursor} reading the columns of a {@link TickPointLayout} in place
+ */
+class ColumnTickCursor implements ITickCursor {
+	private final IColumnCursor cursor;
+
+	ColumnTickCursor(IColumnCursor cursor) {
+		this.cursor = cursor;
+	}
+
+	@Override
+	public boolean advance() {
+		return cursor.advance();
+	}
+
+	@Override
+	public long indexMillis() {
+		return cursor.index();
+	}
+
+	@Override
+	public double value() {
+		return cursor.column(TickPointLayout.PRICE);
+	}
+
+	@Override
+	public double bottomValue() {
+		return cursor.column(TickPointLayout.PRICE);
+	}
+
+	@Override
+	public double topValue() {
+		return cursor.column(TickPointLayout.PRICE);
+	}
+
+	@Override
+	public int size() {
+		return (int) cursor.column(TickPointLayout.SIZE);
+	}
+
+	@Override
+	public DataType dataType() {
+		return TickPointLayout.DATA_TYPES[(int) cursor.column(TickPointLayout.DATA_TYPE)];
+	}
+
+	@Override
+	public ITickPoint toTickPoint() {
+		if (Double.isNaN(cursor.column(TickPointLayout.SIZE))) {
+			return TickPoint.withoutSize(new Date(indexMillis()), dataType(), value());
+		}
+		return new TickPoint(new Date(indexMillis()), dataType(), value(), size());
+	}
+}
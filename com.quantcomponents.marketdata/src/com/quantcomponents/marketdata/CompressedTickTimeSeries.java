@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IContract;
+
+/**
+ * Specialized time series for tick data, compressed in memory
+ */
+public class CompressedTickTimeSeries extends CompressedTimeSeries<ITickPoint> implements IMutableTickTimeSeries, ICursorSeries<ITickCursor> {
+	private static final long serialVersionUID = 5820390475327711864L;
+	private final IContract contract;
+	private final DataType dataType;
+
+	public CompressedTickTimeSeries(String ID, IContract contract, DataType dataType, long interval, TimeZone timeZone) {
+		super(ID, new TickPointLayout(), timeZone, interval, false);
+		this.contract = contract;
+		this.dataType = dataType;
+	}
+
+	@Override
+	public IContract getContract() {
+		return contract;
+	}
+
+	@Override
+	public DataType getDataType() {
+		return dataType;
+	}
+
+	@Override
+	public ITickCursor cursor() {
+		return new ColumnTickCursor(columnCursor(null));
+	}
+
+	@Override
+	public ITickCursor cursor(Date from) {
+		return new ColumnTickCursor(columnCursor(from));
+	}
+
+	@Override
+	public ITickCursor descendingCursor() {
+		return new ColumnTickCursor(descendingColumnCursor());
+	}
+
+	@Override
+	public CompressedTickTimeSeries createEmptyMutableSeries(String ID) {
+		return new CompressedTickTimeSeries(ID, getContract(), getDataType(), getInterval(), getTimeZone());
+	}
+}
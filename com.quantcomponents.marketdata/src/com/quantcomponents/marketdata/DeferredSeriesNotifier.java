@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.SeriesListenerSupport;
+
+/**
+ * Listener of an inner series, collecting its notifications while the owner of the series holds its lock,
+ * to deliver them to the listeners of the owner after the lock is released.
+ * This way the listeners can call back into the owner, or take their own locks, without any risk of deadlock.
+ * The collected notifications are guarded by the lock of the owner.
+ */
+class DeferredSeriesNotifier implements IBatchSeriesListener<Date, Double>, IEvictionSeriesListener<Date, Double> {
+	private static final int ITEM_ADDED = 0;
+	private static final int ITEMS_ADDED = 1;
+	private static final int ITEM_UPDATED = 2;
+	private static final int ITEMS_EVICTED = 3;
+
+	static class Event {
+		final int type;
+		final ISeriesPoint<Date, Double> item;
+		final ISeriesPoint<Date, Double> updatedItem;
+		final List<? extends ISeriesPoint<Date, Double>> items;
+		final Date evictionIndex;
+		final int evictionCount;
+
+		Event(int type, ISeriesPoint<Date, Double> item, ISeriesPoint<Date, Double> updatedItem, List<? extends ISeriesPoint<Date, Double>> items, Date evictionIndex, int evictionCount) {
+			this.type = type;
+			this.item = item;
+			this.updatedItem = updatedItem;
+			this.items = items;
+			this.evictionIndex = evictionIndex;
+			this.evictionCount = evictionCount;
+		}
+	}
+
+	private final List<ISeriesListener<Date, Double>> listeners = new CopyOnWriteArrayList<ISeriesListener<Date, Double>>();
+	private List<Event> pendingEvents = new ArrayList<Event>();
+
+	void addListener(ISeriesListener<Date, Double> listener) {
+		listeners.add(listener);
+	}
+
+	void removeListener(ISeriesListener<Date, Double> listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+		pendingEvents.add(new Event(ITEM_ADDED, newItem, null, null, null, 0));
+	}
+
+	@Override
+	public void onItemsAdded(List<? extends ISeriesPoint<Date, Double>> newItems) {
+		pendingEvents.add(new Event(ITEMS_ADDED, null, null, newItems, null, 0));
+	}
+
+	@Override
+	public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+		pendingEvents.add(new Event(ITEM_UPDATED, existingItem, updatedItem, null, null, 0));
+	}
+
+	@Override
+	public void onItemsEvicted(Date index, int count) {
+		pendingEvents.add(new Event(ITEMS_EVICTED, null, null, null, index, count));
+	}
+
+	/**
+	 * Must be called with the lock of the owner held
+	 * @return the notifications collected since the last call
+	 */
+	List<Event> takePendingEvents() {
+		List<Event> events = pendingEvents;
+		pendingEvents = new ArrayList<Event>();
+		return events;
+	}
+
+	/**
+	 * Must be called without holding the lock of the owner
+	 */
+	void notifyListeners(List<Event> events) {
+		for (Event event : events) {
+			switch (event.type) {
+			case ITEM_ADDED:
+				for (ISeriesListener<Date, Double> listener : listeners) {
+					listener.onItemAdded(event.item);
+				}
+				break;
+			case ITEMS_ADDED:
+				SeriesListenerSupport.notifyItemsAdded(listeners, event.items);
+				break;
+			case ITEM_UPDATED:
+				for (ISeriesListener<Date, Double> listener : listeners) {
+					listener.onItemUpdated(event.item, event.updatedItem);
+				}
+				break;
+			case ITEMS_EVICTED:
+				SeriesListenerSupport.notifyItemsEvicted(listeners, event.evictionIndex, event.evictionCount);
+				break;
+			}
+		}
+	}
+}
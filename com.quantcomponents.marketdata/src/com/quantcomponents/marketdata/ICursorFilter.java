@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+/**
+ * Condition on the current data-point of a cursor, used by {@link SeriesPipeline#filter(ICursorFilter)}.
+ * Implementations must only read the cursor, and must not keep state between calls, since the same instance
+ * can be used by concurrent scans.
+ */
+public interface ICursorFilter {
+	/**
+	 * @param cursor the cursor positioned on the data-point to be checked
+	 * @return true if the data-point must be kept
+	 */
+	boolean accept(IOHLCCursor cursor);
+}
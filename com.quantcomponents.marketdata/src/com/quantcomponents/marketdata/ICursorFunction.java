@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+/**
+ * Function of the current data-point of a cursor, used by {@link SeriesPipeline#map(ICursorFunction)}.
+ * Implementations must only read the cursor, and must not keep state between calls, since the same instance
+ * can be used by concurrent scans.
+ */
+public interface ICursorFunction {
+	/**
+	 * @param cursor the cursor positioned on the data-point to be transformed
+	 * @return the new value of the data-point
+	 */
+	double apply(IOHLCCursor cursor);
+}
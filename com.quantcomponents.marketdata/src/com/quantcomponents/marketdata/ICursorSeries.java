@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+
+/**
+ * Time series that can be scanned natively with a primitive cursor
+ *
+ * @param <C> the type of cursor
+ * @see SeriesCursors
+ */
+public interface ICursorSeries<C extends ISeriesCursor> {
+	/**
+	 * @return a cursor over all the data-points, from the head to the tail
+	 */
+	C cursor();
+	/**
+	 * @param from the abscissa of the first data-point, inclusive
+	 * @return a cursor over the data-points following the specified abscissa
+	 */
+	C cursor(Date from);
+	/**
+	 * @return a cursor over all the data-points, from the tail to the head
+	 */
+	C descendingCursor();
+}
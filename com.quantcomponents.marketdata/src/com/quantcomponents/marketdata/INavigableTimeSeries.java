@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+
+import com.quantcomponents.core.model.INavigableSeries;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Time series that can be navigated by date in logarithmic time.
+ * Sub-series are read-only snapshot views, that keep the time zone and interval of the source series
+ * @param <P> The type of data-point
+ */
+public interface INavigableTimeSeries<P extends ISeriesPoint<Date, Double>> extends ITimeSeries<P>, INavigableSeries<Date, Double, P> {
+	@Override
+	INavigableTimeSeries<P> subSeries(Date from, Date to);
+	@Override
+	INavigableTimeSeries<P> headSeries(Date to);
+	@Override
+	INavigableTimeSeries<P> tailSeries(Date from);
+}
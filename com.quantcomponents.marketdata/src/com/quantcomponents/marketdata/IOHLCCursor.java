@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+/**
+ * Primitive cursor over the bars of an OHLC time series
+ */
+public interface IOHLCCursor extends ISeriesCursor {
+	double open();
+	double high();
+	double low();
+	double close();
+	/**
+	 * @return the volume of the current bar, or 0 if not available
+	 */
+	long volume();
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+/**
+ * Cursor over the data-points of a time series, returning abscissas and values as primitives.
+ * The same cursor instance is used for the whole scan, so that no {@link java.util.Date} or {@link Double}
+ * is created for each data-point. Missing values are returned as NaN.
+ * Cursors scan the data-points contained in the series at the time of creation, and are meant to be used
+ * by a single reader.
+ *
+ * @see SeriesCursors
+ */
+public interface ISeriesCursor {
+	/**
+	 * Move to the next data-point. Must be called before reading the first data-point
+	 * @return true if the cursor is positioned on a data-point, false if there are no more data-points
+	 */
+	boolean advance();
+	/**
+	 * @return the abscissa of the current data-point, in milliseconds from the epoch
+	 */
+	long indexMillis();
+	/**
+	 * @return the value of the current data-point, as {@link com.quantcomponents.core.model.ISeriesPoint#getValue()}
+	 */
+	double value();
+	/**
+	 * @return the bottom value of the current data-point, as {@link com.quantcomponents.core.model.ISeriesPoint#getBottomValue()}
+	 */
+	double bottomValue();
+	/**
+	 * @return the top value of the current data-point, as {@link com.quantcomponents.core.model.ISeriesPoint#getTopValue()}
+	 */
+	double topValue();
+}
@@ -48,4 +48,15 @@ public interface IStockDatabaseContainer {
 	 * Return the number of stock databases found in the container
 	 */
 	int size();
+	/**
+	 * Return the factory for the series of the stock databases of this container.
+	 * Stock databases added to the container should be created with it, so that they are stored like the ones loaded by the container
+	 */
+	ITimeSeriesFactory getTimeSeriesFactory();
+	/**
+	 * Return the limits to the ticks kept in memory by the stock databases of this container.
+	 * Stock databases added to the container should use it, so that they behave like the ones loaded by the container
+	 * @see StockDatabase#setTickRetentionPolicy(RetentionPolicy)
+	 */
+	RetentionPolicy getTickRetentionPolicy();
 }
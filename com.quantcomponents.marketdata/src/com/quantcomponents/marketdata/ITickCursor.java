@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import com.quantcomponents.core.model.DataType;
+
+/**
+ * Primitive cursor over the ticks of a tick time series.
+ * The price of the tick is returned by {@link #value()}, {@link #bottomValue()} and {@link #topValue()}
+ */
+public interface ITickCursor extends ISeriesCursor {
+	/**
+	 * @return the size of the current tick, or 0 if not available
+	 */
+	int size();
+	/**
+	 * @return the data type of the current tick
+	 */
+	DataType dataType();
+	/**
+	 * @return a new data-point with the values of the current tick
+	 */
+	ITickPoint toTickPoint();
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IContract;
+
+/**
+ * Factory of the mutable series contained in a stock database.
+ * Implementors of this interface determine how the data-points are stored
+ */
+public interface ITimeSeriesFactory {
+	/**
+	 * Create an empty OHLC time series
+	 */
+	IMutableOHLCTimeSeries createOHLCTimeSeries(String ID, IContract contract, BarSize barSize, DataType dataType, boolean includeAfterHours, TimeZone timeZone);
+	/**
+	 * Create an empty tick time series
+	 */
+	IMutableTickTimeSeries createTickTimeSeries(String ID, IContract contract, DataType dataType, long interval, TimeZone timeZone);
+}
@@ -0,0 +1,754 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IContract;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.series.SeriesListenerSupport;
+
+/**
+ * Tick time series stored in a memory-mapped file, outside of the Java heap.
+ * Each tick is a fixed-width record containing time, price, size (a missing size is stored as {@link Integer#MIN_VALUE})
+ * and data type; the number of
+ * valid records is kept in the file header, and is updated only after the record has been written,
+ * so that the file always contains a consistent series, even if the JVM stops while adding a tick.
+ * The header also keeps the slots of the minimum and maximum ticks, except the tail, which can be updated:
+ * the ticks in an existing file are available as soon as the series is created, without reading or loading them in memory.
+ * <p>
+ * Ticks can only be added to the tail, as they arrive from a market data feed: adding a tick before the tail
+ * throws {@link UnsupportedOperationException}.
+ * Readers can scan the series with a {@link ITickCursor}, which decodes the records in place without
+ * creating objects; the iterators create a new {@link ITickPoint} for each tick.
+ * Ticks are not forced to the storage device after each addition: call {@link #flush()} to protect them
+ * against a failure of the operating system.
+ * When serialized, the series is replaced by an {@link ArrayTickTimeSeries} with the same content.
+ */
+public class MappedTickTimeSeries implements IMutableTickTimeSeries, ICursorSeries<ITickCursor>, Closeable, Serializable {
+	private static final long serialVersionUID = 3160455632208727941L;
+	private static final int MAGIC = 0x51435449;
+	// version 1 has no extremes in the header: they are computed when the file is opened, and the file is upgraded
+	private static final int FORMAT_VERSION = 2;
+	private static final int FORMAT_VERSION_NO_EXTREMES = 1;
+	private static final int HEADER_SIZE = 64;
+	private static final int MAGIC_OFFSET = 0;
+	private static final int FORMAT_VERSION_OFFSET = 4;
+	private static final int RECORD_SIZE_OFFSET = 8;
+	private static final int COUNT_OFFSET = 16;
+	// slots of the extremes of all the records but the tail, or -1
+	private static final int PREFIX_MINIMUM_OFFSET = 24;
+	private static final int PREFIX_MAXIMUM_OFFSET = 28;
+	// record layout: 21 bytes of data, padded to keep the records aligned
+	private static final int RECORD_SIZE = 24;
+	private static final int TIME_OFFSET = 0;
+	private static final int PRICE_OFFSET = 8;
+	private static final int SIZE_OFFSET = 16;
+	private static final int DATA_TYPE_OFFSET = 20;
+	// records are mapped in segments of fixed size, as the file grows
+	private static final int SEGMENT_BITS = 16;
+	private static final int SEGMENT_RECORDS = 1 << SEGMENT_BITS;
+	private static final int SEGMENT_MASK = SEGMENT_RECORDS - 1;
+	private static final DataType[] DATA_TYPES = DataType.values();
+	private final String ID;
+	private final IContract contract;
+	private final DataType dataType;
+	private final long interval;
+	private final TimeZone timeZone;
+	private final File file;
+	private final RandomAccessFile randomAccessFile;
+	private final FileChannel channel;
+	private final MappedByteBuffer header;
+	private final List<ISeriesListener<Date, Double>> listeners = new CopyOnWriteArrayList<ISeriesListener<Date, Double>>();
+	// segments are only added: readers can keep a reference to an old array
+	private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+	private volatile int count;
+	private volatile ITickPoint first;
+	private volatile ITickPoint last;
+	private volatile long timestamp;
+	// incremented when the records are discarded, to detect obsolete readers
+	private volatile int generation;
+	private int prefixMinimumSlot = -1;
+	private int prefixMaximumSlot = -1;
+	private boolean closed;
+
+	/**
+	 * Open the tick store contained in a file, or create it if the file does not exist
+	 * @throws IOException if the file cannot be mapped, or is not a tick store
+	 */
+	public MappedTickTimeSeries(File file, String ID, IContract contract, DataType dataType, long interval, TimeZone timeZone) throws IOException {
+		this.file = file;
+		this.ID = ID;
+		this.contract = contract;
+		this.dataType = dataType;
+		this.interval = interval;
+		this.timeZone = timeZone;
+		randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			channel = randomAccessFile.getChannel();
+			boolean newFile = channel.size() == 0;
+			header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			if (newFile) {
+				header.putInt(MAGIC_OFFSET, MAGIC);
+				header.putInt(FORMAT_VERSION_OFFSET, FORMAT_VERSION);
+				header.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+				header.putInt(PREFIX_MINIMUM_OFFSET, -1);
+				header.putInt(PREFIX_MAXIMUM_OFFSET, -1);
+				header.putLong(COUNT_OFFSET, 0L);
+			} else if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+				throw new IOException("File: " + file + " is not a tick store");
+			}
+			int formatVersion = header.getInt(FORMAT_VERSION_OFFSET);
+			if ((formatVersion != FORMAT_VERSION && formatVersion != FORMAT_VERSION_NO_EXTREMES) || header.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+				throw new IOException("File: " + file + " has unsupported format version: " + formatVersion);
+			}
+			long storedCount = header.getLong(COUNT_OFFSET);
+			if (storedCount < 0 || storedCount > Integer.MAX_VALUE || HEADER_SIZE + storedCount * RECORD_SIZE > channel.size()) {
+				throw new IOException("File: " + file + " is corrupted: invalid tick count: " + storedCount);
+			}
+			synchronized (this) {
+				int restoredCount = (int) storedCount;
+				ensureCapacity(restoredCount);
+				prefixMinimumSlot = header.getInt(PREFIX_MINIMUM_OFFSET);
+				prefixMaximumSlot = header.getInt(PREFIX_MAXIMUM_OFFSET);
+				if (formatVersion != FORMAT_VERSION || !isValidPrefixSlot(prefixMinimumSlot, restoredCount) || !isValidPrefixSlot(prefixMaximumSlot, restoredCount)) {
+					prefixMinimumSlot = -1;
+					prefixMaximumSlot = -1;
+					for (int slot = 0; slot < restoredCount - 1; slot++) {
+						updatePrefixRange(slot);
+					}
+					header.putInt(PREFIX_MINIMUM_OFFSET, prefixMinimumSlot);
+					header.putInt(PREFIX_MAXIMUM_OFFSET, prefixMaximumSlot);
+					header.putInt(FORMAT_VERSION_OFFSET, FORMAT_VERSION);
+				}
+				if (restoredCount > 0) {
+					first = readPoint(segments, 0);
+					last = readPoint(segments, restoredCount - 1);
+				}
+				count = restoredCount;
+			}
+		} catch (IOException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+		timestamp = file.lastModified();
+	}
+
+	/**
+	 * @return the file containing the ticks
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public String getPersistentID() {
+		return ID;
+	}
+
+	@Override
+	public IContract getContract() {
+		return contract;
+	}
+
+	@Override
+	public DataType getDataType() {
+		return dataType;
+	}
+
+	@Override
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+
+	@Override
+	public long getInterval() {
+		if (interval != 0) {
+			return interval;
+		}
+		ITickPoint firstPoint;
+		ITickPoint lastPoint;
+		int size;
+		synchronized (this) {
+			firstPoint = first;
+			lastPoint = last;
+			size = count;
+		}
+		if (size == 0) {
+			return 1;
+		}
+		return (lastPoint.getIndex().getTime() - firstPoint.getIndex().getTime()) / size;
+	}
+
+	@Override
+	public void addLast(ITickPoint item) {
+		long time = item.getIndex().getTime();
+		synchronized (this) {
+			if (count > 0 && time < last.getIndex().getTime()) {
+				throw new IllegalArgumentException("Item with index: " + item.getIndex() + " must not precede last item index: " + last.getIndex());
+			}
+			append(time, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addFirst(ITickPoint item) {
+		synchronized (this) {
+			if (count > 0) {
+				throw new UnsupportedOperationException("Ticks can only be added to the tail of series: " + ID);
+			}
+			append(item.getIndex().getTime(), item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addLastIfNotExists(ITickPoint item) {
+		long time = item.getIndex().getTime();
+		synchronized (this) {
+			if (count > 0 && time <= last.getIndex().getTime()) {
+				return;
+			}
+			append(time, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void addFirstIfNotExists(ITickPoint item) {
+		long time = item.getIndex().getTime();
+		synchronized (this) {
+			if (count > 0) {
+				if (time >= first.getIndex().getTime()) {
+					return;
+				}
+				throw new UnsupportedOperationException("Ticks can only be added to the tail of series: " + ID);
+			}
+			append(time, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	@Override
+	public void insertFromTail(ITickPoint item) {
+		long time = item.getIndex().getTime();
+		synchronized (this) {
+			if (count > 0 && time < last.getIndex().getTime()) {
+				throw new UnsupportedOperationException("Ticks can only be added to the tail of series: " + ID);
+			}
+			append(time, item);
+		} // release lock before running arbitrary code
+		notifyItemAdded(item);
+	}
+
+	/**
+	 * Ticks following the current tail are appended, those within the current range are ignored.
+	 * @throws UnsupportedOperationException if some tick precedes the current head
+	 */
+	@Override
+	public void addAll(List<? extends ITickPoint> items) {
+		int size = items.size();
+		long[] times = new long[size];
+		for (int i = 0; i < size; i++) {
+			times[i] = items.get(i).getIndex().getTime();
+			if (i > 0 && times[i] < times[i - 1]) {
+				throw new IllegalArgumentException("Item with index: " + items.get(i).getIndex() + " must not precede item with index: " + items.get(i - 1).getIndex());
+			}
+		}
+		List<ITickPoint> addedItems = new ArrayList<ITickPoint>(size);
+		synchronized (this) {
+			if (count > 0 && size > 0 && times[0] < first.getIndex().getTime()) {
+				throw new UnsupportedOperationException("Ticks can only be added to the tail of series: " + ID);
+			}
+			for (int i = 0; i < size; i++) {
+				if (count == 0 || times[i] > last.getIndex().getTime()) {
+					append(times[i], items.get(i));
+					addedItems.add(items.get(i));
+				}
+			}
+		} // release lock before running arbitrary code
+		SeriesListenerSupport.notifyItemsAdded(listeners, addedItems);
+	}
+
+	@Override
+	public void updateTail(ITickPoint item) {
+		long time = item.getIndex().getTime();
+		ITickPoint previousItem;
+		synchronized (this) {
+			checkOpen();
+			if (count == 0 || time != last.getIndex().getTime()) {
+				throw new IllegalArgumentException("Item with index: " + item.getIndex() + " no tail of series");
+			}
+			previousItem = last;
+			// the tail is not part of the extremes kept in the header
+			writeRecord(count - 1, time, item);
+			last = item;
+			if (count == 1) {
+				first = item;
+			}
+			timestamp = System.currentTimeMillis();
+		} // release lock before running arbitrary code
+		for (ISeriesListener<Date, Double> listener : listeners) {
+			listener.onItemUpdated(previousItem, item);
+		}
+	}
+
+	/**
+	 * Discard all the ticks. The file keeps its size, and its records are overwritten by the ticks added later
+	 */
+	@Override
+	public synchronized void clear() {
+		checkOpen();
+		header.putLong(COUNT_OFFSET, 0L);
+		header.putInt(PREFIX_MINIMUM_OFFSET, -1);
+		header.putInt(PREFIX_MAXIMUM_OFFSET, -1);
+		count = 0;
+		first = null;
+		last = null;
+		prefixMinimumSlot = -1;
+		prefixMaximumSlot = -1;
+		generation++;
+		timestamp = System.currentTimeMillis();
+	}
+
+	/**
+	 * Lock-free: returns the size as published by the last completed change
+	 */
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Lock-free
+	 */
+	@Override
+	public ITickPoint getFirst() {
+		return first;
+	}
+
+	/**
+	 * Lock-free
+	 */
+	@Override
+	public ITickPoint getLast() {
+		return last;
+	}
+
+	@Override
+	public synchronized ITickPoint getMinimum() {
+		int slot = extremeSlot(prefixMinimumSlot, true);
+		return slot < 0 ? null : readPoint(segments, slot);
+	}
+
+	@Override
+	public synchronized ITickPoint getMaximum() {
+		int slot = extremeSlot(prefixMaximumSlot, false);
+		return slot < 0 ? null : readPoint(segments, slot);
+	}
+
+	/**
+	 * The iterator reads the ticks contained in the series at the time of creation.
+	 * @throws ConcurrentModificationException if the series is cleared while iterating
+	 */
+	@Override
+	public Iterator<ITickPoint> iterator() {
+		return new RecordIterator(false);
+	}
+
+	/**
+	 * @see #iterator()
+	 */
+	@Override
+	public Iterator<ITickPoint> descendingIterator() {
+		return new RecordIterator(true);
+	}
+
+	/**
+	 * The cursor reads the ticks contained in the series at the time of creation.
+	 * @throws ConcurrentModificationException from {@link ITickCursor#advance()}, if the series is cleared while scanning
+	 */
+	@Override
+	public ITickCursor cursor() {
+		return new RecordCursor(null, false);
+	}
+
+	/**
+	 * @see #cursor()
+	 */
+	@Override
+	public ITickCursor cursor(Date from) {
+		return new RecordCursor(from, false);
+	}
+
+	/**
+	 * @see #cursor()
+	 */
+	@Override
+	public ITickCursor descendingCursor() {
+		return new RecordCursor(null, true);
+	}
+
+	@Override
+	public void addSeriesListener(ISeriesListener<Date, Double> listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void removeSeriesListener(ISeriesListener<Date, Double> listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public boolean isEnforceStrictSequence() {
+		return false;
+	}
+
+	/**
+	 * The new series is stored in memory
+	 */
+	@Override
+	public ArrayTickTimeSeries createEmptyMutableSeries(String ID) {
+		return new ArrayTickTimeSeries(ID, getContract(), getDataType(), interval, getTimeZone());
+	}
+
+	/**
+	 * Force the ticks to the storage device
+	 */
+	public synchronized void flush() {
+		checkOpen();
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+		header.force();
+	}
+
+	/**
+	 * Flush the ticks and release the file. The series cannot be used after it has been closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		flush();
+		closed = true;
+		randomAccessFile.close();
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Tick store: " + file + " is closed");
+		}
+	}
+
+	// must be called with the lock held
+	private void append(long time, ITickPoint item) {
+		checkOpen();
+		int slot = count;
+		ensureCapacity(slot + 1);
+		writeRecord(slot, time, item);
+		if (slot > 0) {
+			// the previous tail cannot be updated any more
+			updatePrefixRange(slot - 1);
+			header.putInt(PREFIX_MINIMUM_OFFSET, prefixMinimumSlot);
+			header.putInt(PREFIX_MAXIMUM_OFFSET, prefixMaximumSlot);
+		}
+		// the record is complete: commit it to the file, then publish it to the readers
+		header.putLong(COUNT_OFFSET, slot + 1);
+		if (slot == 0) {
+			first = item;
+		}
+		last = item;
+		count = slot + 1;
+		timestamp = System.currentTimeMillis();
+	}
+
+	// must be called with the lock held
+	private void ensureCapacity(int records) {
+		MappedByteBuffer[] current = segments;
+		int required = (records + SEGMENT_MASK) >>> SEGMENT_BITS;
+		if (required <= current.length) {
+			return;
+		}
+		MappedByteBuffer[] newSegments = new MappedByteBuffer[required];
+		System.arraycopy(current, 0, newSegments, 0, current.length);
+		try {
+			for (int i = current.length; i < required; i++) {
+				long position = HEADER_SIZE + (long) i * SEGMENT_RECORDS * RECORD_SIZE;
+				newSegments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) SEGMENT_RECORDS * RECORD_SIZE);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot extend tick store: " + file, e);
+		}
+		segments = newSegments;
+	}
+
+	// must be called with the lock held
+	private void writeRecord(int slot, long time, ITickPoint item) {
+		MappedByteBuffer segment = segments[slot >>> SEGMENT_BITS];
+		int offset = (slot & SEGMENT_MASK) * RECORD_SIZE;
+		segment.putLong(offset + TIME_OFFSET, time);
+		segment.putDouble(offset + PRICE_OFFSET, item.getValue());
+		segment.putInt(offset + SIZE_OFFSET, item.getSize() == null ? TickPoint.NO_SIZE : item.getSize());
+		segment.put(offset + DATA_TYPE_OFFSET, item.getDataType() == null ? -1 : (byte) item.getDataType().ordinal());
+	}
+
+	// must be called with the lock held; on ties the lowest slot is kept
+	private void updatePrefixRange(int slot) {
+		double price = readPrice(segments, slot);
+		if (prefixMinimumSlot < 0 || price < readPrice(segments, prefixMinimumSlot)) {
+			prefixMinimumSlot = slot;
+		}
+		if (prefixMaximumSlot < 0 || price > readPrice(segments, prefixMaximumSlot)) {
+			prefixMaximumSlot = slot;
+		}
+	}
+
+	// must be called with the lock held; on ties the prefix slot is kept, being the lowest
+	private int extremeSlot(int prefixSlot, boolean minimum) {
+		int tailSlot = count - 1;
+		if (prefixSlot < 0) {
+			return tailSlot;
+		}
+		double tailPrice = readPrice(segments, tailSlot);
+		double prefixPrice = readPrice(segments, prefixSlot);
+		return (minimum ? tailPrice < prefixPrice : tailPrice > prefixPrice) ? tailSlot : prefixSlot;
+	}
+
+	// a prefix slot is -1 only if there is no record before the tail
+	private static boolean isValidPrefixSlot(int slot, int count) {
+		return count > 1 ? slot >= 0 && slot < count - 1 : slot == -1;
+	}
+
+	private static long readTime(MappedByteBuffer[] segments, int slot) {
+		return segments[slot >>> SEGMENT_BITS].getLong((slot & SEGMENT_MASK) * RECORD_SIZE + TIME_OFFSET);
+	}
+
+	private static double readPrice(MappedByteBuffer[] segments, int slot) {
+		return segments[slot >>> SEGMENT_BITS].getDouble((slot & SEGMENT_MASK) * RECORD_SIZE + PRICE_OFFSET);
+	}
+
+	private static int readSize(MappedByteBuffer[] segments, int slot) {
+		return segments[slot >>> SEGMENT_BITS].getInt((slot & SEGMENT_MASK) * RECORD_SIZE + SIZE_OFFSET);
+	}
+
+	private static DataType readDataType(MappedByteBuffer[] segments, int slot) {
+		byte ordinal = segments[slot >>> SEGMENT_BITS].get((slot & SEGMENT_MASK) * RECORD_SIZE + DATA_TYPE_OFFSET);
+		return ordinal < 0 ? null : DATA_TYPES[ordinal];
+	}
+
+	// a missing size is stored as TickPoint.NO_SIZE, which the constructor of TickPoint recognizes
+	private static ITickPoint readPoint(MappedByteBuffer[] segments, int slot) {
+		return new TickPoint(new Date(readTime(segments, slot)), readDataType(segments, slot), readPrice(segments, slot), readSize(segments, slot));
+	}
+
+	private void notifyItemAdded(ITickPoint item) {
+		for (ISeriesListener<Date, Double> listener : listeners) {
+			listener.onItemAdded(item);
+		}
+	}
+
+	private Object writeReplace() throws ObjectStreamException {
+		ArrayTickTimeSeries copy = createEmptyMutableSeries(ID);
+		List<ITickPoint> points = new ArrayList<ITickPoint>(count);
+		for (ITickPoint point : this) {
+			points.add(point);
+		}
+		copy.addAll(points);
+		return copy;
+	}
+
+	/**
+	 * State shared by iterators and cursors: the records committed at the time of creation.
+	 * The tail record can be rewritten by {@link MappedTickTimeSeries#updateTail}, so the tail is taken from
+	 * the published data-point instead of the file.
+	 */
+	private abstract class RecordReader {
+		protected final MappedByteBuffer[] readerSegments;
+		protected final int readerCount;
+		protected final ITickPoint readerLast;
+		private final int readerGeneration;
+
+		RecordReader() {
+			synchronized (MappedTickTimeSeries.this) {
+				readerSegments = segments;
+				readerCount = count;
+				readerLast = last;
+				readerGeneration = generation;
+			}
+		}
+
+		protected void checkGeneration() {
+			if (generation != readerGeneration) {
+				throw new ConcurrentModificationException("Tick store: " + file + " has been cleared");
+			}
+		}
+
+		protected ITickPoint pointAt(int slot) {
+			if (slot == readerCount - 1) {
+				return readerLast;
+			}
+			ITickPoint point = readPoint(readerSegments, slot);
+			checkGeneration();
+			return point;
+		}
+	}
+
+	private class RecordIterator extends RecordReader implements Iterator<ITickPoint> {
+		private final boolean descending;
+		private int next;
+
+		RecordIterator(boolean descending) {
+			this.descending = descending;
+			next = descending ? readerCount - 1 : 0;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next >= 0 && next < readerCount;
+		}
+
+		@Override
+		public ITickPoint next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int slot = next;
+			next += descending ? -1 : 1;
+			return pointAt(slot);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private class RecordCursor extends RecordReader implements ITickCursor {
+		private final boolean descending;
+		private int slot;
+		private long time;
+		private double price;
+		private int size;
+		private DataType tickDataType;
+
+		RecordCursor(Date from, boolean descending) {
+			this.descending = descending;
+			if (descending) {
+				slot = readerCount;
+			} else {
+				slot = from == null ? -1 : lowerBound(from.getTime()) - 1;
+			}
+		}
+
+		private int lowerBound(long fromTime) {
+			int low = 0;
+			int high = readerCount;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (timeAt(middle) < fromTime) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		private long timeAt(int slot) {
+			return slot == readerCount - 1 ? readerLast.getIndex().getTime() : readTime(readerSegments, slot);
+		}
+
+		@Override
+		public boolean advance() {
+			int nextSlot = descending ? slot - 1 : slot + 1;
+			if (nextSlot < 0 || nextSlot >= readerCount) {
+				return false;
+			}
+			slot = nextSlot;
+			if (slot == readerCount - 1) {
+				time = readerLast.getIndex().getTime();
+				price = readerLast.getValue();
+				size = readerLast.getSize() == null ? TickPoint.NO_SIZE : readerLast.getSize();
+				tickDataType = readerLast.getDataType();
+			} else {
+				time = readTime(readerSegments, slot);
+				price = readPrice(readerSegments, slot);
+				size = readSize(readerSegments, slot);
+				tickDataType = readDataType(readerSegments, slot);
+				checkGeneration();
+			}
+			return true;
+		}
+
+		@Override
+		public long indexMillis() {
+			return time;
+		}
+
+		@Override
+		public double value() {
+			return price;
+		}
+
+		@Override
+		public double bottomValue() {
+			return price;
+		}
+
+		@Override
+		public double topValue() {
+			return price;
+		}
+
+		@Override
+		public int size() {
+			return size == TickPoint.NO_SIZE ? 0 : size;
+		}
+
+		@Override
+		public DataType dataType() {
+			return tickDataType;
+		}
+
+		@Override
+		public ITickPoint toTickPoint() {
+			return new TickPoint(new Date(time), tickDataType, price, size);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IContract;
+
+/**
+ * {@link ITimeSeriesFactory} creating tick series based on {@link MappedTickTimeSeries}, one file for each series
+ * in a directory. A series created with the ID of an existing file contains the ticks stored in the file.
+ * OHLC series are created by another factory.
+ */
+public class MappedTimeSeriesFactory implements ITimeSeriesFactory {
+	private static final String FILE_EXTENSION = ".ticks";
+	private final File directory;
+	private final ITimeSeriesFactory ohlcTimeSeriesFactory;
+
+	/**
+	 * @param directory the directory containing the tick files. It is created if it does not exist
+	 * @param ohlcTimeSeriesFactory the factory for the OHLC series
+	 */
+	public MappedTimeSeriesFactory(File directory, ITimeSeriesFactory ohlcTimeSeriesFactory) {
+		this.directory = directory;
+		this.ohlcTimeSeriesFactory = ohlcTimeSeriesFactory;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	@Override
+	public IMutableOHLCTimeSeries createOHLCTimeSeries(String ID, IContract contract, BarSize barSize, DataType dataType, boolean includeAfterHours, TimeZone timeZone) {
+		return ohlcTimeSeriesFactory.createOHLCTimeSeries(ID, contract, barSize, dataType, includeAfterHours, timeZone);
+	}
+
+	/**
+	 * @throws IllegalStateException if the tick file cannot be opened
+	 */
+	@Override
+	public IMutableTickTimeSeries createTickTimeSeries(String ID, IContract contract, DataType dataType, long interval, TimeZone timeZone) {
+		File file = getFile(ID);
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Cannot create directory: " + directory);
+			}
+			return new MappedTickTimeSeries(file, ID, contract, dataType, interval, timeZone);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot open tick store: " + file, e);
+		}
+	}
+
+	/**
+	 * Delete the file of a series, if it exists. The series must have been closed
+	 * @return true if the file has been deleted
+	 */
+	public boolean delete(String ID) {
+		return getFile(ID).delete();
+	}
+
+	/**
+	 * Series IDs can contain any character: the file name is made of the ID, with the unsafe characters replaced,
+	 * followed by the hash of the original ID to keep the names unique
+	 */
+	private File getFile(String ID) {
+		StringBuilder name = new StringBuilder(ID.length() + 16);
+		for (int i = 0; i < ID.length() && name.length() < 100; i++) {
+			char c = ID.charAt(i);
+			name.append(Character.isLetterOrDigit(c) || c == '-' || c == '.' ? c : '_');
+		}
+		name.append('-').append(Integer.toHexString(ID.hashCode())).append(FILE_EXTENSION);
+		return new File(directory, name.toString());
+	}
+}
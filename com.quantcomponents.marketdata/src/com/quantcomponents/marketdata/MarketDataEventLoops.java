@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.quantcomponents.core.model.IContract;
+
+/**
+ * Fixed set of single-thread event loops, each one owning the real-time updates of a subset of the contracts.
+ * A contract is always assigned to the same loop, chosen by the hash of its symbol and exchange, so that all the
+ * ticks of a contract are applied in order by a single thread, while different contracts are updated in parallel.
+ * Readers on other threads are not affected: they access the series through the lock-free snapshot views.
+ */
+public class MarketDataEventLoops {
+	private final ExecutorService[] loops;
+
+	/**
+	 * @param size the number of event loops, i.e. of threads
+	 */
+	public MarketDataEventLoops(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Invalid number of event loops: " + size);
+		}
+		loops = new ExecutorService[size];
+		for (int i = 0; i < size; i++) {
+			final String threadName = "Market data event loop #" + i;
+			loops[i] = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, threadName);
+					thread.setDaemon(true);
+					return thread;
+				}});
+		}
+	}
+
+	/**
+	 * @return the number of event loops
+	 */
+	public int size() {
+		return loops.length;
+	}
+
+	/**
+	 * @return the index of the event loop owning the contract
+	 */
+	public int loopOf(IContract contract) {
+		int hash = hash(contract.getSymbol()) * 31 + hash(contract.getExchange());
+		hash ^= hash >>> 16;
+		return (hash & Integer.MAX_VALUE) % loops.length;
+	}
+
+	/**
+	 * @return the executor of the event loop owning the contract
+	 */
+	public Executor getExecutor(IContract contract) {
+		return loops[loopOf(contract)];
+	}
+
+	/**
+	 * Stop all the event loops: tasks already submitted are run, new ones are rejected
+	 */
+	public void shutdown() {
+		for (ExecutorService loop : loops) {
+			loop.shutdown();
+		}
+	}
+
+	private static int hash(String value) {
+		return value == null ? 0 : value.hashCode();
+	}
+}
@@ -11,17 +11,15 @@ package com.quantcomponents.marketdata;
 
 import java.net.ConnectException;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.TimeZone;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.quantcomponents.core.calendar.BarAligner;
 import com.quantcomponents.core.exceptions.RequestFailedException;
 import com.quantcomponents.core.model.BarSize;
 import com.quantcomponents.core.model.DataType;
@@ -46,14 +44,13 @@ public abstract class MarketDataManager implements IMarketDataManager {
 		}
 
 		protected Date alignToTimeResBoundary(Date input) {
-			Calendar tmpCal = Calendar.getInstance();
-			tmpCal.setTime(input);
-			tmpCal.set(Calendar.MILLISECOND, 0);
-			int seconds = tmpCal.get(Calendar.SECOND);
-			if (seconds % MIN_REALTIME_DATA_RESOLUTION_SEC > 0) {
-				tmpCal.add(Calendar.SECOND, MIN_REALTIME_DATA_RESOLUTION_SEC - seconds % MIN_REALTIME_DATA_RESOLUTION_SEC);
+			BarAligner barAligner = BarAligner.forTimeZone(TimeZone.getDefault());
+			long seconds = barAligner.align(input.getTime(), BarSize.ONE_SEC);
+			long aligned = barAligner.align(seconds, BarSize.FIVE_SECS);
+			if (aligned < seconds) {
+				aligned += MIN_REALTIME_DATA_RESOLUTION_SEC * 1000L;
 			}
-			return tmpCal.getTime();
+			return new Date(aligned);
 		}
 		
 		public void fillHistoricalData(Date startDateTime, Date endDateTime, ITaskMonitor taskMonitor) throws ConnectException, RequestFailedException {
@@ -79,16 +76,11 @@ public abstract class MarketDataManager implements IMarketDataManager {
 				List<IOHLCPoint> allHistoricalData = provider.historicalBars(timeSeries.getContract(), alignedStartDateTime, alignedEndDateTime, timeSeries.getBarSize(), timeSeries.getDataType(), timeSeries.isIncludeAfterHours(), taskMonitor);
 				forwardHistoricalData.addAll(allHistoricalData);
 			}
-			ListIterator<IOHLCPoint> backwardData = backwardHistoricalData.listIterator(backwardHistoricalData.size());
-			logger.log(Level.INFO, "Merging older historical data");
-			while (backwardData.hasPrevious()) {
-				timeSeries.addFirstIfNotExists(backwardData.previous());
-			}
-			Iterator<IOHLCPoint> forwardData = forwardHistoricalData.iterator();
-			logger.log(Level.INFO, "Merging latest historical data");
-			while (forwardData.hasNext()) {
-				timeSeries.addLastIfNotExists(forwardData.next());
-			}
+			List<IOHLCPoint> historicalData = new ArrayList<IOHLCPoint>(backwardHistoricalData.size() + forwardHistoricalData.size());
+			historicalData.addAll(backwardHistoricalData);
+			historicalData.addAll(forwardHistoricalData);
+			logger.log(Level.INFO, "Merging historical data");
+			timeSeries.addAll(historicalData); // single notification to the listeners
 			logger.log(Level.INFO, "Finished merging historical data");
 		}
 	}
@@ -104,7 +96,7 @@ public abstract class MarketDataManager implements IMarketDataManager {
 	public void setStockDatabaseContainer(IStockDatabaseContainer stockDatabaseContainer) {
 		this.stockDatabaseContainer = stockDatabaseContainer;
 	}
-
+	
 	@Override
 	public DataType[] availableDataTypes() {
 		return getMarketDataProvider().availableDataTypes();
@@ -149,7 +141,10 @@ public abstract class MarketDataManager implements IMarketDataManager {
 
 	@Override
 	public IStockDatabase createStockDatabase(IContract contract, DataType dataType, BarSize barSize, boolean includeAfterHours, TimeZone timeZone) {
-		IStockDatabase stockDb = new StockDatabase(contract, dataType, barSize, includeAfterHours, timeZone);
+		StockDatabase stockDb = new StockDatabase(contract, dataType, barSize, includeAfterHours, timeZone, getTimeSeriesFactory());
+		stockDb.setTickRetentionPolicy(getStockDatabaseContainer().getTickRetentionPolicy());
+		// ticks left in the storage of the container by a previous database with the same ID
+		stockDb.replayStoredTicks();
 		getStockDatabaseContainer().addStockDatabase(stockDb);
 		return stockDb;
 	}
@@ -192,5 +187,12 @@ public abstract class MarketDataManager implements IMarketDataManager {
 	protected IMarketDataProvider getMarketDataProvider() {
 		return marketDataProvider;
 	}
+	
+	/**
+	 * New stock databases are created with the factory of the container, which is where the storage and the tick retention are configured
+	 */
+	protected ITimeSeriesFactory getTimeSeriesFactory() {
+		return getStockDatabaseContainer().getTimeSeriesFactory();
+	}
 
 }
@@ -31,6 +31,16 @@ public class MemoryStockDatabaseContainer implements IStockDatabaseContainer {
 	private static Set<IStockDatabase> EMPTY_SET = Collections.emptySet();
 	private final Map<IContract, Set<IStockDatabase>> stockDbMultiMap = new HashMap<IContract, Set<IStockDatabase>>();
 	private final Map<String, IStockDatabase> stockDbByID = new HashMap<String, IStockDatabase>();
+	private volatile ITimeSeriesFactory timeSeriesFactory = new LinkedListTimeSeriesFactory();
+	private volatile RetentionPolicy tickRetentionPolicy = RetentionPolicy.UNLIMITED;
+
+	public void setTimeSeriesFactory(ITimeSeriesFactory timeSeriesFactory) {
+		this.timeSeriesFactory = timeSeriesFactory;
+	}
+
+	public void setTickRetentionPolicy(RetentionPolicy tickRetentionPolicy) {
+		this.tickRetentionPolicy = tickRetentionPolicy;
+	}
 
 	public void deactivate() {
 		stockDbMultiMap.clear();
@@ -92,4 +102,14 @@ public class MemoryStockDatabaseContainer implements IStockDatabaseContainer {
 	public IStockDatabase getStockDatabase(String ID) {
 		return stockDbByID.get(ID);
 	}
+
+	@Override
+	public ITimeSeriesFactory getTimeSeriesFactory() {
+		return timeSeriesFactory;
+	}
+
+	@Override
+	public RetentionPolicy getTickRetentionPolicy() {
+		return tickRetentionPolicy;
+	}
 }
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IContract;
+import com.quantcomponents.core.model.IEvictableSeries;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.beans.ContractBase;
+
+/**
+ * Consolidates a single tick stream into bars of several sizes at once.
+ * <p>
+ * The ticks of a contract and data type are stored once, in the series returned by {@link #getTickTimeSeries()}, and each
+ * tick added to it updates the current bar of every bar size in a single pass. The bars of each size are exposed as an
+ * {@link OHLCVirtualTimeSeries}, so that the same contract can be watched at several resolutions with one tick subscription,
+ * e.g. with {@link RealTimeMarketDataManager#startRealtimeUpdate(MultiResolutionAggregator)}.
+ * <p>
+ * Bar sizes can be added at any time: the bars of a new size are rebuilt from the ticks still in memory.
+ * The ticks kept in memory can be limited by a {@link RetentionPolicy}: only the ticks preceding the current bar of every
+ * bar size are evicted.
+ * <p>
+ * Ticks are consolidated without holding the lock of the aggregator, so that the listeners of the bars can call back
+ * into it, or take their own locks. Ticks notified concurrently are consolidated in order by a single thread at a time:
+ * a thread finding the consolidation in progress leaves its ticks to the consolidating thread, and returns.
+ */
+public class MultiResolutionAggregator {
+	private static final OHLCVirtualTimeSeries[] NO_SERIES = new OHLCVirtualTimeSeries[0];
+	private final IContract contract;
+	private final DataType dataType;
+	private final boolean includeAfterHours;
+	private final TimeZone timeZone;
+	private final ITimeSeriesFactory timeSeriesFactory;
+	private final String ID;
+	private final IMutableTickTimeSeries tickTimeSeries;
+	private final Map<BarSize, OHLCVirtualTimeSeries> seriesByBarSize = new EnumMap<BarSize, OHLCVirtualTimeSeries>(BarSize.class);
+	// copy of the values of seriesByBarSize, read without locking by the getters
+	private volatile OHLCVirtualTimeSeries[] virtualTimeSeries = NO_SERIES;
+	// the last tick queued for consolidation into bars, guarded by this
+	private ITickPoint lastDispatchedTick;
+	// ticks queued for consolidation, and whether a thread is consolidating them, guarded by this
+	private List<Dispatch> pendingDispatches = new ArrayList<Dispatch>();
+	private boolean dispatching;
+	private volatile RetentionPolicy tickRetentionPolicy = RetentionPolicy.UNLIMITED;
+
+	public MultiResolutionAggregator(IContract contract, DataType dataType, boolean includeAfterHours, TimeZone timeZone, Collection<BarSize> barSizes) {
+		this(contract, dataType, includeAfterHours, timeZone, barSizes, new LinkedListTimeSeriesFactory());
+	}
+
+	public MultiResolutionAggregator(IContract contract, DataType dataType, boolean includeAfterHours, TimeZone timeZone, Collection<BarSize> barSizes, ITimeSeriesFactory timeSeriesFactory) {
+		ID = ContractBase.stringRepr(contract) + ";" + dataType.name() + ";" + Boolean.toString(includeAfterHours) + ";" + timeZone.getID();
+		this.contract = contract;
+		this.dataType = dataType;
+		this.includeAfterHours = includeAfterHours;
+		this.timeZone = timeZone;
+		this.timeSeriesFactory = timeSeriesFactory;
+		for (BarSize barSize : barSizes) {
+			seriesByBarSize.put(barSize, createVirtualTimeSeries(barSize));
+		}
+		long tickInterval = seriesByBarSize.isEmpty() ? BarSize.ONE_SEC.getDurationInMs() : seriesByBarSize.keySet().iterator().next().getDurationInMs();
+		virtualTimeSeries = seriesByBarSize.values().toArray(NO_SERIES);
+		tickTimeSeries = timeSeriesFactory.createTickTimeSeries(ID, contract, dataType, tickInterval, timeZone);
+		tickTimeSeries.addSeriesListener(new IBatchSeriesListener<Date, Double>() {
+			@Override
+			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+				dispatchTicks(Arrays.asList((ITickPoint) newItem));
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public void onItemsAdded(List<? extends ISeriesPoint<Date, Double>> newItems) {
+				dispatchTicks((List<? extends ITickPoint>) newItems);
+			}
+
+			@Override
+			public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+				// never
+			}});
+	}
+
+	private OHLCVirtualTimeSeries createVirtualTimeSeries(BarSize barSize) {
+		String seriesID = ContractBase.stringRepr(contract) + ";" + dataType.name() + ";" + barSize.name() + ";" + Boolean.toString(includeAfterHours) + ";" + timeZone.getID();
+		return new OHLCVirtualTimeSeries(seriesID, contract, dataType, barSize, includeAfterHours, timeZone, timeSeriesFactory);
+	}
+
+	/**
+	 * Ticks are queued with the lock held, together with the bar sizes consolidated at that moment, so that a bar size added
+	 * concurrently sees each tick exactly once: either rebuilt from the tick series, or consolidated afterwards.
+	 * The queue is then consolidated after releasing the lock, since the bars notify their listeners
+	 */
+	private void dispatchTicks(List<? extends ITickPoint> ticks) {
+		if (ticks.isEmpty()) {
+			return;
+		}
+		synchronized (this) {
+			pendingDispatches.add(new Dispatch(virtualTimeSeries, ticks));
+			lastDispatchedTick = ticks.get(ticks.size() - 1);
+			if (dispatching) {
+				return; // the consolidating thread will take these ticks, after the ones preceding them
+			}
+			dispatching = true;
+		}
+		boolean drained = false;
+		try {
+			while (!drained) {
+				List<Dispatch> dispatches;
+				synchronized (this) {
+					dispatches = pendingDispatches;
+					pendingDispatches = new ArrayList<Dispatch>();
+					if (dispatches.isEmpty()) {
+						dispatching = false;
+						drained = true;
+					}
+				}
+				for (Dispatch dispatch : dispatches) {
+					for (ITickPoint tick : dispatch.ticks) {
+						for (OHLCVirtualTimeSeries series : dispatch.series) {
+							series.addTick(tick);
+						}
+					}
+				}
+			}
+		} finally {
+			if (!drained) {
+				synchronized (this) {
+					dispatching = false;
+				}
+			}
+		}
+		applyTickRetention();
+	}
+
+	/**
+	 * Start consolidating bars of a new size, building them from the ticks in memory
+	 * @return the series of bars of the specified size; the existing one if the bar size is already consolidated
+	 */
+	public synchronized IOHLCTimeSeries addBarSize(BarSize barSize) {
+		OHLCVirtualTimeSeries series = seriesByBarSize.get(barSize);
+		if (series != null) {
+			return series;
+		}
+		series = createVirtualTimeSeries(barSize);
+		if (lastDispatchedTick != null) {
+			// ticks following the last dispatched one are still to be notified, and will reach the new series then
+			Iterator<ITickPoint> ticks = tickTimeSeries.iterator();
+			while (ticks.hasNext()) {
+				ITickPoint tick = ticks.next();
+				series.addTick(tick);
+				if (tick == lastDispatchedTick) {
+					break;
+				}
+			}
+		}
+		seriesByBarSize.put(barSize, series);
+		virtualTimeSeries = seriesByBarSize.values().toArray(NO_SERIES);
+		return series;
+	}
+
+	/**
+	 * Stop consolidating bars of the specified size: the existing series is no longer updated
+	 */
+	public synchronized void removeBarSize(BarSize barSize) {
+		if (seriesByBarSize.remove(barSize) != null) {
+			virtualTimeSeries = seriesByBarSize.values().toArray(NO_SERIES);
+		}
+	}
+
+	/**
+	 * @return the bar sizes currently consolidated, in increasing order
+	 */
+	public synchronized Set<BarSize> getBarSizes() {
+		Set<BarSize> barSizes = EnumSet.noneOf(BarSize.class);
+		barSizes.addAll(seriesByBarSize.keySet());
+		return Collections.unmodifiableSet(barSizes);
+	}
+
+	/**
+	 * @return the bars of the specified size, or null if the bar size is not consolidated
+	 */
+	public IOHLCTimeSeries getTimeSeries(BarSize barSize) {
+		for (OHLCVirtualTimeSeries series : virtualTimeSeries) {
+			if (series.getBarSize() == barSize) {
+				return series;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the series shared by all the bar sizes, where the ticks must be added
+	 */
+	public IMutableTickTimeSeries getTickTimeSeries() {
+		return tickTimeSeries;
+	}
+
+	/**
+	 * Set the limits to the ticks kept in memory.
+	 * The policy is applied only if the tick series supports eviction, see {@link IEvictableSeries}
+	 */
+	public void setTickRetentionPolicy(RetentionPolicy tickRetentionPolicy) {
+		this.tickRetentionPolicy = tickRetentionPolicy;
+	}
+
+	public RetentionPolicy getTickRetentionPolicy() {
+		return tickRetentionPolicy;
+	}
+
+	public IContract getContract() {
+		return contract;
+	}
+
+	public DataType getDataType() {
+		return dataType;
+	}
+
+	public boolean isIncludeAfterHours() {
+		return includeAfterHours;
+	}
+
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+
+	public String getPersistentID() {
+		return ID;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void applyTickRetention() {
+		RetentionPolicy policy = tickRetentionPolicy;
+		if (policy.isUnlimited() || !(tickTimeSeries instanceof IEvictableSeries<?, ?, ?>)) {
+			return;
+		}
+		Date oldestCurrentBar = null;
+		for (OHLCVirtualTimeSeries series : virtualTimeSeries) {
+			IOHLCPoint currentBar = series.getLast();
+			if (currentBar == null) {
+				return;
+			}
+			if (oldestCurrentBar == null || currentBar.getIndex().before(oldestCurrentBar)) {
+				oldestCurrentBar = currentBar.getIndex();
+			}
+		}
+		if (oldestCurrentBar != null) {
+			policy.apply((IEvictableSeries<Date, Double, ITickPoint>) tickTimeSeries, oldestCurrentBar);
+		}
+	}
+
+	private static class Dispatch {
+		final OHLCVirtualTimeSeries[] series;
+		final List<? extends ITickPoint> ticks;
+
+		Dispatch(OHLCVirtualTimeSeries[] series, List<? extends ITickPoint> ticks) {
+			this.series = series;
+			this.ticks = ticks;
+		}
+	}
+}
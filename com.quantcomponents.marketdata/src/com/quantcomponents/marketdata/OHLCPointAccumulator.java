@@ -9,29 +9,58 @@
  ******************************************************************************/
 package com.quantcomponents.marketdata;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Date;
 
 import com.quantcomponents.core.model.BarSize;
 import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IMutableSeriesPoint;
 
 /**
  * An implementation of {@link IOHLCPoint} that consolidates tick data
  * Each time the {@link OHLCPointAccumulator#addTick(ITickPoint)} method is called, the value of this data-point
  * is updated.
  * This class is useful when consolidating tick data into an OHLC series
+ * Values are kept in primitive fields: a tick that does not set a new high or low, coming as a {@link TickPoint},
+ * is consolidated without allocating any object.
+ * Use {@link OHLCPointAccumulator#snapshot()} to keep the current state of the bar before updating it.
  */
-public class OHLCPointAccumulator implements IOHLCPoint, Serializable {
+public class OHLCPointAccumulator implements IOHLCPoint, IMutableSeriesPoint<Date, Double>, Serializable {
 	private static final long serialVersionUID = 4470310868396495504L;
+	// the serial form is the one of the original implementation, with boxed values
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("barSize", BarSize.class),
+		new ObjectStreamField("dataType", DataType.class),
+		new ObjectStreamField("date", Date.class),
+		new ObjectStreamField("endDate", Date.class),
+		new ObjectStreamField("open", Double.class),
+		new ObjectStreamField("high", Double.class),
+		new ObjectStreamField("low", Double.class),
+		new ObjectStreamField("close", Double.class),
+		new ObjectStreamField("volume", Long.class),
+		new ObjectStreamField("WAP", Double.TYPE),
+		new ObjectStreamField("count", Integer.TYPE),
+		new ObjectStreamField("lastUpdate", Date.class)
+	};
 	private BarSize barSize;
 	private DataType dataType;
 	private Date date;
-	private Date endDate;
-	private Double open;
-	private Double high;
-	private Double low;
-	private Double close;
-	private Long volume;
+	private long endTime;
+	// NaN when no value is available
+	private double open = Double.NaN;
+	private double high = Double.NaN;
+	private double low = Double.NaN;
+	private double close = Double.NaN;
+	// boxed values are created only when changed, since they are read for each update of the series indexes
+	private Double openValue;
+	private Double highValue;
+	private Double lowValue;
+	private long volume;
+	private boolean volumeAvailable;
 	private double WAP;
 	private int count;
 	private Date lastUpdate;
@@ -42,15 +71,15 @@ public class OHLCPointAccumulator implements IOHLCPoint, Serializable {
 		this.barSize = barSize;
 		this.dataType = dataType;
 		this.date = date;
-		this.endDate = new Date(date.getTime() + barSize.getDurationInMs());
+		this.endTime = date.getTime() + barSize.getDurationInMs();
 	}
 	
 	public static OHLCPointAccumulator fromIOHLCPoint(IOHLCPoint bar, DataType dataType) {
 		OHLCPointAccumulator acc = new OHLCPointAccumulator(bar.getBarSize(), dataType, bar.getIndex());
-		acc.open = bar.getOpen();
-		acc.high = bar.getHigh();
-		acc.low = bar.getLow();
-		acc.close = bar.getClose();
+		acc.setOpen(bar.getOpen());
+		acc.setHigh(bar.getHigh());
+		acc.setLow(bar.getLow());
+		acc.setClose(bar.getClose());
 		if (bar.getWAP() != null) {
 			acc.WAP = bar.getWAP();
 		}
@@ -59,6 +88,7 @@ public class OHLCPointAccumulator implements IOHLCPoint, Serializable {
 		}
 		if (bar.getVolume() != null) {
 			acc.volume = bar.getVolume();
+			acc.volumeAvailable = true;
 		}
 		if (bar.getLastUpdate() != null) {
 			acc.lastUpdate = bar.getLastUpdate();
@@ -70,36 +100,75 @@ public class OHLCPointAccumulator implements IOHLCPoint, Serializable {
 		if (!dataType.includes(tick.getDataType())) {
 			throw new IllegalArgumentException("Only " + dataType.name() + " assignable tick allowed");
 		}
-		if (tick.getIndex().before(date) || !tick.getIndex().before(endDate)) {
+		if (tick instanceof TickPoint) {
+			// primitive values are read directly, without boxing
+			TickPoint tickPoint = (TickPoint) tick;
+			return addTick(tickPoint.getIndex(), tickPoint.getPrice(), tickPoint.getIntSize(), tickPoint.hasSize());
+		}
+		Integer size = tick.getSize();
+		return addTick(tick.getIndex(), tick.getValue(), size == null ? 0 : size, size != null);
+	}
+
+	private boolean addTick(Date index, double price, int size, boolean sizeAvailable) {
+		long time = index.getTime();
+		if (time < date.getTime() || time >= endTime) {
 			return false;
 		}
-		if (lastUpdate != null && !tick.getIndex().after(lastUpdate)) {
+		if (lastUpdate != null && time <= lastUpdate.getTime()) {
 			return false;
 		}
-		if (open == null) {
-			open = tick.getValue();
+		if (Double.isNaN(open)) {
+			setOpen(price);
 		}
-		if (close == null || lastUpdate != null && tick.getIndex().after(lastUpdate)) {
-			close = tick.getValue();
+		if (Double.isNaN(close) || lastUpdate != null) {
+			close = price;
 		}
-		if (low == null || tick.getValue().compareTo(low) < 0) {
-			low = tick.getValue();
+		if (Double.isNaN(low) || Double.compare(price, low) < 0) {
+			setLow(price);
 		}
-		if (high == null || tick.getValue().compareTo(high) > 0) {
-			high = tick.getValue();
+		if (Double.isNaN(high) || Double.compare(price, high) > 0) {
+			setHigh(price);
 		}
-		if (tick.getSize() != null) {
-			if (volume == null) {
-				volume = (long) tick.getSize();
-			} else {
-				volume += (long) tick.getSize();
-			}
+		if (sizeAvailable) {
+			volume += size;
+			volumeAvailable = true;
 		}
-		WAP = (WAP * count + tick.getValue()) / ++count;
-		lastUpdate = tick.getIndex();
+		WAP = (WAP * count + price) / ++count;
+		lastUpdate = index;
 		return true;
 	}
 
+	/**
+	 * @return an immutable copy of the current state of this bar
+	 */
+	@Override
+	public IOHLCPoint snapshot() {
+		return new Snapshot(this);
+	}
+
+	private void setOpen(Double value) {
+		open = value == null ? Double.NaN : value;
+		openValue = value;
+	}
+
+	private void setHigh(Double value) {
+		high = value == null ? Double.NaN : value;
+		highValue = value;
+	}
+
+	private void setLow(Double value) {
+		low = value == null ? Double.NaN : value;
+		lowValue = value;
+	}
+
+	private void setClose(Double value) {
+		close = value == null ? Double.NaN : value;
+	}
+
+	private static Double boxed(double value) {
+		return Double.isNaN(value) ? null : Double.valueOf(value);
+	}
+
 	@Override
 	public BarSize getBarSize() {
 		return barSize;
@@ -122,27 +191,27 @@ public class OHLCPointAccumulator implements IOHLCPoint, Serializable {
 
 	@Override
 	public Double getOpen() {
-		return open;
+		return openValue;
 	}
 
 	@Override
 	public Double getHigh() {
-		return high;
+		return highValue;
 	}
 
 	@Override
 	public Double getLow() {
-		return low;
+		return lowValue;
 	}
 
 	@Override
 	public Double getClose() {
-		return close;
+		return boxed(close);
 	}
 
 	@Override
 	public Long getVolume() {
-		return volume;
+		return volumeAvailable ? Long.valueOf(volume) : null;
 	}
 
 	@Override
@@ -175,23 +244,181 @@ public class OHLCPointAccumulator implements IOHLCPoint, Serializable {
 	}
 	@Override
 	public String toString() {
+		return toString(this);
+	}
+
+	private static String toString(IOHLCPoint point) {
 		StringBuilder buffer = new StringBuilder();
 		buffer.append("[");
-		buffer.append(getIndex());
+		buffer.append(point.getIndex());
 		buffer.append("; O: ");
-		buffer.append(getOpen());
+		buffer.append(point.getOpen());
 		buffer.append("; H: ");
-		buffer.append(getHigh());
+		buffer.append(point.getHigh());
 		buffer.append("; L: ");
-		buffer.append(getLow());
+		buffer.append(point.getLow());
 		buffer.append("; C: ");
-		buffer.append(getClose());
+		buffer.append(point.getClose());
 		buffer.append("; V: ");
-		buffer.append(getVolume());
+		buffer.append(point.getVolume());
 		buffer.append("; #: ");
-		buffer.append(getCount());
+		buffer.append(point.getCount());
 		buffer.append("]");
 		return buffer.toString();
 	}
 
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("barSize", barSize);
+		fields.put("dataType", dataType);
+		fields.put("date", date);
+		fields.put("endDate", date == null ? null : new Date(endTime));
+		fields.put("open", getOpen());
+		fields.put("high", getHigh());
+		fields.put("low", getLow());
+		fields.put("close", getClose());
+		fields.put("volume", getVolume());
+		fields.put("WAP", WAP);
+		fields.put("count", count);
+		fields.put("lastUpdate", lastUpdate);
+		out.writeFields();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		barSize = (BarSize) fields.get("barSize", null);
+		dataType = (DataType) fields.get("dataType", null);
+		date = (Date) fields.get("date", null);
+		Date endDate = (Date) fields.get("endDate", null);
+		endTime = endDate == null ? 0L : endDate.getTime();
+		setOpen((Double) fields.get("open", null));
+		setHigh((Double) fields.get("high", null));
+		setLow((Double) fields.get("low", null));
+		setClose((Double) fields.get("close", null));
+		Long volumeValue = (Long) fields.get("volume", null);
+		volume = volumeValue == null ? 0L : volumeValue;
+		volumeAvailable = volumeValue != null;
+		WAP = fields.get("WAP", 0.0);
+		count = fields.get("count", 0);
+		lastUpdate = (Date) fields.get("lastUpdate", null);
+	}
+
+	/**
+	 * Immutable state of an accumulator: values are boxed only when read
+	 */
+	private static final class Snapshot implements IOHLCPoint, Serializable {
+		private static final long serialVersionUID = -2904838317650264120L;
+		private final BarSize barSize;
+		private final Date date;
+		private final Double open;
+		private final Double high;
+		private final Double low;
+		private final double close;
+		private final long volume;
+		private final boolean volumeAvailable;
+		private final double WAP;
+		private final int count;
+		private final Date lastUpdate;
+
+		Snapshot(OHLCPointAccumulator source) {
+			barSize = source.barSize;
+			date = source.date;
+			open = source.openValue;
+			high = source.highValue;
+			low = source.lowValue;
+			close = source.close;
+			volume = source.volume;
+			volumeAvailable = source.volumeAvailable;
+			WAP = source.WAP;
+			count = source.count;
+			lastUpdate = source.lastUpdate;
+		}
+
+		@Override
+		public BarSize getBarSize() {
+			return barSize;
+		}
+
+		@Override
+		public Date getIndex() {
+			return date;
+		}
+
+		@Override
+		public Date getStartIndex() {
+			return getIndex();
+		}
+
+		@Override
+		public Date getEndIndex() {
+			return getLastUpdate();
+		}
+
+		@Override
+		public Double getOpen() {
+			return open;
+		}
+
+		@Override
+		public Double getHigh() {
+			return high;
+		}
+
+		@Override
+		public Double getLow() {
+			return low;
+		}
+
+		@Override
+		public Double getClose() {
+			return boxed(close);
+		}
+
+		@Override
+		public Long getVolume() {
+			return volumeAvailable ? Long.valueOf(volume) : null;
+		}
+
+		@Override
+		public Double getWAP() {
+			return WAP;
+		}
+
+		@Override
+		public Integer getCount() {
+			return count;
+		}
+
+		@Override
+		public Date getLastUpdate() {
+			return lastUpdate;
+		}
+
+		@Override
+		public Double getBottomValue() {
+			return getLow();
+		}
+
+		@Override
+		public Double getTopValue() {
+			return getHigh();
+		}
+
+		@Override
+		public Double getValue() {
+			return getClose();
+		}
+
+		@Override
+		public String toString() {
+			return OHLCPointAccumulator.toString(this);
+		}
+
+		private Object writeReplace() {
+			OHLCPoint point = OHLCPoint.copy(this);
+			point.setLastUpdate(lastUpdate);
+			return point;
+		}
+	}
+
 }
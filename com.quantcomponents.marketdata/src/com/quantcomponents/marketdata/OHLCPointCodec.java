@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.io.IOException;
+
+import com.quantcomponents.core.codec.CodecInput;
+import com.quantcomponents.core.codec.CodecOutput;
+import com.quantcomponents.core.codec.IPointCodec;
+import com.quantcomponents.core.model.BarSize;
+
+/**
+ * Binary codec for {@link OHLCPoint}.
+ * Null values are written as NaN, or as the minimum value for integral fields
+ */
+public class OHLCPointCodec implements IPointCodec<OHLCPoint> {
+	public static final String TYPE_NAME = "OHLCPoint";
+	private static final int VERSION = 1;
+
+	@Override
+	public String getTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public Class<OHLCPoint> getPointClass() {
+		return OHLCPoint.class;
+	}
+
+	@Override
+	public void write(OHLCPoint point, CodecOutput out) throws IOException {
+		out.writeEnum(point.getBarSize());
+		out.writeDate(point.getIndex());
+		out.writeDouble(point.getOpen());
+		out.writeDouble(point.getHigh());
+		out.writeDouble(point.getLow());
+		out.writeDouble(point.getClose());
+		out.writeLong(point.getVolume() == null ? Long.MIN_VALUE : point.getVolume());
+		out.writeDouble(point.getWAP());
+		out.writeInt(point.getCount() == null ? Integer.MIN_VALUE : point.getCount());
+		out.writeDate(point.getLastUpdate());
+	}
+
+	@Override
+	public OHLCPoint read(CodecInput in, int version) throws IOException {
+		if (version != VERSION) {
+			throw new IOException("Unsupported version: " + version + " of type: " + TYPE_NAME);
+		}
+		BarSize barSize = in.readEnum(BarSize.class);
+		OHLCPoint point = new OHLCPoint(barSize, in.readDate(), in.readNullableDouble(), in.readNullableDouble(), in.readNullableDouble(), in.readNullableDouble(),
+				nullableLong(in.readLong()), in.readNullableDouble(), nullableInt(in.readInt()));
+		point.setLastUpdate(in.readDate());
+		return point;
+	}
+
+	private static Long nullableLong(long value) {
+		return value == Long.MIN_VALUE ? null : value;
+	}
+
+	private static Integer nullableInt(int value) {
+		return value == Integer.MIN_VALUE ? null : value;
+	}
+}
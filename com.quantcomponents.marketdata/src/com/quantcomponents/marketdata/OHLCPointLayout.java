@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.series.IColumnLayout;
+
+/**
+ * Column layout for OHLC points of a specific bar size.
+ * Null values are stored as NaN
+ */
+public class OHLCPointLayout implements IColumnLayout<Date, Double, IOHLCPoint>, Serializable {
+	private static final long serialVersionUID = -2200793393913262574L;
+	static final int OPEN = 0;
+	static final int HIGH = 1;
+	static final int LOW = 2;
+	static final int CLOSE = 3;
+	static final int VOLUME = 4;
+	private static final int WAP = 5;
+	private static final int COUNT = 6;
+	private static final int LAST_UPDATE = 7;
+	private static final int WIDTH = 8;
+	private final BarSize barSize;
+
+	public OHLCPointLayout(BarSize barSize) {
+		this.barSize = barSize;
+	}
+
+	public BarSize getBarSize() {
+		return barSize;
+	}
+
+	@Override
+	public int getWidth() {
+		return WIDTH;
+	}
+
+	@Override
+	public long encodeIndex(Date index) {
+		return index.getTime();
+	}
+
+	@Override
+	public Date decodeIndex(long index) {
+		return new Date(index);
+	}
+
+	@Override
+	public void encode(IOHLCPoint point, double[] row, int offset) {
+		row[offset + OPEN] = toDouble(point.getOpen());
+		row[offset + HIGH] = toDouble(point.getHigh());
+		row[offset + LOW] = toDouble(point.getLow());
+		row[offset + CLOSE] = toDouble(point.getClose());
+		row[offset + VOLUME] = point.getVolume() == null ? Double.NaN : point.getVolume();
+		row[offset + WAP] = toDouble(point.getWAP());
+		row[offset + COUNT] = point.getCount() == null ? Double.NaN : point.getCount();
+		row[offset + LAST_UPDATE] = point.getLastUpdate() == null ? Double.NaN : point.getLastUpdate().getTime();
+	}
+
+	@Override
+	public IOHLCPoint decode(long index, double[] row, int offset) {
+		double volume = row[offset + VOLUME];
+		double count = row[offset + COUNT];
+		double lastUpdate = row[offset + LAST_UPDATE];
+		OHLCPoint point = new OHLCPoint(barSize, new Date(index), toDouble(row[offset + OPEN]), toDouble(row[offset + HIGH]), toDouble(row[offset + LOW]), toDouble(row[offset + CLOSE]), 
+				Double.isNaN(volume) ? null : (long) volume, toDouble(row[offset + WAP]), Double.isNaN(count) ? null : (int) count);
+		if (!Double.isNaN(lastUpdate)) {
+			point.setLastUpdate(new Date((long) lastUpdate));
+		}
+		return point;
+	}
+
+	@Override
+	public int getBottomValueColumn() {
+		return LOW;
+	}
+
+	@Override
+	public int getTopValueColumn() {
+		return HIGH;
+	}
+
+	private static double toDouble(Double value) {
+		return value == null ? Double.NaN : value;
+	}
+
+	private static Double toDouble(double value) {
+		return Double.isNaN(value) ? null : value;
+	}
+}
@@ -0,0 +1,659 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+
+import com.quantcomponents.core.calendar.BarAligner;
+import com.quantcomponents.core.calendar.ITradingCalendar;
+import com.quantcomponents.core.calendar.TradingTimeIndex;
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IContract;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.INavigableSeries;
+import com.quantcomponents.core.model.ISeriesChanges;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.ISeriesSpliterator;
+import com.quantcomponents.core.model.IVersionedSeries;
+import com.quantcomponents.core.series.ISplitScan;
+import com.quantcomponents.core.series.SeriesSpliterators;
+
+/**
+ * Live series of coarse bars consolidated from a series of finer bars, e.g. 1-hour bars from stored 1-minute bars.
+ * <p>
+ * Bars of sizes shorter than a day are aligned as {@link BarAligner} does, and when a trading calendar is specified they
+ * never cross the boundaries of its sessions: the first bar of a session starts with the session, e.g. at 9:30 for 1-hour bars,
+ * and the last one ends with it. Bars of one day are aligned to local midnight, bars of one week start on Monday and bars of one
+ * month on the first day of the month. Fine bars outside the trading sessions of the calendar are ignored.
+ * <p>
+ * The series is bound to the source series and is updated incrementally by its notifications: each new or updated fine bar at
+ * the end of the source changes only the last coarse bar. Fine bars preceding the last coarse bar cause the consolidation of
+ * their coarse bar from the source again, if it is the first one or a new one; changes to the coarse bars in the middle are ignored,
+ * as {@link OHLCVirtualTimeSeries} does.
+ * The resampler must be closed when not needed anymore, to stop listening to the source series.
+ * <p>
+ * Whole histories can also be consolidated once, in parallel, with {@link #resample(IOHLCTimeSeries, BarSize, ITradingCalendar, ExecutorService, int)}.
+ */
+public class OHLCResampler implements IOHLCTimeSeries, INavigableTimeSeries<IOHLCPoint>, IVersionedSeries<Date, Double, IOHLCPoint>, IBatchSeriesListener<Date, Double>, IEvictionSeriesListener<Date, Double> {
+	private final IOHLCTimeSeries source;
+	private final BarSize barSize;
+	private final ITradingCalendar tradingCalendar;
+	private final OHLCTimeSeries bars;
+	private final BarBoundaries boundaries;
+	// state of the last coarse bar: the fine bars before the last one, and the last one, that may still be updated in place
+	private long tailStart;
+	private BarAccumulator closedPart;
+	private IOHLCPoint lastFineBar;
+	private boolean closed;
+
+	/**
+	 * @param source the series of fine bars
+	 * @param barSize the size of the coarse bars, not smaller than the one of the source
+	 * @param tradingCalendar the calendar of the trading sessions; null if the bars do not depend on the sessions
+	 */
+	public OHLCResampler(IOHLCTimeSeries source, BarSize barSize, ITradingCalendar tradingCalendar) {
+		if (barSize.compareTo(source.getBarSize()) < 0) {
+			throw new IllegalArgumentException("Bar size: " + barSize.name() + " is smaller than that of the source: " + source.getBarSize().name());
+		}
+		this.source = source;
+		this.barSize = barSize;
+		this.tradingCalendar = tradingCalendar;
+		bars = new OHLCTimeSeries(persistentID(source, barSize), source.getContract(), barSize, source.getDataType(), source.isIncludeAfterHours(), source.getTimeZone());
+		boundaries = new BarBoundaries(barSize, source.getTimeZone(), tradingCalendar);
+		synchronized (this) {
+			// notifications arriving while the bars are consolidated wait for the lock, and are then merged with them
+			source.addSeriesListener(this);
+			List<IOHLCPoint> fineBars = new ArrayList<IOHLCPoint>();
+			for (IOHLCPoint fineBar : source) {
+				fineBars.add(fineBar);
+			}
+			consolidate(fineBars);
+		}
+	}
+
+	/**
+	 * Consolidate a whole series of fine bars at once, splitting it in parts scanned in parallel
+	 * @param source the series of fine bars
+	 * @param barSize the size of the coarse bars, not smaller than the one of the source
+	 * @param tradingCalendar the calendar of the trading sessions; null if the bars do not depend on the sessions
+	 * @param executor the executor of the parts
+	 * @param parallelism the number of threads of the executor
+	 * @return a new series containing the coarse bars; it is not updated when the source changes
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the parts
+	 */
+	public static IMutableOHLCTimeSeries resample(IOHLCTimeSeries source, final BarSize barSize, final ITradingCalendar tradingCalendar, ExecutorService executor, int parallelism) throws InterruptedException {
+		if (barSize.compareTo(source.getBarSize()) < 0) {
+			throw new IllegalArgumentException("Bar size: " + barSize.name() + " is smaller than that of the source: " + source.getBarSize().name());
+		}
+		final TimeZone timeZone = source.getTimeZone();
+		ISeriesSpliterator<IOHLCPoint> spliterator = SeriesSpliterators.spliterator(source);
+		List<BarAccumulator> accumulators = SeriesSpliterators.scan(spliterator, new ISplitScan<ISeriesSpliterator<IOHLCPoint>, List<BarAccumulator>>() {
+			@Override
+			public List<BarAccumulator> scan(ISeriesSpliterator<IOHLCPoint> part) {
+				// calendars are not thread-safe: each part has its own boundaries
+				BarBoundaries partBoundaries = new BarBoundaries(barSize, timeZone, tradingCalendar);
+				List<BarAccumulator> result = new ArrayList<BarAccumulator>();
+				BarAccumulator current = null;
+				while (part.hasNext()) {
+					IOHLCPoint fineBar = part.next();
+					if (!partBoundaries.locate(fineBar.getIndex().getTime())) {
+						continue;
+					}
+					if (current == null || current.start != partBoundaries.start) {
+						current = new BarAccumulator(partBoundaries.start);
+						result.add(current);
+					}
+					current.add(fineBar);
+				}
+				return result;
+			}
+
+			@Override
+			public List<BarAccumulator> combine(List<BarAccumulator> left, List<BarAccumulator> right) {
+				// a coarse bar split between two parts is merged
+				int first = 0;
+				if (!left.isEmpty() && !right.isEmpty() && left.get(left.size() - 1).start == right.get(0).start) {
+					left.get(left.size() - 1).add(right.get(0));
+					first = 1;
+				}
+				left.addAll(right.subList(first, right.size()));
+				return left;
+			}
+		}, executor, parallelism);
+		OHLCTimeSeries result = new OHLCTimeSeries(persistentID(source, barSize), source.getContract(), barSize, source.getDataType(), source.isIncludeAfterHours(), timeZone);
+		List<IOHLCPoint> points = new ArrayList<IOHLCPoint>(accumulators.size());
+		for (BarAccumulator accumulator : accumulators) {
+			points.add(accumulator.toPoint(barSize));
+		}
+		result.addAll(points);
+		return result;
+	}
+
+	private static String persistentID(IOHLCTimeSeries source, BarSize barSize) {
+		return source.getPersistentID() + ";" + barSize.name();
+	}
+
+	/**
+	 * @return the series of fine bars
+	 */
+	public IOHLCTimeSeries getSource() {
+		return source;
+	}
+
+	/**
+	 * @return the calendar of the trading sessions, or null
+	 */
+	public ITradingCalendar getTradingCalendar() {
+		return tradingCalendar;
+	}
+
+	/**
+	 * Stop following the source series. The coarse bars are not changed anymore
+	 */
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		source.removeSeriesListener(this);
+	}
+
+	@Override
+	public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+		List<IOHLCPoint> newItems = new ArrayList<IOHLCPoint>(1);
+		newItems.add((IOHLCPoint) newItem);
+		onItemsAdded(newItems);
+	}
+
+	@Override
+	public synchronized void onItemsAdded(List<? extends ISeriesPoint<Date, Double>> newItems) {
+		if (!closed) {
+			consolidate(newItems);
+		}
+	}
+
+	/**
+	 * Updates of the last fine bar, usually modified in place by the ticks, change only the last coarse bar
+	 */
+	@Override
+	public synchronized void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+		if (closed || lastFineBar == null) {
+			return;
+		}
+		IOHLCPoint fineBar = (IOHLCPoint) updatedItem;
+		if (fineBar.getIndex().equals(lastFineBar.getIndex())) {
+			lastFineBar = fineBar;
+			bars.updateTail(tailBar());
+		} else {
+			List<IOHLCPoint> fineBars = new ArrayList<IOHLCPoint>(1);
+			fineBars.add(fineBar);
+			consolidate(fineBars);
+		}
+	}
+
+	/**
+	 * The coarse bars preceding the one containing the first remaining fine bar are removed as well
+	 */
+	@Override
+	public synchronized void onItemsEvicted(Date index, int count) {
+		if (closed) {
+			return;
+		}
+		IOHLCPoint first = source.getFirst();
+		if (first == null) {
+			bars.evictBefore(index, Integer.MAX_VALUE);
+		} else {
+			IOHLCPoint firstBar = bars.floor(first.getIndex());
+			if (firstBar != null) {
+				bars.evictBefore(firstBar.getIndex(), Integer.MAX_VALUE);
+			}
+		}
+	}
+
+	/**
+	 * Must be called with the lock held
+	 */
+	private void consolidate(List<? extends ISeriesPoint<Date, Double>> fineBars) {
+		List<IOHLCPoint> appended = new ArrayList<IOHLCPoint>();
+		TreeSet<Long> staleBars = new TreeSet<Long>();
+		// true when the last coarse bar already in the series has changed
+		boolean tailChanged = false;
+		for (ISeriesPoint<Date, Double> point : fineBars) {
+			IOHLCPoint fineBar = (IOHLCPoint) point;
+			if (!boundaries.locate(fineBar.getIndex().getTime())) {
+				continue;
+			}
+			long start = boundaries.start;
+			if (lastFineBar == null || start > tailStart) {
+				// the current coarse bar is complete
+				if (!appended.isEmpty()) {
+					appended.set(appended.size() - 1, tailBar());
+				} else if (tailChanged) {
+					bars.updateTail(tailBar());
+				}
+				tailStart = start;
+				closedPart = new BarAccumulator(start);
+				lastFineBar = fineBar;
+				appended.add(null); // set when complete
+				tailChanged = false;
+			} else if (start == tailStart && fineBar.getIndex().after(lastFineBar.getIndex())) {
+				closedPart.add(lastFineBar);
+				lastFineBar = fineBar;
+				tailChanged = true;
+			} else if (start == tailStart && fineBar.getIndex().equals(lastFineBar.getIndex())) {
+				lastFineBar = fineBar;
+				tailChanged = true;
+			} else {
+				staleBars.add(start);
+			}
+		}
+		if (!appended.isEmpty()) {
+			appended.set(appended.size() - 1, tailBar());
+			bars.addAll(appended);
+		} else if (tailChanged) {
+			bars.updateTail(tailBar());
+		}
+		for (Long start : staleBars) {
+			refresh(start);
+		}
+	}
+
+	/**
+	 * Consolidate a coarse bar again from the source, after a change preceding its last fine bar.
+	 * Must be called with the lock held
+	 */
+	@SuppressWarnings("unchecked")
+	private void refresh(long start) {
+		List<IOHLCPoint> fineBars = new ArrayList<IOHLCPoint>();
+		Iterable<IOHLCPoint> candidates = source instanceof INavigableSeries<?, ?, ?> ?
+				((INavigableSeries<Date, Double, IOHLCPoint>) source).tailSeries(new Date(start)) : source;
+		for (IOHLCPoint fineBar : candidates) {
+			if (!boundaries.locate(fineBar.getIndex().getTime()) || boundaries.start < start) {
+				continue;
+			}
+			if (boundaries.start > start) {
+				break;
+			}
+			fineBars.add(fineBar);
+		}
+		if (fineBars.isEmpty()) {
+			return;
+		}
+		BarAccumulator accumulator = new BarAccumulator(start);
+		for (int i = 0; i < fineBars.size() - 1; i++) {
+			accumulator.add(fineBars.get(i));
+		}
+		if (start == tailStart) {
+			closedPart = accumulator;
+			lastFineBar = fineBars.get(fineBars.size() - 1);
+			bars.updateTail(tailBar());
+			return;
+		}
+		accumulator.add(fineBars.get(fineBars.size() - 1));
+		IOHLCPoint bar = accumulator.toPoint(barSize);
+		IOHLCPoint existingBar = bars.floor(bar.getIndex());
+		if (existingBar == null || !existingBar.getIndex().equals(bar.getIndex())) {
+			bars.insertFromTail(bar);
+		} else if (existingBar == bars.getFirst()) {
+			bars.updateHead(bar);
+		}
+	}
+
+	private IOHLCPoint tailBar() {
+		BarAccumulator accumulator = closedPart.copy();
+		accumulator.add(lastFineBar);
+		return accumulator.toPoint(barSize);
+	}
+
+	@Override
+	public IContract getContract() {
+		return source.getContract();
+	}
+
+	@Override
+	public BarSize getBarSize() {
+		return barSize;
+	}
+
+	@Override
+	public DataType getDataType() {
+		return source.getDataType();
+	}
+
+	@Override
+	public boolean isIncludeAfterHours() {
+		return source.isIncludeAfterHours();
+	}
+
+	@Override
+	public TimeZone getTimeZone() {
+		return bars.getTimeZone();
+	}
+
+	@Override
+	public long getInterval() {
+		return bars.getInterval();
+	}
+
+	@Override
+	public INavigableTimeSeries<IOHLCPoint> subSeries(Date from, Date to) {
+		return bars.subSeries(from, to);
+	}
+
+	@Override
+	public INavigableTimeSeries<IOHLCPoint> headSeries(Date to) {
+		return bars.headSeries(to);
+	}
+
+	@Override
+	public INavigableTimeSeries<IOHLCPoint> tailSeries(Date from) {
+		return bars.tailSeries(from);
+	}
+
+	@Override
+	public IOHLCPoint floor(Date index) {
+		return bars.floor(index);
+	}
+
+	@Override
+	public IOHLCPoint ceiling(Date index) {
+		return bars.ceiling(index);
+	}
+
+	@Override
+	public IOHLCPoint getMinimum(Date from, Date to) {
+		return bars.getMinimum(from, to);
+	}
+
+	@Override
+	public IOHLCPoint getMaximum(Date from, Date to) {
+		return bars.getMaximum(from, to);
+	}
+
+	@Override
+	public int size() {
+		return bars.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return bars.isEmpty();
+	}
+
+	@Override
+	public Iterator<IOHLCPoint> iterator() {
+		return bars.iterator();
+	}
+
+	@Override
+	public Iterator<IOHLCPoint> descendingIterator() {
+		return bars.descendingIterator();
+	}
+
+	@Override
+	public IOHLCPoint getFirst() {
+		return bars.getFirst();
+	}
+
+	@Override
+	public IOHLCPoint getLast() {
+		return bars.getLast();
+	}
+
+	@Override
+	public IOHLCPoint getMinimum() {
+		return bars.getMinimum();
+	}
+
+	@Override
+	public IOHLCPoint getMaximum() {
+		return bars.getMaximum();
+	}
+
+	@Override
+	public void addSeriesListener(ISeriesListener<Date, Double> listener) {
+		bars.addSeriesListener(listener);
+	}
+
+	@Override
+	public void removeSeriesListener(ISeriesListener<Date, Double> listener) {
+		bars.removeSeriesListener(listener);
+	}
+
+	@Override
+	public long getTimestamp() {
+		return bars.getTimestamp();
+	}
+
+	@Override
+	public long getVersion() {
+		return bars.getVersion();
+	}
+
+	@Override
+	public ISeriesChanges<Date, Double, IOHLCPoint> changesSince(long version) {
+		return bars.changesSince(version);
+	}
+
+	@Override
+	public boolean isEnforceStrictSequence() {
+		return bars.isEnforceStrictSequence();
+	}
+
+	@Override
+	public IMutableSeries<Date, Double, IOHLCPoint> createEmptyMutableSeries(String ID) {
+		return bars.createEmptyMutableSeries(ID);
+	}
+
+	@Override
+	public String getPersistentID() {
+		return bars.getPersistentID();
+	}
+
+	/**
+	 * Boundaries of the coarse bar containing an instant.
+	 * The part of the last bar within the same trading session is kept, so that the following fine bars are usually located
+	 * with two comparisons.
+	 * Instances are not thread-safe
+	 */
+	private static class BarBoundaries {
+		private final BarSize barSize;
+		private final BarAligner barAligner;
+		private final TradingTimeIndex tradingTimeIndex;
+		private final Calendar calendar;
+		// start of the last located bar
+		long start;
+		// range of instants known to be in the last located bar and in trading time: start inclusive, end exclusive
+		private long knownStart = Long.MAX_VALUE;
+		private long knownEnd = Long.MIN_VALUE;
+
+		BarBoundaries(BarSize barSize, TimeZone timeZone, ITradingCalendar tradingCalendar) {
+			this.barSize = barSize;
+			barAligner = BarAligner.forTimeZone(timeZone);
+			tradingTimeIndex = tradingCalendar == null ? null : TradingTimeIndex.forCalendar(tradingCalendar);
+			calendar = Calendar.getInstance(timeZone);
+			calendar.setFirstDayOfWeek(Calendar.MONDAY);
+		}
+
+		/**
+		 * Locate the coarse bar containing an instant, and keep its boundaries
+		 * @return false if the instant is not within a trading session
+		 */
+		boolean locate(long time) {
+			if (time >= knownStart && time < knownEnd) {
+				return true;
+			}
+			if (tradingTimeIndex != null && !tradingTimeIndex.isTradingTime(time)) {
+				return false;
+			}
+			long end;
+			if (barSize == BarSize.ONE_WEEK || barSize == BarSize.ONE_MONTH) {
+				calendar.setTimeInMillis(time);
+				calendar.set(Calendar.HOUR_OF_DAY, 0);
+				calendar.set(Calendar.MINUTE, 0);
+				calendar.set(Calendar.SECOND, 0);
+				calendar.set(Calendar.MILLISECOND, 0);
+				if (barSize == BarSize.ONE_WEEK) {
+					calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
+					start = calendar.getTimeInMillis();
+					calendar.add(Calendar.WEEK_OF_YEAR, 1);
+				} else {
+					calendar.set(Calendar.DATE, 1);
+					start = calendar.getTimeInMillis();
+					calendar.add(Calendar.MONTH, 1);
+				}
+				end = calendar.getTimeInMillis();
+			} else {
+				start = barAligner.align(time, barSize);
+				// the next bar usually starts one bar size later, unless a daylight saving transition falls within the bar
+				long nextBar = barAligner.align(start + barSize.getDurationInMs(), barSize);
+				end = nextBar > start ? nextBar : start + barSize.getDurationInMs();
+			}
+			knownStart = start;
+			knownEnd = end;
+			if (tradingTimeIndex != null) {
+				knownStart = Math.max(knownStart, tradingTimeIndex.sessionStart(time));
+				knownEnd = Math.min(knownEnd, tradingTimeIndex.sessionEnd(time));
+				if (barSize.compareTo(BarSize.ONE_DAY) < 0) {
+					// intraday bars do not cross the session boundaries
+					start = knownStart;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Consolidation of consecutive fine bars into a coarse one
+	 */
+	private static class BarAccumulator {
+		final long start;
+		private double open = Double.NaN;
+		private double high = Double.NaN;
+		private double low = Double.NaN;
+		private double close = Double.NaN;
+		private long volume;
+		private boolean hasVolume;
+		private int count;
+		// WAP of the fine bars weighted by their volumes
+		private double wapSum;
+		private double wapWeight;
+		private long lastUpdate = Long.MIN_VALUE;
+
+		BarAccumulator(long start) {
+			this.start = start;
+		}
+
+		BarAccumulator copy() {
+			BarAccumulator copy = new BarAccumulator(start);
+			copy.add(this);
+			return copy;
+		}
+
+		void add(IOHLCPoint fineBar) {
+			if (Double.isNaN(open) && fineBar.getOpen() != null) {
+				open = fineBar.getOpen();
+			}
+			if (fineBar.getHigh() != null) {
+				high = max(high, fineBar.getHigh());
+			}
+			if (fineBar.getLow() != null) {
+				low = min(low, fineBar.getLow());
+			}
+			if (fineBar.getClose() != null && !Double.isNaN(fineBar.getClose())) {
+				close = fineBar.getClose();
+			}
+			if (fineBar.getVolume() != null) {
+				volume += fineBar.getVolume();
+				hasVolume = true;
+			}
+			if (fineBar.getCount() != null) {
+				count += fineBar.getCount();
+			}
+			if (fineBar.getWAP() != null) {
+				double weight = fineBar.getVolume() != null && fineBar.getVolume() > 0 ? fineBar.getVolume() : 1.0;
+				wapSum += fineBar.getWAP() * weight;
+				wapWeight += weight;
+			}
+			if (fineBar.getLastUpdate() != null) {
+				lastUpdate = Math.max(lastUpdate, fineBar.getLastUpdate().getTime());
+			}
+		}
+
+		/**
+		 * @param following the consolidation of the fine bars following those of this one, in the same coarse bar
+		 */
+		void add(BarAccumulator following) {
+			if (Double.isNaN(open)) {
+				open = following.open;
+			}
+			high = max(high, following.high);
+			low = min(low, following.low);
+			if (!Double.isNaN(following.close)) {
+				close = following.close;
+			}
+			volume += following.volume;
+			hasVolume |= following.hasVolume;
+			count += following.count;
+			wapSum += following.wapSum;
+			wapWeight += following.wapWeight;
+			lastUpdate = Math.max(lastUpdate, following.lastUpdate);
+		}
+
+		/**
+		 * NaN stands for a missing value, e.g. in bars containing no ticks: unlike {@link Math#max(double, double)}, it is skipped
+		 */
+		private static double max(double value1, double value2) {
+			if (Double.isNaN(value1)) {
+				return value2;
+			}
+			if (Double.isNaN(value2)) {
+				return value1;
+			}
+			return Math.max(value1, value2);
+		}
+
+		private static double min(double value1, double value2) {
+			if (Double.isNaN(value1)) {
+				return value2;
+			}
+			if (Double.isNaN(value2)) {
+				return value1;
+			}
+			return Math.min(value1, value2);
+		}
+
+		IOHLCPoint toPoint(BarSize barSize) {
+			OHLCPoint point = new OHLCPoint(barSize, new Date(start), valueOrNull(open), valueOrNull(high), valueOrNull(low), valueOrNull(close),
+					hasVolume ? Long.valueOf(volume) : null, wapWeight > 0.0 ? Double.valueOf(wapSum / wapWeight) : null, count);
+			if (lastUpdate != Long.MIN_VALUE) {
+				point.setLastUpdate(new Date(lastUpdate));
+			}
+			return point;
+		}
+
+		private static Double valueOrNull(double value) {
+			return Double.isNaN(value) ? null : Double.valueOf(value);
+		}
+	}
+}
@@ -9,6 +9,7 @@
  ******************************************************************************/
 package com.quantcomponents.marketdata;
 
+import java.util.List;
 import java.util.TimeZone;
 
 import com.quantcomponents.core.model.BarSize;
@@ -67,6 +68,14 @@ public class OHLCTimeSeries extends TimeSeries<IOHLCPoint> implements IMutableOH
 		super.addFirstIfNotExists(item);
 	}
 	
+	@Override
+	public void addAll(List<? extends IOHLCPoint> items) {
+		for (IOHLCPoint item : items) {
+			checkBarSize(item);
+		}
+		super.addAll(items);
+	}
+
 	@Override
 	public void addLast(IOHLCPoint item) {
 		checkBarSize(item);
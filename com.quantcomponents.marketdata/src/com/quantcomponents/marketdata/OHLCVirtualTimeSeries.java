@@ -9,7 +9,8 @@
  ******************************************************************************/
 package com.quantcomponents.marketdata;
 
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -18,11 +19,16 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.quantcomponents.core.calendar.BarAligner;
 import com.quantcomponents.core.model.BarSize;
 import com.quantcomponents.core.model.DataType;
 import com.quantcomponents.core.model.IContract;
+import com.quantcomponents.core.model.ILatestStateSeriesListener;
 import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.ISeriesChanges;
 import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.IVersionedSeries;
+import com.quantcomponents.core.series.SeriesListenerSupport;
 
 /**
  * Virtual OHLC time series.
@@ -30,21 +36,29 @@ import com.quantcomponents.core.model.ISeriesListener;
  * in terms of OHLC points.
  * For each update, the listeners are advised with the latest values, effectively conveying both OHLC and real time tick data.
  */
-public class OHLCVirtualTimeSeries implements IOHLCTimeSeries {
+public class OHLCVirtualTimeSeries implements IOHLCTimeSeries, INavigableTimeSeries<IOHLCPoint>, IVersionedSeries<Date, Double, IOHLCPoint> {
 	private static final Logger logger = Logger.getLogger(OHLCVirtualTimeSeries.class.getName());
 	private final OHLCTimeSeries innerTimeSeries;
-	private final Calendar calendar;
+	private final ITimeSeriesFactory timeSeriesFactory;
+	private final BarAligner barAligner;
 	private final List<ISeriesListener<Date, Double>> listeners = new CopyOnWriteArrayList<ISeriesListener<Date, Double>>();
 
 	public OHLCVirtualTimeSeries(String ID, IContract contract, DataType dataType, BarSize barSize, boolean includeAfterHours, TimeZone timeZone) {
+		this(ID, contract, dataType, barSize, includeAfterHours, timeZone, new LinkedListTimeSeriesFactory());
+	}
+	
+	/**
+	 * @param timeSeriesFactory the factory used to create the mutable copies of this series
+	 */
+	public OHLCVirtualTimeSeries(String ID, IContract contract, DataType dataType, BarSize barSize, boolean includeAfterHours, TimeZone timeZone, ITimeSeriesFactory timeSeriesFactory) {
+		// bars are updated in place by the ticks, therefore they are kept as objects
 		innerTimeSeries = new OHLCTimeSeries(ID, contract, barSize, dataType, includeAfterHours, timeZone);
-		calendar = Calendar.getInstance(timeZone);
+		barAligner = BarAligner.forTimeZone(timeZone);
+		this.timeSeriesFactory = timeSeriesFactory;
 	}
 	
 	private Date alignToBeginningOfBar(Date date) {
-		calendar.setTime(date);
-		getBarSize().adjustCalendarToBarBeginning(calendar);
-		return calendar.getTime();
+		return barAligner.align(date, getBarSize());
 	}
 	
 	@Override
@@ -61,33 +75,49 @@ public class OHLCVirtualTimeSeries implements IOHLCTimeSeries {
 		return innerTimeSeries.isEmpty();
 	}
 	
+	/**
+	 * Add a tick to the bar it belongs to, creating the bar if needed.
+	 * When all the listeners are {@link ILatestStateSeriesListener}s the state of the bar before the update is not copied,
+	 * and they receive null as existing item.
+	 * Ticks updating an existing bar do not allocate any date.
+	 */
 	public void addTick(ITickPoint tick) {
-		Date barDate = alignToBeginningOfBar(tick.getIndex());
+		long barTime = barAligner.align(tick.getIndex().getTime(), getBarSize());
 		IOHLCPoint oldBar = null;
 		OHLCPointAccumulator newBar = null;
+		boolean barUpdated = false;
 		synchronized (this) {
 			if (innerTimeSeries.isEmpty()) {
-				newBar = new OHLCPointAccumulator(innerTimeSeries.getBarSize(), innerTimeSeries.getDataType(), barDate);
+				newBar = new OHLCPointAccumulator(innerTimeSeries.getBarSize(), innerTimeSeries.getDataType(), new Date(barTime));
 				newBar.addTick(tick);
 				innerTimeSeries.addLast(newBar);
 			} else {
 				OHLCPointAccumulator existingBar = null;
-				if (barDate.equals(innerTimeSeries.getFirst().getIndex())) {
+				if (barTime == innerTimeSeries.getFirst().getIndex().getTime()) {
 					existingBar = (OHLCPointAccumulator) innerTimeSeries.getFirst();
-				} else if (barDate.equals(innerTimeSeries.getLast().getIndex())) {
+				} else if (barTime == innerTimeSeries.getLast().getIndex().getTime()) {
 					existingBar = (OHLCPointAccumulator) innerTimeSeries.getLast();
 				}
 				if (existingBar != null) {
-					oldBar = OHLCPoint.copy(existingBar);
+					if (isExistingBarRequired()) {
+						oldBar = existingBar.snapshot();
+					}
 					existingBar.addTick(tick);
+					// the bar has been modified in place: the inner series must update its indexes
+					if (existingBar == innerTimeSeries.getLast()) {
+						innerTimeSeries.updateTail(existingBar);
+					} else {
+						innerTimeSeries.updateHead(existingBar);
+					}
 					newBar = existingBar;
+					barUpdated = true;
 				} else {
-					if (barDate.before(innerTimeSeries.getFirst().getIndex())) {
-						newBar = new OHLCPointAccumulator(innerTimeSeries.getBarSize(), innerTimeSeries.getDataType(), barDate);
+					if (barTime < innerTimeSeries.getFirst().getIndex().getTime()) {
+						newBar = new OHLCPointAccumulator(innerTimeSeries.getBarSize(), innerTimeSeries.getDataType(), new Date(barTime));
 						newBar.addTick(tick);
 						innerTimeSeries.addFirst(newBar);
-					} else if (barDate.after(innerTimeSeries.getLast().getIndex())) {
-						newBar = new OHLCPointAccumulator(innerTimeSeries.getBarSize(), innerTimeSeries.getDataType(), barDate);
+					} else if (barTime > innerTimeSeries.getLast().getIndex().getTime()) {
+						newBar = new OHLCPointAccumulator(innerTimeSeries.getBarSize(), innerTimeSeries.getDataType(), new Date(barTime));
 						newBar.addTick(tick);
 						innerTimeSeries.addLast(newBar);
 					} else {
@@ -96,51 +126,123 @@ public class OHLCVirtualTimeSeries implements IOHLCTimeSeries {
 				}
 			}
 		}
-		if (oldBar != null) {
+		if (barUpdated) {
 			notifyBarUpdated(oldBar, newBar);
 		} else if (newBar != null) {
 			notifyBarAdded(newBar);
 		}
 	}
+
+	private boolean isExistingBarRequired() {
+		for (ISeriesListener<Date, Double> listener : listeners) {
+			if (!(listener instanceof ILatestStateSeriesListener<?, ?>)) {
+				return true;
+			}
+		}
+		return false;
+	}
 	
 	public void addOrUpdateBar(IOHLCPoint bar) {
-		Date barDate = alignToBeginningOfBar(bar.getIndex());
-		if (getBarSize() != BarSize.ONE_DAY && !barDate.equals(bar.getIndex())) {
-			logger.log(Level.WARNING, "Bar date: " + bar.getIndex() + " not aligned with reference date: " + barDate);
-		}
+		Date barDate = alignBarDate(bar);
 		OHLCPointAccumulator newBar = OHLCPointAccumulator.fromIOHLCPoint(bar, innerTimeSeries.getDataType());
-		IOHLCPoint oldBar = null;
+		IOHLCPoint result;
 		synchronized (this) {
-			if (innerTimeSeries.isEmpty()) {
-				innerTimeSeries.addLast(newBar);
-			} else {
-				IOHLCPoint existingBar = null;
-				if (barDate.equals(innerTimeSeries.getFirst().getIndex())) {
-					existingBar = (IOHLCPoint) innerTimeSeries.getFirst();
-				} else if (barDate.equals(innerTimeSeries.getLast().getIndex())) {
-					existingBar = (IOHLCPoint) innerTimeSeries.getLast();
-				}
-				if (existingBar != null) {
-					oldBar = OHLCPoint.copy(existingBar);
-					innerTimeSeries.updateTail(newBar);
-				} else {
-					if (barDate.before(innerTimeSeries.getFirst().getIndex())) {
-						innerTimeSeries.addFirst(newBar);
-					} else if (barDate.after(innerTimeSeries.getLast().getIndex())) {
-						innerTimeSeries.addLast(newBar);
-					} else {
-						newBar = null; // ignoring already present historical data
-					}
+			result = mergeBar(newBar, barDate);
+		}
+		if (result == newBar) {
+			notifyBarAdded(newBar);
+		} else if (result != null) {
+			notifyBarUpdated(result, newBar);
+		}
+	}
+
+	/**
+	 * Merge a sequence of bars, sorted by date.
+	 * The listeners are notified once for all the new bars, see {@link SeriesListenerSupport#notifyItemsAdded}
+	 */
+	public void addOrUpdateBars(List<? extends IOHLCPoint> bars) {
+		List<IOHLCPoint> prependedBars = new ArrayList<IOHLCPoint>();
+		List<IOHLCPoint> appendedBars = new ArrayList<IOHLCPoint>();
+		List<IOHLCPoint> oldBars = new ArrayList<IOHLCPoint>();
+		List<IOHLCPoint> updatedBars = new ArrayList<IOHLCPoint>();
+		List<OHLCPointAccumulator> newBars = new ArrayList<OHLCPointAccumulator>(bars.size());
+		List<Date> barDates = new ArrayList<Date>(bars.size());
+		for (IOHLCPoint bar : bars) {
+			barDates.add(alignBarDate(bar));
+			newBars.add(OHLCPointAccumulator.fromIOHLCPoint(bar, innerTimeSeries.getDataType()));
+		}
+		synchronized (this) {
+			// bars preceding the current head are merged starting from the nearest one
+			int split = 0;
+			if (!innerTimeSeries.isEmpty()) {
+				Date firstDate = innerTimeSeries.getFirst().getIndex();
+				while (split < barDates.size() && barDates.get(split).before(firstDate)) {
+					split++;
 				}
 			}
+			for (int i = split - 1; i >= 0; i--) {
+				mergeBar(newBars.get(i), barDates.get(i), prependedBars, oldBars, updatedBars);
+			}
+			for (int i = split; i < newBars.size(); i++) {
+				mergeBar(newBars.get(i), barDates.get(i), appendedBars, oldBars, updatedBars);
+			}
 		}
-		if (oldBar != null) {
-			notifyBarUpdated(oldBar, newBar);
-		} else if (newBar != null) {
-			notifyBarAdded(newBar);
+		for (int i = 0; i < oldBars.size(); i++) {
+			notifyBarUpdated(oldBars.get(i), updatedBars.get(i));
 		}
+		Collections.reverse(prependedBars);
+		prependedBars.addAll(appendedBars);
+		SeriesListenerSupport.notifyItemsAdded(listeners, prependedBars);
 	}
-	
+
+	private Date alignBarDate(IOHLCPoint bar) {
+		Date barDate = alignToBeginningOfBar(bar.getIndex());
+		if (getBarSize() != BarSize.ONE_DAY && !barDate.equals(bar.getIndex())) {
+			logger.log(Level.WARNING, "Bar date: " + bar.getIndex() + " not aligned with reference date: " + barDate);
+		}
+		return barDate;
+	}
+
+	private void mergeBar(OHLCPointAccumulator newBar, Date barDate, List<IOHLCPoint> addedBars, List<IOHLCPoint> oldBars, List<IOHLCPoint> updatedBars) {
+		IOHLCPoint result = mergeBar(newBar, barDate);
+		if (result == newBar) {
+			addedBars.add(newBar);
+		} else if (result != null) {
+			oldBars.add(result);
+			updatedBars.add(newBar);
+		}
+	}
+
+	/**
+	 * Must be called with the lock held
+	 * @return the new bar if it has been added; a copy of the existing bar if it has been updated; null if the new bar has been ignored
+	 */
+	private IOHLCPoint mergeBar(OHLCPointAccumulator newBar, Date barDate) {
+		if (innerTimeSeries.isEmpty()) {
+			innerTimeSeries.addLast(newBar);
+			return newBar;
+		}
+		if (barDate.equals(innerTimeSeries.getLast().getIndex())) {
+			IOHLCPoint oldBar = ((OHLCPointAccumulator) innerTimeSeries.getLast()).snapshot();
+			innerTimeSeries.updateTail(newBar);
+			return oldBar;
+		}
+		if (barDate.equals(innerTimeSeries.getFirst().getIndex())) {
+			IOHLCPoint oldBar = ((OHLCPointAccumulator) innerTimeSeries.getFirst()).snapshot();
+			innerTimeSeries.updateHead(newBar);
+			return oldBar;
+		}
+		if (barDate.before(innerTimeSeries.getFirst().getIndex())) {
+			innerTimeSeries.addFirst(newBar);
+			return newBar;
+		}
+		if (barDate.after(innerTimeSeries.getLast().getIndex())) {
+			innerTimeSeries.addLast(newBar);
+			return newBar;
+		}
+		return null; // ignoring already present historical data
+	}
+
 	private void notifyBarAdded(IOHLCPoint bar) {
 		for (ISeriesListener<Date, Double> listener : listeners) {
 			listener.onItemAdded(bar);
@@ -157,6 +259,19 @@ public class OHLCVirtualTimeSeries implements IOHLCTimeSeries {
 	public long getTimestamp() {
 		return innerTimeSeries.getTimestamp();
 	}
+
+	@Override
+	public long getVersion() {
+		return innerTimeSeries.getVersion();
+	}
+
+	/**
+	 * Only the bars actually stored are reported: the virtual bars filling the gaps are not included
+	 */
+	@Override
+	public ISeriesChanges<Date, Double, IOHLCPoint> changesSince(long version) {
+		return innerTimeSeries.changesSince(version);
+	}
 	
 	@Override
 	public IContract getContract() {
@@ -198,6 +313,41 @@ public class OHLCVirtualTimeSeries implements IOHLCTimeSeries {
 		return (IOHLCPoint) innerTimeSeries.getMaximum();
 	}
 
+	@Override
+	public IOHLCPoint getMinimum(Date from, Date to) {
+		return (IOHLCPoint) innerTimeSeries.getMinimum(from, to);
+	}
+
+	@Override
+	public IOHLCPoint getMaximum(Date from, Date to) {
+		return (IOHLCPoint) innerTimeSeries.getMaximum(from, to);
+	}
+
+	@Override
+	public INavigableTimeSeries<IOHLCPoint> subSeries(Date from, Date to) {
+		return innerTimeSeries.subSeries(from, to);
+	}
+
+	@Override
+	public INavigableTimeSeries<IOHLCPoint> headSeries(Date to) {
+		return innerTimeSeries.headSeries(to);
+	}
+
+	@Override
+	public INavigableTimeSeries<IOHLCPoint> tailSeries(Date from) {
+		return innerTimeSeries.tailSeries(from);
+	}
+
+	@Override
+	public IOHLCPoint floor(Date index) {
+		return innerTimeSeries.floor(index);
+	}
+
+	@Override
+	public IOHLCPoint ceiling(Date index) {
+		return innerTimeSeries.ceiling(index);
+	}
+
 	@Override
 	public void addSeriesListener(ISeriesListener<Date, Double> listener) {
 		listeners.add(listener);
@@ -235,7 +385,7 @@ public class OHLCVirtualTimeSeries implements IOHLCTimeSeries {
 
 	@Override
 	public IMutableSeries<Date, Double, IOHLCPoint> createEmptyMutableSeries(String ID) {
-		return innerTimeSeries.createEmptyMutableSeries(ID);
+		return timeSeriesFactory.createOHLCTimeSeries(ID, getContract(), getBarSize(), getDataType(), isIncludeAfterHours(), getTimeZone());
 	}
 
 	@Override
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.ISeries;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Live result of a {@link SeriesPipeline}, bound to its source series.
+ * Each notification of the source series runs the pipeline again, and the result is reconciled with the previous one:
+ * data-points produced at the head are evicted, new data-points are appended, and a changed last data-point is updated,
+ * so that the listeners of the result are only notified of what has changed.
+ * A change of the result that does not fit these cases, such as an update of a data-point before the last one, replaces
+ * the whole content, with an eviction followed by an addition.
+ * The pipeline is run while holding the lock of the result, and the listeners are notified after releasing it,
+ * in the thread notifying the source series.
+ * The result must be closed when not needed anymore, to stop listening to the source series.
+ *
+ * @param <P> the type of the data-points
+ */
+public class PipelineTimeSeries<P extends ISeriesPoint<Date, Double>> implements INavigableTimeSeries<P>, IBatchSeriesListener<Date, Double>, IEvictionSeriesListener<Date, Double> {
+	private final SeriesPipeline pipeline;
+	private final ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> source;
+	private final SeriesPipeline.ResultBuilder<P> builder;
+	private final ArrayTimeSeries<P> result;
+	// notifications of the changes of the result, delivered after releasing the lock
+	private final DeferredSeriesNotifier notifier = new DeferredSeriesNotifier();
+	private boolean closed;
+
+	PipelineTimeSeries(SeriesPipeline pipeline, ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> source, SeriesPipeline.ResultBuilder<P> builder) {
+		this.pipeline = pipeline;
+		this.source = source;
+		this.builder = builder;
+		result = builder.createSeries();
+		result.addSeriesListener(notifier);
+		synchronized (this) {
+			// notifications arriving while the result is filled wait for the lock, and run the pipeline again
+			source.addSeriesListener(this);
+			result.addAll(pipeline.run(builder));
+			// nobody can listen to the result yet
+			notifier.takePendingEvents();
+		}
+	}
+
+	/**
+	 * @return the pipeline producing this result
+	 */
+	public SeriesPipeline getPipeline() {
+		return pipeline;
+	}
+
+	/**
+	 * Stop following the source series. The content of the result is not changed anymore
+	 */
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		source.removeSeriesListener(this);
+	}
+
+	@Override
+	public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+		refresh();
+	}
+
+	@Override
+	public void onItemsAdded(List<? extends ISeriesPoint<Date, Double>> newItems) {
+		refresh();
+	}
+
+	@Override
+	public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+		refresh();
+	}
+
+	@Override
+	public void onItemsEvicted(Date index, int count) {
+		refresh();
+	}
+
+	@Override
+	public TimeZone getTimeZone() {
+		return result.getTimeZone();
+	}
+
+	@Override
+	public long getInterval() {
+		return result.getInterval();
+	}
+
+	@Override
+	public INavigableTimeSeries<P> subSeries(Date from, Date to) {
+		return result.subSeries(from, to);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> headSeries(Date to) {
+		return result.headSeries(to);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> tailSeries(Date from) {
+		return result.tailSeries(from);
+	}
+
+	@Override
+	public P floor(Date index) {
+		return result.floor(index);
+	}
+
+	@Override
+	public P ceiling(Date index) {
+		return result.ceiling(index);
+	}
+
+	@Override
+	public P getMinimum(Date from, Date to) {
+		return result.getMinimum(from, to);
+	}
+
+	@Override
+	public P getMaximum(Date from, Date to) {
+		return result.getMaximum(from, to);
+	}
+
+	@Override
+	public int size() {
+		return result.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return result.isEmpty();
+	}
+
+	@Override
+	public Iterator<P> iterator() {
+		return result.iterator();
+	}
+
+	@Override
+	public Iterator<P> descendingIterator() {
+		return result.descendingIterator();
+	}
+
+	@Override
+	public P getFirst() {
+		return result.getFirst();
+	}
+
+	@Override
+	public P getLast() {
+		return result.getLast();
+	}
+
+	@Override
+	public P getMinimum() {
+		return result.getMinimum();
+	}
+
+	@Override
+	public P getMaximum() {
+		return result.getMaximum();
+	}
+
+	@Override
+	public void addSeriesListener(ISeriesListener<Date, Double> listener) {
+		notifier.addListener(listener);
+	}
+
+	@Override
+	public void removeSeriesListener(ISeriesListener<Date, Double> listener) {
+		notifier.removeListener(listener);
+	}
+
+	@Override
+	public long getTimestamp() {
+		return result.getTimestamp();
+	}
+
+	@Override
+	public boolean isEnforceStrictSequence() {
+		return result.isEnforceStrictSequence();
+	}
+
+	@Override
+	public IMutableSeries<Date, Double, P> createEmptyMutableSeries(String ID) {
+		return result.createEmptyMutableSeries(ID);
+	}
+
+	@Override
+	public String getPersistentID() {
+		return result.getPersistentID();
+	}
+
+	private void refresh() {
+		List<DeferredSeriesNotifier.Event> events;
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			reconcile(pipeline.run(builder));
+			events = notifier.takePendingEvents();
+		}
+		notifier.notifyListeners(events);
+	}
+
+	private void reconcile(List<P> points) {
+		if (points.isEmpty()) {
+			evictAll();
+			return;
+		}
+		result.evictBefore(points.get(0).getIndex(), Integer.MAX_VALUE);
+		// length of the common prefix of the previous and the new result
+		int size = result.size();
+		int common = 0;
+		Iterator<P> previous = result.iterator();
+		while (common < size && common < points.size()) {
+			P previousPoint = previous.next();
+			P point = points.get(common);
+			if (!previousPoint.getIndex().equals(point.getIndex()) || !builder.sameValues(previousPoint, point)) {
+				break;
+			}
+			common++;
+		}
+		if (common == size - 1 && common < points.size() && result.getLast().getIndex().equals(points.get(common).getIndex())) {
+			result.updateTail(points.get(common));
+			common++;
+		} else if (common < size) {
+			// the previous content is not a prefix of the new result
+			evictAll();
+			common = 0;
+		}
+		if (common < points.size()) {
+			result.addAll(points.subList(common, points.size()));
+		}
+	}
+
+	private void evictAll() {
+		if (!result.isEmpty()) {
+			result.evictBefore(new Date(result.getLast().getIndex().getTime() + 1), Integer.MAX_VALUE);
+		}
+	}
+}
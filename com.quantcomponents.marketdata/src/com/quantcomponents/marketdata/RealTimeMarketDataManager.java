@@ -10,9 +10,13 @@
 package com.quantcomponents.marketdata;
 
 import java.net.ConnectException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,13 +28,21 @@ import com.quantcomponents.marketdata.IMarketDataProvider.ITickListener;
 public abstract class RealTimeMarketDataManager extends MarketDataManager implements IRealTimeMarketDataManager {
 	
 	/**
-	 * Fills a mutable time series with real-time data
+	 * Fills a mutable time series with real-time data.
+	 * When an executor is provided, the ticks are queued by the provider thread and appended by the executor,
+	 * in batches of the ticks received in the meantime.
 	 */
 	public class RealtimeDataFeeder {
 		private final IRealTimeMarketDataProvider provider;
-		private boolean autoUpdate;
+		private volatile boolean autoUpdate;
 		private final IMutableTickTimeSeries timeSeries;
 		private final DataType dataType;
+		private final Executor executor;
+		private final Runnable drainTask = new DrainTask();
+		private final Object pendingLock = new Object();
+		private List<ITickPoint> pendingTicks = new ArrayList<ITickPoint>();
+		private List<ITickPoint> drainedTicks = new ArrayList<ITickPoint>();
+		private boolean drainScheduled;
 		private ITickListener listener;
 		
 		private class TickListener implements IMarketDataProvider.ITickListener {
@@ -43,19 +55,88 @@ public abstract class RealTimeMarketDataManager extends MarketDataManager implem
 				if (!dataType.includes(tick.getDataType())) {
 					return;
 				}
-				ITickPoint lastExistingTick = (ITickPoint) timeSeries.getLast();
-				if (lastExistingTick != null && tick.getIndex().before(lastExistingTick.getIndex())) {
-					logger.log(Level.WARNING, "Received old tick: " + tick.getIndex() + "; last available: " + lastExistingTick.getIndex());
+				if (executor == null) {
+					append(tick);
 				} else {
-					timeSeries.addLast(tick);
+					enqueue(tick);
+				}
+			}
+		}
+		
+		/**
+		 * Appends the ticks queued so far, then reschedules itself if more have arrived,
+		 * so that the other contracts sharing the executor are not starved
+		 */
+		private class DrainTask implements Runnable {
+			@Override
+			public void run() {
+				List<ITickPoint> ticks;
+				synchronized (pendingLock) {
+					ticks = pendingTicks;
+					pendingTicks = drainedTicks;
+					drainedTicks = ticks;
+				}
+				for (int i = 0; i < ticks.size(); i++) {
+					if (isRunning()) { // ticks still queued when the feeder is stopped are discarded
+						append(ticks.get(i));
+					}
+				}
+				ticks.clear();
+				boolean morePending;
+				synchronized (pendingLock) {
+					morePending = !pendingTicks.isEmpty();
+					drainScheduled = morePending;
+				}
+				if (morePending) {
+					schedule();
 				}
 			}
 		}
 		
 		public RealtimeDataFeeder(IRealTimeMarketDataProvider provider, IMutableTickTimeSeries timeSeries, DataType dataType) {
+			this(provider, timeSeries, dataType, null);
+		}
+
+		/**
+		 * @param executor the executor appending the ticks to the series; if null the ticks are appended by the provider thread
+		 */
+		public RealtimeDataFeeder(IRealTimeMarketDataProvider provider, IMutableTickTimeSeries timeSeries, DataType dataType, Executor executor) {
 			this.provider = provider;
 			this.timeSeries = timeSeries;
 			this.dataType = dataType;
+			this.executor = executor;
+		}
+
+		private void append(ITickPoint tick) {
+			ITickPoint lastExistingTick = (ITickPoint) timeSeries.getLast();
+			if (lastExistingTick != null && tick.getIndex().before(lastExistingTick.getIndex())) {
+				logger.log(Level.WARNING, "Received old tick: " + tick.getIndex() + "; last available: " + lastExistingTick.getIndex());
+			} else {
+				timeSeries.addLast(tick);
+			}
+		}
+
+		private void enqueue(ITickPoint tick) {
+			synchronized (pendingLock) {
+				pendingTicks.add(tick);
+				if (drainScheduled) {
+					return;
+				}
+				drainScheduled = true;
+			}
+			schedule();
+		}
+
+		private void schedule() {
+			try {
+				executor.execute(drainTask);
+			} catch (RejectedExecutionException e) {
+				logger.log(Level.SEVERE, "Ticks discarded for: " + timeSeries.getContract() + ": event loop terminated", e);
+				synchronized (pendingLock) {
+					pendingTicks.clear();
+					drainScheduled = false;
+				}
+			}
 		}
 
 		public void start() throws ConnectException, RequestFailedException {
@@ -81,6 +162,8 @@ public abstract class RealTimeMarketDataManager extends MarketDataManager implem
 
 	private static final Logger logger = Logger.getLogger(RealTimeMarketDataManager.class.getName());
 	protected final Map<IStockDatabase, RealtimeDataFeeder> stockDbFeeders = new ConcurrentHashMap<IStockDatabase, RealtimeDataFeeder>();
+	protected final Map<MultiResolutionAggregator, RealtimeDataFeeder> aggregatorFeeders = new ConcurrentHashMap<MultiResolutionAggregator, RealtimeDataFeeder>();
+	private volatile MarketDataEventLoops eventLoops;
 	
 	// Overrides superclass method (same signature) but expects a parameter of type IRealTimeMarketDataProvider
 	public void setMarketDataProvider(IMarketDataProvider marketDataProvider) {
@@ -92,6 +175,26 @@ public abstract class RealTimeMarketDataManager extends MarketDataManager implem
 		return (IRealTimeMarketDataProvider) super.getMarketDataProvider();
 	}
 
+	/**
+	 * Set the event loops appending the real-time ticks of the feeders started afterwards.
+	 * Each contract is assigned to one loop, so that its series are always updated by the same thread,
+	 * instead of the thread of the market data provider.
+	 * If not set, or set to null, the ticks are appended by the provider thread.
+	 */
+	public void setEventLoops(MarketDataEventLoops eventLoops) {
+		this.eventLoops = eventLoops;
+	}
+
+	public MarketDataEventLoops getEventLoops() {
+		return eventLoops;
+	}
+
+	private RealtimeDataFeeder createFeeder(IMutableTickTimeSeries timeSeries, DataType dataType) {
+		MarketDataEventLoops loops = eventLoops;
+		Executor executor = loops == null ? null : loops.getExecutor(timeSeries.getContract());
+		return new RealtimeDataFeeder(getMarketDataProvider(), timeSeries, dataType, executor);
+	}
+
 	@Override
 	public void removeStockDatabase(IStockDatabase stockDb) throws ConnectException, RequestFailedException {
 		RealtimeDataFeeder feeder = stockDbFeeders.remove(stockDb);
@@ -107,7 +210,7 @@ public abstract class RealTimeMarketDataManager extends MarketDataManager implem
 		synchronized (stockDb) {
 			realtimeFeeder = stockDbFeeders.get(stockDb);
 			if (realtimeFeeder == null) {
-				realtimeFeeder = new RealtimeDataFeeder(getMarketDataProvider(), stockDb.getTickTimeSeries(), stockDb.getDataType());
+				realtimeFeeder = createFeeder(stockDb.getTickTimeSeries(), stockDb.getDataType());
 				stockDbFeeders.put(stockDb, realtimeFeeder);
 			} else {
 				if (realtimeFeeder.isRunning()) {
@@ -133,6 +236,31 @@ public abstract class RealTimeMarketDataManager extends MarketDataManager implem
 		realtimeFeeder.stop();
 	}
 
+	/**
+	 * Start feeding the ticks of the aggregator contract, with a single subscription for all its bar sizes
+	 */
+	public void startRealtimeUpdate(MultiResolutionAggregator aggregator) throws ConnectException, RequestFailedException {
+		RealtimeDataFeeder realtimeFeeder = null;
+		synchronized (aggregator) {
+			realtimeFeeder = aggregatorFeeders.get(aggregator);
+			if (realtimeFeeder == null) {
+				realtimeFeeder = createFeeder(aggregator.getTickTimeSeries(), aggregator.getDataType());
+				aggregatorFeeders.put(aggregator, realtimeFeeder);
+			} else if (realtimeFeeder.isRunning()) {
+				return;
+			}
+		}
+		realtimeFeeder.start();
+	}
+
+	public void stopRealtimeUpdate(MultiResolutionAggregator aggregator) throws ConnectException {
+		RealtimeDataFeeder realtimeFeeder = aggregatorFeeders.remove(aggregator);
+		if (realtimeFeeder == null) {
+			throw new IllegalArgumentException("Aggregator " + aggregator.getPersistentID() + " has no realtime feeding");
+		}
+		realtimeFeeder.stop();
+	}
+
 	@Override
 	public boolean isRealtimeUpdate(IStockDatabase stockDb) throws ConnectException, RequestFailedException {
 		RealtimeDataFeeder realtimeFeeder = stockDbFeeders.get(stockDb);
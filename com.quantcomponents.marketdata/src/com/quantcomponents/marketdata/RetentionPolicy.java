@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import com.quantcomponents.core.model.IEvictableSeries;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Limits to the data-points kept in memory by a live series: a maximum number of data-points, a maximum age, or both.
+ * The age is measured from the last data-point of the series, not from the wall clock, so that replayed data is
+ * treated like live data.
+ * Data-points are evicted in batches of about 1/16 of the limit, so that listeners and incremental readers of the
+ * series are not notified at each new data-point: the series can therefore exceed the limits by that amount.
+ */
+public class RetentionPolicy implements Serializable {
+	private static final long serialVersionUID = -1870470351429158265L;
+	private static final int BATCH_DIVISOR = 16;
+	/**
+	 * No limits: data-points are never evicted
+	 */
+	public static final RetentionPolicy UNLIMITED = new RetentionPolicy(0, 0L);
+	private final int maxPoints;
+	private final long maxAgeMillis;
+
+	/**
+	 * @param maxPoints the maximum number of data-points; 0 for no limit
+	 * @param maxAgeMillis the maximum distance of a data-point from the last one, in milliseconds; 0 for no limit
+	 */
+	public RetentionPolicy(int maxPoints, long maxAgeMillis) {
+		if (maxPoints < 0) {
+			throw new IllegalArgumentException("Negative max points: " + maxPoints);
+		}
+		if (maxAgeMillis < 0) {
+			throw new IllegalArgumentException("Negative max age: " + maxAgeMillis);
+		}
+		this.maxPoints = maxPoints;
+		this.maxAgeMillis = maxAgeMillis;
+	}
+
+	public int getMaxPoints() {
+		return maxPoints;
+	}
+
+	public long getMaxAgeMillis() {
+		return maxAgeMillis;
+	}
+
+	public boolean isUnlimited() {
+		return maxPoints == 0 && maxAgeMillis == 0;
+	}
+
+	/**
+	 * Evict the data-points exceeding the limits
+	 * @param series the series to be trimmed
+	 * @param before only data-points preceding this date can be evicted, e.g. because the following ones are still needed
+	 * @return the number of data-points evicted
+	 */
+	public <P extends ISeriesPoint<Date, Double>> int apply(IEvictableSeries<Date, Double, P> series, Date before) {
+		int evicted = 0;
+		if (maxAgeMillis > 0) {
+			P first = series.getFirst();
+			P last = series.getLast();
+			if (first != null && last != null) {
+				long cutOff = last.getIndex().getTime() - maxAgeMillis;
+				if (first.getIndex().getTime() < cutOff - maxAgeMillis / BATCH_DIVISOR) {
+					Date bound = new Date(Math.min(cutOff, before.getTime()));
+					evicted += series.evictBefore(bound, Integer.MAX_VALUE);
+				}
+			}
+		}
+		if (maxPoints > 0) {
+			int excess = series.size() - maxPoints;
+			if (excess > maxPoints / BATCH_DIVISOR) {
+				evicted += series.evictBefore(before, excess);
+			}
+		}
+		return evicted;
+	}
+
+	@Override
+	public String toString() {
+		return isUnlimited() ? "unlimited" : "max points: " + maxPoints + "; max age: " + maxAgeMillis + "ms";
+	}
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+import java.util.Iterator;
+
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.ISeries;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.IColumnLayout;
+import com.quantcomponents.core.series.IColumnarSeries;
+
+/**
+ * Factory of primitive cursors over time series.
+ * Series implementing {@link ICursorSeries}, and views of series stored in primitive columns, are scanned natively.
+ * Other series are scanned with their iterators, and the cursor unboxes the values of each data-point.
+ */
+public class SeriesCursors {
+
+	/**
+	 * @return a cursor over the data-points of the series, from the head to the tail
+	 */
+	public static ISeriesCursor cursor(ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> series) {
+		ISeriesCursor cursor = nativeCursor(series, false);
+		return cursor != null ? cursor : new PointCursor<ISeriesPoint<Date, Double>>(series.iterator());
+	}
+
+	/**
+	 * @return a cursor over the data-points of the series, from the tail to the head
+	 */
+	public static ISeriesCursor descendingCursor(ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> series) {
+		ISeriesCursor cursor = nativeCursor(series, true);
+		return cursor != null ? cursor : new PointCursor<ISeriesPoint<Date, Double>>(series.descendingIterator());
+	}
+
+	/**
+	 * @return a cursor over the bars of the series, from the head to the tail
+	 */
+	public static IOHLCCursor ohlcCursor(ISeries<Date, Double, ? extends IOHLCPoint> series) {
+		ISeriesCursor cursor = nativeCursor(series, false);
+		return cursor instanceof IOHLCCursor ? (IOHLCCursor) cursor : new PointOHLCCursor(series.iterator());
+	}
+
+	/**
+	 * @return a cursor over the bars of the series, from the tail to the head
+	 */
+	public static IOHLCCursor descendingOHLCCursor(ISeries<Date, Double, ? extends IOHLCPoint> series) {
+		ISeriesCursor cursor = nativeCursor(series, true);
+		return cursor instanceof IOHLCCursor ? (IOHLCCursor) cursor : new PointOHLCCursor(series.descendingIterator());
+	}
+
+	/**
+	 * @return a cursor over the ticks of the series, from the head to the tail
+	 */
+	public static ITickCursor tickCursor(ISeries<Date, Double, ? extends ITickPoint> series) {
+		ISeriesCursor cursor = nativeCursor(series, false);
+		return cursor instanceof ITickCursor ? (ITickCursor) cursor : new PointTickCursor(series.iterator());
+	}
+
+	/**
+	 * @return a cursor over the ticks of the series, from the tail to the head
+	 */
+	public static ITickCursor descendingTickCursor(ISeries<Date, Double, ? extends ITickPoint> series) {
+		ISeriesCursor cursor = nativeCursor(series, true);
+		return cursor instanceof ITickCursor ? (ITickCursor) cursor : new PointTickCursor(series.descendingIterator());
+	}
+
+	private static ISeriesCursor nativeCursor(ISeries<?, ?, ?> series, boolean descending) {
+		if (series instanceof ICursorSeries<?>) {
+			ICursorSeries<?> cursorSeries = (ICursorSeries<?>) series;
+			return descending ? cursorSeries.descendingCursor() : cursorSeries.cursor();
+		}
+		if (series instanceof TimeSeriesView<?>) {
+			series = ((TimeSeriesView<?>) series).getView();
+		}
+		if (series instanceof IColumnarSeries<?, ?, ?>) {
+			IColumnarSeries<?, ?, ?> columnarSeries = (IColumnarSeries<?, ?, ?>) series;
+			IColumnLayout<?, ?, ?> layout = columnarSeries.getLayout();
+			if (layout instanceof OHLCPointLayout) {
+				return new ColumnOHLCCursor(descending ? columnarSeries.descendingColumnCursor() : columnarSeries.columnCursor(null));
+			}
+			if (layout instanceof TickPointLayout) {
+				return new ColumnTickCursor(descending ? columnarSeries.descendingColumnCursor() : columnarSeries.columnCursor(null));
+			}
+		}
+		return null;
+	}
+
+	private static double toDouble(Double value) {
+		return value == null ? Double.NaN : value;
+	}
+
+	/**
+	 * Adapter for the series that do not support cursors natively
+	 */
+	private static class PointCursor<P extends ISeriesPoint<Date, Double>> implements ISeriesCursor {
+		private final Iterator<? extends P> iterator;
+		protected P point;
+
+		PointCursor(Iterator<? extends P> iterator) {
+			this.iterator = iterator;
+		}
+
+		@Override
+		public boolean advance() {
+			if (!iterator.hasNext()) {
+				return false;
+			}
+			point = iterator.next();
+			return true;
+		}
+
+		@Override
+		public long indexMillis() {
+			return point.getIndex().getTime();
+		}
+
+		@Override
+		public double value() {
+			return toDouble(point.getValue());
+		}
+
+		@Override
+		public double bottomValue() {
+			return toDouble(point.getBottomValue());
+		}
+
+		@Override
+		public double topValue() {
+			return toDouble(point.getTopValue());
+		}
+	}
+
+	private static class PointOHLCCursor extends PointCursor<IOHLCPoint> implements IOHLCCursor {
+
+		PointOHLCCursor(Iterator<? extends IOHLCPoint> iterator) {
+			super(iterator);
+		}
+
+		@Override
+		public double open() {
+			return toDouble(point.getOpen());
+		}
+
+		@Override
+		public double high() {
+			return toDouble(point.getHigh());
+		}
+
+		@Override
+		public double low() {
+			return toDouble(point.getLow());
+		}
+
+		@Override
+		public double close() {
+			return toDouble(point.getClose());
+		}
+
+		@Override
+		public long volume() {
+			return point.getVolume() == null ? 0 : point.getVolume();
+		}
+	}
+
+	private static class PointTickCursor extends PointCursor<ITickPoint> implements ITickCursor {
+
+		PointTickCursor(Iterator<? extends ITickPoint> iterator) {
+			super(iterator);
+		}
+
+		@Override
+		public int size() {
+			return point.getSize() == null ? 0 : point.getSize();
+		}
+
+		@Override
+		public DataType dataType() {
+			return point.getDataType();
+		}
+
+		@Override
+		public ITickPoint toTickPoint() {
+			return point;
+		}
+	}
+}
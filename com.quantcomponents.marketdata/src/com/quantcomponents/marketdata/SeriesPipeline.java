@@ -0,0 +1,917 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.calendar.BarAligner;
+import com.quantcomponents.core.calendar.ITradingSchedule;
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.INavigableSeries;
+import com.quantcomponents.core.model.ISeries;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.SimplePoint;
+import com.quantcomponents.core.series.SimplePointLayout;
+
+/**
+ * Lazy composition of filter, window, map and resample stages over a time series.
+ * Building a pipeline does not read the source series: stages are only recorded, and each terminal operation
+ * runs all of them in a single pass over a primitive cursor, without intermediate series.
+ * Window stages preceding the first resampling are resolved before the scan: date ranges are located by binary
+ * search when the source is an {@link INavigableSeries}, and tails by a backward scan that stops after the
+ * requested number of data-points.
+ * <br>
+ * Each stage sees the data-points through an {@link IOHLCCursor}: data-points that are not bars are presented as
+ * bars with open and close equal to the value, high equal to the top value and low equal to the bottom value.
+ * Mapped data-points have all the values equal to the result of the function; resampled data-points are bars.
+ * <br>
+ * Pipelines are immutable, and can be shared: each stage returns a new pipeline, and each terminal operation
+ * works on a snapshot of the source series taken when it is called.
+ * <br>
+ * Consumers that need to follow the source series, such as charts and trading agents, can share a live result,
+ * see {@link #toLiveTimeSeries()} and {@link #toLiveOHLCTimeSeries()}: it is kept up to date by the notifications
+ * of the source series, and notifies its own listeners of the data-points that change.
+ */
+public class SeriesPipeline {
+	private final ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> source;
+	private final List<Stage> stages;
+
+	private SeriesPipeline(ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> source, List<Stage> stages) {
+		this.source = source;
+		this.stages = stages;
+	}
+
+	/**
+	 * @param source the source series
+	 * @return a pipeline with no stages, returning the data-points of the source series
+	 */
+	public static SeriesPipeline from(ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> source) {
+		return new SeriesPipeline(source, Collections.<Stage>emptyList());
+	}
+
+	/**
+	 * Keep only the data-points within trading hours
+	 */
+	public SeriesPipeline tradingTime(ITradingSchedule tradingSchedule) {
+		return append(new TradingTimeStage(tradingSchedule));
+	}
+
+	/**
+	 * Keep only the data-points accepted by the filter
+	 */
+	public SeriesPipeline filter(ICursorFilter filter) {
+		return append(new FilterStage(filter));
+	}
+
+	/**
+	 * Keep only the data-points from the start date onwards
+	 * @param startDate the first date, inclusive
+	 */
+	public SeriesPipeline since(Date startDate) {
+		return append(new RangeStage(startDate.getTime(), Long.MAX_VALUE));
+	}
+
+	/**
+	 * Keep only the data-points between two dates
+	 * @param startDate the first date, inclusive
+	 * @param endDate the last date, exclusive
+	 */
+	public SeriesPipeline between(Date startDate, Date endDate) {
+		return append(new RangeStage(startDate.getTime(), endDate.getTime()));
+	}
+
+	/**
+	 * Keep only the last data-points
+	 * @param numPoints the maximum number of data-points to be kept
+	 */
+	public SeriesPipeline tail(int numPoints) {
+		if (numPoints < 0) {
+			throw new IllegalArgumentException("Number of points must not be negative: " + numPoints);
+		}
+		return append(new TailStage(numPoints));
+	}
+
+	/**
+	 * Replace the values of the data-points with the result of a function
+	 */
+	public SeriesPipeline map(ICursorFunction function) {
+		return append(new MapStage(function));
+	}
+
+	/**
+	 * Consolidate the data-points into bars of the specified size, aligned in the time zone of the source series
+	 */
+	public SeriesPipeline resample(BarSize barSize) {
+		return append(new ResampleStage(barSize));
+	}
+
+	/**
+	 * @return a cursor running the pipeline over a snapshot of the source series
+	 */
+	public ISeriesCursor cursor() {
+		return open();
+	}
+
+	/**
+	 * @return a cursor running the pipeline over a snapshot of the source series
+	 * @throws IllegalStateException if the result of the pipeline is not made of bars
+	 */
+	public IOHLCCursor ohlcCursor() {
+		if (outputBarSize() == null) {
+			throw new IllegalStateException("Pipeline output is not made of bars");
+		}
+		return open();
+	}
+
+	/**
+	 * Run the pipeline and store its result in a new series, whose data-points only keep the value
+	 * @return a series that can be shared by all the consumers of the result
+	 */
+	public INavigableTimeSeries<SimplePoint> toTimeSeries() {
+		ResultBuilder<SimplePoint> builder = new ValueResultBuilder();
+		ArrayTimeSeries<SimplePoint> result = builder.createSeries();
+		result.addAll(run(builder));
+		return result;
+	}
+
+	/**
+	 * Run the pipeline and store its result in a new series of bars
+	 * @return a series that can be shared by all the consumers of the result
+	 * @throws IllegalStateException if the result of the pipeline is not made of bars
+	 */
+	public INavigableTimeSeries<IOHLCPoint> toOHLCTimeSeries() {
+		ResultBuilder<IOHLCPoint> builder = new BarResultBuilder();
+		ArrayTimeSeries<IOHLCPoint> result = builder.createSeries();
+		result.addAll(run(builder));
+		return result;
+	}
+
+	/**
+	 * Run the pipeline, and run it again each time the source series notifies a change.
+	 * The result is the same as {@link #toTimeSeries()}, and can be shared by all the consumers following the source series;
+	 * it must be closed when not needed anymore, to stop listening to the source series
+	 */
+	public PipelineTimeSeries<SimplePoint> toLiveTimeSeries() {
+		return new PipelineTimeSeries<SimplePoint>(this, source, new ValueResultBuilder());
+	}
+
+	/**
+	 * Run the pipeline, and run it again each time the source series notifies a change.
+	 * The result is the same as {@link #toOHLCTimeSeries()}, and can be shared by all the consumers following the source series;
+	 * it must be closed when not needed anymore, to stop listening to the source series
+	 * @throws IllegalStateException if the result of the pipeline is not made of bars
+	 */
+	public PipelineTimeSeries<IOHLCPoint> toLiveOHLCTimeSeries() {
+		return new PipelineTimeSeries<IOHLCPoint>(this, source, new BarResultBuilder());
+	}
+
+	/**
+	 * Run the pipeline over a snapshot of the source series
+	 * @return the data-points produced by the pipeline, in ascending order
+	 */
+	<P extends ISeriesPoint<Date, Double>> List<P> run(ResultBuilder<P> builder) {
+		List<P> points = new ArrayList<P>();
+		IOHLCCursor cursor = open();
+		while (cursor.advance()) {
+			points.add(builder.point(cursor));
+		}
+		return points;
+	}
+
+	private SeriesPipeline append(Stage stage) {
+		List<Stage> newStages = new ArrayList<Stage>(stages.size() + 1);
+		newStages.addAll(stages);
+		newStages.add(stage);
+		return new SeriesPipeline(source, Collections.unmodifiableList(newStages));
+	}
+
+	/**
+	 * Fuse the stages into a chain of cursors over a snapshot of the source.
+	 * Leading stages that do not change the abscissas are resolved into a range of the source and a chain
+	 * of row stages; the following stages are chained as they are.
+	 */
+	private IOHLCCursor open() {
+		ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> snapshot = source;
+		if (source instanceof INavigableSeries<?, ?, ?>) {
+			snapshot = ((INavigableSeries<Date, Double, ? extends ISeriesPoint<Date, Double>>) source).subSeries(null, null);
+		}
+		long from = Long.MIN_VALUE;
+		long to = Long.MAX_VALUE;
+		List<Stage> rowStages = new ArrayList<Stage>();
+		int next = 0;
+		for (; next < stages.size(); next++) {
+			Stage stage = stages.get(next);
+			if (stage instanceof RangeStage) {
+				from = Math.max(from, ((RangeStage) stage).from);
+				to = Math.min(to, ((RangeStage) stage).to);
+			} else if (stage instanceof TailStage) {
+				int numPoints = ((TailStage) stage).numPoints;
+				IOHLCCursor cursor = chain(sourceCursor(snapshot, from, to, true), rowStages);
+				int count = 0;
+				long first = to;
+				while (count < numPoints && cursor.advance()) {
+					first = cursor.indexMillis();
+					count++;
+				}
+				from = Math.max(from, first);
+			} else if (stage instanceof ResampleStage) {
+				break;
+			} else {
+				rowStages.add(stage);
+			}
+		}
+		IOHLCCursor cursor = chain(sourceCursor(snapshot, from, to, false), rowStages);
+		return chain(cursor, stages.subList(next, stages.size()));
+	}
+
+	private IOHLCCursor chain(IOHLCCursor cursor, List<Stage> chainedStages) {
+		for (Stage stage : chainedStages) {
+			cursor = stage.open(cursor, this);
+		}
+		return cursor;
+	}
+
+	private IOHLCCursor sourceCursor(ISeries<Date, Double, ? extends ISeriesPoint<Date, Double>> snapshot, long from, long to, boolean descending) {
+		if (from >= to) {
+			return new RangeCursor(new SourceCursor(SeriesCursors.cursor(snapshot)), from, to, descending); // empty
+		}
+		boolean navigable = snapshot instanceof INavigableSeries<?, ?, ?>;
+		if (navigable && (from != Long.MIN_VALUE || to != Long.MAX_VALUE)) {
+			snapshot = ((INavigableSeries<Date, Double, ? extends ISeriesPoint<Date, Double>>) snapshot).subSeries(
+					from == Long.MIN_VALUE ? null : new Date(from), to == Long.MAX_VALUE ? null : new Date(to));
+		}
+		ISeriesCursor cursor;
+		ISeriesPoint<Date, Double> first = snapshot.getFirst();
+		// series are homogeneous: the type of the first data-point is the type of all of them
+		if (first instanceof IOHLCPoint) {
+			@SuppressWarnings("unchecked")
+			ISeries<Date, Double, ? extends IOHLCPoint> bars = (ISeries<Date, Double, ? extends IOHLCPoint>) snapshot;
+			cursor = descending ? SeriesCursors.descendingOHLCCursor(bars) : SeriesCursors.ohlcCursor(bars);
+		} else if (first instanceof ITickPoint) {
+			@SuppressWarnings("unchecked")
+			ISeries<Date, Double, ? extends ITickPoint> ticks = (ISeries<Date, Double, ? extends ITickPoint>) snapshot;
+			cursor = descending ? SeriesCursors.descendingTickCursor(ticks) : SeriesCursors.tickCursor(ticks);
+		} else {
+			cursor = descending ? SeriesCursors.descendingCursor(snapshot) : SeriesCursors.cursor(snapshot);
+		}
+		IOHLCCursor result = new SourceCursor(cursor);
+		return navigable ? result : new RangeCursor(result, from, to, descending);
+	}
+
+	/**
+	 * @return the size of the bars produced by the pipeline, or null if it does not produce bars
+	 */
+	private BarSize outputBarSize() {
+		BarSize barSize = null;
+		if (source instanceof IOHLCTimeSeries) {
+			barSize = ((IOHLCTimeSeries) source).getBarSize();
+		} else if (source.getFirst() instanceof IOHLCPoint) {
+			barSize = ((IOHLCPoint) source.getFirst()).getBarSize();
+		}
+		for (Stage stage : stages) {
+			if (stage instanceof MapStage) {
+				barSize = null;
+			} else if (stage instanceof ResampleStage) {
+				barSize = ((ResampleStage) stage).barSize;
+			}
+		}
+		return barSize;
+	}
+
+	private TimeZone timeZone() {
+		return source instanceof ITimeSeries<?> ? ((ITimeSeries<?>) source).getTimeZone() : TimeZone.getDefault();
+	}
+
+	private long interval() {
+		BarSize barSize = outputBarSize();
+		if (barSize != null) {
+			return barSize.getDurationInMs();
+		}
+		return source instanceof ITimeSeries<?> ? ((ITimeSeries<?>) source).getInterval() : 0L;
+	}
+
+	private static Double toDouble(double value) {
+		return Double.isNaN(value) ? null : value;
+	}
+
+	/**
+	 * Creates the series containing the result of the pipeline, and its data-points
+	 */
+	static abstract class ResultBuilder<P extends ISeriesPoint<Date, Double>> {
+		abstract ArrayTimeSeries<P> createSeries();
+		abstract P point(IOHLCCursor cursor);
+		abstract boolean sameValues(P point1, P point2);
+	}
+
+	private class ValueResultBuilder extends ResultBuilder<SimplePoint> {
+		@Override
+		ArrayTimeSeries<SimplePoint> createSeries() {
+			return new ArrayTimeSeries<SimplePoint>(source.getPersistentID(), new SimplePointLayout(), timeZone(), interval(), source.isEnforceStrictSequence());
+		}
+
+		@Override
+		SimplePoint point(IOHLCCursor cursor) {
+			return new SimplePoint(new Date(cursor.indexMillis()), toDouble(cursor.value()));
+		}
+
+		@Override
+		boolean sameValues(SimplePoint point1, SimplePoint point2) {
+			return equal(point1.getValue(), point2.getValue());
+		}
+	}
+
+	private class BarResultBuilder extends ResultBuilder<IOHLCPoint> {
+		private final BarSize barSize;
+
+		BarResultBuilder() {
+			barSize = outputBarSize();
+			if (barSize == null) {
+				throw new IllegalStateException("Pipeline output is not made of bars");
+			}
+		}
+
+		@Override
+		ArrayTimeSeries<IOHLCPoint> createSeries() {
+			return new ArrayTimeSeries<IOHLCPoint>(source.getPersistentID(), new OHLCPointLayout(barSize), timeZone(), barSize.getDurationInMs(), true);
+		}
+
+		@Override
+		IOHLCPoint point(IOHLCCursor cursor) {
+			return new OHLCPoint(barSize, new Date(cursor.indexMillis()), toDouble(cursor.open()), toDouble(cursor.high()), toDouble(cursor.low()), toDouble(cursor.close()),
+					cursor.volume(), null, null);
+		}
+
+		@Override
+		boolean sameValues(IOHLCPoint point1, IOHLCPoint point2) {
+			return equal(point1.getOpen(), point2.getOpen()) && equal(point1.getHigh(), point2.getHigh()) && equal(point1.getLow(), point2.getLow())
+					&& equal(point1.getClose(), point2.getClose()) && equal(point1.getVolume(), point2.getVolume());
+		}
+	}
+
+	private static boolean equal(Object value1, Object value2) {
+		return value1 == null ? value2 == null : value1.equals(value2);
+	}
+
+	private static abstract class Stage {
+		abstract IOHLCCursor open(IOHLCCursor input, SeriesPipeline pipeline);
+	}
+
+	private static class FilterStage extends Stage {
+		final ICursorFilter filter;
+
+		FilterStage(ICursorFilter filter) {
+			this.filter = filter;
+		}
+
+		@Override
+		IOHLCCursor open(IOHLCCursor input, SeriesPipeline pipeline) {
+			return new FilterCursor(input, filter);
+		}
+	}
+
+	private static class TradingTimeStage extends Stage {
+		final ITradingSchedule tradingSchedule;
+
+		TradingTimeStage(ITradingSchedule tradingSchedule) {
+			this.tradingSchedule = tradingSchedule;
+		}
+
+		@Override
+		IOHLCCursor open(IOHLCCursor input, SeriesPipeline pipeline) {
+			// the schedule does not keep the date: each scan reuses its own instance for all the data-points
+			final Date time = new Date();
+			return new FilterCursor(input, new ICursorFilter() {
+				@Override
+				public boolean accept(IOHLCCursor cursor) {
+					time.setTime(cursor.indexMillis());
+					return tradingSchedule.isTradingTime(time);
+				}
+			});
+		}
+	}
+
+	private static class RangeStage extends Stage {
+		final long from;
+		final long to;
+
+		RangeStage(long from, long to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		IOHLCCursor open(IOHLCCursor input, SeriesPipeline pipeline) {
+			return new RangeCursor(input, from, to, false);
+		}
+	}
+
+	private static class TailStage extends Stage {
+		final int numPoints;
+
+		TailStage(int numPoints) {
+			this.numPoints = numPoints;
+		}
+
+		@Override
+		IOHLCCursor open(IOHLCCursor input, SeriesPipeline pipeline) {
+			return new TailCursor(input, numPoints);
+		}
+	}
+
+	private static class MapStage extends Stage {
+		final ICursorFunction function;
+
+		MapStage(ICursorFunction function) {
+			this.function = function;
+		}
+
+		@Override
+		IOHLCCursor open(IOHLCCursor input, SeriesPipeline pipeline) {
+			return new MapCursor(input, function);
+		}
+	}
+
+	private static class ResampleStage extends Stage {
+		final BarSize barSize;
+
+		ResampleStage(BarSize barSize) {
+			this.barSize = barSize;
+		}
+
+		@Override
+		IOHLCCursor open(IOHLCCursor input, SeriesPipeline pipeline) {
+			return new ResampleCursor(input, barSize, pipeline.timeZone());
+		}
+	}
+
+	/**
+	 * Presents the cursor of the source series as a cursor over bars
+	 */
+	private static class SourceCursor implements IOHLCCursor {
+		private final ISeriesCursor cursor;
+		private final IOHLCCursor bars;
+		private final ITickCursor ticks;
+
+		SourceCursor(ISeriesCursor cursor) {
+			this.cursor = cursor;
+			bars = cursor instanceof IOHLCCursor ? (IOHLCCursor) cursor : null;
+			ticks = cursor instanceof ITickCursor ? (ITickCursor) cursor : null;
+		}
+
+		@Override
+		public boolean advance() {
+			return cursor.advance();
+		}
+
+		@Override
+		public long indexMillis() {
+			return cursor.indexMillis();
+		}
+
+		@Override
+		public double value() {
+			return cursor.value();
+		}
+
+		@Override
+		public double bottomValue() {
+			return cursor.bottomValue();
+		}
+
+		@Override
+		public double topValue() {
+			return cursor.topValue();
+		}
+
+		@Override
+		public double open() {
+			return bars != null ? bars.open() : cursor.value();
+		}
+
+		@Override
+		public double high() {
+			return bars != null ? bars.high() : cursor.topValue();
+		}
+
+		@Override
+		public double low() {
+			return bars != null ? bars.low() : cursor.bottomValue();
+		}
+
+		@Override
+		public double close() {
+			return bars != null ? bars.close() : cursor.value();
+		}
+
+		@Override
+		public long volume() {
+			if (bars != null) {
+				return bars.volume();
+			}
+			return ticks != null ? ticks.size() : 0;
+		}
+	}
+
+	/**
+	 * Base class of the stages that do not change the values of the data-points
+	 */
+	private static abstract class StageCursor implements IOHLCCursor {
+		protected final IOHLCCursor input;
+
+		StageCursor(IOHLCCursor input) {
+			this.input = input;
+		}
+
+		@Override
+		public long indexMillis() {
+			return input.indexMillis();
+		}
+
+		@Override
+		public double value() {
+			return input.value();
+		}
+
+		@Override
+		public double bottomValue() {
+			return input.bottomValue();
+		}
+
+		@Override
+		public double topValue() {
+			return input.topValue();
+		}
+
+		@Override
+		public double open() {
+			return input.open();
+		}
+
+		@Override
+		public double high() {
+			return input.high();
+		}
+
+		@Override
+		public double low() {
+			return input.low();
+		}
+
+		@Override
+		public double close() {
+			return input.close();
+		}
+
+		@Override
+		public long volume() {
+			return input.volume();
+		}
+	}
+
+	private static class FilterCursor extends StageCursor {
+		private final ICursorFilter filter;
+
+		FilterCursor(IOHLCCursor input, ICursorFilter filter) {
+			super(input);
+			this.filter = filter;
+		}
+
+		@Override
+		public boolean advance() {
+			while (input.advance()) {
+				if (filter.accept(input)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Restricts a sorted cursor to a range of abscissas, and stops reading it at the end of the range
+	 */
+	private static class RangeCursor extends StageCursor {
+		private final long from;
+		private final long to;
+		private final boolean descending;
+		private boolean done;
+
+		RangeCursor(IOHLCCursor input, long from, long to, boolean descending) {
+			super(input);
+			this.from = from;
+			this.to = to;
+			this.descending = descending;
+			done = from >= to;
+		}
+
+		@Override
+		public boolean advance() {
+			while (!done && input.advance()) {
+				long index = input.indexMillis();
+				if (descending ? index < from : index >= to) {
+					done = true;
+				} else if (descending ? index < to : index >= from) {
+					return true;
+				}
+			}
+			done = true;
+			return false;
+		}
+	}
+
+	private static class MapCursor extends StageCursor {
+		private final ICursorFunction function;
+		private double value;
+
+		MapCursor(IOHLCCursor input, ICursorFunction function) {
+			super(input);
+			this.function = function;
+		}
+
+		@Override
+		public boolean advance() {
+			if (!input.advance()) {
+				return false;
+			}
+			value = function.apply(input);
+			return true;
+		}
+
+		@Override
+		public double value() {
+			return value;
+		}
+
+		@Override
+		public double bottomValue() {
+			return value;
+		}
+
+		@Override
+		public double topValue() {
+			return value;
+		}
+
+		@Override
+		public double open() {
+			return value;
+		}
+
+		@Override
+		public double high() {
+			return value;
+		}
+
+		@Override
+		public double low() {
+			return value;
+		}
+
+		@Override
+		public double close() {
+			return value;
+		}
+	}
+
+	/**
+	 * Keeps the last data-points of a cursor whose length is not known in advance.
+	 * Only used after a resampling: the tails of the source are located by a backward scan instead
+	 */
+	private static class TailCursor implements IOHLCCursor {
+		private static final int INDEX = 0;
+		private static final int VALUE = 1;
+		private static final int BOTTOM = 2;
+		private static final int TOP = 3;
+		private static final int OPEN = 4;
+		private static final int HIGH = 5;
+		private static final int LOW = 6;
+		private static final int CLOSE = 7;
+		private static final int VOLUME = 8;
+		private static final int WIDTH = 9;
+		private final IOHLCCursor input;
+		private final int numPoints;
+		// circular buffer of the last rows, read after the input is exhausted
+		private long[] indexes;
+		private long[] volumes;
+		private double[] rows;
+		private int count;
+		private int position = -1;
+
+		TailCursor(IOHLCCursor input, int numPoints) {
+			this.input = input;
+			this.numPoints = numPoints;
+		}
+
+		@Override
+		public boolean advance() {
+			if (rows == null) {
+				drain();
+			}
+			if (position + 1 >= Math.min(count, numPoints)) {
+				return false;
+			}
+			position++;
+			return true;
+		}
+
+		private void drain() {
+			indexes = new long[numPoints];
+			volumes = new long[numPoints];
+			rows = new double[numPoints * WIDTH];
+			while (numPoints > 0 && input.advance()) {
+				int slot = count % numPoints;
+				int offset = slot * WIDTH;
+				indexes[slot] = input.indexMillis();
+				volumes[slot] = input.volume();
+				rows[offset + VALUE] = input.value();
+				rows[offset + BOTTOM] = input.bottomValue();
+				rows[offset + TOP] = input.topValue();
+				rows[offset + OPEN] = input.open();
+				rows[offset + HIGH] = input.high();
+				rows[offset + LOW] = input.low();
+				rows[offset + CLOSE] = input.close();
+				count++;
+			}
+		}
+
+		private int slot() {
+			int first = count > numPoints ? count % numPoints : 0;
+			return (first + position) % numPoints;
+		}
+
+		private double column(int column) {
+			return rows[slot() * WIDTH + column];
+		}
+
+		@Override
+		public long indexMillis() {
+			return indexes[slot()];
+		}
+
+		@Override
+		public double value() {
+			return column(VALUE);
+		}
+
+		@Override
+		public double bottomValue() {
+			return column(BOTTOM);
+		}
+
+		@Override
+		public double topValue() {
+			return column(TOP);
+		}
+
+		@Override
+		public double open() {
+			return column(OPEN);
+		}
+
+		@Override
+		public double high() {
+			return column(HIGH);
+		}
+
+		@Override
+		public double low() {
+			return column(LOW);
+		}
+
+		@Override
+		public double close() {
+			return column(CLOSE);
+		}
+
+		@Override
+		public long volume() {
+			return volumes[slot()];
+		}
+	}
+
+	/**
+	 * Consolidates consecutive data-points into bars, aligned by a {@link BarAligner}
+	 */
+	private static class ResampleCursor implements IOHLCCursor {
+		private final IOHLCCursor input;
+		private final BarSize barSize;
+		private final BarAligner barAligner;
+		// true when the input is positioned on the first data-point of the next bar
+		private boolean pending;
+		private boolean exhausted;
+		private long start;
+		private double open;
+		private double high;
+		private double low;
+		private double close;
+		private long volume;
+
+		ResampleCursor(IOHLCCursor input, BarSize barSize, TimeZone timeZone) {
+			this.input = input;
+			this.barSize = barSize;
+			barAligner = BarAligner.forTimeZone(timeZone);
+		}
+
+		@Override
+		public boolean advance() {
+			if (!pending) {
+				if (exhausted || !input.advance()) {
+					exhausted = true;
+					return false;
+				}
+			}
+			pending = false;
+			start = barStart(input.indexMillis());
+			long end = start + barSize.getDurationInMs();
+			open = input.open();
+			high = input.high();
+			low = input.low();
+			close = input.close();
+			volume = input.volume();
+			while (input.advance()) {
+				long index = input.indexMillis();
+				if (index >= end) {
+					if (barStart(index) != start) {
+						pending = true;
+						return true;
+					}
+					end = index + 1; // e.g. a day longer than 24 hours: check the next data-point again
+				}
+				high = max(high, input.high());
+				low = min(low, input.low());
+				close = input.close();
+				volume += input.volume();
+			}
+			exhausted = true;
+			return true;
+		}
+
+		private long barStart(long index) {
+			return barAligner.align(index, barSize);
+		}
+
+		private static double max(double current, double value) {
+			return Double.isNaN(current) || value > current ? value : current;
+		}
+
+		private static double min(double current, double value) {
+			return Double.isNaN(current) || value < current ? value : current;
+		}
+
+		@Override
+		public long indexMillis() {
+			return start;
+		}
+
+		@Override
+		public double value() {
+			return close;
+		}
+
+		@Override
+		public double bottomValue() {
+			return low;
+		}
+
+		@Override
+		public double topValue() {
+			return high;
+		}
+
+		@Override
+		public double open() {
+			return open;
+		}
+
+		@Override
+		public double high() {
+			return high;
+		}
+
+		@Override
+		public double low() {
+			return low;
+		}
+
+		@Override
+		public double close() {
+			return close;
+		}
+
+		@Override
+		public long volume() {
+			return volume;
+		}
+	}
+}
@@ -9,47 +9,66 @@
  ******************************************************************************/
 package com.quantcomponents.marketdata;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 import com.quantcomponents.core.model.BarSize;
 import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.IBatchSeriesListener;
 import com.quantcomponents.core.model.IContract;
+import com.quantcomponents.core.model.IEvictableSeries;
 import com.quantcomponents.core.model.ISeriesListener;
 import com.quantcomponents.core.model.ISeriesPoint;
 import com.quantcomponents.core.model.beans.ContractBase;
 
 /**
- * Implementation of {@link IStockDatabase}
+ * Implementation of {@link IStockDatabase}.
+ * The ticks kept in memory can be limited by a {@link RetentionPolicy}, to run live feeds for a long time.
  */
 public class StockDatabase implements IStockDatabase {
 	private final IContract contract;
 	private final BarSize barSize;
 	private final DataType dataType;
 	private final boolean includeAfterHours;
-	private final OHLCTimeSeries ohlcTimeSeries;
-	private final TickTimeSeries tickTimeSeries;
+	private final IMutableOHLCTimeSeries ohlcTimeSeries;
+	private final IMutableTickTimeSeries tickTimeSeries;
 	private final OHLCVirtualTimeSeries virtualTimeSeries;
 	private final TimeZone timeZone;
 	private final String ID;
+	private volatile RetentionPolicy tickRetentionPolicy = RetentionPolicy.UNLIMITED;
 	
 	public StockDatabase(IContract contract, DataType dataType, BarSize barSize, boolean includeAfterHours, TimeZone timeZone) {
+		this(contract, dataType, barSize, includeAfterHours, timeZone, new LinkedListTimeSeriesFactory());
+	}
+	
+	public StockDatabase(IContract contract, DataType dataType, BarSize barSize, boolean includeAfterHours, TimeZone timeZone, ITimeSeriesFactory timeSeriesFactory) {
 		ID = ContractBase.stringRepr(contract) + ";" + dataType.name() + ";" + barSize.name() + ";" + Boolean.toString(includeAfterHours) + ";" + timeZone.getID();
 		this.contract = contract;
 		this.barSize = barSize;
 		this.dataType = dataType;
 		this.includeAfterHours = includeAfterHours;
 		this.timeZone = timeZone;
-		ohlcTimeSeries = new SlaveOHLCTimeSeries(contract, dataType, barSize, includeAfterHours);
-		tickTimeSeries = new SlaveTickTimeSeries(contract, dataType, barSize.getDurationInMs());
-		virtualTimeSeries = new OHLCVirtualTimeSeries(ID, contract, dataType, barSize, includeAfterHours, timeZone);
-		ohlcTimeSeries.addSeriesListener(new ISeriesListener<Date, Double>() {
+		ohlcTimeSeries = timeSeriesFactory.createOHLCTimeSeries(ID, contract, barSize, dataType, includeAfterHours, timeZone);
+		tickTimeSeries = timeSeriesFactory.createTickTimeSeries(ID, contract, dataType, barSize.getDurationInMs(), timeZone);
+		virtualTimeSeries = new OHLCVirtualTimeSeries(ID, contract, dataType, barSize, includeAfterHours, timeZone, timeSeriesFactory);
+		ohlcTimeSeries.addSeriesListener(new IBatchSeriesListener<Date, Double>() {
 
 			@Override
 			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
 				virtualTimeSeries.addOrUpdateBar((IOHLCPoint) newItem);
 			}
 
+			@Override
+			public void onItemsAdded(List<? extends ISeriesPoint<Date, Double>> newItems) {
+				List<IOHLCPoint> bars = new ArrayList<IOHLCPoint>(newItems.size());
+				for (ISeriesPoint<Date, Double> newItem : newItems) {
+					bars.add((IOHLCPoint) newItem);
+				}
+				virtualTimeSeries.addOrUpdateBars(bars);
+			}
+
 			@Override
 			public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
 				virtualTimeSeries.addOrUpdateBar((IOHLCPoint) updatedItem);
@@ -59,6 +78,7 @@ public class StockDatabase implements IStockDatabase {
 			@Override
 			public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
 				virtualTimeSeries.addTick((ITickPoint) newItem);
+				applyTickRetention();
 			}
 
 			@Override
@@ -67,6 +87,32 @@ public class StockDatabase implements IStockDatabase {
 			}});
 	}
 
+	/**
+	 * Set the limits to the ticks kept in memory.
+	 * Only the ticks preceding the last bar of the virtual series, that have already been consolidated into bars, are evicted.
+	 * The policy is applied only if the tick series supports eviction, see {@link IEvictableSeries}: storages that are not
+	 * on the heap, e.g. {@link MappedTickTimeSeries}, keep all the ticks
+	 */
+	public void setTickRetentionPolicy(RetentionPolicy tickRetentionPolicy) {
+		this.tickRetentionPolicy = tickRetentionPolicy;
+	}
+
+	public RetentionPolicy getTickRetentionPolicy() {
+		return tickRetentionPolicy;
+	}
+
+	/**
+	 * Consolidate into the virtual series the ticks that the tick series already contained when it was created,
+	 * e.g. restored by {@link MappedTickTimeSeries} from its file: they are added before the listeners of this database
+	 * are registered. To be called once, after the OHLC history has been loaded, and before new ticks are added
+	 */
+	public void replayStoredTicks() {
+		for (ITickPoint tick : tickTimeSeries) {
+			virtualTimeSeries.addTick(tick);
+		}
+		applyTickRetention();
+	}
+
 	@Override
 	public IMutableOHLCTimeSeries getOHLCTimeSeries() {
 		return ohlcTimeSeries;
@@ -92,22 +138,6 @@ public class StockDatabase implements IStockDatabase {
 		return timeZone;
 	}
 
-	private class SlaveOHLCTimeSeries extends OHLCTimeSeries {
-		private static final long serialVersionUID = 2654593577745684284L;
-
-		public SlaveOHLCTimeSeries(IContract contract, DataType dataType, BarSize barSize, boolean includeAfterHours) {
-			super(ID, contract, barSize, dataType, includeAfterHours, timeZone);
-		}
-	}
-	
-	private class SlaveTickTimeSeries extends TickTimeSeries {
-		private static final long serialVersionUID = -8804580947127074390L;
-
-		public SlaveTickTimeSeries(IContract contract, DataType dataType, long interval) {
-			super(ID, contract, dataType, interval, timeZone);
-		}
-	}
-
 	@Override
 	public IContract getContract() {
 		return contract;
@@ -133,6 +163,18 @@ public class StockDatabase implements IStockDatabase {
 		return ID;
 	}
 	
+	@SuppressWarnings("unchecked")
+	private void applyTickRetention() {
+		RetentionPolicy policy = tickRetentionPolicy;
+		if (policy.isUnlimited() || !(tickTimeSeries instanceof IEvictableSeries<?, ?, ?>)) {
+			return;
+		}
+		IOHLCPoint currentBar = virtualTimeSeries.getLast();
+		if (currentBar != null) {
+			policy.apply((IEvictableSeries<Date, Double, ITickPoint>) tickTimeSeries, currentBar.getIndex());
+		}
+	}
+
 	public static String stringRepr(IStockDatabase stockDatabase) {
 		StringBuilder buffer = new StringBuilder();
 		buffer.append("db [");
@@ -19,6 +19,10 @@ import com.quantcomponents.core.model.DataType;
  */
 public class TickPoint implements ITickPoint, Serializable {
 	private static final long serialVersionUID = 1420587711067980277L;
+	/**
+	 * Value of the size field marking a tick without size
+	 */
+	static final int NO_SIZE = Integer.MIN_VALUE;
 	private final Date index;
 	private final DataType dataType;
 	private final double price;
@@ -31,6 +35,13 @@ public class TickPoint implements ITickPoint, Serializable {
 		this.size = size;
 	}
 
+	/**
+	 * Creates a tick whose size is not available: {@link #getSize()} returns null
+	 */
+	public static TickPoint withoutSize(Date index, DataType dataType, double price) {
+		return new TickPoint(index, dataType, price, NO_SIZE);
+	}
+
 	@Override
 	public Date getIndex() {
 		return index;
@@ -58,7 +69,28 @@ public class TickPoint implements ITickPoint, Serializable {
 
 	@Override
 	public Integer getSize() {
-		return size;
+		return size == NO_SIZE ? null : Integer.valueOf(size);
+	}
+
+	/**
+	 * @return true if the tick carries a size
+	 */
+	public boolean hasSize() {
+		return size != NO_SIZE;
+	}
+
+	/**
+	 * @return the price, as primitive value
+	 */
+	public double getPrice() {
+		return price;
+	}
+
+	/**
+	 * @return the size, as primitive value, or 0 if not available
+	 */
+	public int getIntSize() {
+		return size == NO_SIZE ? 0 : size;
 	}
 
 	@Override
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.io.IOException;
+
+import com.quantcomponents.core.codec.CodecInput;
+import com.quantcomponents.core.codec.CodecOutput;
+import com.quantcomponents.core.codec.IPointCodec;
+import com.quantcomponents.core.model.DataType;
+
+/**
+ * Binary codec for {@link TickPoint}
+ */
+public class TickPointCodec implements IPointCodec<TickPoint> {
+	public static final String TYPE_NAME = "TickPoint";
+	private static final int VERSION = 1;
+
+	@Override
+	public String getTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public Class<TickPoint> getPointClass() {
+		return TickPoint.class;
+	}
+
+	@Override
+	public void write(TickPoint point, CodecOutput out) throws IOException {
+		out.writeDate(point.getIndex());
+		out.writeEnum(point.getDataType());
+		out.writeDouble(point.getValue().doubleValue());
+		out.writeInt(point.hasSize() ? point.getIntSize() : TickPoint.NO_SIZE);
+	}
+
+	@Override
+	public TickPoint read(CodecInput in, int version) throws IOException {
+		if (version != VERSION) {
+			throw new IOException("Unsupported version: " + version + " of type: " + TYPE_NAME);
+		}
+		return new TickPoint(in.readDate(), in.readEnum(DataType.class), in.readDouble(), in.readInt());
+	}
+}
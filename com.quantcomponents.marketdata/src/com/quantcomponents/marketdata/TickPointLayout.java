@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.series.IColumnLayout;
+
+/**
+ * Column layout for tick points: price, size and data type
+ * A missing size is stored as NaN
+ */
+public class TickPointLayout implements IColumnLayout<Date, Double, ITickPoint>, Serializable {
+	private static final long serialVersionUID = 4385312420180931245L;
+	static final DataType[] DATA_TYPES = DataType.values();
+	static final int PRICE = 0;
+	static final int SIZE = 1;
+	static final int DATA_TYPE = 2;
+	private static final int WIDTH = 3;
+
+	@Override
+	public int getWidth() {
+		return WIDTH;
+	}
+
+	@Override
+	public long encodeIndex(Date index) {
+		return index.getTime();
+	}
+
+	@Override
+	public Date decodeIndex(long index) {
+		return new Date(index);
+	}
+
+	@Override
+	public void encode(ITickPoint point, double[] row, int offset) {
+		row[offset + PRICE] = point.getValue();
+		row[offset + SIZE] = point.getSize() == null ? Double.NaN : point.getSize();
+		row[offset + DATA_TYPE] = point.getDataType().ordinal();
+	}
+
+	@Override
+	public ITickPoint decode(long index, double[] row, int offset) {
+		Date date = new Date(index);
+		DataType dataType = DATA_TYPES[(int) row[offset + DATA_TYPE]];
+		double size = row[offset + SIZE];
+		if (Double.isNaN(size)) {
+			return TickPoint.withoutSize(date, dataType, row[offset + PRICE]);
+		}
+		return new TickPoint(date, dataType, row[offset + PRICE], (int) size);
+	}
+
+	@Override
+	public int getBottomValueColumn() {
+		return PRICE;
+	}
+
+	@Override
+	public int getTopValueColumn() {
+		return PRICE;
+	}
+}
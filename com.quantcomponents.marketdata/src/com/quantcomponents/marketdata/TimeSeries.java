@@ -19,7 +19,7 @@ import com.quantcomponents.core.series.LinkedListSeries;
  * Specialized mutable time series containing double values, indexed by {@link java.util.Date}
  * @param <P> the type of the data-points
  */
-public class TimeSeries<P extends ISeriesPoint<Date, Double>> extends LinkedListSeries<Date, Double, P> implements IMutableTimeSeries<P> {
+public class TimeSeries<P extends ISeriesPoint<Date, Double>> extends LinkedListSeries<Date, Double, P> implements IMutableTimeSeries<P>, INavigableTimeSeries<P> {
 	private static final long serialVersionUID = 2073320325650196527L;
 	private final TimeZone timeZone;
 	private final long interval;
@@ -47,6 +47,21 @@ public class TimeSeries<P extends ISeriesPoint<Date, Double>> extends LinkedList
 		return averageInterval;
 	}
 	
+	@Override
+	public INavigableTimeSeries<P> subSeries(Date from, Date to) {
+		return new TimeSeriesView<P>(super.subSeries(from, to), timeZone, interval);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> headSeries(Date to) {
+		return subSeries(null, to);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> tailSeries(Date from) {
+		return subSeries(from, null);
+	}
+
 	@Override
 	public TimeSeries<P> createEmptyMutableSeries(String ID) {
 		return new TimeSeries<P>(ID, getTimeZone(), getInterval(), isEnforceStrictSequence());
@@ -17,7 +17,9 @@ import com.quantcomponents.core.model.ISeriesOperator;
 import com.quantcomponents.core.model.ISeriesPoint;
 
 /**
- * Operator that extracts a snapshot subset of a time series, specified by start and end indexes
+ * Operator that extracts a snapshot subset of a time series, specified by start and end indexes.
+ * If the source series is an {@link INavigableTimeSeries} the subset is located by binary search, and is
+ * returned as a view when all its data-points are within trading hours.
  *
  * @param <P> the type of the data-points
  */
@@ -34,7 +36,10 @@ public class TimeSeriesBetween<P extends ISeriesPoint<Date, Double>> implements
 	
 	@Override
 	public ISeries<Date, Double, P> transform(ISeries<Date, Double, P> series) {
-		if (series instanceof ITimeSeries<?>) {
+		if (series instanceof INavigableTimeSeries<?>) {
+			INavigableTimeSeries<P> timeSeries = (INavigableTimeSeries<P>) series;
+			return TradingTimeFilter.filter(tradingSchedule, timeSeries.subSeries(startDate, endDate));
+		} else if (series instanceof ITimeSeries<?>) {
 			ITimeSeries<P> timeSeries = (ITimeSeries<P>) series;
 			TimeSeries<P> result = new TimeSeries<P>(series.getPersistentID(), timeSeries.getTimeZone(), timeSeries.getInterval(), timeSeries.isEnforceStrictSequence());
 			for (P point : series) {
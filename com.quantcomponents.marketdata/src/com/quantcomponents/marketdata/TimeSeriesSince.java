@@ -19,7 +19,9 @@ import com.quantcomponents.core.model.ISeriesOperator;
 import com.quantcomponents.core.model.ISeriesPoint;
 
 /**
- * Operator that extracts a snapshot subset of a time series, specified by start index, up to the end of the source series
+ * Operator that extracts a snapshot subset of a time series, specified by start index, up to the end of the source series.
+ * If the source series is an {@link INavigableTimeSeries} the subset is located by binary search, and is
+ * returned as a view when all its data-points are within trading hours.
  *
  * @param <P> the type of the data-points
  */
@@ -34,7 +36,10 @@ public class TimeSeriesSince<P extends ISeriesPoint<Date, Double>> implements IS
 
 	@Override
 	public ISeries<Date, Double, P> transform(ISeries<Date, Double, P> series) {
-		if (series instanceof ITimeSeries<?>) {
+		if (series instanceof INavigableTimeSeries<?>) {
+			INavigableTimeSeries<P> timeSeries = (INavigableTimeSeries<P>) series;
+			return TradingTimeFilter.filter(tradingSchedule, timeSeries.tailSeries(startDate));
+		} else if (series instanceof ITimeSeries<?>) {
 			ITimeSeries<P> timeSeries = (ITimeSeries<P>) series;
 			TimeSeries<P> result = new TimeSeries<P>(timeSeries.getPersistentID(), timeSeries.getTimeZone(), timeSeries.getInterval(), timeSeries.isEnforceStrictSequence());
 			Iterator<P> it = series.descendingIterator();
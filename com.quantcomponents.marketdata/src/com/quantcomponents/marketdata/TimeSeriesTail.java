@@ -18,7 +18,10 @@ import com.quantcomponents.core.model.ISeriesOperator;
 import com.quantcomponents.core.model.ISeriesPoint;
 
 /**
- * Operator that extracts a snapshot subset of a time series, specified by a number of points from the tail of the series
+ * Operator that extracts a snapshot subset of a time series, specified by a number of points from the tail of the series.
+ * If the source series is an {@link INavigableTimeSeries} and the subset is made only of data-points within trading hours,
+ * the subset is returned as a view, without copying. In this case the tail is scanned with a primitive {@link ISeriesCursor},
+ * without creating the data-points.
  *
  * @param <P> the type of the data-points
  */
@@ -33,21 +36,46 @@ public class TimeSeriesTail<P extends ISeriesPoint<Date, Double>> implements ISe
 	
 	@Override
 	public ISeries<Date, Double, P> transform(ISeries<Date, Double, P> series) {
-		if (series instanceof ITimeSeries<?>) {
-			ITimeSeries<P> timeSeries = (ITimeSeries<P>) series;
-			TimeSeries<P> result = new TimeSeries<P>(timeSeries.getPersistentID(), timeSeries.getTimeZone(), timeSeries.getInterval(), timeSeries.isEnforceStrictSequence());
-			Iterator<P> it = series.descendingIterator();
+		if (series instanceof INavigableTimeSeries<?>) {
+			// work on a fixed snapshot, so that the view below is consistent with the scan
+			INavigableTimeSeries<P> snapshot = ((INavigableTimeSeries<P>) series).subSeries(null, null);
+			ISeriesCursor cursor = SeriesCursors.descendingCursor(snapshot);
+			// the schedule does not keep the date: the same instance is reused for all the data-points
+			Date time = new Date();
 			int count = 0;
-			while (it.hasNext() && count < numPoints) {
-				P point = it.next();
-				if (tradingSchedule.isTradingTime(point.getIndex())) {
-					result.addFirst(point);
+			while (count < numPoints && cursor.advance()) {
+				time.setTime(cursor.indexMillis());
+				if (tradingSchedule.isTradingTime(time)) {
 					count++;
-				} 
+				} else {
+					return copyTail(snapshot);
+				}
 			}
-			return result;
+			if (count > 0) {
+				INavigableTimeSeries<P> view = snapshot.tailSeries(time);
+				if (view.size() == count) {
+					return view;
+				}
+			}
+			return copyTail(snapshot);
+		} else if (series instanceof ITimeSeries<?>) {
+			return copyTail((ITimeSeries<P>) series);
 		} else {
 			throw new IllegalArgumentException("Only instances of " + ITimeSeries.class.getName() + " can be used");
 		}
 	}
+
+	private ISeries<Date, Double, P> copyTail(ITimeSeries<P> timeSeries) {
+		TimeSeries<P> result = new TimeSeries<P>(timeSeries.getPersistentID(), timeSeries.getTimeZone(), timeSeries.getInterval(), timeSeries.isEnforceStrictSequence());
+		Iterator<P> it = timeSeries.descendingIterator();
+		int count = 0;
+		while (it.hasNext() && count < numPoints) {
+			P point = it.next();
+			if (tradingSchedule.isTradingTime(point.getIndex())) {
+				result.addFirst(point);
+				count++;
+			} 
+		}
+		return result;
+	}
 }
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.INavigableSeries;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Snapshot view of a navigable time series, adding time zone and interval to a generic series view
+ * @param <P> the type of the data-points
+ */
+public class TimeSeriesView<P extends ISeriesPoint<Date, Double>> implements INavigableTimeSeries<P> {
+	private final INavigableSeries<Date, Double, P> view;
+	private final TimeZone timeZone;
+	private final long interval;
+
+	/**
+	 * @param view the generic view
+	 * @param timeZone the time zone of the source series
+	 * @param interval the fixed interval of the source series, or 0 if the series has no fixed period
+	 */
+	public TimeSeriesView(INavigableSeries<Date, Double, P> view, TimeZone timeZone, long interval) {
+		this.view = view;
+		this.timeZone = timeZone;
+		this.interval = interval;
+	}
+
+	/**
+	 * @return the generic view
+	 */
+	INavigableSeries<Date, Double, P> getView() {
+		return view;
+	}
+
+	@Override
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+
+	@Override
+	public long getInterval() {
+		if (interval != 0) {
+			return interval;
+		}
+		if (isEmpty()) {
+			return 1;
+		}
+		long averageInterval = (getLast().getIndex().getTime() - getFirst().getIndex().getTime()) / size();
+		return averageInterval;
+	}
+
+	@Override
+	public INavigableTimeSeries<P> subSeries(Date from, Date to) {
+		return new TimeSeriesView<P>(view.subSeries(from, to), timeZone, interval);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> headSeries(Date to) {
+		return new TimeSeriesView<P>(view.headSeries(to), timeZone, interval);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> tailSeries(Date from) {
+		return new TimeSeriesView<P>(view.tailSeries(from), timeZone, interval);
+	}
+
+	@Override
+	public P floor(Date index) {
+		return view.floor(index);
+	}
+
+	@Override
+	public P ceiling(Date index) {
+		return view.ceiling(index);
+	}
+
+	@Override
+	public P getMinimum(Date from, Date to) {
+		return view.getMinimum(from, to);
+	}
+
+	@Override
+	public P getMaximum(Date from, Date to) {
+		return view.getMaximum(from, to);
+	}
+
+	@Override
+	public int size() {
+		return view.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return view.isEmpty();
+	}
+
+	@Override
+	public Iterator<P> iterator() {
+		return view.iterator();
+	}
+
+	@Override
+	public Iterator<P> descendingIterator() {
+		return view.descendingIterator();
+	}
+
+	@Override
+	public P getFirst() {
+		return view.getFirst();
+	}
+
+	@Override
+	public P getLast() {
+		return view.getLast();
+	}
+
+	@Override
+	public P getMinimum() {
+		return view.getMinimum();
+	}
+
+	@Override
+	public P getMaximum() {
+		return view.getMaximum();
+	}
+
+	@Override
+	public void addSeriesListener(ISeriesListener<Date, Double> listener) {
+		view.addSeriesListener(listener);
+	}
+
+	@Override
+	public void removeSeriesListener(ISeriesListener<Date, Double> listener) {
+		view.removeSeriesListener(listener);
+	}
+
+	@Override
+	public long getTimestamp() {
+		return view.getTimestamp();
+	}
+
+	@Override
+	public boolean isEnforceStrictSequence() {
+		return view.isEnforceStrictSequence();
+	}
+
+	@Override
+	public IMutableSeries<Date, Double, P> createEmptyMutableSeries(String ID) {
+		return view.createEmptyMutableSeries(ID);
+	}
+
+	@Override
+	public String getPersistentID() {
+		return view.getPersistentID();
+	}
+}
@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.calendar.ITradingSchedule;
+import com.quantcomponents.core.model.IBatchSeriesListener;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
+import com.quantcomponents.core.model.IMutableSeries;
+import com.quantcomponents.core.model.ISeriesChanges;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesOperator;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.IVersionedSeries;
+
+/**
+ * Live window over a time series, restricted to the data-points within trading hours: the last N data-points, those
+ * since a start date, or those between two dates.
+ * Unlike {@link TimeSeriesTail}, {@link TimeSeriesSince} and {@link TimeSeriesBetween}, which extract a new subset on each call,
+ * the window is bound to the source series and is updated incrementally by its notifications.
+ * Read methods, iterators and sub-series work on the current content of the window, without copying it.
+ * Listeners added to the window are notified of the data-points entering the window and of the updates of the last one;
+ * instances of {@link IEvictionSeriesListener} are also notified of the data-points leaving the window from the head.
+ * Only updates of the last data-point of the window are applied, as the series of this framework only update their tail.
+ * The changes are applied while holding the lock of the window, and the listeners are notified after releasing it,
+ * in the thread notifying the source series, so that they can call back into the window or take their own locks.
+ * The window must be closed when not needed anymore, to stop listening to the source series.
+ *
+ * @param <P> the type of the data-points
+ */
+public class TimeSeriesWindow<P extends ISeriesPoint<Date, Double>> implements INavigableTimeSeries<P>, IVersionedSeries<Date, Double, P>, IBatchSeriesListener<Date, Double>, IEvictionSeriesListener<Date, Double> {
+	private static final int UNLIMITED = -1;
+	private final ITimeSeries<P> source;
+	private final ITradingSchedule tradingSchedule;
+	// window bounds: numPoints is UNLIMITED for windows without a maximum size, startDate and endDate are null when open
+	private final int numPoints;
+	private final Date startDate;
+	private final Date endDate;
+	private final TimeSeries<P> window;
+	// notifications of the changes of the window, delivered after releasing the lock
+	private final DeferredSeriesNotifier notifier = new DeferredSeriesNotifier();
+	private boolean closed;
+
+	private TimeSeriesWindow(ITimeSeries<P> source, ITradingSchedule tradingSchedule, int numPoints, Date startDate, Date endDate, ISeriesOperator<Date, Double, P> initialContent) {
+		this.source = source;
+		this.tradingSchedule = tradingSchedule;
+		this.numPoints = numPoints;
+		this.startDate = startDate;
+		this.endDate = endDate;
+		window = new TimeSeries<P>(source.getPersistentID(), source.getTimeZone(), source.getInterval(), source.isEnforceStrictSequence());
+		window.addSeriesListener(notifier);
+		synchronized (this) {
+			// notifications arriving while the window is filled wait for the lock, and are then merged with the initial content
+			source.addSeriesListener(this);
+			List<P> points = new ArrayList<P>();
+			for (P point : initialContent.transform(source)) {
+				points.add(point);
+			}
+			window.addAll(points);
+			// nobody can listen to the window yet
+			notifier.takePendingEvents();
+		}
+	}
+
+	/**
+	 * @param source the series to be followed
+	 * @param tradingSchedule the trading schedule to filter the data-points
+	 * @param numPoints the maximum number of data-points in the window
+	 * @return a window containing the last data-points of the source series
+	 */
+	public static <P extends ISeriesPoint<Date, Double>> TimeSeriesWindow<P> tail(ITimeSeries<P> source, ITradingSchedule tradingSchedule, int numPoints) {
+		if (numPoints < 0) {
+			throw new IllegalArgumentException("Number of points must not be negative: " + numPoints);
+		}
+		return new TimeSeriesWindow<P>(source, tradingSchedule, numPoints, null, null, new TimeSeriesTail<P>(tradingSchedule, numPoints));
+	}
+
+	/**
+	 * @param source the series to be followed
+	 * @param tradingSchedule the trading schedule to filter the data-points
+	 * @param startDate the first date of the window, inclusive
+	 * @return a window containing the data-points of the source series from the start date onwards
+	 */
+	public static <P extends ISeriesPoint<Date, Double>> TimeSeriesWindow<P> since(ITimeSeries<P> source, ITradingSchedule tradingSchedule, Date startDate) {
+		return new TimeSeriesWindow<P>(source, tradingSchedule, UNLIMITED, startDate, null, new TimeSeriesSince<P>(tradingSchedule, startDate));
+	}
+
+	/**
+	 * @param source the series to be followed
+	 * @param tradingSchedule the trading schedule to filter the data-points
+	 * @param startDate the first date of the window, inclusive
+	 * @param endDate the last date of the window, exclusive
+	 * @return a window containing the data-points of the source series between the two dates
+	 */
+	public static <P extends ISeriesPoint<Date, Double>> TimeSeriesWindow<P> between(ITimeSeries<P> source, ITradingSchedule tradingSchedule, Date startDate, Date endDate) {
+		return new TimeSeriesWindow<P>(source, tradingSchedule, UNLIMITED, startDate, endDate, new TimeSeriesBetween<P>(tradingSchedule, startDate, endDate));
+	}
+
+	/**
+	 * @return the series followed by this window
+	 */
+	public ITimeSeries<P> getSource() {
+		return source;
+	}
+
+	/**
+	 * Stop following the source series. The content of the window is not changed anymore
+	 */
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		source.removeSeriesListener(this);
+	}
+
+	@Override
+	public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+		// the window listens only to its source series, whose data-points are of type P
+		@SuppressWarnings("unchecked")
+		P point = (P) newItem;
+		List<P> newItems = new ArrayList<P>(1);
+		newItems.add(point);
+		onItemsAdded(newItems);
+	}
+
+	/**
+	 * Data-points following the window are appended in a single batch, and the data-points exceeding the
+	 * maximum size are removed afterwards in a single eviction
+	 */
+	@Override
+	public void onItemsAdded(List<? extends ISeriesPoint<Date, Double>> newItems) {
+		List<DeferredSeriesNotifier.Event> events;
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			List<P> appended = new ArrayList<P>(newItems.size());
+			for (ISeriesPoint<Date, Double> newItem : newItems) {
+				@SuppressWarnings("unchecked")
+				P point = (P) newItem;
+				if (!isInWindow(point.getIndex())) {
+					continue;
+				}
+				Date lastIndex = appended.isEmpty() ? (window.isEmpty() ? null : window.getLast().getIndex()) : appended.get(appended.size() - 1).getIndex();
+				if (lastIndex == null || point.getIndex().after(lastIndex)) {
+					appended.add(point);
+				} else {
+					// data-point out of sequence, or already loaded by the initial fill
+					flush(appended);
+					merge(point);
+				}
+			}
+			flush(appended);
+			evictExceeding();
+			events = notifier.takePendingEvents();
+		}
+		notifier.notifyListeners(events);
+	}
+
+	@Override
+	public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+		List<DeferredSeriesNotifier.Event> events;
+		synchronized (this) {
+			if (closed || window.isEmpty()) {
+				return;
+			}
+			if (updatedItem.getIndex().equals(window.getLast().getIndex())) {
+				@SuppressWarnings("unchecked")
+				P point = (P) updatedItem;
+				window.updateTail(point);
+			}
+			events = notifier.takePendingEvents();
+		}
+		notifier.notifyListeners(events);
+	}
+
+	/**
+	 * The data-points removed from the source series are removed from the window as well
+	 */
+	@Override
+	public void onItemsEvicted(Date index, int count) {
+		List<DeferredSeriesNotifier.Event> events;
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			window.evictBefore(index, Integer.MAX_VALUE);
+			events = notifier.takePendingEvents();
+		}
+		notifier.notifyListeners(events);
+	}
+
+	@Override
+	public TimeZone getTimeZone() {
+		return window.getTimeZone();
+	}
+
+	@Override
+	public long getInterval() {
+		return window.getInterval();
+	}
+
+	@Override
+	public INavigableTimeSeries<P> subSeries(Date from, Date to) {
+		return window.subSeries(from, to);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> headSeries(Date to) {
+		return window.headSeries(to);
+	}
+
+	@Override
+	public INavigableTimeSeries<P> tailSeries(Date from) {
+		return window.tailSeries(from);
+	}
+
+	@Override
+	public P floor(Date index) {
+		return window.floor(index);
+	}
+
+	@Override
+	public P ceiling(Date index) {
+		return window.ceiling(index);
+	}
+
+	@Override
+	public P getMinimum(Date from, Date to) {
+		return window.getMinimum(from, to);
+	}
+
+	@Override
+	public P getMaximum(Date from, Date to) {
+		return window.getMaximum(from, to);
+	}
+
+	@Override
+	public int size() {
+		return window.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return window.isEmpty();
+	}
+
+	@Override
+	public Iterator<P> iterator() {
+		return window.iterator();
+	}
+
+	@Override
+	public Iterator<P> descendingIterator() {
+		return window.descendingIterator();
+	}
+
+	@Override
+	public P getFirst() {
+		return window.getFirst();
+	}
+
+	@Override
+	public P getLast() {
+		return window.getLast();
+	}
+
+	@Override
+	public P getMinimum() {
+		return window.getMinimum();
+	}
+
+	@Override
+	public P getMaximum() {
+		return window.getMaximum();
+	}
+
+	@Override
+	public void addSeriesListener(ISeriesListener<Date, Double> listener) {
+		notifier.addListener(listener);
+	}
+
+	@Override
+	public void removeSeriesListener(ISeriesListener<Date, Double> listener) {
+		notifier.removeListener(listener);
+	}
+
+	@Override
+	public long getTimestamp() {
+		return window.getTimestamp();
+	}
+
+	@Override
+	public long getVersion() {
+		return window.getVersion();
+	}
+
+	@Override
+	public ISeriesChanges<Date, Double, P> changesSince(long version) {
+		return window.changesSince(version);
+	}
+
+	@Override
+	public boolean isEnforceStrictSequence() {
+		return window.isEnforceStrictSequence();
+	}
+
+	@Override
+	public IMutableSeries<Date, Double, P> createEmptyMutableSeries(String ID) {
+		return source.createEmptyMutableSeries(ID);
+	}
+
+	@Override
+	public String getPersistentID() {
+		return window.getPersistentID();
+	}
+
+	private boolean isInWindow(Date index) {
+		if (startDate != null && index.before(startDate)) {
+			return false;
+		}
+		if (endDate != null && !index.before(endDate)) {
+			return false;
+		}
+		return tradingSchedule.isTradingTime(index);
+	}
+
+	private void flush(List<P> appended) {
+		if (!appended.isEmpty()) {
+			window.addAll(appended);
+			appended.clear();
+		}
+	}
+
+	private void merge(P point) {
+		P last = window.getLast();
+		if (point.getIndex().equals(last.getIndex())) {
+			if (point != last) {
+				window.updateTail(point);
+			}
+			return;
+		}
+		P floor = window.floor(point.getIndex());
+		if (floor != null && floor.getIndex().equals(point.getIndex())) {
+			return;
+		}
+		if (floor == null && numPoints != UNLIMITED && window.size() >= numPoints) {
+			return; // it would be evicted immediately
+		}
+		window.insertFromTail(point);
+	}
+
+	private void evictExceeding() {
+		int exceeding = numPoints != UNLIMITED ? window.size() - numPoints : 0;
+		if (exceeding > 0) {
+			window.evictBefore(window.getLast().getIndex(), exceeding);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata;
+
+import java.util.Date;
+
+import com.quantcomponents.core.calendar.ITradingSchedule;
+import com.quantcomponents.core.model.ISeriesPoint;
+
+/**
+ * Restricts a window of a time series to the data-points within trading hours
+ */
+class TradingTimeFilter {
+	private TradingTimeFilter() {}
+
+	/**
+	 * @return the window itself, if all its data-points are within trading hours; otherwise a copy containing only those
+	 */
+	static <P extends ISeriesPoint<Date, Double>> ITimeSeries<P> filter(ITradingSchedule tradingSchedule, INavigableTimeSeries<P> window) {
+		boolean allTradingTime = true;
+		for (P point : window) {
+			if (!tradingSchedule.isTradingTime(point.getIndex())) {
+				allTradingTime = false;
+				break;
+			}
+		}
+		if (allTradingTime) {
+			return window;
+		}
+		TimeSeries<P> result = new TimeSeries<P>(window.getPersistentID(), window.getTimeZone(), window.getInterval(), window.isEnforceStrictSequence());
+		for (P point : window) {
+			if (tradingSchedule.isTradingTime(point.getIndex())) {
+				result.addLast(point);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata.demo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import com.quantcomponents.core.codec.SeriesCodec;
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.ISeries;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.series.LinkedListSeries;
+import com.quantcomponents.marketdata.OHLCPoint;
+import com.quantcomponents.marketdata.OHLCPointCodec;
+import com.quantcomponents.marketdata.TickPoint;
+import com.quantcomponents.marketdata.TickPointCodec;
+
+/**
+ * Compares size and throughput of the series codec, on streams and on buffers, with those of Java serialization.
+ * The number of points can be passed as first argument
+ */
+public class SeriesCodecBenchmark {
+	private static final int DEFAULT_NUM_POINTS = 500000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws Exception {
+		int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_POINTS;
+		SeriesCodec codec = new SeriesCodec();
+		codec.register(new OHLCPointCodec());
+		codec.register(new TickPointCodec());
+		LinkedListSeries<Date, Double, OHLCPoint> bars = createBars(numPoints);
+		LinkedListSeries<Date, Double, TickPoint> ticks = createTicks(numPoints);
+		// first round is warm-up
+		for (int round = 0; round < ROUNDS; round++) {
+			boolean print = round == ROUNDS - 1;
+			run("bars", bars, codec, print);
+			run("ticks", ticks, codec, print);
+		}
+	}
+
+	private static <P extends ISeriesPoint<Date, Double>> void run(String name, LinkedListSeries<Date, Double, P> series, SeriesCodec codec, boolean print) throws IOException, ClassNotFoundException {
+		long startTime = System.nanoTime();
+		ByteArrayOutputStream javaBuffer = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(javaBuffer);
+		oos.writeObject(series);
+		oos.close();
+		long javaWriteTime = System.nanoTime() - startTime;
+		startTime = System.nanoTime();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(javaBuffer.toByteArray()));
+		ISeries<?, ?, ?> javaCopy = (ISeries<?, ?, ?>) ois.readObject();
+		long javaReadTime = System.nanoTime() - startTime;
+
+		startTime = System.nanoTime();
+		ByteArrayOutputStream codecBuffer = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(codecBuffer);
+		codec.write(series, out);
+		out.close();
+		long codecWriteTime = System.nanoTime() - startTime;
+		startTime = System.nanoTime();
+		ISeries<?, ?, ?> codecCopy = codec.read(new DataInputStream(new ByteArrayInputStream(codecBuffer.toByteArray())));
+		long codecReadTime = System.nanoTime() - startTime;
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(codecBuffer.size());
+		startTime = System.nanoTime();
+		codec.encode(series, buffer);
+		long bufferWriteTime = System.nanoTime() - startTime;
+		buffer.flip();
+		startTime = System.nanoTime();
+		ISeries<?, ?, ?> bufferCopy = codec.decode(buffer);
+		long bufferReadTime = System.nanoTime() - startTime;
+
+		if (javaCopy.size() != series.size() || codecCopy.size() != series.size() || bufferCopy.size() != series.size()) {
+			throw new IllegalStateException("Decoded series differ in size");
+		}
+		if (print) {
+			System.out.println(name + ": " + series.size() + " points");
+			print("  java serialization: ", series.size(), javaBuffer.size(), javaWriteTime, javaReadTime);
+			print("  codec, stream:      ", series.size(), codecBuffer.size(), codecWriteTime, codecReadTime);
+			print("  codec, buffer:      ", series.size(), buffer.capacity(), bufferWriteTime, bufferReadTime);
+		}
+	}
+
+	private static void print(String label, int size, int bytes, long writeTime, long readTime) {
+		System.out.println(label + bytes / size + " bytes/point, write: " + (long) (size / (writeTime / 1e9)) + " points/s, read: " + (long) (size / (readTime / 1e9)) + " points/s");
+	}
+
+	private static LinkedListSeries<Date, Double, OHLCPoint> createBars(int numPoints) {
+		LinkedListSeries<Date, Double, OHLCPoint> series = new LinkedListSeries<Date, Double, OHLCPoint>("bars", false);
+		long time = new Date().getTime() - numPoints * BarSize.ONE_MIN.getDurationInMs();
+		double price = 100.0;
+		for (int i = 0; i < numPoints; i++) {
+			double open = price;
+			price += (i % 7 - 3) * 0.25;
+			series.addLast(new OHLCPoint(BarSize.ONE_MIN, new Date(time), open, Math.max(open, price) + 0.25, Math.min(open, price) - 0.25, price, 100L + i % 50, (open + price) / 2, 10 + i % 5));
+			time += BarSize.ONE_MIN.getDurationInMs();
+		}
+		return series;
+	}
+
+	private static LinkedListSeries<Date, Double, TickPoint> createTicks(int numPoints) {
+		LinkedListSeries<Date, Double, TickPoint> series = new LinkedListSeries<Date, Double, TickPoint>("ticks", false);
+		long time = new Date().getTime() - numPoints * 100L;
+		double price = 100.0;
+		for (int i = 0; i < numPoints; i++) {
+			price += (i % 7 - 3) * 0.01;
+			series.addLast(new TickPoint(new Date(time), DataType.TRADES, price, 100 + i % 10));
+			time += 100L;
+		}
+		return series;
+	}
+}
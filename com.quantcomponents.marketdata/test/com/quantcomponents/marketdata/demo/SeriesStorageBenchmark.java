@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata.demo;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.beans.ContractBean;
+import com.quantcomponents.core.series.CompressedSeries;
+import com.quantcomponents.marketdata.ArrayTimeSeriesFactory;
+import com.quantcomponents.marketdata.CompressedTimeSeriesFactory;
+import com.quantcomponents.marketdata.IMutableOHLCTimeSeries;
+import com.quantcomponents.marketdata.IOHLCCursor;
+import com.quantcomponents.marketdata.IOHLCPoint;
+import com.quantcomponents.marketdata.ITimeSeriesFactory;
+import com.quantcomponents.marketdata.LinkedListTimeSeriesFactory;
+import com.quantcomponents.marketdata.OHLCPoint;
+import com.quantcomponents.marketdata.SeriesCursors;
+
+/**
+ * Compares memory footprint and throughput of the available series storages.
+ * Run with a large heap, e.g. -Xmx2g; the number of bars can be passed as first argument
+ */
+public class SeriesStorageBenchmark {
+	private static final int DEFAULT_NUM_POINTS = 2000000;
+
+	public static void main(String[] args) {
+		int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_POINTS;
+		// warm-up
+		run("linked list", new LinkedListTimeSeriesFactory(), numPoints, false);
+		run("array", new ArrayTimeSeriesFactory(), numPoints, false);
+		run("compressed", new CompressedTimeSeriesFactory(), numPoints, false);
+		run("linked list", new LinkedListTimeSeriesFactory(), numPoints, true);
+		run("array", new ArrayTimeSeriesFactory(), numPoints, true);
+		run("compressed", new CompressedTimeSeriesFactory(), numPoints, true);
+	}
+
+	private static void run(String name, ITimeSeriesFactory factory, int numPoints, boolean print) {
+		long memoryBefore = usedMemory();
+		long startTime = System.nanoTime();
+		IMutableOHLCTimeSeries series = factory.createOHLCTimeSeries("benchmark", new ContractBean(), BarSize.ONE_MIN, DataType.TRADES, false, TimeZone.getDefault());
+		long time = new Date().getTime() - numPoints * BarSize.ONE_MIN.getDurationInMs();
+		double price = 100.0;
+		for (int i = 0; i < numPoints; i++) {
+			double open = price;
+			price += (i % 7 - 3) * 0.25;
+			series.addLast(new OHLCPoint(BarSize.ONE_MIN, new Date(time), open, Math.max(open, price) + 0.25, Math.min(open, price) - 0.25, price, 100L + i % 50, (open + price) / 2, 10 + i % 5));
+			time += BarSize.ONE_MIN.getDurationInMs();
+		}
+		long appendTime = System.nanoTime() - startTime;
+		long memoryAfter = usedMemory();
+		startTime = System.nanoTime();
+		double sum = 0.0;
+		for (IOHLCPoint bar : series) {
+			sum += bar.getClose();
+		}
+		long scanTime = System.nanoTime() - startTime;
+		startTime = System.nanoTime();
+		double cursorSum = 0.0;
+		IOHLCCursor cursor = SeriesCursors.ohlcCursor(series);
+		while (cursor.advance()) {
+			cursorSum += cursor.close();
+		}
+		long cursorScanTime = System.nanoTime() - startTime;
+		if (print) {
+			System.out.println(name + ": " + series.size() + " bars");
+			System.out.println("  footprint: " + (memoryAfter - memoryBefore) / series.size() + " bytes/bar (estimated)");
+			System.out.println("  append:    " + (long) (series.size() / (appendTime / 1e9)) + " bars/s");
+			System.out.println("  scan:      " + (long) (series.size() / (scanTime / 1e9)) + " bars/s (checksum: " + sum + ")");
+			System.out.println("  cursor:    " + (long) (series.size() / (cursorScanTime / 1e9)) + " bars/s (checksum: " + cursorSum + ")");
+			if (series instanceof CompressedSeries) {
+				System.out.println("  ratio:     " + ((CompressedSeries<?, ?, ?>) series).getCompressionRatio() + " (uncompressed/compressed)");
+			}
+		}
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.marketdata.demo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Date;
+import java.util.TimeZone;
+
+import com.quantcomponents.core.model.BarSize;
+import com.quantcomponents.core.model.DataType;
+import com.quantcomponents.core.model.ILatestStateSeriesListener;
+import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.ISeriesPoint;
+import com.quantcomponents.core.model.beans.ContractBean;
+import com.quantcomponents.marketdata.OHLCVirtualTimeSeries;
+import com.quantcomponents.marketdata.TickPoint;
+
+/**
+ * Measures time and heap allocation per tick when consolidating ticks into the current bar of an {@link OHLCVirtualTimeSeries},
+ * with no listeners, with a listener of the latest state only, and with a listener that needs the existing bar.
+ * Allocations are measured on the current thread, therefore a HotSpot compatible JVM is required.
+ * The number of ticks can be passed as first argument
+ */
+public class TickConsolidationBenchmark {
+	private static final int DEFAULT_NUM_TICKS = 2000000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		int numTicks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_TICKS;
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+			System.out.println("Allocation measurement not supported by this JVM");
+			return;
+		}
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+		TickPoint[] ticks = createTicks(numTicks);
+		// first rounds are warm-up
+		for (int round = 0; round < ROUNDS; round++) {
+			boolean print = round == ROUNDS - 1;
+			run("no listeners", null, ticks, allocationBean, print);
+			run("latest state listener", new LatestStateListener(), ticks, allocationBean, print);
+			run("full listener", new FullListener(), ticks, allocationBean, print);
+		}
+	}
+
+	private static void run(String name, ISeriesListener<Date, Double> listener, TickPoint[] ticks, com.sun.management.ThreadMXBean allocationBean, boolean print) {
+		OHLCVirtualTimeSeries series = new OHLCVirtualTimeSeries("benchmark", new ContractBean(), DataType.TRADES, BarSize.ONE_HOUR, true, TimeZone.getTimeZone("UTC"));
+		if (listener != null) {
+			series.addSeriesListener(listener);
+		}
+		// the first ticks create the bars and set their high and low
+		int first = 2;
+		for (int i = 0; i < first; i++) {
+			series.addTick(ticks[i]);
+		}
+		long threadId = Thread.currentThread().getId();
+		long startBytes = allocationBean.getThreadAllocatedBytes(threadId);
+		long startTime = System.nanoTime();
+		for (int i = first; i < ticks.length; i++) {
+			series.addTick(ticks[i]);
+		}
+		long elapsed = System.nanoTime() - startTime;
+		long allocated = allocationBean.getThreadAllocatedBytes(threadId) - startBytes;
+		if (print) {
+			int count = ticks.length - first;
+			System.out.println(String.format("%-22s %8.1f ns/tick %8.2f bytes/tick (%d bars)", name, (double) elapsed / count, (double) allocated / count, series.size()));
+		}
+	}
+
+	private static TickPoint[] createTicks(int numTicks) {
+		TickPoint[] ticks = new TickPoint[numTicks];
+		long time = 0L;
+		for (int i = 0; i < numTicks; i++) {
+			// prices stay within the high and low set by the first two ticks of the bar
+			double price = i == 0 ? 99.0 : i == 1 ? 102.0 : 100.0 + (i % 100) / 100.0;
+			ticks[i] = new TickPoint(new Date(time + i), DataType.TRADES, price, 100 + i % 1000);
+		}
+		return ticks;
+	}
+
+	private static class LatestStateListener implements ILatestStateSeriesListener<Date, Double> {
+		long lastUpdate;
+
+		@Override
+		public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+			lastUpdate = updatedItem.getIndex().getTime();
+		}
+
+		@Override
+		public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+		}
+	}
+
+	private static class FullListener implements ISeriesListener<Date, Double> {
+		long updates;
+
+		@Override
+		public void onItemUpdated(ISeriesPoint<Date, Double> existingItem, ISeriesPoint<Date, Double> updatedItem) {
+			if (existingItem != null) {
+				updates++;
+			}
+		}
+
+		@Override
+		public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
+		}
+	}
+}
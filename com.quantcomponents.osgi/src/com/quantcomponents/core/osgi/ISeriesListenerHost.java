@@ -15,4 +15,5 @@ import com.quantcomponents.core.remote.ServiceHandle;
 public interface ISeriesListenerHost<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> {
 	void onItemUpdated(ServiceHandle<? extends ISeriesHost<A, O, P>> seriesHostHandle, ISeriesPoint<A, O> existingItem, ISeriesPoint<A, O> updatedItem);
 	void onItemAdded(ServiceHandle<? extends ISeriesHost<A, O, P>> seriesHostHandle, ISeriesPoint<A, O> newItem);
+	void onItemsEvicted(ServiceHandle<? extends ISeriesHost<A, O, P>> seriesHostHandle, A index, int count);
 }
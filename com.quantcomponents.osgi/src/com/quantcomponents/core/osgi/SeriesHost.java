@@ -15,6 +15,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.quantcomponents.core.model.IEvictionSeriesListener;
 import com.quantcomponents.core.model.ISeries;
 import com.quantcomponents.core.model.ISeriesListener;
 import com.quantcomponents.core.model.ISeriesPoint;
@@ -120,7 +121,7 @@ public class SeriesHost<A extends Comparable<A>, O extends Comparable<O>, P exte
 		final ServiceHandle<ISeriesHost<A, O, P>> seriesHandle = new ServiceHandle<ISeriesHost<A, O, P>>(uidGenerator.nextUID());
 		SeriesInfo seriesInfo = new SeriesInfo();
 		seriesInfo.series = series;
-		seriesInfo.listener = new ISeriesListener<A, O>() {
+		seriesInfo.listener = new IEvictionSeriesListener<A, O>() {
 			@Override
 			public void onItemUpdated(ISeriesPoint<A, O> existingItem, ISeriesPoint<A, O> updatedItem) {
 				if (seriesListenerHost != null) {
@@ -132,6 +133,12 @@ public class SeriesHost<A extends Comparable<A>, O extends Comparable<O>, P exte
 				if (seriesListenerHost != null) {
 					seriesListenerHost.onItemAdded(seriesHandle, newItem);
 				}
+			}
+			@Override
+			public void onItemsEvicted(A index, int count) {
+				if (seriesListenerHost != null) {
+					seriesListenerHost.onItemsEvicted(seriesHandle, index, count);
+				}
 			}};
 		allSeries.put(seriesHandle, seriesInfo);
 		seriesInfo.series.addSeriesListener(seriesInfo.listener);
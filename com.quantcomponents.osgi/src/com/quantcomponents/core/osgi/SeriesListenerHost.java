@@ -15,6 +15,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.logging.Logger;
 
+import com.quantcomponents.core.model.IEvictionSeriesListener;
 import com.quantcomponents.core.model.ISeriesListener;
 import com.quantcomponents.core.model.ISeriesPoint;
 import com.quantcomponents.core.remote.ServiceHandle;
@@ -69,4 +70,17 @@ public class SeriesListenerHost<A extends Comparable<A>, O extends Comparable<O>
 			}
 		}
 	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void onItemsEvicted(ServiceHandle<? extends ISeriesHost<A, O, P>> seriesHostHandle, A index, int count) {
+		Set<ISeriesListener<A, O>> listenerSet = allListeners.get((ServiceHandle<ISeriesHost<A, O, P>>) seriesHostHandle);
+		if (listenerSet != null) {
+			for (ISeriesListener<A, O> listener : listenerSet) {
+				if (listener instanceof IEvictionSeriesListener<?, ?>) {
+					((IEvictionSeriesListener<A, O>) listener).onItemsEvicted(index, count);
+				}
+			}
+		}
+	}
 }
@@ -9,11 +9,11 @@
  ******************************************************************************/
 package com.quantcomponents.core.osgi;
 
-import com.quantcomponents.core.model.ISeriesListener;
+import com.quantcomponents.core.model.IEvictionSeriesListener;
 import com.quantcomponents.core.model.ISeriesPoint;
 import com.quantcomponents.core.remote.ServiceHandle;
 
-public class SeriesListenerProxy<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements ISeriesListener<A, O> {
+public class SeriesListenerProxy<A extends Comparable<A>, O extends Comparable<O>, P extends ISeriesPoint<A, O>> implements IEvictionSeriesListener<A, O> {
 	private final ISeriesListenerHost<A, O, P> seriesListenerHost;
 	private final ServiceHandle<? extends ISeriesHost<A, O, P>> seriesHostHandle;
 	
@@ -31,4 +31,9 @@ public class SeriesListenerProxy<A extends Comparable<A>, O extends Comparable<O
 	public void onItemAdded(ISeriesPoint<A, O> newItem) {
 		seriesListenerHost.onItemAdded(seriesHostHandle, newItem);
 	}
+
+	@Override
+	public void onItemsEvicted(A index, int count) {
+		seriesListenerHost.onItemsEvicted(seriesHostHandle, index, count);
+	}
 }
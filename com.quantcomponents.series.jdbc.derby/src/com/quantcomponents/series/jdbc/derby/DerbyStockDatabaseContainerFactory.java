@@ -9,6 +9,7 @@
  ******************************************************************************/
 package com.quantcomponents.series.jdbc.derby;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collection;
@@ -21,8 +22,13 @@ import javax.sql.DataSource;
 
 import org.osgi.service.jdbc.DataSourceFactory;
 
+import com.quantcomponents.marketdata.ArrayTimeSeriesFactory;
 import com.quantcomponents.marketdata.IStockDatabaseContainer;
 import com.quantcomponents.marketdata.IStockDatabaseContainerFactory;
+import com.quantcomponents.marketdata.ITimeSeriesFactory;
+import com.quantcomponents.marketdata.LinkedListTimeSeriesFactory;
+import com.quantcomponents.marketdata.MappedTimeSeriesFactory;
+import com.quantcomponents.marketdata.RetentionPolicy;
 import com.quantcomponents.series.jdbc.JdbcStockDatabaseContainer;
 
 public class DerbyStockDatabaseContainerFactory implements IStockDatabaseContainerFactory {
@@ -30,11 +36,22 @@ public class DerbyStockDatabaseContainerFactory implements IStockDatabaseContain
 	public static final String DATABASE_NAME_PREFIX_DEFAULT = "stockDatabase";
 	public static final String DATABASE_CREATE_KEY = "com.quantcomponents.series.db.create";
 	public static final String DATABASE_CREATE_DEFAULT = "true";
+	/** If "true", the series of the stock databases are stored in column arrays instead of linked lists */
+	public static final String ARRAY_SERIES_KEY = "com.quantcomponents.series.array";
+	/** Root directory of the memory-mapped tick stores, one sub-directory for each container ID. If not set, ticks are kept on the heap */
+	public static final String TICK_STORE_DIRECTORY_KEY = "com.quantcomponents.series.tickstore.dir";
+	/** Maximum number of ticks kept in memory by each stock database. If not set, there is no limit */
+	public static final String TICK_RETENTION_POINTS_KEY = "com.quantcomponents.series.tickretention.points";
+	/** Maximum age of the ticks kept in memory by each stock database, in milliseconds. If not set, there is no limit */
+	public static final String TICK_RETENTION_AGE_KEY = "com.quantcomponents.series.tickretention.age";
 	
 	private final Collection<JdbcStockDatabaseContainer> activeContainers = Collections.synchronizedCollection(new LinkedList<JdbcStockDatabaseContainer>());
 
 	private volatile String dbNamePrefix;
 	private volatile String dbCreate;
+	private volatile boolean arraySeries;
+	private volatile String tickStoreDirectory;
+	private volatile RetentionPolicy tickRetentionPolicy = RetentionPolicy.UNLIMITED;
 	private volatile DataSourceFactory dataSourceFactory;
 	private volatile Connection connection;
 	
@@ -51,6 +68,11 @@ public class DerbyStockDatabaseContainerFactory implements IStockDatabaseContain
 		if (dbCreate == null) {
 			dbCreate = DATABASE_CREATE_DEFAULT;
 		}
+		arraySeries = "true".equals(properties.get(ARRAY_SERIES_KEY));
+		tickStoreDirectory = (String) properties.get(TICK_STORE_DIRECTORY_KEY);
+		String tickRetentionPoints = (String) properties.get(TICK_RETENTION_POINTS_KEY);
+		String tickRetentionAge = (String) properties.get(TICK_RETENTION_AGE_KEY);
+		tickRetentionPolicy = new RetentionPolicy(tickRetentionPoints == null ? 0 : Integer.parseInt(tickRetentionPoints), tickRetentionAge == null ? 0L : Long.parseLong(tickRetentionAge));
 	}
 
 	public void deactivate() throws SQLException {
@@ -74,6 +96,12 @@ public class DerbyStockDatabaseContainerFactory implements IStockDatabaseContain
 		OHLCPointDao ohlcPointDao = new OHLCPointDao(connection);
 		TickPointDao tickPointDao = new TickPointDao(connection);
 		JdbcStockDatabaseContainer stockDbContainer = new JdbcStockDatabaseContainer(stockDbHeaderDao, ohlcPointDao, tickPointDao);
+		ITimeSeriesFactory timeSeriesFactory = arraySeries ? new ArrayTimeSeriesFactory() : new LinkedListTimeSeriesFactory();
+		if (tickStoreDirectory != null && tickStoreDirectory.length() > 0) {
+			timeSeriesFactory = new MappedTimeSeriesFactory(new File(tickStoreDirectory, id), timeSeriesFactory);
+		}
+		stockDbContainer.setTimeSeriesFactory(timeSeriesFactory);
+		stockDbContainer.setTickRetentionPolicy(tickRetentionPolicy);
 		stockDbContainer.start();
 		activeContainers.add(stockDbContainer);
 		return stockDbContainer;
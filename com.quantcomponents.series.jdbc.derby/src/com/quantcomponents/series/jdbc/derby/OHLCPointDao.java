@@ -29,6 +29,8 @@ public class OHLCPointDao implements IOHLCPointDao {
 	public static final String SELECT_FIELDS = "BAR_SIZE, DATE_TIME," +
 			" P_OPEN, P_HIGH, P_LOW, P_CLOSE, VOLUME, P_WAP, TICK_COUNT, LAST_UPDATE";
 	public static final String INSERT_FIELDS = "SDB_ID, " + SELECT_FIELDS;
+	private static final String INSERT_STATEMENT = "INSERT INTO " + TABLE_NAME +
+			" (" + INSERT_FIELDS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 	private final Connection connection;
 	
 	public OHLCPointDao(Connection connection) {
@@ -63,8 +65,22 @@ public class OHLCPointDao implements IOHLCPointDao {
 
 	@Override
 	public void save(String stockDatabaseId, IOHLCPoint item) throws SQLException {
-		PreparedStatement stmt = connection.prepareStatement("INSERT INTO " + TABLE_NAME +
-				" (" + INSERT_FIELDS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+		PreparedStatement stmt = connection.prepareStatement(INSERT_STATEMENT);
+		setInsertParameters(stmt, stockDatabaseId, item);
+		stmt.execute();
+	}
+
+	@Override
+	public void saveAll(String stockDatabaseId, List<? extends IOHLCPoint> items) throws SQLException {
+		PreparedStatement stmt = connection.prepareStatement(INSERT_STATEMENT);
+		for (IOHLCPoint item : items) {
+			setInsertParameters(stmt, stockDatabaseId, item);
+			stmt.addBatch();
+		}
+		stmt.executeBatch();
+	}
+
+	private void setInsertParameters(PreparedStatement stmt, String stockDatabaseId, IOHLCPoint item) throws SQLException {
 		stmt.setString(1, stockDatabaseId);
 		stmt.setString(2, item.getBarSize().name());
 		stmt.setTimestamp(3, new Timestamp(item.getIndex().getTime()));
@@ -80,7 +96,6 @@ public class OHLCPointDao implements IOHLCPointDao {
 		} else {
 			stmt.setNull(11, Types.TIMESTAMP);
 		}
-		stmt.execute();
 	}
 
 	@Override
@@ -14,6 +14,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
@@ -61,7 +62,11 @@ public class TickPointDao implements ITickPointDao {
 		stmt.setTimestamp(2, new Timestamp(item.getIndex().getTime()));
 		stmt.setString(3, item.getDataType().name());
 		stmt.setDouble(4, item.getValue());
-		stmt.setInt(5, item.getSize());
+		if (item.getSize() == null) {
+			stmt.setNull(5, Types.INTEGER);
+		} else {
+			stmt.setInt(5, item.getSize());
+		}
 		stmt.execute();
 	}
 
@@ -75,8 +80,8 @@ public class TickPointDao implements ITickPointDao {
 			Date date = new Date(rs.getTimestamp(1).getTime());
 			DataType dataType = DataType.valueOf(rs.getString(2));
 			Double price = rs.getDouble(3);
-			Integer size = rs.getInt(4);
-			TickPoint point = new TickPoint(date, dataType, price, size);
+			int size = rs.getInt(4);
+			TickPoint point = rs.wasNull() ? TickPoint.withoutSize(date, dataType, price) : new TickPoint(date, dataType, price, size);
 			result.add(point);
 		}
 		rs.close();
@@ -16,6 +16,7 @@ import com.quantcomponents.marketdata.IOHLCPoint;
 
 public interface IOHLCPointDao extends IFlushable, IDbInitializable {
 	void save(String stockDatabaseId, IOHLCPoint item) throws SQLException;
+	void saveAll(String stockDatabaseId, List<? extends IOHLCPoint> items) throws SQLException;
 	void update(String stockDatabaseId, IOHLCPoint existingItem, IOHLCPoint newItem) throws SQLException;
 	List<IOHLCPoint> find(String stockDatabaseId) throws SQLException;
 	void deleteAll(String stockDatabaseId) throws SQLException;
@@ -9,11 +9,14 @@
  ******************************************************************************/
 package com.quantcomponents.series.jdbc;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
@@ -21,6 +24,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.quantcomponents.core.model.IBatchSeriesListener;
 import com.quantcomponents.core.model.IContract;
 import com.quantcomponents.core.model.ISeriesListener;
 import com.quantcomponents.core.model.ISeriesPoint;
@@ -30,24 +34,38 @@ import com.quantcomponents.marketdata.IOHLCPoint;
 import com.quantcomponents.marketdata.IStockDatabase;
 import com.quantcomponents.marketdata.IStockDatabaseContainer;
 import com.quantcomponents.marketdata.ITickPoint;
+import com.quantcomponents.marketdata.ITimeSeriesFactory;
+import com.quantcomponents.marketdata.LinkedListTimeSeriesFactory;
+import com.quantcomponents.marketdata.MappedTickTimeSeries;
+import com.quantcomponents.marketdata.RetentionPolicy;
 import com.quantcomponents.marketdata.StockDatabase;
 
 public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 	private static final Logger logger = Logger.getLogger(JdbcStockDatabaseContainer.class.getName());
 	
-	private enum EventType { ADD, UPDATE };
+	private enum EventType { ADD, ADD_ALL, UPDATE };
 	
 	private class OHLCEvent {
 		final String stockDbId;
 		final EventType type;
 		final IOHLCPoint existingOhlc;
 		final IOHLCPoint newOhlc;
+		final List<IOHLCPoint> newOhlcList;
 		
 		public OHLCEvent(String stockDbId, EventType type, IOHLCPoint existingOhlc, IOHLCPoint newOhlc) {
 			this.stockDbId = stockDbId;
 			this.type = type;
 			this.existingOhlc = existingOhlc;
 			this.newOhlc = newOhlc;
+			this.newOhlcList = null;
+		}
+		
+		public OHLCEvent(String stockDbId, List<IOHLCPoint> newOhlcList) {
+			this.stockDbId = stockDbId;
+			this.type = EventType.ADD_ALL;
+			this.existingOhlc = null;
+			this.newOhlc = null;
+			this.newOhlcList = newOhlcList;
 		}
 	}
 	
@@ -60,7 +78,7 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 		final ITickPoint tick;
 	}
 	
-	private class OHLCTimeSeriesListener implements ISeriesListener<Date, Double> {
+	private class OHLCTimeSeriesListener implements IBatchSeriesListener<Date, Double> {
 		private final String stockDbId;
 		
 		OHLCTimeSeriesListener(String stockDbId) {
@@ -76,6 +94,15 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 		public void onItemAdded(ISeriesPoint<Date, Double> newItem) {
 			ohlcEventsQueue.add(new OHLCEvent(stockDbId, EventType.ADD, null, (IOHLCPoint) newItem));
 		}
+
+		@Override
+		public void onItemsAdded(List<? extends ISeriesPoint<Date, Double>> newItems) {
+			List<IOHLCPoint> newOhlcList = new ArrayList<IOHLCPoint>(newItems.size());
+			for (ISeriesPoint<Date, Double> newItem : newItems) {
+				newOhlcList.add((IOHLCPoint) newItem);
+			}
+			ohlcEventsQueue.add(new OHLCEvent(stockDbId, newOhlcList));
+		}
 	}
 	
 	private class TickTimeSeriesListener implements ISeriesListener<Date, Double> {
@@ -116,6 +143,8 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 	private final IStockDatabaseHeaderDao stockDbHeaderDao;
 	private final IOHLCPointDao ohlcPointDao;
 	private final ITickPointDao tickPointDao;
+	private volatile ITimeSeriesFactory timeSeriesFactory = new LinkedListTimeSeriesFactory();
+	private volatile RetentionPolicy tickRetentionPolicy = RetentionPolicy.UNLIMITED;
 	private volatile boolean interrupt;
 	private volatile boolean asyncPersistence = false;
 	private volatile Thread asyncOhlcPersisterThread;
@@ -129,6 +158,8 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 					OHLCEvent event = ohlcEventsQueue.take();
 					if (event.type == EventType.ADD) {
 						ohlcPointDao.save(event.stockDbId, event.newOhlc);
+					} else if (event.type == EventType.ADD_ALL) {
+						ohlcPointDao.saveAll(event.stockDbId, event.newOhlcList);
 					} else if (event.type == EventType.UPDATE) {
 						ohlcPointDao.update(event.stockDbId, event.existingOhlc, event.newOhlc);
 					}
@@ -167,6 +198,34 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 		this.tickPointDao = tickPointDao;
 	}
 		
+	/**
+	 * Set the factory for the series of the stock databases loaded from the DB.
+	 * When the factory restores the ticks of a series from its own storage, e.g. {@link com.quantcomponents.marketdata.MappedTimeSeriesFactory},
+	 * the ticks are not loaded from the DB
+	 */
+	public void setTimeSeriesFactory(ITimeSeriesFactory timeSeriesFactory) {
+		this.timeSeriesFactory = timeSeriesFactory;
+	}
+
+	@Override
+	public ITimeSeriesFactory getTimeSeriesFactory() {
+		return timeSeriesFactory;
+	}
+
+	/**
+	 * Set the limits to the ticks kept in memory by the stock databases loaded from the DB.
+	 * Evicted ticks are still in the DB, since ticks are queued for persistence as soon as they are added
+	 * @see StockDatabase#setTickRetentionPolicy(RetentionPolicy)
+	 */
+	public void setTickRetentionPolicy(RetentionPolicy tickRetentionPolicy) {
+		this.tickRetentionPolicy = tickRetentionPolicy;
+	}
+
+	@Override
+	public RetentionPolicy getTickRetentionPolicy() {
+		return tickRetentionPolicy;
+	}
+
 	public void start() throws SQLException {
 		init();
 		allStockDatabases();
@@ -175,6 +234,11 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 	
 	public void stop() throws SQLException {
 		stopAsynchronousPersisters();
+		synchronized (this) {
+			for (StockDbCacheInfo cacheItem : cacheById.values()) {
+				closeTickStore(cacheItem.stockDatabase, false);
+			}
+		}
 	}
 	
 	public void init() throws SQLException {
@@ -210,9 +274,11 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 		StockDatabaseHeader hdr = StockDatabaseHeader.fromStockDatabase(stockDatabase);
 		try {
 			stockDbHeaderDao.save(hdr);
+			List<IOHLCPoint> ohlcList = new ArrayList<IOHLCPoint>(stockDatabase.getOHLCTimeSeries().size());
 			for (IOHLCPoint ohlc : stockDatabase.getOHLCTimeSeries()) {
-				ohlcPointDao.save(hdr.id, ohlc);
+				ohlcList.add(ohlc);
 			}
+			ohlcPointDao.saveAll(hdr.id, ohlcList);
 			for (ITickPoint tick : stockDatabase.getTickTimeSeries()) {
 				tickPointDao.save(hdr.id, tick);
 			}
@@ -267,6 +333,7 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 				stockDbHeaderDao.delete(cacheItem.id);
 				ohlcPointDao.deleteAll(cacheItem.id);
 				tickPointDao.deleteAll(cacheItem.id);
+				closeTickStore(stockDatabase, true);
 			} catch (SQLException e) {
 				logger.log(Level.SEVERE, "Exception while deleting stock DB", e);
 				return false;
@@ -277,6 +344,25 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 		}
 	}
 	
+	private static void closeTickStore(IStockDatabase stockDatabase, boolean delete) {
+		if (!(stockDatabase.getTickTimeSeries() instanceof MappedTickTimeSeries)) {
+			return;
+		}
+		MappedTickTimeSeries tickStore = (MappedTickTimeSeries) stockDatabase.getTickTimeSeries();
+		try {
+			if (delete) {
+				// a stock database created later with the same ID must not find these ticks, even if the file cannot be deleted
+				tickStore.clear();
+			}
+			tickStore.close();
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Exception while closing tick store: " + tickStore.getFile(), e);
+		}
+		if (delete && !tickStore.getFile().delete()) {
+			logger.log(Level.WARNING, "Tick store: " + tickStore.getFile() + " could not be deleted");
+		}
+	}
+
 	private void addToCache(IStockDatabase stockDatabase, String id) {
 		OHLCTimeSeriesListener ohlcListener = new OHLCTimeSeriesListener(id);
 		stockDatabase.getOHLCTimeSeries().addSeriesListener(ohlcListener);
@@ -293,14 +379,20 @@ public class JdbcStockDatabaseContainer implements IStockDatabaseContainer {
 		if (cacheItem != null)	{
 			stockDatabase = cacheItem.stockDatabase;
 		} else {
-			stockDatabase = new StockDatabase(hdr.contract, hdr.dataType, hdr.barSize, hdr.includeAfterHours, hdr.timeZone);
+			StockDatabase newStockDatabase = new StockDatabase(hdr.contract, hdr.dataType, hdr.barSize, hdr.includeAfterHours, hdr.timeZone, timeSeriesFactory);
+			// set before loading the ticks, so that they are trimmed while loading
+			newStockDatabase.setTickRetentionPolicy(tickRetentionPolicy);
+			stockDatabase = newStockDatabase;
 			IMutableOHLCTimeSeries ohlcTimeSeries = stockDatabase.getOHLCTimeSeries();
-			for (IOHLCPoint ohlc : ohlcPointDao.find(hdr.id)) {
-				ohlcTimeSeries.addLast(ohlc);
-			}
+			ohlcTimeSeries.addAll(ohlcPointDao.find(hdr.id));
 			IMutableTickTimeSeries tickTimeSeries = stockDatabase.getTickTimeSeries();
-			for (ITickPoint tick : tickPointDao.find(hdr.id)) {
-				tickTimeSeries.addLast(tick);
+			// ticks restored by the series are written synchronously, so they are never behind the DB
+			if (tickTimeSeries.isEmpty()) {
+				for (ITickPoint tick : tickPointDao.find(hdr.id)) {
+					tickTimeSeries.addLast(tick);
+				}
+			} else {
+				newStockDatabase.replayStoredTicks();
 			}
 			addToCache(stockDatabase, hdr.id);
 		}
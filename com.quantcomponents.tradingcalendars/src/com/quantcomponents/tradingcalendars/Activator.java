@@ -18,6 +18,7 @@ import com.quantcomponents.core.calendar.ITradingCalendarManager;
 public class Activator implements BundleActivator {
 	private static Activator plugin;
 	public static final String PLUGIN_ID = "com.quantcomponents.tradingcalendars";
+	private static final String CALENDAR_CACHE_DIRECTORY = "calendarCache";
 	
 	private TradingCalendarRegistry manager;
 
@@ -28,7 +29,8 @@ public class Activator implements BundleActivator {
 	@Override
 	public void start(BundleContext context) throws Exception {
 		plugin = this;
-		manager = new TradingCalendarRegistry();
+		// null when the framework has no file system support: the calendars are parsed at each start
+		manager = new TradingCalendarRegistry(context.getDataFile(CALENDAR_CACHE_DIRECTORY));
 		for (Bundle bundle : context.getBundles()) {
 			manager.addBundleCalendars(bundle);
 		}
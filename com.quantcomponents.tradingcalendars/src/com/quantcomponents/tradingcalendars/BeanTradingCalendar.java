@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.tradingcalendars;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import com.quantcomponents.core.calendar.AbstractPeriodicTradingCalendar;
+import com.quantcomponents.core.calendar.ITradingDay;
+import com.quantcomponents.core.model.BareDate;
+
+/**
+ * Trading calendar defined by a {@link TradingCalendarFactoryBean}.
+ * The rules are copied from the bean, so that later changes to the bean do not affect the calendar.
+ */
+class BeanTradingCalendar extends AbstractPeriodicTradingCalendar {
+	private final String name;
+	private final String description;
+	private final Date startDate;
+	private final Date endDate;
+	private final TimeZone timeZone;
+	private final Set<BareDate> closingDays;
+	private final Map<Integer, TradingDayBean> weekTradingDays;
+	private final Map<String, TradingDayBean> specialTradingDays;
+	private final Boolean includeAfterHours;
+	private final String[] exchanges;
+
+	BeanTradingCalendar(TradingCalendarFactoryBean factory) {
+		name = factory.getName();
+		description = factory.getDescription();
+		startDate = factory.getStartDate();
+		endDate = factory.getEndDate();
+		timeZone = factory.getTimeZone();
+		closingDays = factory.getClosingDays() == null ?
+				Collections.unmodifiableSet(new HashSet<BareDate>()) :
+				Collections.unmodifiableSet(new HashSet<BareDate>(factory.getClosingDays()));
+		weekTradingDays = Collections.unmodifiableMap(factory.getWeekTradingDaysAsMap());
+		// sorted, so that rule days are listed in the same order by each instance
+		specialTradingDays = Collections.unmodifiableMap(new TreeMap<String, TradingDayBean>(factory.getSpecialTradingDaysAsMap()));
+		includeAfterHours = factory.isIncludeAfterHours();
+		exchanges = factory.getExchanges();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getDescription() {
+		return description;
+	}
+
+	@Override
+	public Date getStartDate() {
+		return startDate;
+	}
+
+	@Override
+	public Date getEndDate() {
+		return endDate;
+	}
+
+	@Override
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+
+	@Override
+	protected Set<BareDate> getClosingDays() {
+		return closingDays;
+	}
+
+	@Override
+	protected Map<String, TradingDayBean> getSpecialTradingDays() {
+		return specialTradingDays;
+	}
+
+	@Override
+	protected Map<Integer, TradingDayBean> getWeekTradingDays() {
+		return weekTradingDays;
+	}
+
+	@Override
+	public Boolean isIncludeAfterHours() {
+		return includeAfterHours;
+	}
+
+	@Override
+	public String[] getExchanges() {
+		return exchanges;
+	}
+
+	/**
+	 * @return the trading days defined by the rules: the days of the week from Sunday to Saturday, null when
+	 * missing, followed by the special days in date order
+	 */
+	List<TradingDayBean> getRuleDays() {
+		List<TradingDayBean> ruleDays = new ArrayList<TradingDayBean>(7 + specialTradingDays.size());
+		for (int dayOfWeek = Calendar.SUNDAY; dayOfWeek <= Calendar.SATURDAY; dayOfWeek++) {
+			ruleDays.add(weekTradingDays.get(dayOfWeek));
+		}
+		ruleDays.addAll(specialTradingDays.values());
+		return ruleDays;
+	}
+
+	long[] getDayStarts() {
+		return getTradingDayStarts();
+	}
+
+	ITradingDay[] getDays() {
+		return getCachedTradingDays();
+	}
+
+	void setDays(long[] dayStarts, ITradingDay[] days) {
+		setTradingDays(dayStarts, days);
+	}
+}
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Luigi Sgro. All rights reserved. This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License v1.0 which accompanies this distribution, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Luigi Sgro - initial API and implementation
+ ******************************************************************************/
+package com.quantcomponents.tradingcalendars;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.quantcomponents.core.calendar.ITradingDay;
+import com.quantcomponents.core.calendar.ITradingPeriod;
+import com.quantcomponents.core.codec.CodecInput;
+import com.quantcomponents.core.codec.CodecOutput;
+import com.quantcomponents.core.model.BareDate;
+import com.quantcomponents.core.model.beans.TradingPeriodBean;
+import com.quantcomponents.tradingcalendars.TradingCalendarFactoryBean.SpecificTradingDay;
+import com.quantcomponents.tradingcalendars.TradingCalendarFactoryBean.WeekTradingDay;
+
+/**
+ * Persistent cache of parsed trading calendars, one file for each calendar definition.
+ * <p>
+ * Each file contains the rules of the calendar and its expanded day table, so that a calendar can be restored
+ * without parsing its XML definition nor calculating its trading days again.
+ * The day table is written as the start of the first day, followed by the length of each day and the position of its
+ * trading day in {@link BeanTradingCalendar#getRuleDays()}, or -1 for days with no trading periods.
+ * <p>
+ * A file is used only if it was written from the same definition URL, with the same source timestamp and by the same
+ * Java version, since a new version may come with different time zone rules.
+ * Instances can be shared by multiple threads.
+ */
+class TradingCalendarCache {
+	static final int MAGIC = 0x51435443;
+	static final int FORMAT_VERSION = 1;
+	private static final int CLOSED_DAY = -1;
+	private final File directory;
+
+	/**
+	 * @param directory the directory of the cache files; it is created if missing
+	 */
+	TradingCalendarCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @param url the URL of the calendar definition
+	 * @param sourceTimestamp the last modification time of the calendar definition
+	 * @return the cached calendar, or null if it is missing or stale
+	 * @throws IOException if the cache file cannot be read
+	 */
+	BeanTradingCalendar read(URL url, long sourceTimestamp) throws IOException {
+		File file = cacheFile(url);
+		if (!file.exists()) {
+			return null;
+		}
+		DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			CodecInput in = new CodecInput(stream);
+			int magic = in.readInt();
+			if (magic != MAGIC) {
+				throw new StreamCorruptedException("Not a calendar cache file: " + Integer.toHexString(magic));
+			}
+			if (in.readShort() != FORMAT_VERSION || !url.toExternalForm().equals(in.readString())
+					|| in.readLong() != sourceTimestamp || !javaVersion().equals(in.readString())) {
+				return null;
+			}
+			return readCalendar(in);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Write a calendar to the cache, calculating its day table if needed
+	 * @param url the URL of the calendar definition
+	 * @param sourceTimestamp the last modification time of the calendar definition
+	 * @param calendar the calendar parsed from the definition
+	 * @throws IOException if the cache file cannot be written
+	 */
+	void write(URL url, long sourceTimestamp, BeanTradingCalendar calendar) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create cache directory: " + directory);
+		}
+		File file = cacheFile(url);
+		// written aside and renamed, so that readers never see a partial file
+		File tempFile = File.createTempFile("calendar", ".tmp", directory);
+		DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			CodecOutput out = new CodecOutput(stream);
+			out.writeInt(MAGIC);
+			out.writeShort(FORMAT_VERSION);
+			out.writeString(url.toExternalForm());
+			out.writeLong(sourceTimestamp);
+			out.writeString(javaVersion());
+			writeCalendar(calendar, out);
+		} finally {
+			stream.close();
+		}
+		if (!(tempFile.renameTo(file) || file.delete() && tempFile.renameTo(file))) {
+			tempFile.delete();
+			throw new IOException("Cannot replace cache file: " + file);
+		}
+	}
+
+	private File cacheFile(URL url) {
+		return new File(directory, Integer.toHexString(url.toExternalForm().hashCode()) + ".cal");
+	}
+
+	private static String javaVersion() {
+		return System.getProperty("java.version", "");
+	}
+
+	private void writeCalendar(BeanTradingCalendar calendar, CodecOutput out) throws IOException {
+		out.writeString(calendar.getName());
+		out.writeString(calendar.getDescription());
+		out.writeDate(calendar.getStartDate());
+		out.writeDate(calendar.getEndDate());
+		out.writeString(calendar.getTimeZone().getID());
+		out.writeByte(calendar.isIncludeAfterHours() == null ? -1 : calendar.isIncludeAfterHours() ? 1 : 0);
+		String[] exchanges = calendar.getExchanges();
+		out.writeInt(exchanges == null ? -1 : exchanges.length);
+		if (exchanges != null) {
+			for (String exchange : exchanges) {
+				out.writeString(exchange);
+			}
+		}
+		out.writeInt(calendar.getClosingDays().size());
+		for (BareDate closingDay : calendar.getClosingDays()) {
+			out.writeString(closingDay.getDateRepr());
+		}
+		out.writeInt(calendar.getWeekTradingDays().size());
+		for (Map.Entry<Integer, TradingDayBean> entry : calendar.getWeekTradingDays().entrySet()) {
+			out.writeByte(entry.getKey());
+			writeTradingDay(entry.getValue(), out);
+		}
+		out.writeInt(calendar.getSpecialTradingDays().size());
+		for (Map.Entry<String, TradingDayBean> entry : calendar.getSpecialTradingDays().entrySet()) {
+			out.writeString(entry.getKey());
+			writeTradingDay(entry.getValue(), out);
+		}
+		Map<ITradingDay, Integer> ruleDayPositions = new IdentityHashMap<ITradingDay, Integer>();
+		List<TradingDayBean> ruleDays = calendar.getRuleDays();
+		for (int i = ruleDays.size() - 1; i >= 0; i--) {
+			if (ruleDays.get(i) != null) {
+				ruleDayPositions.put(ruleDays.get(i), i);
+			}
+		}
+		long[] dayStarts = calendar.getDayStarts();
+		ITradingDay[] days = calendar.getDays();
+		out.writeInt(days.length);
+		out.writeLong(dayStarts[0]);
+		for (int i = 0; i < days.length; i++) {
+			out.writeInt((int) (dayStarts[i + 1] - dayStarts[i]));
+			Integer position = ruleDayPositions.get(days[i]);
+			if (position == null && days[i].getTradingPeriods().length > 0) {
+				throw new IOException("Trading day not defined by the rules of calendar: " + calendar.getName());
+			}
+			out.writeShort(position == null ? CLOSED_DAY : position);
+		}
+	}
+
+	private BeanTradingCalendar readCalendar(CodecInput in) throws IOException {
+		TradingCalendarFactoryBean factory = new TradingCalendarFactoryBean();
+		factory.setName(in.readString());
+		factory.setDescription(in.readString());
+		factory.setStartDate(in.readDate());
+		factory.setEndDate(in.readDate());
+		factory.setTimeZoneId(in.readString());
+		byte includeAfterHours = in.readByte();
+		factory.setIncludeAfterHours(includeAfterHours < 0 ? null : includeAfterHours > 0);
+		int exchangeCount = in.readInt();
+		if (exchangeCount >= 0) {
+			String[] exchanges = new String[exchangeCount];
+			for (int i = 0; i < exchangeCount; i++) {
+				exchanges[i] = in.readString();
+			}
+			factory.setExchanges(exchanges);
+		}
+		int closingDayCount = in.readInt();
+		Set<BareDate> closingDays = new HashSet<BareDate>();
+		for (int i = 0; i < closingDayCount; i++) {
+			closingDays.add(new BareDate(in.readString()));
+		}
+		factory.setClosingDays(closingDays);
+		int weekDayCount = in.readInt();
+		Set<WeekTradingDay> weekTradingDays = new HashSet<WeekTradingDay>();
+		for (int i = 0; i < weekDayCount; i++) {
+			int dayOfTheWeek = in.readByte();
+			weekTradingDays.add(new WeekTradingDay(dayOfTheWeek, readTradingDay(in)));
+		}
+		factory.setWeekTradingDays(weekTradingDays);
+		int specialDayCount = in.readInt();
+		Set<SpecificTradingDay> specialTradingDays = new HashSet<SpecificTradingDay>();
+		for (int i = 0; i < specialDayCount; i++) {
+			String date = in.readString();
+			specialTradingDays.add(new SpecificTradingDay(date, readTradingDay(in)));
+		}
+		factory.setSpecialTradingDays(specialTradingDays);
+		BeanTradingCalendar calendar = new BeanTradingCalendar(factory);
+		List<TradingDayBean> ruleDays = calendar.getRuleDays();
+		int dayCount = in.readInt();
+		long[] dayStarts = new long[dayCount + 1];
+		ITradingDay[] days = new ITradingDay[dayCount];
+		dayStarts[0] = in.readLong();
+		for (int i = 0; i < dayCount; i++) {
+			dayStarts[i + 1] = dayStarts[i] + in.readInt();
+			int position = in.readShort();
+			if (position != CLOSED_DAY) {
+				if (position < 0 || position >= ruleDays.size() || ruleDays.get(position) == null) {
+					throw new StreamCorruptedException("Invalid trading day: " + position);
+				}
+				days[i] = ruleDays.get(position);
+			}
+		}
+		calendar.setDays(dayStarts, days);
+		return calendar;
+	}
+
+	private void writeTradingDay(ITradingDay tradingDay, CodecOutput out) throws IOException {
+		ITradingPeriod[] periods = tradingDay.getTradingPeriods();
+		out.writeInt(periods == null ? -1 : periods.length);
+		if (periods != null) {
+			for (ITradingPeriod period : periods) {
+				out.writeByte(period.getStartHour());
+				out.writeByte(period.getStartMinute());
+				out.writeByte(period.getEndHour());
+				out.writeByte(period.getEndMinute());
+			}
+		}
+	}
+
+	private TradingDayBean readTradingDay(CodecInput in) throws IOException {
+		TradingDayBean tradingDay = new TradingDayBean();
+		int periodCount = in.readInt();
+		if (periodCount >= 0) {
+			TradingPeriodBean[] periods = new TradingPeriodBean[periodCount];
+			for (int i = 0; i < periodCount; i++) {
+				periods[i] = new TradingPeriodBean(in.readByte(), in.readByte(), in.readByte(), in.readByte());
+			}
+			tradingDay.setTradingPeriods(periods);
+		}
+		return tradingDay;
+	}
+}
@@ -11,7 +11,6 @@
 package com.quantcomponents.tradingcalendars;
 
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -24,9 +23,7 @@ import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
-import com.quantcomponents.core.calendar.AbstractPeriodicTradingCalendar;
 import com.quantcomponents.core.calendar.ITradingCalendar;
-import com.quantcomponents.core.calendar.ITradingDay;
 import com.quantcomponents.core.model.BareDate;
 import com.quantcomponents.core.xml.XmlDateAdapter;
 
@@ -204,57 +201,6 @@ public class TradingCalendarFactoryBean implements Serializable {
 	}
 
 	public ITradingCalendar createTradingCalendar() {
-		return new AbstractPeriodicTradingCalendar() {
-			private final String name = TradingCalendarFactoryBean.this.name;
-			private final String description = TradingCalendarFactoryBean.this.description;
-			private final Date startDate = TradingCalendarFactoryBean.this.startDate;
-			private final Date endDate = TradingCalendarFactoryBean.this.endDate;
-			private final TimeZone timeZone = TimeZone.getTimeZone(timeZoneId);
-			private final Set<BareDate> closingDays = TradingCalendarFactoryBean.this.closingDays == null ?
-					Collections.unmodifiableSet(new HashSet<BareDate>()) :
-					Collections.unmodifiableSet(new HashSet<BareDate>(TradingCalendarFactoryBean.this.closingDays));
-			private final Map<Integer, TradingDayBean> weekTradingDays = Collections.unmodifiableMap(TradingCalendarFactoryBean.this.getWeekTradingDaysAsMap());
-			private final Map<String, TradingDayBean> specialTradingDays = Collections.unmodifiableMap(TradingCalendarFactoryBean.this.getSpecialTradingDaysAsMap());
-			@Override
-			public String getName() {
-				return name;
-			}
-			@Override
-			public String getDescription() {
-				return description;
-			}
-			@Override
-			public Date getStartDate() {
-				return startDate;
-			}
-			@Override
-			public Date getEndDate() {
-				return endDate;
-			}
-			@Override
-			public TimeZone getTimeZone() {
-				return timeZone;
-			}
-			@Override
-			protected Set<BareDate> getClosingDays() {
-				return closingDays;
-			}
-			@Override
-			protected Map<String, ? extends ITradingDay> getSpecialTradingDays() {
-				return specialTradingDays;
-			}
-			@Override
-			protected Map<Integer, ? extends ITradingDay> getWeekTradingDays() {
-				return weekTradingDays;
-			}
-			@Override
-			public Boolean isIncludeAfterHours() {
-				return includeAfterHours;
-			}
-			@Override
-			public String[] getExchanges() {
-				return exchanges;
-			}
-		};
+		return new BeanTradingCalendar(this);
 	}
 }
@@ -9,17 +9,22 @@
  ******************************************************************************/
 package com.quantcomponents.tradingcalendars;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -36,41 +41,70 @@ import com.quantcomponents.core.model.IContract;
 import com.quantcomponents.tradingcalendars.TradingCalendarFactoryBean.SpecificTradingDay;
 import com.quantcomponents.tradingcalendars.TradingCalendarFactoryBean.WeekTradingDay;
 
+/**
+ * Registry of the trading calendars defined by the XML files in the <code>tradingCalendars</code> folder of the installed bundles.
+ * <p>
+ * Calendars are indexed by exchange and by name, and the indexes are rebuilt only when bundles are installed or uninstalled,
+ * so that lookups do not scan all the calendars.
+ * When a cache directory is provided, parsed calendars are also kept there in binary form, together with their day table,
+ * and the XML files are parsed again only when their bundles change.
+ */
 public class TradingCalendarRegistry implements ITradingCalendarManager, BundleListener {
+	private static final Logger logger = Logger.getLogger(TradingCalendarRegistry.class.getName());
 	private static final ITradingCalendar FLAT_CALENDAR = new FlatCalendar();
+	private static JAXBContext jaxbContext;
 	private final Map<String, Set<URL>> urlByBundleLocation = new HashMap<String, Set<URL>>();
-	private final Map<URL, ITradingCalendar> calendars = new ConcurrentHashMap<URL, ITradingCalendar>();
+	private final Map<URL, ITradingCalendar> calendars = new LinkedHashMap<URL, ITradingCalendar>();
+	private final TradingCalendarCache cache;
+	private volatile CalendarIndex index = new CalendarIndex(Collections.<ITradingCalendar>emptyList());
+
+	/**
+	 * Create a registry without persistent cache
+	 */
+	public TradingCalendarRegistry() {
+		this(null);
+	}
+
+	/**
+	 * @param cacheDirectory the directory where parsed calendars are cached; null for no cache
+	 */
+	public TradingCalendarRegistry(File cacheDirectory) {
+		cache = cacheDirectory == null ? null : new TradingCalendarCache(cacheDirectory);
+	}
 
 	@Override
 	public List<ITradingCalendar> findTradingCalendars(IContract contract, Boolean includeAfterHours) {
-		List<ITradingCalendar> result = new LinkedList<ITradingCalendar>();
 		String exchange = contract.getPrimaryExchange();
 		if (exchange == null) {
 			exchange = contract.getExchange();
 		}
-		for (ITradingCalendar calendar : calendars.values()) {
-			if (calendar.getExchanges().length > 0 && exchange != null) {
-				if (Arrays.binarySearch(calendar.getExchanges(), exchange) < 0) {
-					continue;
-				}
+		CalendarIndex currentIndex = index;
+		List<ITradingCalendar> result = new ArrayList<ITradingCalendar>();
+		if (exchange == null) {
+			addMatching(currentIndex.allCalendars, includeAfterHours, result);
+		} else {
+			List<ITradingCalendar> exchangeCalendars = currentIndex.calendarsByExchange.get(exchange);
+			if (exchangeCalendars != null) {
+				addMatching(exchangeCalendars, includeAfterHours, result);
 			}
+			addMatching(currentIndex.anyExchangeCalendars, includeAfterHours, result);
+		}
+		result.add(FLAT_CALENDAR);
+		return result;
+	}
+
+	private static void addMatching(List<ITradingCalendar> calendars, Boolean includeAfterHours, List<ITradingCalendar> result) {
+		for (ITradingCalendar calendar : calendars) {
 			if (includeAfterHours != null && calendar.isIncludeAfterHours() != null && calendar.isIncludeAfterHours() != includeAfterHours) {
 				continue;
 			}
 			result.add(calendar);
 		}
-		result.add(FLAT_CALENDAR);
-		return result;
 	}
 
 	@Override
 	public ITradingCalendar tradingCalendarByName(String name) {
-		for (ITradingCalendar calendar : calendars.values()) {
-			if (calendar.getName().equals(name)) {
-				return calendar;
-			}
-		}
-		return null;
+		return index.calendarsByName.get(name);
 	}
 
 	@Override
@@ -78,7 +112,7 @@ public class TradingCalendarRegistry implements ITradingCalendarManager, BundleL
 		if (event.getType() == BundleEvent.INSTALLED) {
 			addBundleCalendars(event.getBundle());
 		} else if (event.getType() == BundleEvent.UNINSTALLED) {
-			synchronized (urlByBundleLocation) {
+			synchronized (calendars) {
 				String bundleLocation = event.getBundle().getLocation();
 				Set<URL> bundleUrlSet = urlByBundleLocation.get(bundleLocation);
 				if (bundleUrlSet != null) {
@@ -86,6 +120,7 @@ public class TradingCalendarRegistry implements ITradingCalendarManager, BundleL
 						calendars.remove(url);
 					}
 					urlByBundleLocation.remove(bundleLocation);
+					reindex();
 				}
 			}
 		}
@@ -93,36 +128,111 @@ public class TradingCalendarRegistry implements ITradingCalendarManager, BundleL
 	
 	void addBundleCalendars(Bundle bundle) {
 		Enumeration<URL> urls = findCalendarData(bundle);
+		Map<URL, ITradingCalendar> bundleCalendars = new LinkedHashMap<URL, ITradingCalendar>();
 		while (urls != null && urls.hasMoreElements()) {
 			URL url = urls.nextElement();
 			try {
-				TradingCalendarFactoryBean factory = createFactoryFromCalendarData(url);
-				calendars.put(url, factory.createTradingCalendar());
-				synchronized (urlByBundleLocation) {
-					Set<URL> bundleUrlSet = urlByBundleLocation.get(bundle.getLocation());
-					if (bundleUrlSet == null) {
-						bundleUrlSet = new HashSet<URL>();
-						urlByBundleLocation.put(bundle.getLocation(), bundleUrlSet);
-					}
-					bundleUrlSet.add(url);
-				}
+				bundleCalendars.put(url, loadCalendar(url, bundle.getLastModified()));
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
 		}
+		if (bundleCalendars.isEmpty()) {
+			return;
+		}
+		synchronized (calendars) {
+			calendars.putAll(bundleCalendars);
+			Set<URL> bundleUrlSet = urlByBundleLocation.get(bundle.getLocation());
+			if (bundleUrlSet == null) {
+				bundleUrlSet = new HashSet<URL>();
+				urlByBundleLocation.put(bundle.getLocation(), bundleUrlSet);
+			}
+			bundleUrlSet.addAll(bundleCalendars.keySet());
+			reindex();
+		}
+	}
+
+	private ITradingCalendar loadCalendar(URL url, long sourceTimestamp) throws JAXBException, IOException {
+		if (cache != null) {
+			try {
+				ITradingCalendar calendar = cache.read(url, sourceTimestamp);
+				if (calendar != null) {
+					return calendar;
+				}
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Cannot read cached calendar: " + url, e);
+			}
+		}
+		BeanTradingCalendar calendar = (BeanTradingCalendar) createFactoryFromCalendarData(url).createTradingCalendar();
+		if (cache != null) {
+			try {
+				cache.write(url, sourceTimestamp, calendar);
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Cannot cache calendar: " + url, e);
+			}
+		}
+		return calendar;
+	}
+
+	private void reindex() {
+		index = new CalendarIndex(new ArrayList<ITradingCalendar>(calendars.values()));
 	}
 	
 	private TradingCalendarFactoryBean createFactoryFromCalendarData(URL calendarData) throws JAXBException, IOException {
-		TradingCalendarFactoryBean result = null;
-		JAXBContext context = JAXBContext.newInstance(TradingCalendarFactoryBean.class, WeekTradingDay.class, SpecificTradingDay.class);
-		Unmarshaller m = context.createUnmarshaller();
-		Object o = null;
-		o = m.unmarshal(calendarData.openStream());
-		result = (TradingCalendarFactoryBean) o;
-		return result;
+		// contexts are thread-safe, unmarshallers are not
+		Unmarshaller m = getJaxbContext().createUnmarshaller();
+		InputStream stream = calendarData.openStream();
+		try {
+			return (TradingCalendarFactoryBean) m.unmarshal(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * The context is created on first use, since it is not needed when all the calendars come from the cache
+	 */
+	private static synchronized JAXBContext getJaxbContext() throws JAXBException {
+		if (jaxbContext == null) {
+			jaxbContext = JAXBContext.newInstance(TradingCalendarFactoryBean.class, WeekTradingDay.class, SpecificTradingDay.class);
+		}
+		return jaxbContext;
 	}
 
 	private Enumeration<URL> findCalendarData(Bundle bundle) {
 		return bundle.findEntries("/tradingCalendars", "*.xml", false);
 	}
+
+	/**
+	 * Immutable lookup tables, replaced as a whole when calendars are added or removed
+	 */
+	private static class CalendarIndex {
+		final List<ITradingCalendar> allCalendars;
+		// calendars not bound to any exchange
+		final List<ITradingCalendar> anyExchangeCalendars = new ArrayList<ITradingCalendar>();
+		final Map<String, List<ITradingCalendar>> calendarsByExchange = new HashMap<String, List<ITradingCalendar>>();
+		final Map<String, ITradingCalendar> calendarsByName = new HashMap<String, ITradingCalendar>();
+
+		CalendarIndex(List<ITradingCalendar> allCalendars) {
+			this.allCalendars = allCalendars;
+			for (ITradingCalendar calendar : allCalendars) {
+				String[] exchanges = calendar.getExchanges();
+				if (exchanges == null || exchanges.length == 0) {
+					anyExchangeCalendars.add(calendar);
+				} else {
+					for (String exchange : new HashSet<String>(Arrays.asList(exchanges))) {
+						List<ITradingCalendar> exchangeCalendars = calendarsByExchange.get(exchange);
+						if (exchangeCalendars == null) {
+							exchangeCalendars = new ArrayList<ITradingCalendar>();
+							calendarsByExchange.put(exchange, exchangeCalendars);
+						}
+						exchangeCalendars.add(calendar);
+					}
+				}
+				if (!calendarsByName.containsKey(calendar.getName())) {
+					calendarsByName.put(calendar.getName(), calendar);
+				}
+			}
+		}
+	}
 }